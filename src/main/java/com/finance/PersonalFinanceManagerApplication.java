@@ -1,10 +1,15 @@
 package com.finance;
 
+import com.finance.config.NotificationRetentionProperties;
 import io.github.cdimascio.dotenv.Dotenv;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableConfigurationProperties(NotificationRetentionProperties.class)
 public class PersonalFinanceManagerApplication {
 
     /**
@@ -0,0 +1,58 @@
+package com.finance.config;
+
+import com.finance.controller.CurrentUser;
+import com.finance.domain.User;
+import com.finance.exception.ErrorType;
+import com.finance.service.CurrentUserCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolves {@link CurrentUser} parameters. The resolved user is kept as a request attribute, so several
+ * parameters, or a forward to another handler, share one lookup.
+ */
+@Component
+@RequiredArgsConstructor
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    static final String REQUEST_ATTRIBUTE = CurrentUserArgumentResolver.class.getName() + ".user";
+
+    private final CurrentUserCache currentUserCache;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentUser.class)
+                && (User.class.equals(parameter.getParameterType()) || Long.class.equals(parameter.getParameterType()));
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+            NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (Long.class.equals(parameter.getParameterType())) {
+            return currentUserCache.resolveId(authentication)
+                    .orElseThrow(() -> notFound(authentication));
+        }
+
+        User user = (User) webRequest.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (user == null) {
+            user = currentUserCache.resolve(authentication)
+                    .orElseThrow(() -> notFound(authentication));
+            webRequest.setAttribute(REQUEST_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+
+    private static RuntimeException notFound(Authentication authentication) {
+        return new RuntimeException(ErrorType.AUTH_USER_NOT_FOUND.getMessage()
+                + (authentication != null ? authentication.getName() : ""));
+    }
+}
@@ -0,0 +1,45 @@
+package com.finance.config;
+
+import com.finance.domain.Notification;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Settings of the nightly notification purge, bound from {@code finance.notifications.retention}.
+ */
+@ConfigurationProperties(prefix = "finance.notifications.retention")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Getter @Setter
+public class NotificationRetentionProperties {
+
+    boolean enabled = true;
+
+    // How long read notifications are kept, per type; types not listed use defaultTtl
+    Map<Notification.NotificationType, Duration> ttl = new EnumMap<>(Notification.NotificationType.class);
+
+    Duration defaultTtl = Duration.ofDays(90);
+
+    // Unread notifications are kept at least this long whatever their type
+    Duration unreadTtl = Duration.ofDays(365);
+
+    // Width of the primary-key range deleted per transaction
+    int chunkSize = 1000;
+
+    // Sleep after each chunk that deleted rows, giving replicas and other writers room
+    Duration pause = Duration.ofMillis(100);
+
+    // Count purged read notifications into per-user monthly digest rows before deleting them
+    boolean digest = false;
+
+    public Duration ttlFor(Notification.NotificationType type, boolean read) {
+        Duration typeTtl = ttl.getOrDefault(type, defaultTtl);
+        return read || typeTtl.compareTo(unreadTtl) >= 0 ? typeTtl : unreadTtl;
+    }
+}
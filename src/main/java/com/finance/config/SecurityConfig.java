@@ -48,6 +48,8 @@ public class SecurityConfig {
                 .authorizeHttpRequests(authz -> authz
                         .requestMatchers("/", "/login", "/register", "/user/register", "/css/**", "/js/**", "/images/**", "/h2-console/**", "/test").permitAll()
                         .requestMatchers("/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .requestMatchers("/user/**", "/dashboard", "/transactions/**", "/budgets/**", "/goals/**", "/reports/**", "/notifications/**").hasAnyRole("USER", "ADMIN")
                         .anyRequest().authenticated()
                 )
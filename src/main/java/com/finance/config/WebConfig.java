@@ -1,14 +1,18 @@
 package com.finance.config;
 
+import com.finance.interceptor.ConditionalGetInterceptor;
 import com.finance.interceptor.NotificationInterceptor;
+import com.finance.service.UserDataVersionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.format.FormatterRegistry;
 import org.springframework.format.datetime.standard.DateTimeFormatterRegistrar;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 @Configuration
 @RequiredArgsConstructor
@@ -16,6 +20,10 @@ public class WebConfig implements WebMvcConfigurer {
 
     private final NotificationInterceptor notificationInterceptor;
 
+    private final UserDataVersionService userDataVersionService;
+
+    private final CurrentUserArgumentResolver currentUserArgumentResolver;
+
     @Override
     public void addFormatters(FormatterRegistry registry) {
         DateTimeFormatterRegistrar registrar = new DateTimeFormatterRegistrar();
@@ -23,8 +31,25 @@ public class WebConfig implements WebMvcConfigurer {
         registrar.registerFormatters(registry);
     }
 
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(currentUserArgumentResolver);
+    }
+
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
+        // Conditional GET handling runs first so a 304 short-circuits everything else
+        registry.addInterceptor(new ConditionalGetInterceptor(userDataVersionService,
+                        UserDataVersionService.Scope.FINANCE))
+                .addPathPatterns("/api/financial-summary");
+        // Report pages also render the unread notification badge
+        registry.addInterceptor(new ConditionalGetInterceptor(userDataVersionService,
+                        UserDataVersionService.Scope.FINANCE, UserDataVersionService.Scope.NOTIFICATIONS))
+                .addPathPatterns("/reports", "/reports/**");
+        registry.addInterceptor(new ConditionalGetInterceptor(userDataVersionService,
+                        UserDataVersionService.Scope.NOTIFICATIONS))
+                .addPathPatterns("/notifications/api/unread-count", "/notifications/api/recent");
+
         registry.addInterceptor(notificationInterceptor)
                 .addPathPatterns("/**")
                 .excludePathPatterns(
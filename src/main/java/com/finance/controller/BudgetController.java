@@ -5,7 +5,6 @@ import com.finance.domain.User;
 import com.finance.domain.Category;
 import com.finance.form.BudgetForm;
 import com.finance.service.BudgetService;
-import com.finance.service.UserService;
 import com.finance.service.CategoryService;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -18,7 +17,6 @@ import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 
 import jakarta.validation.Valid;
-import java.security.Principal;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -30,15 +28,10 @@ public class BudgetController {
 
     BudgetService budgetService;
 
-    UserService userService;
-
     CategoryService categoryService;
 
     @GetMapping
-    public String listBudgets(Principal principal, Model model) {
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public String listBudgets(@CurrentUser User user, Model model) {
         List<BudgetService.BudgetProgress> activeBudgets = budgetService.getActiveBudgetProgress(user);
         List<BudgetService.BudgetProgress> expiredBudgets = budgetService.getExpiredBudgetProgress(user);
         List<BudgetService.BudgetProgress> upcomingBudgets = budgetService.getUpcomingBudgetProgress(user);
@@ -53,10 +46,7 @@ public class BudgetController {
     }
 
     @GetMapping("/add")
-    public String showAddBudgetForm(Principal principal, Model model) {
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public String showAddBudgetForm(@CurrentUser User user, Model model) {
         List<Category> categories = categoryService.getExpenseCategories();
 
         model.addAttribute("user", user);
@@ -68,10 +58,7 @@ public class BudgetController {
 
     @PostMapping("/add")
     public String addBudget(@Valid BudgetForm budgetForm, BindingResult result,
-            Principal principal, Model model, RedirectAttributes redirectAttributes) {
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user, Model model, RedirectAttributes redirectAttributes) {
         // Custom date validation
         if (!budgetForm.isValidDateRange()) {
             result.rejectValue("endDate", "error.endDate", "Ngày kết thúc phải sau ngày bắt đầu");
@@ -119,10 +106,7 @@ public class BudgetController {
     }
 
     @GetMapping("/edit/{id}")
-    public String showEditBudgetForm(@PathVariable Long id, Principal principal, Model model) {
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public String showEditBudgetForm(@PathVariable Long id, @CurrentUser User user, Model model) {
         Budget budget = budgetService.findById(id)
                 .orElseThrow(() -> new RuntimeException("Budget not found"));
 
@@ -153,10 +137,7 @@ public class BudgetController {
 
     @PostMapping("/edit/{id}")
     public String updateBudget(@PathVariable Long id, @Valid BudgetForm budgetForm, BindingResult result,
-            Principal principal, Model model, RedirectAttributes redirectAttributes) {
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user, Model model, RedirectAttributes redirectAttributes) {
         Budget budget = budgetService.findById(id)
                 .orElseThrow(() -> new RuntimeException("Budget not found"));
 
@@ -208,10 +189,7 @@ public class BudgetController {
     }
 
     @GetMapping("/delete/{id}")
-    public String deleteBudget(@PathVariable Long id, Principal principal, RedirectAttributes redirectAttributes) {
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public String deleteBudget(@PathVariable Long id, @CurrentUser User user, RedirectAttributes redirectAttributes) {
         Budget budget = budgetService.findById(id)
                 .orElseThrow(() -> new RuntimeException("Budget not found"));
 
@@ -230,10 +208,7 @@ public class BudgetController {
     }
 
     @GetMapping("/view/{id}")
-    public String viewBudget(@PathVariable Long id, Principal principal, Model model) {
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public String viewBudget(@PathVariable Long id, @CurrentUser User user, Model model) {
         Budget budget = budgetService.findById(id)
                 .orElseThrow(() -> new RuntimeException("Budget not found"));
 
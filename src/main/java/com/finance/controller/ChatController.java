@@ -2,7 +2,6 @@ package com.finance.controller;
 
 import com.finance.domain.User;
 import com.finance.service.ChatService;
-import com.finance.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,7 +11,6 @@ import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
-import java.security.Principal;
 import java.util.Map;
 
 @RestController
@@ -23,26 +21,15 @@ public class ChatController {
     private static final Logger logger = LoggerFactory.getLogger(ChatController.class);
 
     private final ChatService chatService;
-    private final UserService userService;
 
-    public ChatController(ChatService chatService, UserService userService) {
+    public ChatController(ChatService chatService) {
         this.chatService = chatService;
-        this.userService = userService;
     }
 
     @PostMapping
-    public ResponseEntity<ChatResponse> processMessage(@Valid @RequestBody ChatRequest request, Principal principal) {
+    public ResponseEntity<ChatResponse> processMessage(@Valid @RequestBody ChatRequest request,
+            @CurrentUser User actualUser) {
         try {
-            // Get the actual authenticated user from Spring Security
-            if (principal == null) {
-                logger.error("No authenticated user found");
-                ChatResponse errorResponse = new ChatResponse("❌ Bạn cần đăng nhập để sử dụng tính năng này.");
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
-            }
-
-            User actualUser = userService.findByUsername(principal.getName())
-                    .orElseThrow(() -> new RuntimeException("User not found: " + principal.getName()));
-
             logger.info("Received chat message from user '{}': {}", actualUser.getUsername(), request.getMessage());
 
             // Process the message through chat service
@@ -0,0 +1,18 @@
+package com.finance.controller;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a handler parameter to the signed-in user, either as a {@link com.finance.domain.User} or as its
+ * {@code Long} id. The user is resolved at most once per request, from
+ * {@link com.finance.service.CurrentUserCache}, and is a detached snapshot that must not be saved.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+}
@@ -1,8 +1,5 @@
 package com.finance.controller;
 
-import com.finance.domain.Transaction;
-
-import com.finance.domain.Goal;
 import com.finance.domain.User;
 import com.finance.service.*;
 import org.springframework.stereotype.Controller;
@@ -15,8 +12,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 
-import java.security.Principal;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.time.LocalDate;
@@ -33,19 +30,17 @@ public class DashboardController {
 
         GoalService goalService;
 
-        UserService userService;
-
         CategoryService categoryService;
 
+        DashboardService dashboardService;
+
+        DashboardSnapshotCache dashboardSnapshotCache;
+
         @GetMapping("/dashboard")
-        public String dashboard(Principal principal, Model model,
+        public String dashboard(@CurrentUser User user, Model model,
                         @RequestParam(required = false, defaultValue = "month") String filter,
                         @RequestParam(required = false) String startDate,
                         @RequestParam(required = false) String endDate) {
-                // Get current user
-                User user = userService.findByUsername(principal.getName())
-                                .orElseThrow(() -> new RuntimeException("User not found"));
-
                 // Determine date range
                 LocalDateTime startDateTime;
                 LocalDateTime endDateTime;
@@ -83,37 +78,23 @@ public class DashboardController {
                                 break;
                 }
 
-                // Transaction Statistics
-                TransactionService.TransactionStatistics stats = transactionService
-                                .getTransactionStatisticsForDateRange(user,
-                                                startDateTime, endDateTime);
-
-                // Recent Transactions (filtered by date range)
-                List<Transaction> recentTransactions = transactionService.findByUserAndDateRange(user, startDateTime,
-                                endDateTime);
-                // Sort by date desc and limit to 5
-                recentTransactions.sort((t1, t2) -> t2.getTransactionDate().compareTo(t1.getTransactionDate()));
-                if (recentTransactions.size() > 5) {
-                        recentTransactions = recentTransactions.subList(0, 5);
-                }
-
-                // Budget Information
-                List<BudgetService.BudgetProgress> activeBudgets = budgetService.getActiveBudgetProgress(user);
-                long totalBudgets = budgetService.getActiveBudgetCount(user);
+                // Widgets are loaded concurrently; any that fail or time out come back empty. The assembled
+                // snapshot is cached until the user's data version changes.
+                LocalDateTime rangeStart = startDateTime;
+                LocalDateTime rangeEnd = endDateTime;
+                DashboardService.DashboardData dashboard = dashboardSnapshotCache.get(user.getId(),
+                                "dashboard:" + filter, rangeStart, rangeEnd,
+                                () -> dashboardService.assemble(user, rangeStart, rangeEnd),
+                                data -> !data.isPartial());
+                TransactionService.TransactionStatistics stats = dashboard.getStats();
+                List<BudgetService.BudgetProgress> activeBudgets = dashboard.getActiveBudgets();
                 long overBudgetCount = activeBudgets.stream()
                                 .mapToLong(b -> b.isOverBudget() ? 1 : 0)
                                 .sum();
 
-                // Goal Information
-                GoalService.GoalSummary goalSummary = goalService.getGoalSummary(user);
-                List<Goal> activeGoals = goalService.findActiveGoalsByUser(user).stream()
-                                .limit(5)
-                                .collect(java.util.stream.Collectors.toList());
-
                 // Category Summary (for the selected date range)
-                List<Object[]> categorySummary = transactionService.getCategoryTransactionSummaryForDateRange(user,
-                                startDateTime, endDateTime);
-                Map<String, Object[]> topCategories = new HashMap<>();
+                List<Object[]> categorySummary = stats.getCategorySummary();
+                Map<String, Object[]> topCategories = new LinkedHashMap<>();
                 categorySummary.stream()
                                 .limit(5)
                                 .forEach(arr -> topCategories.put((String) arr[0], arr));
@@ -121,14 +102,15 @@ public class DashboardController {
                 // Add all data to model
                 model.addAttribute("user", user);
                 model.addAttribute("stats", stats);
-                model.addAttribute("recentTransactions", recentTransactions);
+                model.addAttribute("recentTransactions", dashboard.getRecentTransactions());
                 model.addAttribute("activeBudgets", activeBudgets);
-                model.addAttribute("totalBudgets", totalBudgets);
+                model.addAttribute("totalBudgets", dashboard.getActiveBudgetCount());
                 model.addAttribute("overBudgetCount", overBudgetCount);
-                model.addAttribute("goalSummary", goalSummary);
-                model.addAttribute("activeGoals", activeGoals);
+                model.addAttribute("goalSummary", dashboard.getGoalSummary());
+                model.addAttribute("activeGoals", dashboard.getActiveGoals());
                 model.addAttribute("topCategories", topCategories);
                 model.addAttribute("categorySummary", categorySummary);
+                model.addAttribute("unavailableWidgets", dashboard.getUnavailableWidgets());
 
                 // Add filter info to model
                 model.addAttribute("currentFilter", filter);
@@ -140,10 +122,12 @@ public class DashboardController {
 
         @GetMapping("/api/financial-summary")
         @ResponseBody
-        public Map<String, Object> getFinancialSummary(Principal principal) {
-                User user = userService.findByUsername(principal.getName())
-                                .orElseThrow(() -> new RuntimeException("User not found"));
+        public Map<String, Object> getFinancialSummary(@CurrentUser User user) {
+                return dashboardSnapshotCache.get(user.getId(), "financial-summary", null, null,
+                                () -> buildFinancialSummary(user), summary -> true);
+        }
 
+        private Map<String, Object> buildFinancialSummary(User user) {
                 TransactionService.TransactionStatistics stats = transactionService.getTransactionStatistics(user);
                 BudgetService.BudgetProgress budgetProgress = budgetService.getActiveBudgetProgress(user).stream()
                                 .findFirst()
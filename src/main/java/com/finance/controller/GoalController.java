@@ -1,6 +1,5 @@
 package com.finance.controller;
 
-import java.security.Principal;
 import java.util.List;
 
 import jakarta.validation.Valid;
@@ -11,9 +10,9 @@ import org.springframework.validation.BindingResult;
 
 import com.finance.domain.Goal;
 import com.finance.domain.User;
+import com.finance.dto.GoalRow;
 import com.finance.form.GoalForm;
 import com.finance.service.GoalService;
-import com.finance.service.UserService;
 
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -35,16 +34,12 @@ import java.time.LocalDate;
 public class GoalController {
 
     GoalService goalService;
-    UserService userService;
 
     @GetMapping
-    public String listGoals(Principal principal, Model model) {
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        List<Goal> activeGoals = goalService.findActiveGoalsByUser(user);
-        List<Goal> completedGoals = goalService.findCompletedGoalsByUser(user);
-        List<Goal> overdueGoals = goalService.findOverdueGoalsByUser(user);
+    public String listGoals(@CurrentUser User user, Model model) {
+        List<GoalRow> activeGoals = goalService.findActiveGoalsByUser(user);
+        List<GoalRow> completedGoals = goalService.findCompletedGoalsByUser(user);
+        List<GoalRow> overdueGoals = goalService.findOverdueGoalsByUser(user);
 
         GoalService.GoalSummary goalSummary = goalService.getGoalSummary(user);
 
@@ -58,10 +53,7 @@ public class GoalController {
     }
 
     @GetMapping("/add")
-    public String showAddGoalForm(Principal principal, Model model) {
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public String showAddGoalForm(@CurrentUser User user, Model model) {
         model.addAttribute("user", user);
         model.addAttribute("goalForm", new GoalForm());
 
@@ -70,10 +62,7 @@ public class GoalController {
 
     @PostMapping("/add")
     public String addGoal(@Valid GoalForm goalForm, BindingResult result,
-            Principal principal, Model model, RedirectAttributes redirectAttributes) {
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user, Model model, RedirectAttributes redirectAttributes) {
         if (result.hasErrors()) {
             model.addAttribute("user", user);
             return "goals/add";
@@ -98,10 +87,7 @@ public class GoalController {
     }
 
     @GetMapping("/edit/{id}")
-    public String showEditGoalForm(@PathVariable Long id, Principal principal, Model model) {
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public String showEditGoalForm(@PathVariable Long id, @CurrentUser User user, Model model) {
         Goal goal = goalService.findById(id)
                 .orElseThrow(() -> new RuntimeException("Goal not found"));
 
@@ -125,10 +111,7 @@ public class GoalController {
 
     @PostMapping("/edit/{id}")
     public String updateGoal(@PathVariable Long id, @Valid GoalForm goalForm, BindingResult result,
-            Principal principal, Model model, RedirectAttributes redirectAttributes) {
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user, Model model, RedirectAttributes redirectAttributes) {
         Goal goal = goalService.findById(id)
                 .orElseThrow(() -> new RuntimeException("Goal not found"));
 
@@ -158,10 +141,7 @@ public class GoalController {
     }
 
     @GetMapping("/delete/{id}")
-    public String deleteGoal(@PathVariable Long id, Principal principal, RedirectAttributes redirectAttributes) {
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public String deleteGoal(@PathVariable Long id, @CurrentUser User user, RedirectAttributes redirectAttributes) {
         Goal goal = goalService.findById(id)
                 .orElseThrow(() -> new RuntimeException("Goal not found"));
 
@@ -180,10 +160,7 @@ public class GoalController {
     }
 
     @GetMapping("/complete/{id}")
-    public String completeGoal(@PathVariable Long id, Principal principal, RedirectAttributes redirectAttributes) {
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public String completeGoal(@PathVariable Long id, @CurrentUser User user, RedirectAttributes redirectAttributes) {
         Goal goal = goalService.findById(id)
                 .orElseThrow(() -> new RuntimeException("Goal not found"));
 
@@ -202,10 +179,7 @@ public class GoalController {
     }
 
     @GetMapping("/contribute/{id}")
-    public String showContributeForm(@PathVariable Long id, Principal principal, Model model) {
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public String showContributeForm(@PathVariable Long id, @CurrentUser User user, Model model) {
         Goal goal = goalService.findById(id)
                 .orElseThrow(() -> new RuntimeException("Goal not found"));
 
@@ -225,10 +199,7 @@ public class GoalController {
 
     @PostMapping("/contribute/{id}")
     public String contributeToGoal(@PathVariable Long id, @RequestParam java.math.BigDecimal amount,
-            Principal principal, RedirectAttributes redirectAttributes) {
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user, RedirectAttributes redirectAttributes) {
         Goal goal = goalService.findById(id)
                 .orElseThrow(() -> new RuntimeException("Goal not found"));
 
@@ -248,10 +219,7 @@ public class GoalController {
     }
 
     @GetMapping("/view/{id}")
-    public String viewGoal(@PathVariable Long id, Principal principal, Model model) {
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public String viewGoal(@PathVariable Long id, @CurrentUser User user, Model model) {
         Goal goal = goalService.findById(id)
                 .orElseThrow(() -> new RuntimeException("Goal not found"));
 
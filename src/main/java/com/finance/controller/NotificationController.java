@@ -2,22 +2,25 @@ package com.finance.controller;
 
 import com.finance.domain.Notification;
 import com.finance.domain.User;
+import com.finance.dto.NotificationRow;
+import com.finance.dto.RecentNotification;
 import com.finance.service.NotificationService;
-import com.finance.service.UserService;
+import com.finance.service.NotificationStreamService;
 import lombok.RequiredArgsConstructor;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import jakarta.servlet.http.HttpSession;
-import java.security.Principal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,22 +32,18 @@ import java.util.Map;
 public class NotificationController {
 
     private final NotificationService notificationService;
-    private final UserService userService;
+    private final NotificationStreamService notificationStreamService;
 
     // Web endpoints
     @GetMapping
     public String listNotifications(
-            Principal principal,
+            @CurrentUser User user,
             Model model,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "all") String filter) {
-
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
         Pageable pageable = PageRequest.of(page, size);
-        Page<Notification> notifications;
+        Page<NotificationRow> notifications;
 
         switch (filter.toLowerCase()) {
             case "unread":
@@ -70,12 +69,8 @@ public class NotificationController {
     // Specific path mappings must come before generic path variable mappings
     @PostMapping("/mark-all-read")
     public String markAllAsRead(
-            Principal principal,
+            @CurrentUser User user,
             RedirectAttributes redirectAttributes) {
-
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
         notificationService.markAllAsReadForUser(user);
         redirectAttributes.addFlashAttribute("success", "Tất cả thông báo đã được đánh dấu đã đọc");
 
@@ -84,12 +79,8 @@ public class NotificationController {
 
     @PostMapping("/delete-read")
     public String deleteReadNotifications(
-            Principal principal,
+            @CurrentUser User user,
             RedirectAttributes redirectAttributes) {
-
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
         notificationService.deleteReadNotifications(user);
         redirectAttributes.addFlashAttribute("success", "Tất cả thông báo đã đọc đã được xóa");
 
@@ -99,13 +90,9 @@ public class NotificationController {
     @GetMapping("/{id}")
     public String viewNotification(
             @PathVariable Long id,
-            Principal principal,
+            @CurrentUser User user,
             Model model,
             RedirectAttributes redirectAttributes) {
-
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
         return notificationService.findById(id)
                 .map(notification -> {
                     // Check if notification belongs to current user
@@ -128,23 +115,13 @@ public class NotificationController {
     @PostMapping("/mark-read/{id}")
     public String markAsRead(
             @PathVariable Long id,
-            Principal principal,
+            @CurrentUser Long userId,
             @RequestHeader(value = "X-Requested-With", defaultValue = "") String requestedWith,
             RedirectAttributes redirectAttributes) {
 
         try {
-            // Verify ownership before marking as read
-            notificationService.findById(id)
-                .ifPresent(notification -> {
-                    User currentUser = userService.findByUsername(principal.getName())
-                            .orElseThrow(() -> new RuntimeException("User not found"));
-
-                    if (!notification.getUser().getId().equals(currentUser.getId())) {
-                        throw new RuntimeException("Unauthorized");
-                    }
-
-                    notificationService.markAsRead(id);
-                });
+            // Ownership is part of the UPDATE, so other users' notifications are left untouched
+            notificationService.markAsRead(userId, List.of(id));
 
             if ("XMLHttpRequest".equals(requestedWith)) {
                 return "notifications/fragments/notification-item :: content";
@@ -162,23 +139,13 @@ public class NotificationController {
     @PostMapping("/mark-unread/{id}")
     public String markAsUnread(
             @PathVariable Long id,
-            Principal principal,
+            @CurrentUser Long userId,
             @RequestHeader(value = "X-Requested-With", defaultValue = "") String requestedWith,
             RedirectAttributes redirectAttributes) {
 
         try {
-            // Verify ownership before marking as unread
-            notificationService.findById(id)
-                .ifPresent(notification -> {
-                    User currentUser = userService.findByUsername(principal.getName())
-                            .orElseThrow(() -> new RuntimeException("User not found"));
-
-                    if (!notification.getUser().getId().equals(currentUser.getId())) {
-                        throw new RuntimeException("Unauthorized");
-                    }
-
-                    notificationService.markAsUnread(id);
-                });
+            // Ownership is part of the UPDATE, so other users' notifications are left untouched
+            notificationService.markAsUnread(userId, List.of(id));
 
             if ("XMLHttpRequest".equals(requestedWith)) {
                 return "notifications/fragments/notification-item :: content";
@@ -196,22 +163,12 @@ public class NotificationController {
     @PostMapping("/delete/{id}")
     public String deleteNotification(
             @PathVariable Long id,
-            Principal principal,
+            @CurrentUser Long userId,
             RedirectAttributes redirectAttributes) {
 
         try {
-            // Verify ownership before deleting
-            notificationService.findById(id)
-                .ifPresent(notification -> {
-                    User currentUser = userService.findByUsername(principal.getName())
-                            .orElseThrow(() -> new RuntimeException("User not found"));
-
-                    if (!notification.getUser().getId().equals(currentUser.getId())) {
-                        throw new RuntimeException("Unauthorized");
-                    }
-
-                    notificationService.deleteNotification(id);
-                });
+            // Ownership is part of the DELETE, so other users' notifications are left untouched
+            notificationService.deleteNotifications(userId, List.of(id));
 
             redirectAttributes.addFlashAttribute("success", "Notification deleted successfully");
 
@@ -225,11 +182,8 @@ public class NotificationController {
     // REST API endpoints for AJAX calls
     @GetMapping("/api/unread-count")
     @ResponseBody
-    public Map<String, Object> getUnreadCount(Principal principal) {
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        long unreadCount = notificationService.countUnreadByUser(user);
+    public Map<String, Object> getUnreadCount(@CurrentUser Long userId) {
+        long unreadCount = notificationService.countUnreadByUserId(userId);
 
         Map<String, Object> response = new HashMap<>();
         response.put("count", unreadCount);
@@ -240,53 +194,135 @@ public class NotificationController {
 
     @GetMapping("/api/recent")
     @ResponseBody
-    public List<Map<String, Object>> getRecentNotifications(Principal principal) {
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        List<Notification> notifications = notificationService.findUnreadByUser(user);
+    public List<Map<String, Object>> getRecentNotifications(@CurrentUser Long userId) {
+        List<RecentNotification> notifications =
+                notificationService.findRecentUnreadByUserId(userId, 5);
 
         return notifications.stream()
-                .limit(5)
                 .map(this::convertToMap)
                 .toList();
     }
 
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter streamNotifications(@CurrentUser Long userId) {
+        return notificationStreamService.subscribe(userId);
+    }
+
     @PostMapping("/api/mark-read-batch")
     @ResponseBody
     public Map<String, Object> markMultipleAsRead(
             @RequestBody List<Long> notificationIds,
-            Principal principal) {
+            @CurrentUser Long userId) {
 
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        try {
+            int markedCount = notificationService.markAsRead(userId, notificationIds);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("markedCount", markedCount);
+            response.put("message", "Notifications marked as read");
+
+            return response;
+
+        } catch (Exception e) {
+            return failure(e, "Failed to mark notifications as read");
+        }
+    }
+
+    @PostMapping("/api/mark-unread-batch")
+    @ResponseBody
+    public Map<String, Object> markMultipleAsUnread(
+            @RequestBody List<Long> notificationIds,
+            @CurrentUser Long userId) {
 
         try {
-            // Verify ownership for all notifications
-            List<Long> validIds = notificationService.findByUser(user).stream()
-                    .filter(notification -> notificationIds.contains(notification.getId()))
-                    .map(Notification::getId)
-                    .toList();
+            int markedCount = notificationService.markAsUnread(userId, notificationIds);
 
-            notificationService.markAsRead(validIds);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("markedCount", markedCount);
+            response.put("message", "Notifications marked as unread");
+
+            return response;
+
+        } catch (Exception e) {
+            return failure(e, "Failed to mark notifications as unread");
+        }
+    }
+
+    @PostMapping("/api/delete-batch")
+    @ResponseBody
+    public Map<String, Object> deleteMultiple(
+            @RequestBody List<Long> notificationIds,
+            @CurrentUser Long userId) {
+
+        try {
+            int deletedCount = notificationService.deleteNotifications(userId, notificationIds);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("markedCount", validIds.size());
-            response.put("message", "Notifications marked as read");
+            response.put("deletedCount", deletedCount);
+            response.put("message", "Notifications deleted");
 
             return response;
 
         } catch (Exception e) {
+            return failure(e, "Failed to delete notifications");
+        }
+    }
+
+    @PostMapping("/api/delete-by-type")
+    @ResponseBody
+    public Map<String, Object> deleteByType(
+            @RequestParam String type,
+            @CurrentUser Long userId) {
+
+        try {
+            Notification.NotificationType notificationType;
+            try {
+                notificationType = Notification.NotificationType.valueOf(type.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown notification type: " + type);
+            }
+            int deletedCount = notificationService.deleteNotificationsByType(userId, notificationType);
+
             Map<String, Object> response = new HashMap<>();
-            response.put("success", false);
-            response.put("message", "Failed to mark notifications as read");
+            response.put("success", true);
+            response.put("deletedCount", deletedCount);
+            response.put("message", "Notifications deleted");
 
             return response;
+
+        } catch (Exception e) {
+            return failure(e, "Failed to delete notifications");
         }
     }
 
+    // Invalid input (too many ids, unknown type) is reported as is, anything else generically
+    private Map<String, Object> failure(Exception e, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", e instanceof IllegalArgumentException ? e.getMessage() : message);
+
+        return response;
+    }
+
     // Helper method to convert Notification to Map for JSON response
+    private Map<String, Object> convertToMap(RecentNotification notification) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", notification.id());
+        map.put("title", notification.title());
+        map.put("message", notification.message());
+        map.put("type", notification.type().getValue());
+        map.put("isRead", false);
+        map.put("createdAt", notification.createdAt());
+        map.put("readAt", null);
+        map.put("actionUrl", notification.actionUrl());
+        map.put("occurrences", notification.occurrences());
+        return map;
+    }
+
     private Map<String, Object> convertToMap(Notification notification) {
         Map<String, Object> map = new HashMap<>();
         map.put("id", notification.getId());
@@ -297,6 +333,7 @@ public class NotificationController {
         map.put("createdAt", notification.getCreatedAt());
         map.put("readAt", notification.getReadAt());
         map.put("actionUrl", notification.getActionUrl());
+        map.put("occurrences", notification.getOccurrences());
         return map;
     }
 }
@@ -2,7 +2,6 @@ package com.finance.controller;
 
 import com.finance.domain.User;
 import com.finance.service.TransactionService;
-import com.finance.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
@@ -13,7 +12,6 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
-import java.security.Principal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -31,13 +29,9 @@ import java.math.BigDecimal;
 public class ReportController {
 
     TransactionService transactionService;
-    UserService userService;
 
     @GetMapping
-    public String getReports(Principal principal, Model model) {
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public String getReports(@CurrentUser User user, Model model) {
         LocalDate today = LocalDate.now();
         LocalDate startDate = today.with(TemporalAdjusters.firstDayOfMonth());
         LocalDate endDate = today.with(TemporalAdjusters.lastDayOfMonth());
@@ -48,10 +42,7 @@ public class ReportController {
     @PostMapping("/generate")
     public String generateReport(@RequestParam("startDate") String startDateStr,
             @RequestParam("endDate") String endDateStr,
-            Principal principal, Model model) {
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @CurrentUser User user, Model model) {
         LocalDate startDate = LocalDate.parse(startDateStr);
         LocalDate endDate = LocalDate.parse(endDateStr);
 
@@ -64,10 +55,8 @@ public class ReportController {
 
         TransactionService.TransactionStatistics stats = transactionService.getTransactionStatisticsForDateRange(user,
                 startDateTime, endDateTime);
-        List<Object[]> expenseCategorySummary = transactionService.getExpenseCategorySummaryForDateRange(user,
-                startDateTime, endDateTime);
-        List<Object[]> incomeCategorySummary = transactionService.getIncomeCategorySummaryForDateRange(user,
-                startDateTime, endDateTime);
+        List<Object[]> expenseCategorySummary = stats.getExpenseCategorySummary();
+        List<Object[]> incomeCategorySummary = stats.getIncomeCategorySummary();
 
         Map<String, Object> summary = new HashMap<>();
         summary.put("totalIncome", stats.getTotalIncome());
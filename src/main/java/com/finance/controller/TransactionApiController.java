@@ -0,0 +1,66 @@
+package com.finance.controller;
+
+import com.finance.domain.User;
+import com.finance.dto.TransactionRow;
+import com.finance.service.TransactionService;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/transactions")
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TransactionApiController {
+
+    TransactionService transactionService;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> listTransactions(@CurrentUser User user,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        TransactionService.TransactionSlice slice;
+        try {
+            slice = transactionService.findSliceByUser(user, cursor, size);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("items", slice.getContent().stream().map(this::convertToMap).toList());
+        response.put("nextCursor", slice.getNextCursor());
+        response.put("previousCursor", slice.getPreviousCursor());
+        response.put("hasNext", slice.hasNext());
+        response.put("hasPrevious", slice.hasPrevious());
+        if (includeTotal) {
+            response.put("totalCount", transactionService.getTransactionStatistics(user).getTotalCount());
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    private Map<String, Object> convertToMap(TransactionRow transaction) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", transaction.id());
+        map.put("description", transaction.description());
+        map.put("amount", transaction.amount());
+        map.put("type", transaction.type().name());
+        map.put("transactionDate", transaction.transactionDate());
+        map.put("notes", transaction.notes());
+        map.put("categoryName", transaction.category().name());
+        map.put("categoryColor", transaction.category().color());
+        return map;
+    }
+}
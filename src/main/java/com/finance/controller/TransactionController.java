@@ -3,15 +3,27 @@ package com.finance.controller;
 import com.finance.domain.Transaction;
 import com.finance.domain.Category;
 import com.finance.domain.User;
+import com.finance.dto.TransactionFilter;
+import com.finance.dto.TransactionRow;
+import com.finance.dto.TransactionSort;
+import com.finance.form.TransactionFilterForm;
 import com.finance.form.TransactionForm;
 import com.finance.service.TransactionService;
 import com.finance.service.CategoryService;
-import com.finance.service.UserService;
-import org.springframework.format.annotation.DateTimeFormat;
+import com.finance.service.TransactionExportService;
+import com.finance.service.TransactionImportService;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import lombok.RequiredArgsConstructor;
@@ -19,13 +31,15 @@ import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 
 import jakarta.validation.Valid;
-import java.security.Principal;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
-
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import java.util.zip.GZIPOutputStream;
 
 @Controller
 @RequestMapping("/transactions")
@@ -37,28 +51,34 @@ public class TransactionController {
 
     CategoryService categoryService;
 
-    UserService userService;
+    TransactionImportService transactionImportService;
+
+    TransactionExportService transactionExportService;
 
     @GetMapping
-    public String listTransactions(Principal principal, Model model,
-            @RequestParam(defaultValue = "0") int page,
+    public String listTransactions(@CurrentUser User user, Model model,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "10") int size) {
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Transaction> transactionPage = transactionService.findPaginatedByUser(user, pageable);
+        TransactionService.TransactionSlice slice;
+        try {
+            slice = transactionService.findSliceByUser(user, cursor, size);
+        } catch (IllegalArgumentException e) {
+            // Stale or tampered cursor: start again from the newest transactions
+            slice = transactionService.findSliceByUser(user, null, size);
+        }
         TransactionService.TransactionStatistics stats = transactionService.getTransactionStatistics(user);
 
-        model.addAttribute("transactions", transactionPage.getContent());
-        model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", transactionPage.getTotalPages());
-        model.addAttribute("totalItems", transactionPage.getTotalElements());
+        model.addAttribute("transactions", slice.getContent());
+        model.addAttribute("nextCursor", slice.getNextCursor());
+        model.addAttribute("previousCursor", slice.getPreviousCursor());
+        // The statistics already carry the exact count from the rollup, so no COUNT(*) per page
+        model.addAttribute("totalItems", stats.getTotalCount());
         model.addAttribute("size", size);
         model.addAttribute("stats", stats);
         model.addAttribute("user", user);
 
         // Add categories for filter dropdowns
+        model.addAttribute("filter", new TransactionFilterForm());
         model.addAttribute("incomeCategories", categoryService.getIncomeCategories());
         model.addAttribute("expenseCategories", categoryService.getExpenseCategories());
 
@@ -66,10 +86,7 @@ public class TransactionController {
     }
 
     @GetMapping("/add")
-    public String showAddTransactionForm(Model model, Principal principal) {
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public String showAddTransactionForm(Model model, @CurrentUser User user) {
         List<Category> incomeCategories = categoryService.getIncomeCategories();
         List<Category> expenseCategories = categoryService.getExpenseCategories();
 
@@ -83,7 +100,7 @@ public class TransactionController {
 
     @PostMapping("/add")
     public String addTransaction(@Valid @ModelAttribute("transactionForm") TransactionForm form,
-            BindingResult bindingResult, Principal principal,
+            BindingResult bindingResult, @CurrentUser User user,
             RedirectAttributes redirectAttributes, Model model) {
 
         System.out.println("=== Transaction Form Submission ===");
@@ -96,9 +113,6 @@ public class TransactionController {
 
         if (bindingResult.hasErrors()) {
             // Re-populate the model with categories when there are validation errors
-            User user = userService.findByUsername(principal.getName())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
             List<Category> incomeCategories = categoryService.getIncomeCategories();
             List<Category> expenseCategories = categoryService.getExpenseCategories();
 
@@ -110,9 +124,6 @@ public class TransactionController {
         }
 
         try {
-            User user = userService.findByUsername(principal.getName())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
             Category category = categoryService.findById(form.getCategoryId())
                     .orElseThrow(() -> new RuntimeException("Category not found"));
 
@@ -133,9 +144,6 @@ public class TransactionController {
             bindingResult.reject("transactionError", "Lỗi thêm giao dịch: " + e.getMessage());
 
             // Re-populate the model with categories when there's an exception
-            User user = userService.findByUsername(principal.getName())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
             List<Category> incomeCategories = categoryService.getIncomeCategories();
             List<Category> expenseCategories = categoryService.getExpenseCategories();
 
@@ -147,11 +155,76 @@ public class TransactionController {
         }
     }
 
-    @GetMapping("/edit/{id}")
-    public String showEditTransactionForm(@PathVariable Long id, Principal principal, Model model) {
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    @GetMapping("/import")
+    public String showImportForm(Model model, @CurrentUser User user) {
+        model.addAttribute("incomeCategories", categoryService.getIncomeCategories());
+        model.addAttribute("expenseCategories", categoryService.getExpenseCategories());
+        model.addAttribute("user", user);
+        return "transaction/import";
+    }
+
+    @PostMapping("/import")
+    public String importTransactions(@RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) Long defaultCategoryId,
+            @RequestParam(required = false) String amountFormat,
+            @CurrentUser User user, Model model) {
+        model.addAttribute("incomeCategories", categoryService.getIncomeCategories());
+        model.addAttribute("expenseCategories", categoryService.getExpenseCategories());
+        model.addAttribute("user", user);
+
+        if (file.isEmpty()) {
+            model.addAttribute("error", "Vui lòng chọn tệp CSV để nhập");
+            return "transaction/import";
+        }
+
+        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            model.addAttribute("report", transactionImportService.importCsv(user, reader, defaultCategoryId,
+                    TransactionImportService.AmountFormat.fromParameter(amountFormat)));
+        } catch (IllegalArgumentException | IOException e) {
+            model.addAttribute("error", "Lỗi nhập giao dịch: " + e.getMessage());
+        }
+        return "transaction/import";
+    }
 
+    /**
+     * Downloads the user's transactions matching the list filters. Rows are streamed from the database to the
+     * response as they are read, optionally gzipped, so the size of the history does not matter.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @ModelAttribute("filter") TransactionFilterForm filterForm,
+            @CurrentUser User user) {
+        TransactionExportService.Format exportFormat;
+        try {
+            exportFormat = TransactionExportService.Format.fromParameter(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        TransactionFilter filter = filterForm.toFilter();
+
+        String filename = "transactions-" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE) + "."
+                + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        StreamingResponseBody body = output -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(output, 8192);
+                transactionExportService.export(user, filter, exportFormat, compressed);
+                compressed.finish();
+            } else {
+                transactionExportService.export(user, filter, exportFormat, output);
+            }
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip")
+                        : MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .body(body);
+    }
+
+    @GetMapping("/edit/{id}")
+    public String showEditTransactionForm(@PathVariable Long id, @CurrentUser User user, Model model) {
         Transaction transaction = transactionService.findById(id);
 
         // Verify ownership
@@ -174,7 +247,7 @@ public class TransactionController {
     @PostMapping("/edit/{id}")
     public String updateTransaction(@PathVariable Long id,
             @Valid @ModelAttribute("transactionForm") TransactionForm form,
-            BindingResult bindingResult, Principal principal,
+            BindingResult bindingResult, @CurrentUser User user,
             RedirectAttributes redirectAttributes) {
 
         if (bindingResult.hasErrors()) {
@@ -182,9 +255,6 @@ public class TransactionController {
         }
 
         try {
-            User user = userService.findByUsername(principal.getName())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
             Transaction existingTransaction = transactionService.findById(id);
 
             // Verify ownership
@@ -195,19 +265,20 @@ public class TransactionController {
             Category category = categoryService.findById(form.getCategoryId())
                     .orElseThrow(() -> new RuntimeException("Category not found"));
 
-            // Update transaction details
-            existingTransaction.setDescription(form.getDescription());
-            existingTransaction.setAmount(form.getAmount());
-            existingTransaction.setType(form.getType());
-            existingTransaction.setCategory(category);
-            existingTransaction.setTransactionDate(form.getTransactionDate() != null ? form.getTransactionDate()
+            // Update transaction details; the service needs the previous values to adjust the monthly rollup
+            Transaction transactionDetails = new Transaction();
+            transactionDetails.setDescription(form.getDescription());
+            transactionDetails.setAmount(form.getAmount());
+            transactionDetails.setType(form.getType());
+            transactionDetails.setCategory(category);
+            transactionDetails.setTransactionDate(form.getTransactionDate() != null ? form.getTransactionDate()
                     : existingTransaction.getTransactionDate());
-            existingTransaction.setNotes(form.getNotes());
+            transactionDetails.setNotes(form.getNotes());
 
-            transactionService.save(existingTransaction);
+            Transaction updatedTransaction = transactionService.updateTransaction(id, transactionDetails);
 
             redirectAttributes.addFlashAttribute("successMessage",
-                    "Giao dịch được cập nhật thành công: " + existingTransaction.getDescription());
+                    "Giao dịch được cập nhật thành công: " + updatedTransaction.getDescription());
             return "redirect:/transactions";
 
         } catch (Exception e) {
@@ -217,12 +288,9 @@ public class TransactionController {
     }
 
     @GetMapping("/delete/{id}")
-    public String deleteTransaction(@PathVariable Long id, Principal principal,
+    public String deleteTransaction(@PathVariable Long id, @CurrentUser User user,
             RedirectAttributes redirectAttributes) {
         try {
-            User user = userService.findByUsername(principal.getName())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
             Transaction transaction = transactionService.findById(id);
 
             // Verify ownership
@@ -245,61 +313,43 @@ public class TransactionController {
     }
 
     @GetMapping("/search")
-    public String searchTransactions(@RequestParam String keyword, Principal principal, Model model) {
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        List<Transaction> transactions = transactionService.searchTransactions(user, keyword);
+    public String searchTransactions(@RequestParam String keyword, @CurrentUser User user, Model model,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        Slice<TransactionRow> results = transactionService.searchTransactions(user, keyword,
+                PageRequest.of(Math.max(page, 0), Math.max(size, 1)));
 
-        model.addAttribute("transactions", transactions);
+        model.addAttribute("transactions", results.getContent());
         model.addAttribute("searchKeyword", keyword);
+        model.addAttribute("searchPage", results.getNumber());
+        model.addAttribute("searchHasNext", results.hasNext());
+        model.addAttribute("size", results.getSize());
         model.addAttribute("user", user);
         model.addAttribute("searchPerformed", true);
+        model.addAttribute("filter", new TransactionFilterForm());
+        model.addAttribute("incomeCategories", categoryService.getIncomeCategories());
+        model.addAttribute("expenseCategories", categoryService.getExpenseCategories());
 
         return "transaction/list";
     }
 
     @GetMapping("/filter")
-    public String filterTransactions(
-            @RequestParam(required = false) Transaction.TransactionType type,
-            @RequestParam(required = false) Long categoryId,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDateTime startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDateTime endDate,
-            Principal principal, Model model) {
-
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        List<Transaction> transactions;
-
-        if (type != null && categoryId != null && startDate != null && endDate != null) {
-            Category category = categoryService.findById(categoryId).orElse(null);
-            transactions = transactionService.findByUserAndTypeAndDateRange(user, type, startDate, endDate)
-                    .stream()
-                    .filter(t -> category == null || category.equals(t.getCategory()))
-                    .collect(java.util.stream.Collectors.toList());
-        } else if (type != null) {
-            transactions = transactionService.findByUserAndType(user, type);
-        } else if (categoryId != null) {
-            Category category = categoryService.findById(categoryId).orElse(null);
-            if (category != null) {
-                transactions = transactionService.findByUserAndCategory(user, category);
-            } else {
-                transactions = transactionService.findByUserOrderByDateDesc(user);
-            }
-        } else if (startDate != null && endDate != null) {
-            transactions = transactionService.findByUserAndDateRange(user, startDate, endDate);
-        } else {
-            transactions = transactionService.findByUserOrderByDateDesc(user);
-        }
+    public String filterTransactions(@ModelAttribute("filter") TransactionFilterForm filterForm,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @CurrentUser User user, Model model) {
+        TransactionSort transactionSort = TransactionSort.fromParameter(sort);
+        Slice<TransactionRow> results = transactionService.filterTransactions(user, filterForm.toFilter(),
+                transactionSort, page, size);
 
-        model.addAttribute("transactions", transactions);
+        model.addAttribute("transactions", results.getContent());
         model.addAttribute("user", user);
         model.addAttribute("filterApplied", true);
-        model.addAttribute("selectedType", type);
-        model.addAttribute("selectedCategoryId", categoryId);
-        model.addAttribute("startDate", startDate);
-        model.addAttribute("endDate", endDate);
+        model.addAttribute("sort", transactionSort.name());
+        model.addAttribute("filterPage", results.getNumber());
+        model.addAttribute("filterHasNext", results.hasNext());
+        model.addAttribute("size", results.getSize());
         model.addAttribute("incomeCategories", categoryService.getIncomeCategories());
         model.addAttribute("expenseCategories", categoryService.getExpenseCategories());
 
@@ -1,7 +1,6 @@
 package com.finance.controller;
 
 import com.finance.domain.User;
-import com.finance.exception.ErrorType;
 import com.finance.form.PasswordChangeForm;
 import com.finance.form.UpdateProfileForm;
 import com.finance.form.UserRegistrationForm;
@@ -69,8 +68,7 @@ public class UserController {
     }
 
     @GetMapping("/profile")
-    public String showProfile(Principal principal, Model model) {
-        User user = getAuthenticatedUser(principal);
+    public String showProfile(@CurrentUser User user, Model model) {
         model.addAttribute("user", user);
         return "user/profile";
     }
@@ -78,8 +76,7 @@ public class UserController {
     // Chỉnh sửa Profile
 
     @GetMapping("/edit")
-    public String showEditProfile(Principal principal, Model model) {
-        User user = getAuthenticatedUser(principal);
+    public String showEditProfile(@CurrentUser User user, Model model) {
         UpdateProfileForm form = new UpdateProfileForm();
         form.setUsername(user.getUsername());
         form.setEmail(user.getEmail());
@@ -90,8 +87,7 @@ public class UserController {
 
     @PostMapping("/update")
     public String updateProfile(@Valid @ModelAttribute("profileForm") UpdateProfileForm form,
-            BindingResult bindingResult, Principal principal, RedirectAttributes redirectAttributes) {
-        User currentUser = getAuthenticatedUser(principal);
+            BindingResult bindingResult, @CurrentUser User currentUser, RedirectAttributes redirectAttributes) {
         if (userService.existsByUsername(form.getUsername()) && !currentUser.getUsername().equals(form.getUsername())) {
             bindingResult.rejectValue("username", "error.user", "Tên người dùng đã được sử dụng!");
         }
@@ -123,7 +119,7 @@ public class UserController {
 
     @PostMapping("/change-password")
     public String changePassword(@Valid @ModelAttribute("passwordForm") PasswordChangeForm form,
-            BindingResult bindingResult, Principal principal,
+            BindingResult bindingResult, @CurrentUser Long userId,
             RedirectAttributes redirectAttributes) {
         if (!form.isPasswordMatching()) {
             bindingResult.rejectValue("confirmNewPassword", "error.passwordForm",
@@ -133,17 +129,9 @@ public class UserController {
             return "user/change-password";
         }
 
-        User user = getAuthenticatedUser(principal);
-        userService.changePassword((long) user.getId(), form.getCurrentPassword(), form.getNewPassword());
+        userService.changePassword(userId, form.getCurrentPassword(), form.getNewPassword());
         redirectAttributes.addFlashAttribute("successMessage",
                 "Đổi mật khẩu thành công!");
         return "redirect:/user/change-password";
     }
-
-    // lấy ErrorType
-    private User getAuthenticatedUser(Principal principal) {
-        return userService.findByUsername(principal.getName())
-                .orElseThrow(
-                        () -> new RuntimeException(ErrorType.AUTH_USER_NOT_FOUND.getMessage() + principal.getName()));
-    }
 }
@@ -19,6 +19,8 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "budgets")
+// Fetch plan for budget pages; the category is optional, so the graph becomes a left join
+@NamedEntityGraph(name = "Budget.category", attributeNodes = @NamedAttributeNode("category"))
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Getter @Setter
 @NoArgsConstructor
@@ -64,6 +66,11 @@ public class Budget {
     @Column(name = "last_notification_percentage")
     Integer lastNotificationPercentage;
 
+    // Running total of matching expenses. Only ever changed by the bulk updates in BudgetRepository so that saving
+    // a loaded budget can never overwrite a concurrent increment.
+    @Column(name = "spent", nullable = false, precision = 19, scale = 2, updatable = false)
+    BigDecimal spent = BigDecimal.ZERO;
+
     @PrePersist
     protected void onCreate() {
         if (this.createdAt == null) {
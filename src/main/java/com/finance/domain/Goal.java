@@ -108,6 +108,14 @@ public class Goal {
         return java.time.temporal.ChronoUnit.DAYS.between(today, targetDate);
     }
 
+    // Counts the creation day, so it is never zero (the goal page divides the saved amount by it)
+    public long getDaysElapsed() {
+        if (createdAt == null) {
+            return 1;
+        }
+        return Math.max(1, java.time.temporal.ChronoUnit.DAYS.between(createdAt.toLocalDate(), LocalDate.now()));
+    }
+
     public boolean isOverdue() {
         return LocalDate.now().isAfter(targetDate) && !isCompleted();
     }
@@ -50,6 +50,10 @@ public class Notification {
 
     private LocalDateTime readAt;
 
+    // How many similar notifications were merged into this one, see NotificationCoalescer
+    @Column(nullable = false)
+    private int occurrences = 1;
+
     // Constructor for simple notifications
     public Notification(User user, String message) {
         this(user, message, NotificationType.GENERAL, null, null);
@@ -0,0 +1,54 @@
+package com.finance.domain;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+
+import jakarta.persistence.*;
+
+/**
+ * Number of a user's read notifications of one type and calendar month that were removed by the retention job.
+ * Maintained by {@link com.finance.service.NotificationRetentionService} when digests are enabled.
+ */
+@Entity
+@Table(name = "notification_digests", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_notification_digest_bucket", columnNames = { "user_id", "type", "period" })
+})
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Getter @Setter
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString(exclude = {"user"})
+public class NotificationDigest {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false)
+    Notification.NotificationType type;
+
+    // Calendar month encoded as yyyyMM, e.g. 202410
+    @Column(name = "period", nullable = false)
+    int period;
+
+    @Column(name = "notification_count", nullable = false)
+    long notificationCount;
+
+    public NotificationDigest(User user, Notification.NotificationType type, int period, long notificationCount) {
+        this.user = user;
+        this.type = type;
+        this.period = period;
+        this.notificationCount = notificationCount;
+    }
+}
@@ -0,0 +1,68 @@
+package com.finance.domain;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A notification that has been requested but not yet written. Rows are inserted in the requesting transaction and
+ * turned into {@link Notification}s in batches by {@link com.finance.service.NotificationOutboxService}, which
+ * deletes them in the same transaction; rows left behind by a crash are replayed.
+ */
+@Entity
+@Table(name = "notification_outbox", indexes = {
+        @Index(name = "idx_notification_outbox_created_at", columnList = "created_at")
+})
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Getter @Setter
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString(exclude = {"user"})
+public class NotificationOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    User user;
+
+    @Column(nullable = false, length = 500)
+    String message;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    Notification.NotificationType type;
+
+    @Column(length = 200)
+    String title;
+
+    @Column(length = 500)
+    String actionUrl;
+
+    @Column(nullable = false)
+    int occurrences = 1;
+
+    // Becomes the notification's createdAt, so delivery delay does not reorder the inbox
+    @Column(nullable = false, updatable = false)
+    LocalDateTime createdAt;
+
+    public NotificationOutbox(User user, String message, Notification.NotificationType type, String title,
+            String actionUrl) {
+        this.user = user;
+        this.message = message;
+        this.type = type;
+        this.title = title;
+        this.actionUrl = actionUrl;
+        this.createdAt = LocalDateTime.now();
+    }
+}
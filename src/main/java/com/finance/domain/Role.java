@@ -3,8 +3,12 @@ package com.finance.domain;
 import lombok.*;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 @Entity
 @Table(name  = "role")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "roles")
 @Data
 @AllArgsConstructor
 @Getter @Setter
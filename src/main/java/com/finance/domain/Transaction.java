@@ -19,11 +19,17 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "transactions", indexes = {
         @Index(name = "idx_transaction_user", columnList = "user_id"),
+        @Index(name = "idx_transaction_user_date_id", columnList = "user_id, transaction_date, id"),
+        // Filtered list: equality on type or category after the user, still ordered by date within it
+        @Index(name = "idx_transaction_user_type_date", columnList = "user_id, type, transaction_date, id"),
+        @Index(name = "idx_transaction_user_category_date", columnList = "user_id, category_id, transaction_date, id"),
         @Index(name = "idx_transaction_category", columnList = "category_id"),
         @Index(name = "idx_transaction_date", columnList = "transaction_date"),
         @Index(name = "idx_transaction_type", columnList = "type"),
         @Index(name = "idx_transaction_created_at", columnList = "created_at")
 })
+// Fetch plan for every page that shows the category next to a transaction
+@NamedEntityGraph(name = "Transaction.category", attributeNodes = @NamedAttributeNode("category"))
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Getter @Setter
 @NoArgsConstructor
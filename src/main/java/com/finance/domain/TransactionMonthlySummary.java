@@ -0,0 +1,70 @@
+package com.finance.domain;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+/**
+ * Pre-aggregated totals of a user's transactions for one category, type and calendar month.
+ * Maintained incrementally by {@link com.finance.service.TransactionRollupService}.
+ */
+@Entity
+@Table(name = "transaction_monthly_summaries", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_transaction_summary_bucket",
+                columnNames = { "user_id", "category_id", "type", "period" })
+}, indexes = {
+        @Index(name = "idx_transaction_summary_user_period", columnList = "user_id, period")
+})
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Getter @Setter
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString(exclude = {"user", "category"})
+public class TransactionMonthlySummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id", nullable = false)
+    Category category;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 10)
+    Transaction.TransactionType type;
+
+    // Calendar month encoded as yyyyMM, e.g. 202410
+    @Column(name = "period", nullable = false)
+    int period;
+
+    @Column(name = "total_amount", nullable = false, precision = 19, scale = 2)
+    BigDecimal totalAmount = BigDecimal.ZERO;
+
+    @Column(name = "transaction_count", nullable = false)
+    long transactionCount;
+
+    public TransactionMonthlySummary(User user, Category category, Transaction.TransactionType type, int period) {
+        this.user = user;
+        this.category = category;
+        this.type = type;
+        this.period = period;
+    }
+
+    public static int periodOf(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+}
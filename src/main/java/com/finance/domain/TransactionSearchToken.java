@@ -0,0 +1,51 @@
+package com.finance.domain;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+
+import jakarta.persistence.*;
+
+/**
+ * One folded token of a transaction's description or notes: the inverted index behind transaction search.
+ * Maintained incrementally by {@link com.finance.service.TransactionSearchService} and rebuildable from the
+ * transactions table, so it holds plain ids rather than associations.
+ */
+@Entity
+@Table(name = "transaction_search_tokens", indexes = {
+        // Covers the search query: equality on user and token, range on token prefixes, weight read from the index
+        @Index(name = "idx_search_token_user_token", columnList = "user_id, token, transaction_id, weight"),
+        @Index(name = "idx_search_token_transaction", columnList = "transaction_id")
+})
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Getter @Setter
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString
+public class TransactionSearchToken {
+
+    // Token found in the description; one found only in the notes weighs NOTES_WEIGHT
+    public static final int DESCRIPTION_WEIGHT = 2;
+    public static final int NOTES_WEIGHT = 1;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    Long id;
+
+    @Column(name = "user_id", nullable = false)
+    Long userId;
+
+    @Column(name = "transaction_id", nullable = false)
+    Long transactionId;
+
+    @Column(name = "token", nullable = false, length = 40)
+    String token;
+
+    @Column(name = "weight", nullable = false)
+    int weight;
+}
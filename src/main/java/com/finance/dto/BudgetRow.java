@@ -0,0 +1,39 @@
+package com.finance.dto;
+
+import com.finance.domain.Budget;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Read-only budget row for lists and the financial summary, selected by
+ * {@link com.finance.repository.BudgetRepository} with the stored spent counter and an optional category.
+ */
+public record BudgetRow(Long id, String name, BigDecimal amount, BigDecimal spent, LocalDate startDate,
+                        LocalDate endDate, CategoryRef category) {
+
+    public BudgetRow(Long id, String name, BigDecimal amount, BigDecimal spent, LocalDate startDate,
+                     LocalDate endDate, Long categoryId, String categoryName, String categoryColor) {
+        this(id, name, amount, spent, startDate, endDate, CategoryRef.of(categoryId, categoryName, categoryColor));
+    }
+
+    // For code paths that already hold the entity, e.g. the detail page and threshold alerts
+    public static BudgetRow of(Budget budget) {
+        return new BudgetRow(budget.getId(), budget.getName(), budget.getAmount(), budget.getSpent(),
+                budget.getStartDate(), budget.getEndDate(), CategoryRef.of(budget.getCategory()));
+    }
+
+    public boolean isActive() {
+        LocalDate today = LocalDate.now();
+        return !today.isBefore(startDate) && !today.isAfter(endDate);
+    }
+
+    public long daysRemaining() {
+        LocalDate today = LocalDate.now();
+        if (endDate == null || today.isAfter(endDate)) {
+            return 0;
+        }
+        return ChronoUnit.DAYS.between(today, endDate);
+    }
+}
@@ -0,0 +1,18 @@
+package com.finance.dto;
+
+import com.finance.domain.Category;
+
+/**
+ * The category columns a list row shows, so rows can keep the {@code category.name} paths the templates use.
+ */
+public record CategoryRef(Long id, String name, String color) {
+
+    // Null for a row without a category, e.g. from a LEFT JOIN
+    static CategoryRef of(Long id, String name, String color) {
+        return id != null ? new CategoryRef(id, name, color) : null;
+    }
+
+    public static CategoryRef of(Category category) {
+        return category != null ? new CategoryRef(category.getId(), category.getName(), category.getColor()) : null;
+    }
+}
@@ -0,0 +1,46 @@
+package com.finance.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Read-only goal row for the goal lists, the dashboard and the goal summary, selected by
+ * {@link com.finance.repository.GoalRepository}. The getters mirror the computed ones on
+ * {@link com.finance.domain.Goal} so the templates read either.
+ */
+public record GoalRow(Long id, String name, String description, BigDecimal targetAmount, BigDecimal currentAmount,
+                      LocalDate targetDate, LocalDateTime completedAt) {
+
+    public BigDecimal getRemainingAmount() {
+        return targetAmount.subtract(currentAmount);
+    }
+
+    public double getProgressPercentage() {
+        if (targetAmount.compareTo(BigDecimal.ZERO) == 0) {
+            return 0.0;
+        }
+        return currentAmount.doubleValue() / targetAmount.doubleValue() * 100;
+    }
+
+    public boolean isCompleted() {
+        return currentAmount.compareTo(targetAmount) >= 0;
+    }
+
+    public long getDaysRemaining() {
+        LocalDate today = LocalDate.now();
+        if (targetDate == null || today.isAfter(targetDate)) {
+            return 0;
+        }
+        return ChronoUnit.DAYS.between(today, targetDate);
+    }
+
+    public boolean isOverdue() {
+        return LocalDate.now().isAfter(targetDate) && !isCompleted();
+    }
+
+    public long getDaysOverdue() {
+        return isOverdue() ? ChronoUnit.DAYS.between(targetDate, LocalDate.now()) : 0;
+    }
+}
@@ -0,0 +1,14 @@
+package com.finance.dto;
+
+import com.finance.domain.Notification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only notification row for the paged notification list, selected by
+ * {@link com.finance.repository.NotificationRepository} without touching the user association.
+ */
+public record NotificationRow(Long id, String title, String message, Notification.NotificationType type,
+                              boolean isRead, LocalDateTime createdAt, LocalDateTime readAt, String actionUrl,
+                              int occurrences) {
+}
@@ -0,0 +1,25 @@
+package com.finance.dto;
+
+import com.finance.domain.Notification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Detached copy of an unread notification as shown in the dropdown and pushed to open streams. Selected by
+ * {@link com.finance.repository.NotificationRepository} and kept in
+ * {@link com.finance.service.NotificationInboxCache}; being unread, it carries no read state.
+ */
+public record RecentNotification(Long id, String title, String message, Notification.NotificationType type,
+                                 LocalDateTime createdAt, String actionUrl, int occurrences) {
+
+    public static RecentNotification of(Notification notification) {
+        return new RecentNotification(notification.getId(), notification.getTitle(), notification.getMessage(),
+                notification.getType(), notification.getCreatedAt(), notification.getActionUrl(),
+                notification.getOccurrences());
+    }
+
+    // The same notification after one more merged repeat
+    public RecentNotification withRepeat() {
+        return new RecentNotification(id, title, message, type, createdAt, actionUrl, occurrences + 1);
+    }
+}
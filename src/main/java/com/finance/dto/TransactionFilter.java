@@ -0,0 +1,26 @@
+package com.finance.dto;
+
+import com.finance.domain.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The transaction list filters, shared by the filtered views and the export. A {@code null} field or an empty
+ * category list does not filter; the bounds of both ranges are inclusive and the keyword matches like the search box.
+ */
+public record TransactionFilter(Transaction.TransactionType type, List<Long> categoryIds, LocalDateTime startDate,
+                                LocalDateTime endDate, BigDecimal minAmount, BigDecimal maxAmount, String keyword) {
+
+    public TransactionFilter {
+        categoryIds = categoryIds == null ? List.of()
+                : categoryIds.stream().filter(Objects::nonNull).distinct().toList();
+        keyword = keyword == null || keyword.isBlank() ? null : keyword.trim();
+    }
+
+    public static TransactionFilter none() {
+        return new TransactionFilter(null, null, null, null, null, null, null);
+    }
+}
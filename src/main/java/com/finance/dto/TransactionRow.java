@@ -0,0 +1,28 @@
+package com.finance.dto;
+
+import com.finance.domain.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only transaction row for lists and JSON, built by a JPQL constructor expression in
+ * {@link com.finance.repository.TransactionRepository}. Only the shown columns are selected and nothing enters the
+ * persistence context, so there is no entity snapshot to keep or dirty-check.
+ */
+public record TransactionRow(Long id, String description, BigDecimal amount, Transaction.TransactionType type,
+                             LocalDateTime transactionDate, String notes, CategoryRef category) {
+
+    public TransactionRow(Long id, String description, BigDecimal amount, Transaction.TransactionType type,
+                          LocalDateTime transactionDate, String notes,
+                          Long categoryId, String categoryName, String categoryColor) {
+        this(id, description, amount, type, transactionDate, notes,
+                CategoryRef.of(categoryId, categoryName, categoryColor));
+    }
+
+    // Without the notes column, for widgets that never show it
+    public TransactionRow(Long id, String description, BigDecimal amount, Transaction.TransactionType type,
+                          LocalDateTime transactionDate, Long categoryId, String categoryName, String categoryColor) {
+        this(id, description, amount, type, transactionDate, null, categoryId, categoryName, categoryColor);
+    }
+}
@@ -0,0 +1,38 @@
+package com.finance.dto;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.Locale;
+
+/**
+ * Orders offered by the filtered transaction list. Every order ends on the id, so pages never overlap or skip rows
+ * that share a date or an amount.
+ */
+public enum TransactionSort {
+    NEWEST(Sort.by(Sort.Direction.DESC, "transactionDate", "id")),
+    OLDEST(Sort.by(Sort.Direction.ASC, "transactionDate", "id")),
+    LARGEST(Sort.by(Sort.Direction.DESC, "amount", "id")),
+    SMALLEST(Sort.by(Sort.Direction.ASC, "amount", "id"));
+
+    private final Sort sort;
+
+    TransactionSort(Sort sort) {
+        this.sort = sort;
+    }
+
+    public Sort getSort() {
+        return sort;
+    }
+
+    // Accepts the request parameter in any case and falls back to the newest first
+    public static TransactionSort fromParameter(String value) {
+        if (value == null || value.isBlank()) {
+            return NEWEST;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return NEWEST;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.finance.event;
+
+import com.finance.domain.Transaction;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Published by {@link com.finance.service.TransactionService} whenever a transaction is created, edited or deleted.
+ * Carries plain values rather than the entity so after-commit listeners never touch a detached object.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TransactionChangedEvent {
+
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED
+    }
+
+    ChangeType changeType;
+
+    Long transactionId;
+
+    Long userId;
+
+    Long categoryId;
+
+    Transaction.TransactionType type;
+
+    BigDecimal amount;
+
+    LocalDateTime transactionDate;
+
+    public static TransactionChangedEvent of(ChangeType changeType, Transaction transaction) {
+        return new TransactionChangedEvent(changeType, transaction.getId(), transaction.getUser().getId(),
+                transaction.getCategory().getId(), transaction.getType(), transaction.getAmount(),
+                transaction.getTransactionDate());
+    }
+}
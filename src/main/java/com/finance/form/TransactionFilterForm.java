@@ -0,0 +1,54 @@
+package com.finance.form;
+
+import com.finance.domain.Transaction;
+import com.finance.dto.TransactionFilter;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The filter panel of the transaction list, bound from the query string of the filter, paging and export links.
+ * Every field is optional; dates are whole days.
+ */
+@Data
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class TransactionFilterForm {
+
+    Transaction.TransactionType type;
+
+    List<Long> categoryIds = new ArrayList<>();
+
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    LocalDate startDate;
+
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    LocalDate endDate;
+
+    BigDecimal minAmount;
+
+    BigDecimal maxAmount;
+
+    String keyword;
+
+    // Links from before the multi-select carry a single categoryId
+    public void setCategoryId(Long categoryId) {
+        if (categoryId != null && !categoryIds.contains(categoryId)) {
+            categoryIds.add(categoryId);
+        }
+    }
+
+    public TransactionFilter toFilter() {
+        return new TransactionFilter(type, categoryIds,
+                startDate != null ? startDate.atStartOfDay() : null,
+                endDate != null ? endDate.atTime(23, 59, 59) : null,
+                minAmount, maxAmount, keyword);
+    }
+}
@@ -0,0 +1,58 @@
+package com.finance.interceptor;
+
+import com.finance.service.AuthenticatedUser;
+import com.finance.service.UserDataVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Answers conditional GETs from the user's data versions alone. The ETag and Last-Modified of a response are derived
+ * from the versions of the scopes it depends on (plus the current date, since most views are relative to today), so
+ * a request whose validators still match gets a 304 before the controller, or any repository, is reached.
+ */
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    private final UserDataVersionService userDataVersionService;
+
+    private final List<UserDataVersionService.Scope> scopes;
+
+    public ConditionalGetInterceptor(UserDataVersionService userDataVersionService,
+                                     UserDataVersionService.Scope... scopes) {
+        this.userDataVersionService = userDataVersionService;
+        this.scopes = List.of(scopes);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod())) {
+            return true;
+        }
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !(auth.getPrincipal() instanceof AuthenticatedUser user)) {
+            return true;
+        }
+
+        LocalDate today = LocalDate.now();
+        StringBuilder etag = new StringBuilder("\"u").append(user.getId());
+        long lastModified = today.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        for (UserDataVersionService.Scope scope : scopes) {
+            etag.append('-').append(userDataVersionService.current(scope, user.getId()));
+            lastModified = Math.max(lastModified, userDataVersionService.lastModified(scope, user.getId()));
+        }
+        etag.append("-d").append(today.toEpochDay()).append('"');
+
+        // Let browsers keep the response but always revalidate it; this also stops Spring Security from
+        // replacing the headers with no-store
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        return !new ServletWebRequest(request, response).checkNotModified(etag.toString(), lastModified);
+    }
+}
@@ -1,8 +1,7 @@
 package com.finance.interceptor;
 
-import com.finance.domain.User;
+import com.finance.service.CurrentUserCache;
 import com.finance.service.NotificationService;
-import com.finance.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
@@ -20,7 +19,7 @@ import jakarta.servlet.http.HttpServletResponse;
 public class NotificationInterceptor implements HandlerInterceptor {
 
     private final NotificationService notificationService;
-    private final UserService userService;
+    private final CurrentUserCache currentUserCache;
 
     @Override
     public void postHandle(HttpServletRequest request, HttpServletResponse response,
@@ -31,12 +30,11 @@ public class NotificationInterceptor implements HandlerInterceptor {
 
             if (auth != null && auth.isAuthenticated() && !"anonymousUser".equals(auth.getName())) {
                 try {
-                    User user = userService.findByUsername(auth.getName())
-                            .orElse(null);
+                    Long userId = currentUserCache.resolveId(auth).orElse(null);
 
-                    if (user != null) {
-                        // Add unread notification count
-                        long unreadCount = notificationService.countUnreadByUser(user);
+                    if (userId != null) {
+                        // Add unread notification count, served from the inbox cache
+                        long unreadCount = notificationService.countUnreadByUserId(userId);
                         modelAndView.addObject("unreadNotificationCount", unreadCount);
 
                         log.debug("Added {} unread notifications to model for user {}", unreadCount, auth.getName());
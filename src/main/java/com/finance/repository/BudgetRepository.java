@@ -3,34 +3,57 @@ package com.finance.repository;
 import com.finance.domain.Budget;
 import com.finance.domain.User;
 import com.finance.domain.Category;
+import com.finance.dto.BudgetRow;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BudgetRepository extends JpaRepository<Budget, Long> {
 
+    // Budget pages show the category of each budget, so list and detail reads fetch it up front
+    @EntityGraph("Budget.category")
+    @Query("SELECT b FROM Budget b WHERE b.id = :id")
+    Optional<Budget> findWithCategoryById(@Param("id") Long id);
+
+    @EntityGraph("Budget.category")
     List<Budget> findByUser(User user);
 
+    @EntityGraph("Budget.category")
     List<Budget> findByUserOrderByStartDateDesc(User user);
 
+    @EntityGraph("Budget.category")
     List<Budget> findByUserAndCategory(User user, Category category);
 
+    @EntityGraph("Budget.category")
     List<Budget> findByUserAndStartDateLessThanEqualAndEndDateGreaterThanEqual(User user, LocalDate startDate, LocalDate endDate);
 
-    @Query("SELECT b FROM Budget b WHERE b.user = :user AND b.startDate <= :currentDate AND b.endDate >= :currentDate")
-    List<Budget> findActiveBudgetsByUser(@Param("user") User user, @Param("currentDate") LocalDate currentDate);
+    // Budget list, dashboard and financial summary rows: only the shown columns, no managed entities
+    @Query("SELECT new com.finance.dto.BudgetRow(b.id, b.name, b.amount, b.spent, b.startDate, b.endDate, " +
+            "c.id, c.name, c.color) FROM Budget b LEFT JOIN b.category c " +
+            "WHERE b.user = :user AND b.startDate <= :currentDate AND b.endDate >= :currentDate")
+    List<BudgetRow> findActiveBudgetsByUser(@Param("user") User user, @Param("currentDate") LocalDate currentDate);
 
-    @Query("SELECT b FROM Budget b WHERE b.user = :user AND b.endDate < :currentDate")
-    List<Budget> findExpiredBudgetsByUser(@Param("user") User user, @Param("currentDate") LocalDate currentDate);
+    @Query("SELECT new com.finance.dto.BudgetRow(b.id, b.name, b.amount, b.spent, b.startDate, b.endDate, " +
+            "c.id, c.name, c.color) FROM Budget b LEFT JOIN b.category c " +
+            "WHERE b.user = :user AND b.endDate < :currentDate")
+    List<BudgetRow> findExpiredBudgetsByUser(@Param("user") User user, @Param("currentDate") LocalDate currentDate);
 
-    @Query("SELECT b FROM Budget b WHERE b.user = :user AND b.startDate > :currentDate")
-    List<Budget> findUpcomingBudgetsByUser(@Param("user") User user, @Param("currentDate") LocalDate currentDate);
+    @Query("SELECT new com.finance.dto.BudgetRow(b.id, b.name, b.amount, b.spent, b.startDate, b.endDate, " +
+            "c.id, c.name, c.color) FROM Budget b LEFT JOIN b.category c " +
+            "WHERE b.user = :user AND b.startDate > :currentDate")
+    List<BudgetRow> findUpcomingBudgetsByUser(@Param("user") User user, @Param("currentDate") LocalDate currentDate);
 
+    @EntityGraph("Budget.category")
     @Query("SELECT b FROM Budget b WHERE b.user = :user AND " +
             "(b.name LIKE %:keyword% OR b.description LIKE %:keyword%)")
     List<Budget> findByUserAndNameContaining(@Param("user") User user, @Param("keyword") String keyword);
@@ -38,6 +61,36 @@ public interface BudgetRepository extends JpaRepository<Budget, Long> {
     @Query("SELECT COUNT(b) FROM Budget b WHERE b.user = :user AND b.startDate <= :currentDate AND b.endDate >= :currentDate")
     long countActiveBudgetsByUser(@Param("user") User user, @Param("currentDate") LocalDate currentDate);
 
+    // Atomic increment of the stored spent counters, safe against concurrent writers
+    @Modifying
+    @Query("UPDATE Budget b SET b.spent = b.spent + :delta WHERE b.id IN :ids")
+    int addToSpent(@Param("ids") Collection<Long> ids, @Param("delta") BigDecimal delta);
+
+    @Modifying
+    @Query("UPDATE Budget b SET b.spent = 0 WHERE b.user = :user")
+    int resetSpentByUser(@Param("user") User user);
+
+    // Recomputes one budget's counter from the raw transactions in a single statement
+    @Modifying
+    @Query("UPDATE Budget b SET b.spent = COALESCE((SELECT SUM(t.amount) FROM Transaction t WHERE t.user = b.user " +
+            "AND t.type = 'EXPENSE' AND (b.category IS NULL OR t.category = b.category) " +
+            "AND CAST(t.transactionDate AS date) BETWEEN b.startDate AND b.endDate), 0) WHERE b.id = :id")
+    int recomputeSpent(@Param("id") Long id);
+
+    @Query("SELECT b.spent FROM Budget b WHERE b.id = :id")
+    BigDecimal findSpentById(@Param("id") Long id);
+
+    // [id, userId, stored spent, spent recomputed from transactions or null] for every budget
+    @Query("SELECT b.id, b.user.id, b.spent, SUM(t.amount) FROM Budget b LEFT JOIN Transaction t ON t.user = b.user " +
+            "AND t.type = 'EXPENSE' AND (b.category IS NULL OR t.category = b.category) " +
+            "AND CAST(t.transactionDate AS date) BETWEEN b.startDate AND b.endDate " +
+            "GROUP BY b.id, b.user.id, b.spent")
+    List<Object[]> compareSpentWithTransactions();
+
+    // [id, categoryId or null, startDate, endDate] rows used to build BudgetIntervalIndex
+    @Query("SELECT b.id, c.id, b.startDate, b.endDate FROM Budget b LEFT JOIN b.category c WHERE b.user.id = :userId")
+    List<Object[]> findBudgetWindowsByUserId(@Param("userId") Long userId);
+
     @Query("SELECT SUM(b.amount) FROM Budget b WHERE b.user = :user AND b.startDate <= :currentDate AND b.endDate >= :currentDate")
-    java.math.BigDecimal sumActiveBudgetAmountsByUser(@Param("user") User user, @Param("currentDate") LocalDate currentDate);
+    BigDecimal sumActiveBudgetAmountsByUser(@Param("user") User user, @Param("currentDate") LocalDate currentDate);
 }
\ No newline at end of file
@@ -1,15 +1,25 @@
 package com.finance.repository;
 
 import com.finance.domain.Category;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
+// Results of the cacheable queries are kept in the query cache and dropped by Hibernate whenever the categories
+// table is written through JPA
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
+    @Override
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<Category> findAll();
+
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<Category> findByType(Category.CategoryType type);
 
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     java.util.Optional<Category> findByNameIgnoreCase(String name);
 }
@@ -4,6 +4,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -11,6 +12,7 @@ import org.springframework.stereotype.Repository;
 
 import com.finance.domain.Goal;
 import com.finance.domain.User;
+import com.finance.dto.GoalRow;
 @Repository
 public interface GoalRepository  extends JpaRepository<Goal, Long>{
 
@@ -24,17 +26,32 @@ public interface GoalRepository  extends JpaRepository<Goal, Long>{
     // Tìm kiếm theo tên
     List<Goal> findByUserAndNameContaining(User user, String keyword);
 
+    // The goal lists are read-only, so they select just the shown columns into GoalRow
+
     // Query tìm Active Goals (chưa hoàn thành và chưa quá hạn)
-    @Query("SELECT g FROM Goal g WHERE g.user = :user AND g.status = 'ACTIVE' AND g.targetDate >= :date")
-    List<Goal> findActiveGoalsByUser(@Param("user") User user, @Param("date") LocalDate date);
+    @Query("SELECT new com.finance.dto.GoalRow(g.id, g.name, g.description, g.targetAmount, g.currentAmount, " +
+            "g.targetDate, g.completedAt) FROM Goal g " +
+            "WHERE g.user = :user AND g.status = 'ACTIVE' AND g.targetDate >= :date")
+    List<GoalRow> findActiveGoalsByUser(@Param("user") User user, @Param("date") LocalDate date);
+
+    // Active goals closest to their target date, with the limit applied in the database
+    @Query("SELECT new com.finance.dto.GoalRow(g.id, g.name, g.description, g.targetAmount, g.currentAmount, " +
+            "g.targetDate, g.completedAt) FROM Goal g " +
+            "WHERE g.user = :user AND g.status = 'ACTIVE' AND g.targetDate >= :date " +
+            "ORDER BY g.targetDate ASC, g.id ASC")
+    List<GoalRow> findActiveGoalsByUser(@Param("user") User user, @Param("date") LocalDate date, Limit limit);
 
     // Query tìm Completed Goals
-    @Query("SELECT g FROM Goal g WHERE g.user = :user AND g.status = 'COMPLETED'")
-    List<Goal> findCompletedGoalsByUser(@Param("user") User user);
+    @Query("SELECT new com.finance.dto.GoalRow(g.id, g.name, g.description, g.targetAmount, g.currentAmount, " +
+            "g.targetDate, g.completedAt) FROM Goal g " +
+            "WHERE g.user = :user AND g.status = 'COMPLETED'")
+    List<GoalRow> findCompletedGoalsByUser(@Param("user") User user);
 
     // Query tìm Overdue Goals (Active nhưng ngày target < hiện tại)
-    @Query("SELECT g FROM Goal g WHERE g.user = :user AND g.status = 'ACTIVE' AND g.targetDate < :date")
-    List<Goal> findOverdueGoalsByUser(@Param("user") User user, @Param("date") LocalDate date);
+    @Query("SELECT new com.finance.dto.GoalRow(g.id, g.name, g.description, g.targetAmount, g.currentAmount, " +
+            "g.targetDate, g.completedAt) FROM Goal g " +
+            "WHERE g.user = :user AND g.status = 'ACTIVE' AND g.targetDate < :date")
+    List<GoalRow> findOverdueGoalsByUser(@Param("user") User user, @Param("date") LocalDate date);
 
     // Query tìm Goal trong khoảng thời gian
     @Query("SELECT g FROM Goal g WHERE g.user = :user AND g.targetDate BETWEEN :startDate AND :endDate")
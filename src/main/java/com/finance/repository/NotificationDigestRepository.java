@@ -0,0 +1,25 @@
+package com.finance.repository;
+
+import com.finance.domain.Notification;
+import com.finance.domain.NotificationDigest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NotificationDigestRepository extends JpaRepository<NotificationDigest, Long> {
+
+    @Modifying
+    @Query("UPDATE NotificationDigest d SET d.notificationCount = d.notificationCount + :count " +
+            "WHERE d.user.id = :userId AND d.type = :type AND d.period = :period")
+    int addToCount(@Param("userId") Long userId,
+            @Param("type") Notification.NotificationType type,
+            @Param("period") int period,
+            @Param("count") long count);
+
+    @Modifying
+    @Query("DELETE FROM NotificationDigest d WHERE d.user.id = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,36 @@
+package com.finance.repository;
+
+import com.finance.domain.NotificationOutbox;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    // Locks the rows so a concurrent flush or replay of the same ids waits and then finds them gone
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM NotificationOutbox o WHERE o.id IN :ids ORDER BY o.id")
+    List<NotificationOutbox> lockByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT o.id FROM NotificationOutbox o WHERE o.createdAt < :cutoff ORDER BY o.id")
+    List<Long> findIdsCreatedBefore(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    // Folds a repeat into a pending entry; returns 0 once the entry has been written
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.occurrences = o.occurrences + 1 WHERE o.id = :id")
+    int mergeInto(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM NotificationOutbox o WHERE o.user.id = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+}
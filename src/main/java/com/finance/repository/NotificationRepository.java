@@ -2,8 +2,10 @@
 package com.finance.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -14,6 +16,8 @@ import org.springframework.stereotype.Repository;
 
 import com.finance.domain.Notification;
 import com.finance.domain.User;
+import com.finance.dto.NotificationRow;
+import com.finance.dto.RecentNotification;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
@@ -21,11 +25,35 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     // Find operations
     List<Notification> findByUserOrderByCreatedAtDesc(User user);
 
-    Page<Notification> findByUserOrderByCreatedAtDesc(User user, Pageable pageable);
+    // Paged list rows, projected so the list page never loads entities or touches the user association
+    @Query(value = "SELECT new com.finance.dto.NotificationRow(n.id, n.title, n.message, n.type, n.isRead, n.createdAt, n.readAt, " +
+            "n.actionUrl, n.occurrences) FROM Notification n " +
+            "WHERE n.user = :user ORDER BY n.createdAt DESC",
+            countQuery = "SELECT COUNT(n) FROM Notification n WHERE n.user = :user")
+    Page<NotificationRow> findRowsByUser(@Param("user") User user, Pageable pageable);
+
+    @Query(value = "SELECT new com.finance.dto.NotificationRow(n.id, n.title, n.message, n.type, n.isRead, n.createdAt, n.readAt, " +
+            "n.actionUrl, n.occurrences) FROM Notification n " +
+            "WHERE n.user = :user AND n.isRead = false ORDER BY n.createdAt DESC",
+            countQuery = "SELECT COUNT(n) FROM Notification n WHERE n.user = :user AND n.isRead = false")
+    Page<NotificationRow> findUnreadRowsByUser(@Param("user") User user, Pageable pageable);
+
+    @Query(value = "SELECT new com.finance.dto.NotificationRow(n.id, n.title, n.message, n.type, n.isRead, n.createdAt, n.readAt, " +
+            "n.actionUrl, n.occurrences) FROM Notification n " +
+            "WHERE n.user = :user AND n.isRead = true ORDER BY n.createdAt DESC",
+            countQuery = "SELECT COUNT(n) FROM Notification n WHERE n.user = :user AND n.isRead = true")
+    Page<NotificationRow> findReadRowsByUser(@Param("user") User user, Pageable pageable);
 
     List<Notification> findByUserAndIsReadFalseOrderByCreatedAtDesc(User user);
 
-    Page<Notification> findByUserAndIsReadFalseOrderByCreatedAtDesc(User user, Pageable pageable);
+    List<Notification> findByUserAndIsReadFalseOrderByCreatedAtDescIdDesc(User user, Limit limit);
+
+    // Fills NotificationInboxCache, which only keeps these columns
+    @Query("SELECT new com.finance.dto.RecentNotification(n.id, n.title, n.message, " +
+            "n.type, n.createdAt, n.actionUrl, n.occurrences) FROM Notification n " +
+            "WHERE n.user.id = :userId AND n.isRead = false ORDER BY n.createdAt DESC, n.id DESC")
+    List<RecentNotification> findRecentUnreadByUserId(@Param("userId") Long userId,
+            Limit limit);
 
     List<Notification> findByUserAndTypeOrderByCreatedAtDesc(User user, Notification.NotificationType type);
 
@@ -34,6 +62,9 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
 
     long countByUser(User user);
 
+    @Query("SELECT COUNT(n) FROM Notification n WHERE n.user.id = :userId AND n.isRead = false")
+    long countUnreadByUserId(@Param("userId") Long userId);
+
     long countByUserAndType(User user, Notification.NotificationType type);
 
     // Delete operations
@@ -57,6 +88,32 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     @Query("UPDATE Notification n SET n.isRead = true, n.readAt = :readAt WHERE n.user = :user AND n.isRead = false")
     int markAllAsReadForUser(@Param("user") User user, @Param("readAt") LocalDateTime readAt);
 
-    // Additional find method for read notifications
-    Page<Notification> findByUserAndIsReadTrueOrderByCreatedAtDesc(User user, Pageable pageable);
+    // Set-based mutations, ownership checked in the WHERE clause; the return value is the number of rows changed
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true, n.readAt = :readAt " +
+            "WHERE n.id IN :ids AND n.user.id = :userId AND n.isRead = false")
+    int markAsReadByIdsAndUserId(@Param("ids") Collection<Long> ids, @Param("userId") Long userId,
+            @Param("readAt") LocalDateTime readAt);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = false, n.readAt = null " +
+            "WHERE n.id IN :ids AND n.user.id = :userId AND n.isRead = true")
+    int markAsUnreadByIdsAndUserId(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.id IN :ids AND n.user.id = :userId")
+    int deleteByIdsAndUserId(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+
+    // Folds a repeat into a notification the user has not read yet; returns 0 once it has been read or deleted
+    @Modifying
+    @Query("UPDATE Notification n SET n.occurrences = n.occurrences + 1 WHERE n.id = :id AND n.isRead = false")
+    int mergeInto(@Param("id") Long id);
+
+    // Next chunk of the user's notification ids of one type, in primary-key order after afterId
+    @Query("SELECT n.id FROM Notification n WHERE n.user.id = :userId AND n.type = :type AND n.id > :afterId " +
+            "ORDER BY n.id")
+    List<Long> findIdsByUserIdAndType(@Param("userId") Long userId,
+            @Param("type") Notification.NotificationType type,
+            @Param("afterId") long afterId,
+            Limit limit);
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.finance.repository;
+
+import com.finance.domain.Transaction;
+import com.finance.dto.TransactionRow;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+/**
+ * Criteria queries over {@link TransactionSpecifications} that Spring Data's specification executor cannot express:
+ * a projected page without a count query, and a forward-only stream with the category fetched.
+ */
+public interface TransactionFilterRepository {
+
+    /**
+     * One page of list rows in the pageable's order. Reads one row past the page instead of counting the matches.
+     */
+    Slice<TransactionRow> findRows(Specification<Transaction> specification, Pageable pageable);
+
+    /**
+     * Forward-only read with the category fetched. Callers consume and close the stream inside a transaction and clear
+     * the persistence context as they go.
+     */
+    Stream<Transaction> streamAll(Specification<Transaction> specification, Sort sort);
+}
@@ -0,0 +1,80 @@
+package com.finance.repository;
+
+import com.finance.domain.Category;
+import com.finance.domain.Transaction;
+import com.finance.dto.TransactionRow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+class TransactionFilterRepositoryImpl implements TransactionFilterRepository {
+
+    // Rows per round trip while streaming; on MySQL this needs useCursorFetch=true on the URL
+    static final int STREAM_FETCH_SIZE = 500;
+
+    EntityManager entityManager;
+
+    @Override
+    public Slice<TransactionRow> findRows(Specification<Transaction> specification, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TransactionRow> query = cb.createQuery(TransactionRow.class);
+        Root<Transaction> transaction = query.from(Transaction.class);
+        Join<Transaction, Category> category = transaction.join("category");
+        query.select(cb.construct(TransactionRow.class,
+                transaction.get("id"), transaction.get("description"), transaction.get("amount"),
+                transaction.get("type"), transaction.get("transactionDate"), transaction.get("notes"),
+                category.get("id"), category.get("name"), category.get("color")));
+        restrict(query, transaction, cb, specification);
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), transaction, cb));
+
+        List<TransactionRow> rows = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? new ArrayList<>(rows.subList(0, pageable.getPageSize())) : rows, pageable,
+                hasNext);
+    }
+
+    @Override
+    public Stream<Transaction> streamAll(Specification<Transaction> specification, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Transaction> query = cb.createQuery(Transaction.class);
+        Root<Transaction> transaction = query.from(Transaction.class);
+        transaction.fetch("category");
+        restrict(query, transaction, cb, specification);
+        query.orderBy(QueryUtils.toOrders(sort, transaction, cb));
+
+        // Read-only entities skip the dirty-checking snapshots
+        return entityManager.createQuery(query)
+                .setHint("org.hibernate.fetchSize", STREAM_FETCH_SIZE)
+                .setHint("org.hibernate.readOnly", true)
+                .getResultStream();
+    }
+
+    private static void restrict(CriteriaQuery<?> query, Root<Transaction> transaction, CriteriaBuilder cb,
+            Specification<Transaction> specification) {
+        Predicate predicate = specification.toPredicate(transaction, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.finance.repository;
+
+import com.finance.domain.Category;
+import com.finance.domain.Transaction;
+import com.finance.domain.TransactionMonthlySummary;
+import com.finance.domain.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface TransactionMonthlySummaryRepository extends JpaRepository<TransactionMonthlySummary, Long> {
+
+        @Modifying
+        @Query("UPDATE TransactionMonthlySummary s SET s.totalAmount = s.totalAmount + :amount, " +
+                        "s.transactionCount = s.transactionCount + :count " +
+                        "WHERE s.user = :user AND s.category = :category AND s.type = :type AND s.period = :period")
+        int applyDelta(@Param("user") User user,
+                        @Param("category") Category category,
+                        @Param("type") Transaction.TransactionType type,
+                        @Param("period") int period,
+                        @Param("amount") BigDecimal amount,
+                        @Param("count") long count);
+
+        @Query("SELECT SUM(s.totalAmount) FROM TransactionMonthlySummary s WHERE s.user = :user AND s.type = :type AND " +
+                        "s.period BETWEEN :fromPeriod AND :toPeriod")
+        BigDecimal sumAmountByUserAndTypeAndPeriodRange(@Param("user") User user,
+                        @Param("type") Transaction.TransactionType type,
+                        @Param("fromPeriod") int fromPeriod,
+                        @Param("toPeriod") int toPeriod);
+
+        @Query("SELECT SUM(s.totalAmount) FROM TransactionMonthlySummary s WHERE s.user = :user AND " +
+                        "s.category = :category AND s.type = :type AND s.period BETWEEN :fromPeriod AND :toPeriod")
+        BigDecimal sumAmountByUserAndCategoryAndTypeAndPeriodRange(@Param("user") User user,
+                        @Param("category") Category category,
+                        @Param("type") Transaction.TransactionType type,
+                        @Param("fromPeriod") int fromPeriod,
+                        @Param("toPeriod") int toPeriod);
+
+        @Query("SELECT SUM(s.transactionCount) FROM TransactionMonthlySummary s WHERE s.user = :user AND " +
+                        "s.type = :type AND s.period BETWEEN :fromPeriod AND :toPeriod")
+        Long countTransactionsByUserAndTypeAndPeriodRange(@Param("user") User user,
+                        @Param("type") Transaction.TransactionType type,
+                        @Param("fromPeriod") int fromPeriod,
+                        @Param("toPeriod") int toPeriod);
+
+        @Query("SELECT s.category.name, SUM(s.transactionCount), SUM(s.totalAmount) FROM TransactionMonthlySummary s " +
+                        "WHERE s.user = :user AND s.period BETWEEN :fromPeriod AND :toPeriod " +
+                        "GROUP BY s.category.name")
+        List<Object[]> getCategorySummaryForPeriodRange(@Param("user") User user,
+                        @Param("fromPeriod") int fromPeriod,
+                        @Param("toPeriod") int toPeriod);
+
+        @Query("SELECT s.category.name, SUM(s.transactionCount), SUM(s.totalAmount) FROM TransactionMonthlySummary s " +
+                        "WHERE s.user = :user AND s.type = :type AND s.period BETWEEN :fromPeriod AND :toPeriod " +
+                        "GROUP BY s.category.name")
+        List<Object[]> getCategorySummaryForTypeAndPeriodRange(@Param("user") User user,
+                        @Param("type") Transaction.TransactionType type,
+                        @Param("fromPeriod") int fromPeriod,
+                        @Param("toPeriod") int toPeriod);
+
+        @Query("SELECT s.category.name, " +
+                        "SUM(CASE WHEN s.type = 'INCOME' THEN s.transactionCount ELSE 0 END), " +
+                        "SUM(CASE WHEN s.type = 'INCOME' THEN s.totalAmount ELSE 0 END), " +
+                        "SUM(CASE WHEN s.type = 'EXPENSE' THEN s.transactionCount ELSE 0 END), " +
+                        "SUM(CASE WHEN s.type = 'EXPENSE' THEN s.totalAmount ELSE 0 END) " +
+                        "FROM TransactionMonthlySummary s WHERE s.user = :user " +
+                        "GROUP BY s.category.name")
+        List<Object[]> getCategoryTotals(@Param("user") User user);
+
+        @Query("SELECT s.category.name, " +
+                        "SUM(CASE WHEN s.type = 'INCOME' THEN s.transactionCount ELSE 0 END), " +
+                        "SUM(CASE WHEN s.type = 'INCOME' THEN s.totalAmount ELSE 0 END), " +
+                        "SUM(CASE WHEN s.type = 'EXPENSE' THEN s.transactionCount ELSE 0 END), " +
+                        "SUM(CASE WHEN s.type = 'EXPENSE' THEN s.totalAmount ELSE 0 END) " +
+                        "FROM TransactionMonthlySummary s WHERE s.user = :user AND s.period BETWEEN :fromPeriod AND :toPeriod " +
+                        "GROUP BY s.category.name")
+        List<Object[]> getCategoryTotalsForPeriodRange(@Param("user") User user,
+                        @Param("fromPeriod") int fromPeriod,
+                        @Param("toPeriod") int toPeriod);
+
+        // Rebuilds every bucket straight from the raw rows in a single INSERT ... SELECT
+        @Modifying
+        @Query("INSERT INTO TransactionMonthlySummary (user, category, type, period, totalAmount, transactionCount) " +
+                        "SELECT t.user, t.category, t.type, " +
+                        "YEAR(t.transactionDate) * 100 + MONTH(t.transactionDate), SUM(t.amount), COUNT(t) " +
+                        "FROM Transaction t " +
+                        "GROUP BY t.user, t.category, t.type, YEAR(t.transactionDate) * 100 + MONTH(t.transactionDate)")
+        int rebuildAll();
+
+        @Modifying
+        @Query("INSERT INTO TransactionMonthlySummary (user, category, type, period, totalAmount, transactionCount) " +
+                        "SELECT t.user, t.category, t.type, " +
+                        "YEAR(t.transactionDate) * 100 + MONTH(t.transactionDate), SUM(t.amount), COUNT(t) " +
+                        "FROM Transaction t WHERE t.user = :user " +
+                        "GROUP BY t.user, t.category, t.type, YEAR(t.transactionDate) * 100 + MONTH(t.transactionDate)")
+        int rebuildForUser(@Param("user") User user);
+
+        @Modifying
+        @Query("DELETE FROM TransactionMonthlySummary s WHERE s.user = :user")
+        void deleteByUser(@Param("user") User user);
+
+        @Modifying
+        @Query("DELETE FROM TransactionMonthlySummary s WHERE s.user.id = :userId")
+        void deleteByUserId(@Param("userId") Long userId);
+
+        @Modifying
+        @Query("DELETE FROM TransactionMonthlySummary s WHERE s.category.id = :categoryId")
+        void deleteByCategoryId(@Param("categoryId") Long categoryId);
+}
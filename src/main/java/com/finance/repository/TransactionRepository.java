@@ -3,6 +3,8 @@ package com.finance.repository;
 import com.finance.domain.Transaction;
 import com.finance.domain.User;
 import com.finance.domain.Category;
+import com.finance.dto.TransactionRow;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,36 +12,89 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionFilterRepository {
 
+        // List and detail reads carry their category, since OSIV is off and every page renders it
+        @EntityGraph("Transaction.category")
+        @Query("SELECT t FROM Transaction t WHERE t.id = :id")
+        Optional<Transaction> findWithCategoryById(@Param("id") Long id);
+
+        @EntityGraph("Transaction.category")
         List<Transaction> findByUser(User user);
 
+        @EntityGraph("Transaction.category")
         List<Transaction> findByUserOrderByTransactionDateDesc(User user);
 
+        @EntityGraph("Transaction.category")
         Page<Transaction> findByUserOrderByTransactionDateDesc(User user, Pageable pageable);
 
+        // Keyset (seek) pagination ordered by (transactionDate, id) descending; pass size + 1 to detect a further page.
+        // The list pages only show these columns, so they are projected instead of loading entities.
+        @Query("SELECT new com.finance.dto.TransactionRow(t.id, t.description, t.amount, t.type, t.transactionDate, t.notes, " +
+                        "c.id, c.name, c.color) FROM Transaction t JOIN t.category c WHERE t.user = :user " +
+                        "ORDER BY t.transactionDate DESC, t.id DESC")
+        List<TransactionRow> findFirstKeysetPage(@Param("user") User user, Limit limit);
+
+        // The redundant "<=" bound lets the (user_id, transaction_date, id) index drive a range scan
+        @Query("SELECT new com.finance.dto.TransactionRow(t.id, t.description, t.amount, t.type, t.transactionDate, t.notes, " +
+                        "c.id, c.name, c.color) FROM Transaction t JOIN t.category c WHERE t.user = :user AND " +
+                        "t.transactionDate <= :transactionDate AND (t.transactionDate < :transactionDate OR (t.transactionDate = :transactionDate AND t.id < :id)) " +
+                        "ORDER BY t.transactionDate DESC, t.id DESC")
+        List<TransactionRow> findKeysetPageAfter(@Param("user") User user,
+                        @Param("transactionDate") LocalDateTime transactionDate,
+                        @Param("id") Long id,
+                        Limit limit);
+
+        // Walks backwards in ascending order; callers reverse the result
+        @Query("SELECT new com.finance.dto.TransactionRow(t.id, t.description, t.amount, t.type, t.transactionDate, t.notes, " +
+                        "c.id, c.name, c.color) FROM Transaction t JOIN t.category c WHERE t.user = :user AND " +
+                        "t.transactionDate >= :transactionDate AND (t.transactionDate > :transactionDate OR (t.transactionDate = :transactionDate AND t.id > :id)) " +
+                        "ORDER BY t.transactionDate ASC, t.id ASC")
+        List<TransactionRow> findKeysetPageBefore(@Param("user") User user,
+                        @Param("transactionDate") LocalDateTime transactionDate,
+                        @Param("id") Long id,
+                        Limit limit);
+
+        @EntityGraph("Transaction.category")
         List<Transaction> findByUserAndCategory(User user, Category category);
 
+        @EntityGraph("Transaction.category")
         List<Transaction> findByUserAndType(User user, Transaction.TransactionType type);
 
+        @EntityGraph("Transaction.category")
         List<Transaction> findByUserAndTransactionDateBetween(User user, LocalDateTime startDate,
                         LocalDateTime endDate);
 
+        @EntityGraph("Transaction.category")
         List<Transaction> findByUserAndTypeAndTransactionDateBetween(User user, Transaction.TransactionType type,
                         LocalDateTime startDate, LocalDateTime endDate);
 
+        @EntityGraph("Transaction.category")
         List<Transaction> findByUserAndCategoryAndTransactionDateBetween(User user, Category category,
                         LocalDateTime startDate, LocalDateTime endDate);
 
-        @Query("SELECT t FROM Transaction t WHERE t.user = :user AND " +
-                        "(t.description LIKE %:keyword% OR t.notes LIKE %:keyword%)")
-        List<Transaction> findByUserAndDescriptionContaining(@Param("user") User user,
-                        @Param("keyword") String keyword);
+        // Search hits, in no particular order; the caller restores the ranking. The ids come from the user's own
+        // index entries, and leaving the user out keeps the lookup on the primary key
+        @Query("SELECT new com.finance.dto.TransactionRow(t.id, t.description, t.amount, t.type, t.transactionDate, t.notes, " +
+                        "c.id, c.name, c.color) FROM Transaction t JOIN t.category c WHERE t.id IN :ids")
+        List<TransactionRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+        // Rows as [id, userId, description, notes] in id order, for rebuilding the search index in batches
+        @Query("SELECT t.id, t.user.id, t.description, t.notes FROM Transaction t WHERE t.id > :afterId ORDER BY t.id")
+        List<Object[]> findSearchTextAfter(@Param("afterId") Long afterId, Limit limit);
+
+        @Query("SELECT t.id, t.user.id, t.description, t.notes FROM Transaction t " +
+                        "WHERE t.user.id = :userId AND t.id > :afterId ORDER BY t.id")
+        List<Object[]> findSearchTextByUserIdAfter(@Param("userId") Long userId, @Param("afterId") Long afterId,
+                        Limit limit);
 
         @Query("SELECT SUM(t.amount) FROM Transaction t WHERE t.user = :user AND t.type = :type")
         BigDecimal sumAmountByUserAndType(@Param("user") User user, @Param("type") Transaction.TransactionType type);
@@ -60,8 +115,20 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
                         @Param("startDate") LocalDateTime startDate,
                         @Param("endDate") LocalDateTime endDate);
 
-        @Query("SELECT t FROM Transaction t WHERE t.user = :user ORDER BY t.transactionDate DESC")
-        List<Transaction> findRecentTransactionsByUser(@Param("user") User user);
+        // Top-N: the limit is pushed into the query so only the requested rows are read
+        @Query("SELECT t FROM Transaction t JOIN FETCH t.category WHERE t.user = :user " +
+                        "ORDER BY t.transactionDate DESC, t.id DESC")
+        List<Transaction> findRecentTransactionsByUser(@Param("user") User user, Limit limit);
+
+        // Dashboard widget: no notes column
+        @Query("SELECT new com.finance.dto.TransactionRow(t.id, t.description, t.amount, t.type, t.transactionDate, " +
+                        "c.id, c.name, c.color) FROM Transaction t JOIN t.category c WHERE t.user = :user AND " +
+                        "t.transactionDate BETWEEN :startDate AND :endDate " +
+                        "ORDER BY t.transactionDate DESC, t.id DESC")
+        List<TransactionRow> findRecentTransactionsByUserAndDateRange(@Param("user") User user,
+                        @Param("startDate") LocalDateTime startDate,
+                        @Param("endDate") LocalDateTime endDate,
+                        Limit limit);
 
         @Query("SELECT COUNT(t) FROM Transaction t WHERE t.user = :user AND t.type = :type")
         long countTransactionsByUserAndType(@Param("user") User user, @Param("type") Transaction.TransactionType type);
@@ -102,6 +169,18 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
                         "GROUP BY t.category.name ORDER BY SUM(t.amount) DESC")
         List<Object[]> getCategoryTransactionSummary(@Param("user") User user);
 
+        // Income/expense counts and totals per category in one pass; overall statistics are derived from these rows
+        @Query("SELECT t.category.name, " +
+                        "SUM(CASE WHEN t.type = 'INCOME' THEN 1 ELSE 0 END), " +
+                        "SUM(CASE WHEN t.type = 'INCOME' THEN t.amount ELSE 0 END), " +
+                        "SUM(CASE WHEN t.type = 'EXPENSE' THEN 1 ELSE 0 END), " +
+                        "SUM(CASE WHEN t.type = 'EXPENSE' THEN t.amount ELSE 0 END) " +
+                        "FROM Transaction t WHERE t.user = :user AND t.transactionDate BETWEEN :startDate AND :endDate " +
+                        "GROUP BY t.category.name")
+        List<Object[]> getCategoryTotalsForDateRange(@Param("user") User user,
+                        @Param("startDate") LocalDateTime startDate,
+                        @Param("endDate") LocalDateTime endDate);
+
         @Query("SELECT CAST(t.transactionDate AS date), " +
                         "SUM(CASE WHEN t.type = 'INCOME' THEN t.amount ELSE 0 END), " +
                         "SUM(CASE WHEN t.type = 'EXPENSE' THEN t.amount ELSE 0 END) " +
@@ -111,4 +190,5 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
         List<Object[]> getTransactionTrendByDate(@Param("user") User user,
                         @Param("startDate") LocalDateTime startDate,
                         @Param("endDate") LocalDateTime endDate);
-}
\ No newline at end of file
+
+}
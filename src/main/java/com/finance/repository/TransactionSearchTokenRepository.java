@@ -0,0 +1,26 @@
+package com.finance.repository;
+
+import com.finance.domain.TransactionSearchToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TransactionSearchTokenRepository extends JpaRepository<TransactionSearchToken, Long> {
+
+        @Modifying
+        @Query("DELETE FROM TransactionSearchToken s WHERE s.transactionId = :transactionId")
+        int deleteByTransactionId(@Param("transactionId") Long transactionId);
+
+        @Modifying
+        @Query("DELETE FROM TransactionSearchToken s WHERE s.userId = :userId")
+        int deleteByUserId(@Param("userId") Long userId);
+
+        // Tokens of every transaction in the category, for when the category and its transactions are deleted
+        @Modifying
+        @Query("DELETE FROM TransactionSearchToken s WHERE s.transactionId IN " +
+                        "(SELECT t.id FROM Transaction t WHERE t.category.id = :categoryId)")
+        int deleteByCategoryId(@Param("categoryId") Long categoryId);
+}
@@ -0,0 +1,108 @@
+package com.finance.repository;
+
+import com.finance.domain.Transaction;
+import com.finance.domain.TransactionSearchToken;
+import com.finance.dto.TransactionFilter;
+import com.finance.utils.TextFolding;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The predicates of the filtered transaction list, one per filter field, so any combination becomes a single query.
+ * Each one is sargable against the transactions indexes that lead with the user: the user and type or category are
+ * equalities, the dates and amounts plain ranges, and the keyword semi-joins the search index instead of running
+ * {@code LIKE '%keyword%'} over the text. A factory returns {@code null} when its field is not set, which
+ * {@link Specification#and} skips.
+ */
+public final class TransactionSpecifications {
+
+    private TransactionSpecifications() {
+    }
+
+    public static Specification<Transaction> matching(Long userId, TransactionFilter filter) {
+        return Specification.where(ofUser(userId))
+                .and(ofType(filter.type()))
+                .and(inCategories(filter.categoryIds()))
+                .and(dateBetween(filter.startDate(), filter.endDate()))
+                .and(amountBetween(filter.minAmount(), filter.maxAmount()))
+                .and(containingKeyword(userId, filter.keyword()));
+    }
+
+    public static Specification<Transaction> ofUser(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+    }
+
+    public static Specification<Transaction> ofType(Transaction.TransactionType type) {
+        return type == null ? null : (root, query, cb) -> cb.equal(root.get("type"), type);
+    }
+
+    public static Specification<Transaction> inCategories(Collection<Long> categoryIds) {
+        if (categoryIds == null || categoryIds.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> root.get("category").get("id").in(categoryIds);
+    }
+
+    public static Specification<Transaction> dateBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        if (startDate == null && endDate == null) {
+            return null;
+        }
+        return (root, query, cb) -> range(cb, root.get("transactionDate"), startDate, endDate);
+    }
+
+    public static Specification<Transaction> amountBetween(BigDecimal minAmount, BigDecimal maxAmount) {
+        if (minAmount == null && maxAmount == null) {
+            return null;
+        }
+        return (root, query, cb) -> range(cb, root.get("amount"), minAmount, maxAmount);
+    }
+
+    /**
+     * Transactions whose description or notes contain every term of the keyword, the last one also as a prefix,
+     * folded the same way as {@link com.finance.service.TransactionSearchService} searches. Each term is an
+     * {@code id IN (...)} over one range of the user's tokens.
+     */
+    public static Specification<Transaction> containingKeyword(Long userId, String keyword) {
+        if (keyword == null) {
+            return null;
+        }
+        List<TextFolding.QueryTerm> terms = TextFolding.queryTerms(keyword);
+        return (root, query, cb) -> {
+            if (terms.isEmpty()) {
+                // Nothing searchable, e.g. only punctuation: matches nothing, as in the search box
+                return cb.disjunction();
+            }
+            Predicate[] predicates = new Predicate[terms.size()];
+            for (int i = 0; i < terms.size(); i++) {
+                TextFolding.QueryTerm term = terms.get(i);
+                Subquery<Long> matches = query.subquery(Long.class);
+                Root<TransactionSearchToken> token = matches.from(TransactionSearchToken.class);
+                Predicate tokenMatch = term.isPrefix()
+                        ? cb.and(cb.greaterThanOrEqualTo(token.get("token"), term.token()),
+                                cb.lessThan(token.get("token"), term.upperBound()),
+                                cb.like(token.get("token"), term.likePattern()))
+                        : cb.equal(token.get("token"), term.token());
+                matches.select(token.get("transactionId"))
+                        .where(cb.equal(token.get("userId"), userId), tokenMatch);
+                predicates[i] = root.get("id").in(matches);
+            }
+            return cb.and(predicates);
+        };
+    }
+
+    private static <T extends Comparable<? super T>> Predicate range(CriteriaBuilder cb, Path<T> path, T from, T to) {
+        if (from != null && to != null) {
+            return cb.between(path, from, to);
+        }
+        return from != null ? cb.greaterThanOrEqualTo(path, from) : cb.lessThanOrEqualTo(path, to);
+    }
+}
@@ -0,0 +1,173 @@
+package com.finance.service;
+
+import com.finance.repository.BudgetRepository;
+import com.finance.utils.TransactionCallbacks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory index answering "which of this user's budgets cover an expense in category X on day D" without scanning
+ * every budget. Each user's budgets are split into one interval tree per category plus a global tree for budgets
+ * without a category. Built lazily from {@link BudgetRepository} and dropped whenever the user's budgets change.
+ *
+ * <p>At most {@code max-users} indexes are kept, least recently used first out, and each is rebuilt after
+ * {@code ttl} so a change made outside the services cannot linger.</p>
+ */
+@Component
+public class BudgetIntervalIndex {
+
+    private final BudgetRepository budgetRepository;
+    private final Map<Long, UserBudgets> budgetsByUser;
+    private final long ttlMillis;
+
+    public BudgetIntervalIndex(BudgetRepository budgetRepository,
+            @Value("${finance.budget.interval-index.ttl:10m}") Duration ttl,
+            @Value("${finance.budget.interval-index.max-users:10000}") int maxUsers) {
+        this.budgetRepository = budgetRepository;
+        this.ttlMillis = ttl.toMillis();
+        this.budgetsByUser = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, UserBudgets> eldest) {
+                return size() > maxUsers;
+            }
+        });
+    }
+
+    /**
+     * Ids of the budgets whose window contains {@code date} and whose category is {@code categoryId} or unset.
+     */
+    public List<Long> findBudgetIds(Long userId, Long categoryId, LocalDate date) {
+        UserBudgets userBudgets = budgetsByUser.get(userId);
+        if (userBudgets == null || userBudgets.isExpired()) {
+            // Built outside the map's lock so the query never holds up other users' lookups; of two concurrent
+            // builds for the same user the first one stored is kept
+            if (userBudgets != null) {
+                budgetsByUser.remove(userId, userBudgets);
+            }
+            userBudgets = load(userId);
+            budgetsByUser.putIfAbsent(userId, userBudgets);
+        }
+        long day = date.toEpochDay();
+
+        List<Long> budgetIds = new ArrayList<>();
+        userBudgets.global().collect(day, budgetIds);
+        IntervalTree categoryTree = userBudgets.byCategory().get(categoryId);
+        if (categoryTree != null) {
+            categoryTree.collect(day, budgetIds);
+        }
+        return budgetIds;
+    }
+
+    /**
+     * Drops the user's index now and, when called inside a transaction, again once it completes so a rebuild
+     * racing with the uncommitted change cannot leave a stale copy behind.
+     */
+    public void invalidate(Long userId) {
+        budgetsByUser.remove(userId);
+        TransactionCallbacks.afterCompletion(() -> budgetsByUser.remove(userId));
+    }
+
+    public void invalidateAll() {
+        budgetsByUser.clear();
+    }
+
+    private UserBudgets load(Long userId) {
+        Map<Long, List<Interval>> intervalsByCategory = new HashMap<>();
+        List<Interval> global = new ArrayList<>();
+
+        for (Object[] row : budgetRepository.findBudgetWindowsByUserId(userId)) {
+            Interval interval = new Interval((Long) row[0],
+                    ((LocalDate) row[2]).toEpochDay(), ((LocalDate) row[3]).toEpochDay());
+            Long categoryId = (Long) row[1];
+            if (categoryId == null) {
+                global.add(interval);
+            } else {
+                intervalsByCategory.computeIfAbsent(categoryId, id -> new ArrayList<>()).add(interval);
+            }
+        }
+
+        Map<Long, IntervalTree> byCategory = new HashMap<>();
+        intervalsByCategory.forEach((categoryId, intervals) -> byCategory.put(categoryId, IntervalTree.of(intervals)));
+        return new UserBudgets(IntervalTree.of(global), Collections.unmodifiableMap(byCategory),
+                System.currentTimeMillis() + ttlMillis);
+    }
+
+    private record UserBudgets(IntervalTree global, Map<Long, IntervalTree> byCategory, long expiresAt) {
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+
+    record Interval(Long budgetId, long start, long end) {
+    }
+
+    /**
+     * Static augmented interval tree laid out over an array sorted by start day: the middle of every sub-range is
+     * its root and {@code maxEnd} holds the latest end day within that sub-range. A stabbing query prunes every
+     * sub-range that ends before the day or starts after it, giving O(log n + k).
+     */
+    static final class IntervalTree {
+
+        private final Interval[] intervals;
+
+        private final long[] maxEnd;
+
+        private IntervalTree(Interval[] intervals) {
+            this.intervals = intervals;
+            this.maxEnd = new long[intervals.length];
+            computeMaxEnd(0, intervals.length);
+        }
+
+        static IntervalTree of(List<Interval> intervals) {
+            Interval[] sorted = intervals.toArray(new Interval[0]);
+            Arrays.sort(sorted, Comparator.comparingLong(Interval::start));
+            return new IntervalTree(sorted);
+        }
+
+        void collect(long day, List<Long> budgetIds) {
+            collect(0, intervals.length, day, budgetIds);
+        }
+
+        private long computeMaxEnd(int from, int to) {
+            if (from >= to) {
+                return Long.MIN_VALUE;
+            }
+            int mid = (from + to) >>> 1;
+            long max = Math.max(intervals[mid].end(),
+                    Math.max(computeMaxEnd(from, mid), computeMaxEnd(mid + 1, to)));
+            maxEnd[mid] = max;
+            return max;
+        }
+
+        private void collect(int from, int to, long day, List<Long> budgetIds) {
+            if (from >= to) {
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            if (maxEnd[mid] < day) {
+                return;
+            }
+            collect(from, mid, day, budgetIds);
+            Interval interval = intervals[mid];
+            if (interval.start() > day) {
+                return;
+            }
+            if (interval.end() >= day) {
+                budgetIds.add(interval.budgetId());
+            }
+            collect(mid + 1, to, day, budgetIds);
+        }
+    }
+}
@@ -1,22 +1,29 @@
 package com.finance.service;
 
 import com.finance.domain.Budget;
+import com.finance.domain.Transaction;
 import com.finance.domain.User;
 import com.finance.domain.Category;
-import com.finance.domain.Transaction;
+import com.finance.dto.BudgetRow;
 import com.finance.repository.BudgetRepository;
-import com.finance.service.TransactionService;
+import com.finance.event.TransactionChangedEvent;
 import com.finance.service.NotificationService;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
-import jakarta.transaction.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+@Slf4j
 @Service
 @Transactional
 public class BudgetService {
@@ -25,17 +32,23 @@ public class BudgetService {
     private BudgetRepository budgetRepository;
 
     @Autowired
-    private TransactionService transactionService;
+    private NotificationService notificationService;
 
     @Autowired
-    private NotificationService notificationService;
+    private BudgetIntervalIndex budgetIntervalIndex;
+
+    @Autowired
+    private BudgetSpentService budgetSpentService;
+
+    @Autowired
+    private UserDataVersionService userDataVersionService;
 
     public List<Budget> findAll() {
         return budgetRepository.findAll();
     }
 
     public Optional<Budget> findById(Long id) {
-        return budgetRepository.findById(id);
+        return budgetRepository.findWithCategoryById(id);
     }
 
     public List<Budget> findByUser(User user) {
@@ -46,15 +59,15 @@ public class BudgetService {
         return budgetRepository.findByUserOrderByStartDateDesc(user);
     }
 
-    public List<Budget> findActiveBudgetsByUser(User user) {
+    public List<BudgetRow> findActiveBudgetsByUser(User user) {
         return budgetRepository.findActiveBudgetsByUser(user, LocalDate.now());
     }
 
-    public List<Budget> findExpiredBudgetsByUser(User user) {
+    public List<BudgetRow> findExpiredBudgetsByUser(User user) {
         return budgetRepository.findExpiredBudgetsByUser(user, LocalDate.now());
     }
 
-    public List<Budget> findUpcomingBudgetsByUser(User user) {
+    public List<BudgetRow> findUpcomingBudgetsByUser(User user) {
         return budgetRepository.findUpcomingBudgetsByUser(user, LocalDate.now());
     }
 
@@ -67,7 +80,11 @@ public class BudgetService {
     }
 
     public Budget save(Budget budget) {
-        return budgetRepository.save(budget);
+        Budget savedBudget = budgetRepository.save(budget);
+        budgetIntervalIndex.invalidate(savedBudget.getUser().getId());
+        userDataVersionService.bump(savedBudget.getUser().getId());
+        budgetSpentService.recompute(savedBudget);
+        return savedBudget;
     }
 
     public Budget createBudget(String name, BigDecimal amount, LocalDate startDate, LocalDate endDate,
@@ -85,7 +102,12 @@ public class BudgetService {
         budget.setCategory(category);
         budget.setDescription(description);
 
-        return budgetRepository.save(budget);
+        Budget savedBudget = budgetRepository.save(budget);
+        budgetIntervalIndex.invalidate(user.getId());
+        userDataVersionService.bump(user.getId());
+        budgetSpentService.recompute(savedBudget);
+        evaluateBudgetAlerts(List.of(savedBudget));
+        return savedBudget;
     }
 
 
@@ -105,86 +127,93 @@ public class BudgetService {
                     budget.setCategory(category);
                     budget.setDescription(description);
 
-                    return budgetRepository.save(budget);
+                    Budget savedBudget = budgetRepository.save(budget);
+                    budgetIntervalIndex.invalidate(budget.getUser().getId());
+                    userDataVersionService.bump(budget.getUser().getId());
+                    budgetSpentService.recompute(savedBudget);
+                    evaluateBudgetAlerts(List.of(savedBudget));
+                    return savedBudget;
                 })
                 .orElseThrow(() -> new RuntimeException("Budget not found with id: " + id));
     }
 
+    @Transactional(readOnly = true)
     public List<BudgetProgress> getExpiredBudgetProgress(User user) {
-        List<Budget> expiredBudgets = findExpiredBudgetsByUser(user);
-        return expiredBudgets.stream()
-                .map(this::getBudgetProgress)
+        return findExpiredBudgetsByUser(user).stream()
+                .map(this::buildBudgetProgress)
                 .sorted((b1, b2) -> Long.compare(b2.getDaysRemaining(), b1.getDaysRemaining()))
                 .collect(java.util.stream.Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<BudgetProgress> getUpcomingBudgetProgress(User user) {
-        List<Budget> upcomingBudgets = findUpcomingBudgetsByUser(user);
-        return upcomingBudgets.stream()
-                .map(this::getBudgetProgress)
+        return findUpcomingBudgetsByUser(user).stream()
+                .map(this::buildBudgetProgress)
                 .sorted((b1, b2) -> Long.compare(b1.getDaysRemaining(), b2.getDaysRemaining()))
                 .collect(java.util.stream.Collectors.toList());
     }
 
     public void deleteById(Long id) {
-        if (!budgetRepository.existsById(id)) {
-            throw new RuntimeException("Budget not found with id: " + id);
-        }
-        budgetRepository.deleteById(id);
+        Budget budget = budgetRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Budget not found with id: " + id));
+        budgetRepository.delete(budget);
+        budgetIntervalIndex.invalidate(budget.getUser().getId());
+        userDataVersionService.bump(budget.getUser().getId());
     }
 
+    @Transactional(readOnly = true)
     public long getActiveBudgetCount(User user) {
         return budgetRepository.countActiveBudgetsByUser(user, LocalDate.now());
     }
 
+    @Transactional(readOnly = true)
     public BigDecimal getTotalActiveBudgetAmount(User user) {
         BigDecimal total = budgetRepository.sumActiveBudgetAmountsByUser(user, LocalDate.now());
         return total != null ? total : BigDecimal.ZERO;
     }
 
+    @Transactional(readOnly = true)
     public BudgetProgress getBudgetProgress(Budget budget) {
-        BigDecimal spent;
-        // If budget has a specific category, filter by that category
-        if (budget.getCategory() != null) {
-            spent = transactionService.getTotalExpensesByUserAndCategoryAndDateRange(
-                budget.getUser(),
-                budget.getCategory(),
-                budget.getStartDate().atStartOfDay(),
-                budget.getEndDate().atTime(23, 59, 59)
-            );
-        } else {
-            // Calculate spent amount based on all transactions within budget period
-            spent = transactionService.getTotalExpensesByUserAndDateRange(
-                budget.getUser(),
-                budget.getStartDate().atStartOfDay(),
-                budget.getEndDate().atTime(23, 59, 59)
-            );
+        return getBudgetProgress(List.of(budget)).get(0);
+    }
+
+    /**
+     * Builds progress from each budget's stored spent counter, so no transaction rows are read.
+     * Pure read: threshold alerts are raised by {@link #onTransactionChanged}.
+     */
+    @Transactional(readOnly = true)
+    public List<BudgetProgress> getBudgetProgress(List<Budget> budgets) {
+        List<BudgetProgress> progress = new ArrayList<>(budgets.size());
+        for (Budget budget : budgets) {
+            progress.add(buildBudgetProgress(BudgetRow.of(budget)));
         }
+        return progress;
+    }
 
-        BigDecimal remaining = budget.getAmount().subtract(spent);
-        double percentageSpent = budget.getAmount().compareTo(BigDecimal.ZERO) > 0 ?
-            spent.doubleValue() / budget.getAmount().doubleValue() * 100 : 0.0;
+    private BudgetProgress buildBudgetProgress(BudgetRow budget) {
+        BigDecimal spent = budget.spent();
+        BigDecimal remaining = budget.amount().subtract(spent);
+        double percentageSpent = budget.amount().compareTo(BigDecimal.ZERO) > 0 ?
+            spent.doubleValue() / budget.amount().doubleValue() * 100 : 0.0;
 
-        boolean overBudget = spent.compareTo(budget.getAmount()) > 0;
-        long daysRemaining = budget.getDaysRemaining();
+        boolean overBudget = spent.compareTo(budget.amount()) > 0;
+        long daysRemaining = budget.daysRemaining();
 
-        BudgetProgress budgetProgress = new BudgetProgress(budget, spent, remaining, percentageSpent, overBudget, daysRemaining);
-        checkAndSendBudgetNotifications(budgetProgress);
-        return budgetProgress;
+        return new BudgetProgress(budget, spent, remaining, percentageSpent, overBudget, daysRemaining);
     }
 
+    @Transactional(readOnly = true)
     public List<BudgetProgress> getAllBudgetProgress(User user) {
         List<Budget> budgets = findByUser(user);
-        return budgets.stream()
-                .map(this::getBudgetProgress)
+        return getBudgetProgress(budgets).stream()
                 .sorted((b1, b2) -> Long.compare(b2.getDaysRemaining(), b1.getDaysRemaining()))
                 .collect(java.util.stream.Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<BudgetProgress> getActiveBudgetProgress(User user) {
-        List<Budget> activeBudgets = findActiveBudgetsByUser(user);
-        return activeBudgets.stream()
-                .map(this::getBudgetProgress)
+        return findActiveBudgetsByUser(user).stream()
+                .map(this::buildBudgetProgress)
                 .sorted((b1, b2) -> Double.compare(b2.getPercentageSpent(), b1.getPercentageSpent()))
                 .collect(java.util.stream.Collectors.toList());
     }
@@ -192,10 +221,52 @@ public class BudgetService {
     public void deleteAllByUser(User user) {
         List<Budget> budgets = findByUser(user);
         budgets.forEach(budget -> budgetRepository.delete(budget));
+        budgetIntervalIndex.invalidate(user.getId());
+        userDataVersionService.bump(user.getId());
+    }
+
+    /**
+     * Re-evaluates threshold alerts once a transaction change has committed. Only expenses can push a budget over
+     * a threshold, and only the budgets whose category and date window contain the expense are looked at.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        if (event.getType() != Transaction.TransactionType.EXPENSE
+                || event.getChangeType() == TransactionChangedEvent.ChangeType.DELETED) {
+            return;
+        }
+
+        try {
+            List<Long> affectedBudgetIds = budgetIntervalIndex.findBudgetIds(event.getUserId(),
+                    event.getCategoryId(), event.getTransactionDate().toLocalDate());
+            if (!affectedBudgetIds.isEmpty()) {
+                evaluateBudgetAlerts(budgetRepository.findAllById(affectedBudgetIds));
+            }
+        } catch (RuntimeException e) {
+            // The transaction itself is already committed; a failed alert must not fail the user's request
+            log.warn("Could not evaluate budget alerts for {}", event, e);
+        }
+    }
+
+    /**
+     * Threshold alerts for writes that bypass {@link TransactionChangedEvent}, e.g. a bulk import, run once for every
+     * budget the write touched.
+     */
+    public void evaluateBudgetAlertsById(Collection<Long> budgetIds) {
+        if (!budgetIds.isEmpty()) {
+            evaluateBudgetAlerts(budgetRepository.findAllById(budgetIds));
+        }
+    }
+
+    // Alerts update the managed budget, so they work on entities rather than rows
+    private void evaluateBudgetAlerts(List<Budget> budgets) {
+        for (Budget budget : budgets) {
+            checkAndSendBudgetNotifications(budget, buildBudgetProgress(BudgetRow.of(budget)));
+        }
     }
 
-    private void checkAndSendBudgetNotifications(BudgetProgress budgetProgress) {
-        Budget budget = budgetProgress.getBudget();
+    private void checkAndSendBudgetNotifications(Budget budget, BudgetProgress budgetProgress) {
         double percentageSpent = budgetProgress.getPercentageSpent();
         Integer lastNotificationPercentage = budget.getLastNotificationPercentage();
 
@@ -215,7 +286,7 @@ public class BudgetService {
             } else {
                 message = String.format("Bạn đã tiêu tới %d%% của ngân sách '%s'.", currentThreshold, budget.getName());
             }
-            notificationService.createNotification(budget.getUser(), message);
+            notificationService.createBudgetNotification(budget.getUser(), budget.getId(), message);
             budget.setLastNotificationPercentage(currentThreshold);
             budgetRepository.save(budget);
         }
@@ -224,14 +295,14 @@ public class BudgetService {
 
 
     public static class BudgetProgress {
-        private final Budget budget;
+        private final BudgetRow budget;
         private final BigDecimal spent;
         private final BigDecimal remaining;
         private final double percentageSpent;
         private final boolean overBudget;
         private final long daysRemaining;
 
-        public BudgetProgress(Budget budget, BigDecimal spent, BigDecimal remaining,
+        public BudgetProgress(BudgetRow budget, BigDecimal spent, BigDecimal remaining,
                             double percentageSpent, boolean overBudget, long daysRemaining) {
             this.budget = budget;
             this.spent = spent;
@@ -242,7 +313,7 @@ public class BudgetService {
         }
 
         // Getters
-        public Budget getBudget() { return budget; }
+        public BudgetRow getBudget() { return budget; }
         public BigDecimal getSpent() { return spent; }
         public BigDecimal getRemaining() { return remaining; }
         public double getPercentageSpent() { return percentageSpent; }
@@ -0,0 +1,143 @@
+package com.finance.service;
+
+import com.finance.domain.Budget;
+import com.finance.domain.Transaction;
+import com.finance.domain.User;
+import com.finance.repository.BudgetRepository;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps {@link Budget#getSpent()} in step with the user's expenses. Every transaction write applies its amount as an
+ * atomic SQL delta to the budgets it falls in, so building budget progress never has to re-sum transactions.
+ */
+@Slf4j
+@Service
+@Transactional
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class BudgetSpentService {
+
+    BudgetRepository budgetRepository;
+
+    BudgetIntervalIndex budgetIntervalIndex;
+
+    UserDataVersionService userDataVersionService;
+
+    public void recordCreated(Transaction transaction) {
+        apply(transaction, transaction.getAmount());
+    }
+
+    /**
+     * Applies a batch of new transactions, summing the expenses per budget first so each budget takes a single
+     * delta however many rows of the batch fall in it. Returns the ids of the budgets that changed.
+     */
+    public Set<Long> recordCreated(Collection<Transaction> transactions) {
+        Map<Long, BigDecimal> deltas = new HashMap<>();
+        for (Transaction transaction : transactions) {
+            if (transaction.getType() != Transaction.TransactionType.EXPENSE) {
+                continue;
+            }
+            for (Long budgetId : budgetIntervalIndex.findBudgetIds(transaction.getUser().getId(),
+                    transaction.getCategory().getId(), transaction.getTransactionDate().toLocalDate())) {
+                deltas.merge(budgetId, transaction.getAmount(), BigDecimal::add);
+            }
+        }
+        deltas.forEach((budgetId, delta) -> budgetRepository.addToSpent(List.of(budgetId), delta));
+        return deltas.keySet();
+    }
+
+    // Must be called with the transaction's values before they are changed or removed
+    public void recordDeleted(Transaction transaction) {
+        apply(transaction, transaction.getAmount().negate());
+    }
+
+    private void apply(Transaction transaction, BigDecimal delta) {
+        if (transaction.getType() != Transaction.TransactionType.EXPENSE) {
+            return;
+        }
+        List<Long> budgetIds = budgetIntervalIndex.findBudgetIds(transaction.getUser().getId(),
+                transaction.getCategory().getId(), transaction.getTransactionDate().toLocalDate());
+        if (!budgetIds.isEmpty()) {
+            budgetRepository.addToSpent(budgetIds, delta);
+        }
+    }
+
+    /**
+     * Recomputes a budget's counter from the raw transactions, e.g. after it was created or its window or category
+     * changed, and copies the result onto the given instance.
+     */
+    public BigDecimal recompute(Budget budget) {
+        budgetRepository.recomputeSpent(budget.getId());
+        BigDecimal spent = budgetRepository.findSpentById(budget.getId());
+        budget.setSpent(spent);
+        return spent;
+    }
+
+    public void resetForUser(User user) {
+        budgetRepository.resetSpentByUser(user);
+    }
+
+    /**
+     * Compares every stored counter with a fresh sum of the raw transactions. With {@code repair} set, drifted
+     * counters are recomputed in place.
+     */
+    public ReconciliationReport reconcile(boolean repair) {
+        long startTime = System.currentTimeMillis();
+        int checked = 0;
+        int drifted = 0;
+        BigDecimal totalDrift = BigDecimal.ZERO;
+
+        for (Object[] row : budgetRepository.compareSpentWithTransactions()) {
+            checked++;
+            Long budgetId = (Long) row[0];
+            Long userId = (Long) row[1];
+            BigDecimal stored = (BigDecimal) row[2];
+            BigDecimal actual = row[3] != null ? (BigDecimal) row[3] : BigDecimal.ZERO;
+
+            if (stored.compareTo(actual) != 0) {
+                drifted++;
+                totalDrift = totalDrift.add(stored.subtract(actual).abs());
+                log.warn("Budget {} spent counter drifted: stored {} but transactions sum to {}", budgetId, stored, actual);
+                if (repair) {
+                    budgetRepository.recomputeSpent(budgetId);
+                    userDataVersionService.bump(userId);
+                }
+            }
+        }
+
+        ReconciliationReport report = new ReconciliationReport(checked, drifted, totalDrift, repair,
+                System.currentTimeMillis() - startTime);
+        log.info("Budget spent reconciliation: {}", report);
+        return report;
+    }
+
+    @Scheduled(cron = "${finance.budget.spent-reconciliation-cron:0 30 3 * * *}")
+    public void reconcileNightly() {
+        reconcile(true);
+    }
+
+    // Brings counters up to date when the application starts, including budgets created before they existed
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeSpent() {
+        reconcile(true);
+    }
+
+    public record ReconciliationReport(int budgetsChecked, int budgetsDrifted, BigDecimal totalDrift,
+            boolean repaired, long durationMillis) {
+    }
+}
@@ -16,6 +16,12 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
 
+    private final TransactionRollupService transactionRollupService;
+
+    private final TransactionSearchService transactionSearchService;
+
+    private final UserDataVersionService userDataVersionService;
+
     public List<Category> getExpenseCategories() {
         return categoryRepository.findByType(Category.CategoryType.EXPENSE);
     }
@@ -24,6 +30,10 @@ public class CategoryService {
         return categoryRepository.findByType(Category.CategoryType.INCOME);
     }
 
+    public Optional<Category> findByNameIgnoreCase(String name) {
+        return categoryRepository.findByNameIgnoreCase(name);
+    }
+
     public Optional<Category> findById(Long id) {
         return categoryRepository.findById(id);
     }
@@ -32,11 +42,16 @@ public class CategoryService {
         return categoryRepository.findAll();
     }
 
+    // Categories are shared, so any change can alter every user's dashboard
     public Category save(Category category) {
+        userDataVersionService.bumpAll();
         return categoryRepository.save(category);
     }
 
     public void deleteById(Long id) {
+        transactionRollupService.deleteAllByCategoryId(id);
+        transactionSearchService.deleteAllByCategoryId(id);
         categoryRepository.deleteById(id);
+        userDataVersionService.bumpAll();
     }
 }
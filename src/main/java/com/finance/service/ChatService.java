@@ -3,8 +3,6 @@ package com.finance.service;
 import com.finance.domain.Transaction;
 import com.finance.domain.Category;
 import com.finance.domain.User;
-import com.finance.repository.TransactionRepository;
-import com.finance.repository.CategoryRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,15 +25,15 @@ public class ChatService {
     private static final Logger logger = LoggerFactory.getLogger(ChatService.class);
 
     private final GeminiService geminiService;
-    private final TransactionRepository transactionRepository;
-    private final CategoryRepository categoryRepository;
+    private final TransactionService transactionService;
+    private final CategoryService categoryService;
 
     public ChatService(GeminiService geminiService,
-            TransactionRepository transactionRepository,
-            CategoryRepository categoryRepository) {
+            TransactionService transactionService,
+            CategoryService categoryService) {
         this.geminiService = geminiService;
-        this.transactionRepository = transactionRepository;
-        this.categoryRepository = categoryRepository;
+        this.transactionService = transactionService;
+        this.categoryService = categoryService;
     }
 
     public Map<String, String> processMessage(String message, User user) {
@@ -106,16 +104,15 @@ public class ChatService {
             // Find or create category
             Category category = findOrCreateCategory(categoryName, transactionType, user);
 
-            // Create transaction
-            Transaction transaction = new Transaction();
-            transaction.setDescription(description);
-            transaction.setAmount(amountBigDecimal);
-            transaction.setType(transactionType);
-            transaction.setTransactionDate(transactionDate);
-            transaction.setUser(user);
-            transaction.setCategory(category);
-            transaction.setNotes("Tự động thêm từ chatbot: " + description);
-            Transaction savedTransaction = transactionRepository.save(transaction);
+            // Create transaction through the service so the monthly rollup stays in sync
+            Transaction savedTransaction = transactionService.createTransaction(
+                    description,
+                    amountBigDecimal,
+                    transactionType,
+                    user,
+                    category,
+                    transactionDate,
+                    "Tự động thêm từ chatbot: " + description);
 
             logger.debug("Saved transaction: {}", savedTransaction);
             return savedTransaction;
@@ -139,7 +136,7 @@ public class ChatService {
 
     private Category findOrCreateCategory(String categoryName, Transaction.TransactionType transactionType, User user) {
         try {
-            Optional<Category> existingCategory = categoryRepository.findByNameIgnoreCase(categoryName.trim());
+            Optional<Category> existingCategory = categoryService.findByNameIgnoreCase(categoryName.trim());
 
             if (existingCategory.isPresent()) {
                 Category category = existingCategory.get();
@@ -158,7 +155,8 @@ public class ChatService {
             newCategory.setColor(generateCategoryColor(transactionType));
             newCategory.setDescription("Tự động tạo từ chatbot");
 
-            Category savedCategory = categoryRepository.save(newCategory);
+            // Saved through CategoryService so cached category lists and dashboards are refreshed
+            Category savedCategory = categoryService.save(newCategory);
             logger.debug("Created new category: {}", savedCategory.getName());
             return savedCategory;
 
@@ -179,7 +177,7 @@ public class ChatService {
                 ? Category.CategoryType.INCOME
                 : Category.CategoryType.EXPENSE;
 
-        Optional<Category> defaultCategory = categoryRepository.findByNameIgnoreCase(defaultCategoryName);
+        Optional<Category> defaultCategory = categoryService.findByNameIgnoreCase(defaultCategoryName);
         if (defaultCategory.isPresent()) {
             return defaultCategory.get();
         }
@@ -190,7 +188,7 @@ public class ChatService {
         category.setColor(generateCategoryColor(transactionType));
         category.setDescription("Danh mục mặc định");
 
-        return categoryRepository.save(category);
+        return categoryService.save(category);
     }
 
     public Map<String, Object> getStatus() {
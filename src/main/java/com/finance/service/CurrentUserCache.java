@@ -0,0 +1,158 @@
+package com.finance.service;
+
+import com.finance.domain.Role;
+import com.finance.domain.User;
+import com.finance.repository.UserRepository;
+import com.finance.utils.TransactionCallbacks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived cross-request cache of the signed-in user's profile, so resolving the current user is not a
+ * {@code users} query on every request. Entries are immutable snapshots; every lookup hands out a fresh detached
+ * {@link User} built from one, which callers may pass to services and queries but must never save or merge.
+ *
+ * <p>{@link UserService} evicts a user on every write to them. Entries also expire after {@code ttl}, which bounds
+ * how long a change made outside the service (e.g. directly in the database) can go unnoticed.</p>
+ */
+@Service
+public class CurrentUserCache {
+
+    private final UserRepository userRepository;
+    private final Map<Long, Entry> entries;
+    private final Map<String, Long> idsByUsername = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public CurrentUserCache(UserRepository userRepository, MeterRegistry meterRegistry,
+            @Value("${finance.users.current-cache.ttl:60s}") Duration ttl,
+            @Value("${finance.users.current-cache.max-entries:10000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.ttlMillis = ttl.toMillis();
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > maxEntries) {
+                    idsByUsername.remove(eldest.getValue().username(), eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        });
+
+        this.hits = Counter.builder("finance.users.current-cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("finance.users.current-cache").tag("result", "miss").register(meterRegistry);
+        meterRegistry.gauge("finance.users.current-cache.size", entries, Map::size);
+    }
+
+    public Optional<User> resolve(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return Optional.empty();
+        }
+        if (authentication.getPrincipal() instanceof AuthenticatedUser authenticatedUser) {
+            return get(authenticatedUser.getId());
+        }
+        return getByUsername(authentication.getName());
+    }
+
+    // The id is carried by the principal, so this only needs a lookup for principals from other sources
+    public Optional<Long> resolveId(Authentication authentication) {
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser authenticatedUser) {
+            return Optional.of(authenticatedUser.getId());
+        }
+        return resolve(authentication).map(User::getId);
+    }
+
+    public Optional<User> get(Long userId) {
+        Entry entry = entries.get(userId);
+        if (entry != null && !entry.isExpired()) {
+            hits.increment();
+            return Optional.of(entry.toUser());
+        }
+        misses.increment();
+        return userRepository.findById(userId).map(this::store);
+    }
+
+    public Optional<User> getByUsername(String username) {
+        Long userId = idsByUsername.get(username);
+        if (userId != null) {
+            Optional<User> cached = get(userId).filter(user -> username.equals(user.getUsername()));
+            if (cached.isPresent()) {
+                return cached;
+            }
+            // The user was renamed or deleted since; the name may now belong to someone else
+            idsByUsername.remove(username, userId);
+        }
+        misses.increment();
+        return userRepository.findByUsername(username).map(this::store);
+    }
+
+    /**
+     * Drops the user now and, inside a transaction, again once it completes, so a request that read the old row
+     * in between cannot keep it cached.
+     */
+    public void invalidate(Long userId) {
+        evict(userId);
+        TransactionCallbacks.afterCompletion(() -> evict(userId));
+    }
+
+    private User store(User user) {
+        Entry entry = Entry.of(user, System.currentTimeMillis() + ttlMillis);
+        Entry previous = entries.put(user.getId(), entry);
+        if (previous != null && !previous.username().equals(entry.username())) {
+            idsByUsername.remove(previous.username(), user.getId());
+        }
+        idsByUsername.put(user.getUsername(), user.getId());
+        return entry.toUser();
+    }
+
+    private void evict(Long userId) {
+        Entry entry = entries.remove(userId);
+        if (entry != null) {
+            idsByUsername.remove(entry.username(), userId);
+        }
+    }
+
+    private record Entry(Long id, String username, String email, Long roleId, String roleName,
+            LocalDateTime createdAt, long expiresAt) {
+
+        static Entry of(User user, long expiresAt) {
+            Role role = user.getUserRole();
+            return new Entry(user.getId(), user.getUsername(), user.getEmail(),
+                    role != null ? role.getId() : null, role != null ? role.getName() : null,
+                    user.getCreatedAt(), expiresAt);
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+
+        // The password hash is deliberately not cached
+        User toUser() {
+            User user = new User();
+            user.setId(id);
+            user.setUsername(username);
+            user.setEmail(email);
+            user.setCreatedAt(createdAt);
+            if (roleId != null) {
+                user.setUserRole(new Role(roleId, roleName));
+            }
+            return user;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.finance.service;
+
+import com.finance.domain.User;
+import com.finance.dto.GoalRow;
+import com.finance.dto.TransactionRow;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Assembles the dashboard by running its independent widget queries concurrently on virtual threads.
+ * Every widget runs in its own read-only transaction; at most {@code parallelism} of them hold a connection at once
+ * per request, and a widget that fails or exceeds the timeout is replaced by an empty fallback so the rest of the
+ * page still renders. The timeout also bounds the wait for a connection slot and is passed on to the transaction,
+ * so a slow statement is cancelled by the driver and gives its connection back instead of running on unobserved.
+ */
+@Slf4j
+@Service
+public class DashboardService {
+
+    public static final String WIDGET_STATISTICS = "statistics";
+    public static final String WIDGET_RECENT_TRANSACTIONS = "recentTransactions";
+    public static final String WIDGET_ACTIVE_BUDGETS = "activeBudgets";
+    public static final String WIDGET_BUDGET_COUNT = "budgetCount";
+    public static final String WIDGET_GOAL_SUMMARY = "goalSummary";
+    public static final String WIDGET_ACTIVE_GOALS = "activeGoals";
+
+    private static final int RECENT_TRANSACTIONS_LIMIT = 5;
+    private static final int ACTIVE_GOALS_LIMIT = 5;
+
+    private final TransactionService transactionService;
+    private final BudgetService budgetService;
+    private final GoalService goalService;
+    private final PlatformTransactionManager transactionManager;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final int parallelism;
+    private final Duration widgetTimeout;
+
+    public DashboardService(TransactionService transactionService, BudgetService budgetService,
+            GoalService goalService, PlatformTransactionManager transactionManager,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            @Value("${finance.dashboard.widget-timeout:2s}") Duration widgetTimeout) {
+        this.transactionService = transactionService;
+        this.budgetService = budgetService;
+        this.goalService = goalService;
+        this.transactionManager = transactionManager;
+        // Leave most of the pool to other requests: one dashboard may hold at most a quarter of it
+        this.parallelism = Math.max(1, poolSize / 4);
+        this.widgetTimeout = widgetTimeout;
+    }
+
+    public DashboardData assemble(User user, LocalDateTime startDate, LocalDateTime endDate) {
+        Semaphore permits = new Semaphore(parallelism);
+        Set<String> unavailable = Collections.synchronizedSet(new LinkedHashSet<>());
+
+        CompletableFuture<TransactionService.TransactionStatistics> stats = widget(WIDGET_STATISTICS, permits,
+                unavailable, () -> transactionService.getTransactionStatisticsForDateRange(user, startDate, endDate),
+                () -> new TransactionService.TransactionStatistics(BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO,
+                        0, 0));
+        CompletableFuture<List<TransactionRow>> recentTransactions = widget(WIDGET_RECENT_TRANSACTIONS, permits,
+                unavailable, () -> transactionService.findRecentTransactionsByUserAndDateRange(user, startDate,
+                        endDate, RECENT_TRANSACTIONS_LIMIT), List::of);
+        CompletableFuture<List<BudgetService.BudgetProgress>> activeBudgets = widget(WIDGET_ACTIVE_BUDGETS, permits,
+                unavailable, () -> budgetService.getActiveBudgetProgress(user), List::of);
+        CompletableFuture<Long> budgetCount = widget(WIDGET_BUDGET_COUNT, permits, unavailable,
+                () -> budgetService.getActiveBudgetCount(user), () -> 0L);
+        CompletableFuture<GoalService.GoalSummary> goalSummary = widget(WIDGET_GOAL_SUMMARY, permits, unavailable,
+                () -> goalService.getGoalSummary(user),
+                () -> new GoalService.GoalSummary(0, BigDecimal.ZERO, BigDecimal.ZERO, 0.0, 0, 0, 0));
+        CompletableFuture<List<GoalRow>> activeGoals = widget(WIDGET_ACTIVE_GOALS, permits, unavailable,
+                () -> goalService.findActiveGoalsByUser(user, ACTIVE_GOALS_LIMIT), List::of);
+
+        CompletableFuture.allOf(stats, recentTransactions, activeBudgets, budgetCount, goalSummary, activeGoals)
+                .join();
+
+        return new DashboardData(stats.join(), recentTransactions.join(), activeBudgets.join(), budgetCount.join(),
+                goalSummary.join(), activeGoals.join(), Set.copyOf(unavailable));
+    }
+
+    private <T> CompletableFuture<T> widget(String name, Semaphore permits, Set<String> unavailable,
+            Supplier<T> query, Supplier<T> fallback) {
+        long deadline = System.nanoTime() + widgetTimeout.toNanos();
+        return CompletableFuture.supplyAsync(() -> {
+                    acquire(permits, deadline);
+                    try {
+                        return readOnlyTransaction(deadline).execute(status -> query.get());
+                    } finally {
+                        permits.release();
+                    }
+                }, executor)
+                .orTimeout(widgetTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    log.warn("Dashboard widget '{}' unavailable: {}", name, e.toString());
+                    unavailable.add(name);
+                    return fallback.get();
+                });
+    }
+
+    private static void acquire(Semaphore permits, long deadline) {
+        try {
+            if (!permits.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                throw new CompletionException(new TimeoutException("No connection slot before the widget timeout"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    // Whatever is left of the widget's time, rounded up to the whole seconds transaction timeouts are set in
+    private TransactionTemplate readOnlyTransaction(long deadline) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        transaction.setTimeout((int) Math.max(1, (remainingMillis + 999) / 1000));
+        return transaction;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public static class DashboardData {
+        private final TransactionService.TransactionStatistics stats;
+        private final List<TransactionRow> recentTransactions;
+        private final List<BudgetService.BudgetProgress> activeBudgets;
+        private final long activeBudgetCount;
+        private final GoalService.GoalSummary goalSummary;
+        private final List<GoalRow> activeGoals;
+        private final Set<String> unavailableWidgets;
+
+        public DashboardData(TransactionService.TransactionStatistics stats, List<TransactionRow> recentTransactions,
+                             List<BudgetService.BudgetProgress> activeBudgets, long activeBudgetCount,
+                             GoalService.GoalSummary goalSummary, List<GoalRow> activeGoals,
+                             Set<String> unavailableWidgets) {
+            this.stats = stats;
+            this.recentTransactions = recentTransactions;
+            this.activeBudgets = activeBudgets;
+            this.activeBudgetCount = activeBudgetCount;
+            this.goalSummary = goalSummary;
+            this.activeGoals = activeGoals;
+            this.unavailableWidgets = unavailableWidgets;
+        }
+
+        // Getters
+        public TransactionService.TransactionStatistics getStats() { return stats; }
+        public List<TransactionRow> getRecentTransactions() { return recentTransactions; }
+        public List<BudgetService.BudgetProgress> getActiveBudgets() { return activeBudgets; }
+        public long getActiveBudgetCount() { return activeBudgetCount; }
+        public GoalService.GoalSummary getGoalSummary() { return goalSummary; }
+        public List<GoalRow> getActiveGoals() { return activeGoals; }
+        public Set<String> getUnavailableWidgets() { return unavailableWidgets; }
+        public boolean isPartial() { return !unavailableWidgets.isEmpty(); }
+    }
+}
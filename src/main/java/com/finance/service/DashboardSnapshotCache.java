@@ -0,0 +1,144 @@
+package com.finance.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Size-bounded cache of assembled dashboard views, one entry per (user, view, range, day) tagged with the
+ * {@link UserDataVersionService} version it was built from. The day is part of the key because the views also
+ * depend on today's date (active budgets, days remaining, overdue goals), so entries from yesterday are never
+ * served and simply age out of the map. An entry whose version is current is served as is.
+ * An outdated entry triggers a refresh; if the refresh does not finish within {@code stale-timeout} the outdated
+ * snapshot is served and the refresh completes in the background. Concurrent requests share a refresh only when
+ * they saw the same version, so a request made after a write never receives a result loaded before it.
+ */
+@Slf4j
+@Service
+public class DashboardSnapshotCache {
+
+    private final UserDataVersionService userDataVersionService;
+    private final Map<Key, Snapshot> snapshots;
+    private final Map<Refresh, CompletableFuture<Object>> refreshes = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Duration staleTimeout;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter staleServed;
+    private final Counter refreshCount;
+
+    public DashboardSnapshotCache(UserDataVersionService userDataVersionService, MeterRegistry meterRegistry,
+            @Value("${finance.dashboard.cache.max-entries:1000}") int maxEntries,
+            @Value("${finance.dashboard.cache.stale-timeout:300ms}") Duration staleTimeout) {
+        this.userDataVersionService = userDataVersionService;
+        this.staleTimeout = staleTimeout;
+        this.snapshots = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Snapshot> eldest) {
+                return size() > maxEntries;
+            }
+        });
+
+        this.hits = Counter.builder("finance.dashboard.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("finance.dashboard.cache").tag("result", "miss").register(meterRegistry);
+        this.staleServed = Counter.builder("finance.dashboard.cache").tag("result", "stale").register(meterRegistry);
+        this.refreshCount = Counter.builder("finance.dashboard.cache.refreshes").register(meterRegistry);
+        meterRegistry.gauge("finance.dashboard.cache.size", snapshots, Map::size);
+    }
+
+    /**
+     * Returns the cached view or loads it. Results rejected by {@code cacheable} (e.g. a partially rendered
+     * dashboard) are never stored, and an outdated snapshot is preferred over them when one exists.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Long userId, String view, LocalDateTime startDate, LocalDateTime endDate,
+            Supplier<T> loader, Predicate<T> cacheable) {
+        Key key = new Key(userId, view, startDate, endDate, LocalDate.now());
+        long version = userDataVersionService.current(userId);
+
+        Snapshot snapshot = snapshots.get(key);
+        if (snapshot != null && snapshot.version() == version) {
+            hits.increment();
+            return (T) snapshot.value();
+        }
+        if (snapshot == null) {
+            misses.increment();
+        }
+
+        CompletableFuture<Object> refresh = refreshes.computeIfAbsent(new Refresh(key, version),
+                r -> startRefresh(r, (Supplier<Object>) loader, (Predicate<Object>) cacheable));
+
+        if (snapshot == null) {
+            try {
+                return (T) refresh.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            T value = (T) refresh.get(staleTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            return cacheable.test(value) ? value : (T) snapshot.value();
+        } catch (TimeoutException | ExecutionException e) {
+            staleServed.increment();
+            return (T) snapshot.value();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            staleServed.increment();
+            return (T) snapshot.value();
+        }
+    }
+
+    private CompletableFuture<Object> startRefresh(Refresh pending, Supplier<Object> loader,
+            Predicate<Object> cacheable) {
+        refreshCount.increment();
+        CompletableFuture<Object> refresh = CompletableFuture.supplyAsync(loader, executor);
+        // Async so the callback never runs inside the computeIfAbsent that registered the refresh
+        refresh.whenCompleteAsync((value, error) -> {
+            refreshes.remove(pending, refresh);
+            if (error != null) {
+                log.warn("Refreshing dashboard snapshot {} failed: {}", pending.key(), error.toString());
+            } else if (cacheable.test(value)) {
+                // Stored under the version read before loading, so a write during the load still forces a refresh,
+                // and never over a snapshot that a refresh started later has already stored
+                snapshots.merge(pending.key(), new Snapshot(pending.version(), value),
+                        (current, loaded) -> current.version() > loaded.version() ? current : loaded);
+            }
+        }, executor);
+        return refresh;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private record Key(Long userId, String view, LocalDateTime startDate, LocalDateTime endDate, LocalDate day) {
+    }
+
+    private record Snapshot(long version, Object value) {
+    }
+
+    private record Refresh(Key key, long version) {
+    }
+}
@@ -10,11 +10,13 @@ import org.springframework.transaction.annotation.Transactional;
 
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import com.finance.domain.Notification;
 import com.finance.domain.User;
 import com.finance.domain.Goal.GoalStatus;
+import com.finance.dto.GoalRow;
 import com.finance.repository.GoalRepository;
 import com.finance.service.NotificationService;
 
@@ -23,10 +25,13 @@ import com.finance.service.NotificationService;
 public class GoalService {
     private final GoalRepository goalRepository ;
     private final NotificationService notificationService;
+    private final UserDataVersionService userDataVersionService;
 
-    public GoalService(GoalRepository goalRepository , NotificationService notificationService){
+    public GoalService(GoalRepository goalRepository , NotificationService notificationService,
+                       UserDataVersionService userDataVersionService){
         this.goalRepository = goalRepository;
         this.notificationService = notificationService;
+        this.userDataVersionService = userDataVersionService;
     }
 
     public List<Goal> findAll(){
@@ -43,15 +48,19 @@ public class GoalService {
     }
    
 
-    public List<Goal> findActiveGoalsByUser(User user) {
+    public List<GoalRow> findActiveGoalsByUser(User user) {
         return goalRepository.findActiveGoalsByUser(user, LocalDate.now());
     }
 
-    public List<Goal> findCompletedGoalsByUser(User user) {
+    public List<GoalRow> findActiveGoalsByUser(User user, int limit) {
+        return goalRepository.findActiveGoalsByUser(user, LocalDate.now(), Limit.of(limit));
+    }
+
+    public List<GoalRow> findCompletedGoalsByUser(User user) {
         return goalRepository.findCompletedGoalsByUser(user);
     }
 
-    public List<Goal> findOverdueGoalsByUser(User user) {
+    public List<GoalRow> findOverdueGoalsByUser(User user) {
         return goalRepository.findOverdueGoalsByUser(user, LocalDate.now());
     }
 
@@ -72,9 +81,11 @@ public class GoalService {
         goal.setCurrentAmount(BigDecimal.ZERO);
 
         Goal savedGoal = goalRepository.save(goal);
+        userDataVersionService.bump(user.getId());
 
         // Gửi thông báo tạo mới
-        notificationService.createNotification(user, "Mục tiêu mới '" + name + "' đã được tạo thành công!");
+        notificationService.createGoalNotification(user, savedGoal.getId(), name,
+                "Mục tiêu mới '" + name + "' đã được tạo thành công!");
 
         return savedGoal;
     }
@@ -101,6 +112,7 @@ public class GoalService {
             goal.markAsCompleted();
         }
 
+        userDataVersionService.bump(goal.getUser().getId());
         return goalRepository.save(goal);
     }
 
@@ -127,14 +139,15 @@ public class GoalService {
             goal.markAsCompleted();
         }
 
+        userDataVersionService.bump(goal.getUser().getId());
         return goalRepository.save(goal);
     }
 
     public void deleteById(Long id) {
-        if (!goalRepository.existsById(id)) {
-            throw new RuntimeException("Không tìm thấy Goal để xóa");
-        }
-        goalRepository.deleteById(id);
+        Goal goal = goalRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy Goal để xóa"));
+        goalRepository.delete(goal);
+        userDataVersionService.bump(goal.getUser().getId());
     }
 
     public void completeGoal(Long id) {
@@ -142,7 +155,9 @@ public class GoalService {
                 .orElseThrow(() -> new RuntimeException("Goal not found with id: " +id));
         goal.markAsCompleted();
         goalRepository.save(goal);
-        notificationService.createNotification(goal.getUser(), "Bạn đã đánh dấu hoàn thành mục tiêu: " + goal.getName());
+        userDataVersionService.bump(goal.getUser().getId());
+        notificationService.createGoalNotification(goal.getUser(), goal.getId(), goal.getName(),
+                "Bạn đã đánh dấu hoàn thành mục tiêu: " + goal.getName());
     }
 
     // --- 3. CÁC HÀM LOGIC NGHIỆP VỤ & THỐNG KÊ ---
@@ -166,7 +181,7 @@ public class GoalService {
                 msg = "Cố lên! Bạn đã đạt " + currentMilestone + "% mục tiêu '" + goal.getName() + "'.";
             }
             
-            notificationService.createNotification(goal.getUser(), msg);
+            notificationService.createGoalNotification(goal.getUser(), goal.getId(), goal.getName(), msg);
             
             // Cập nhật mốc đã thông báo để không báo lại
             goal.setLastNotificationPercentage(currentMilestone);
@@ -179,7 +194,7 @@ public class GoalService {
     // Trả về DTO thống kê cho Controller
     public GoalSummary getGoalSummary(User user) {
         // 1. Lấy danh sách Active Goals để tính toán chi tiết
-        List<Goal> activeGoals = goalRepository.findActiveGoalsByUser(user, LocalDate.now());
+        List<GoalRow> activeGoals = goalRepository.findActiveGoalsByUser(user, LocalDate.now());
         
         // 2. Lấy số liệu thống kê khác từ DB
         long completedCount = goalRepository.countGoalsByUserAndStatus(user, GoalStatus.COMPLETED);
@@ -190,9 +205,9 @@ public class GoalService {
         BigDecimal totalCurrentAmount = BigDecimal.ZERO;
         long nearCompletionCount = 0; // Đếm mục tiêu sắp hoàn thành (>80%)
 
-        for (Goal goal : activeGoals) {
-            totalTargetAmount = totalTargetAmount.add(goal.getTargetAmount());
-            totalCurrentAmount = totalCurrentAmount.add(goal.getCurrentAmount());
+        for (GoalRow goal : activeGoals) {
+            totalTargetAmount = totalTargetAmount.add(goal.targetAmount());
+            totalCurrentAmount = totalCurrentAmount.add(goal.currentAmount());
 
             if (goal.getProgressPercentage() >= 80.0) {
                 nearCompletionCount++;
@@ -0,0 +1,127 @@
+package com.finance.service;
+
+import com.finance.domain.Notification;
+import com.finance.domain.NotificationOutbox;
+import com.finance.repository.NotificationOutboxRepository;
+import com.finance.repository.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Merges bursts of repeated notifications. The first notification for a (user, type, actionUrl, message) opens a
+ * window of {@code window} length; exact repeats inside it increment the occurrence count of that notification
+ * instead of adding a row, and the notification keeps its message. Anything that differs, such as another goal's
+ * link or the next budget threshold, is a separate event and gets its own notification. A repeat is folded into the
+ * outbox entry while it is pending, and into the written notification afterwards as long as the user has not read
+ * it.
+ *
+ * <p>Windows are kept in a size-bounded LRU map, so an evicted or expired window only means the next repeat starts
+ * a new notification.</p>
+ */
+@Component
+public class NotificationCoalescer {
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationRepository notificationRepository;
+    private final NotificationInboxCache notificationInboxCache;
+    private final UserDataVersionService userDataVersionService;
+    private final Map<Key, Window> windows;
+    private final long windowMillis;
+    private final Counter merged;
+
+    public NotificationCoalescer(NotificationOutboxRepository outboxRepository,
+            NotificationRepository notificationRepository, NotificationInboxCache notificationInboxCache,
+            UserDataVersionService userDataVersionService, MeterRegistry meterRegistry,
+            @Value("${finance.notifications.coalesce.window:10m}") Duration window,
+            @Value("${finance.notifications.coalesce.max-entries:10000}") int maxEntries) {
+        this.outboxRepository = outboxRepository;
+        this.notificationRepository = notificationRepository;
+        this.notificationInboxCache = notificationInboxCache;
+        this.userDataVersionService = userDataVersionService;
+        this.windowMillis = window.toMillis();
+        this.windows = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Window> eldest) {
+                return size() > maxEntries;
+            }
+        });
+
+        this.merged = Counter.builder("finance.notifications.coalesced").register(meterRegistry);
+        meterRegistry.gauge("finance.notifications.coalesce.windows", windows, Map::size);
+    }
+
+    /**
+     * Folds the notification into an open window and returns {@code true}, or returns {@code false} if it has to be
+     * written as a new notification. Joins the caller's transaction, if any.
+     */
+    @Transactional
+    public boolean merge(Long userId, Notification.NotificationType type, String actionUrl, String message) {
+        if (windowMillis <= 0) {
+            return false;
+        }
+        Key key = new Key(userId, type, actionUrl, message);
+        Window window = windows.get(key);
+        if (window == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() >= window.expiresAt) {
+            windows.remove(key, window);
+            return false;
+        }
+
+        Long outboxId = window.outboxId;
+        if (outboxId != null && outboxRepository.mergeInto(outboxId) > 0) {
+            merged.increment();
+            return true;
+        }
+        Long notificationId = window.notificationId;
+        if (notificationId != null && notificationRepository.mergeInto(notificationId) > 0) {
+            notificationInboxCache.recordMerged(userId, notificationId);
+            userDataVersionService.bump(UserDataVersionService.Scope.NOTIFICATIONS, userId);
+            merged.increment();
+            return true;
+        }
+        return false;
+    }
+
+    // A new notification was queued for the key: repeats within the window go into it
+    public void open(Long userId, Notification.NotificationType type, String actionUrl, String message,
+            Long outboxId) {
+        if (windowMillis > 0) {
+            windows.put(new Key(userId, type, actionUrl, message),
+                    new Window(outboxId, System.currentTimeMillis() + windowMillis));
+        }
+    }
+
+    // The outbox entry became a notification; later repeats go into that row
+    public void recordWritten(NotificationOutbox entry, Long notificationId) {
+        Window window = windows.get(new Key(entry.getUser().getId(), entry.getType(), entry.getActionUrl(),
+                entry.getMessage()));
+        if (window != null && entry.getId().equals(window.outboxId)) {
+            window.notificationId = notificationId;
+            window.outboxId = null;
+        }
+    }
+
+    private record Key(Long userId, Notification.NotificationType type, String actionUrl, String message) {
+    }
+
+    private static final class Window {
+        final long expiresAt;
+        volatile Long outboxId;
+        volatile Long notificationId;
+
+        Window(Long outboxId, long expiresAt) {
+            this.outboxId = outboxId;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
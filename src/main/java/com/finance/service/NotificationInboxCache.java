@@ -0,0 +1,188 @@
+package com.finance.service;
+
+import com.finance.domain.Notification;
+import com.finance.dto.RecentNotification;
+import com.finance.repository.NotificationRepository;
+import com.finance.utils.TransactionCallbacks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user unread notification count plus a small buffer of the latest unread notifications, so the header badge
+ * and the recent-notifications dropdown are served from memory. Loaded from the database on first access and kept
+ * up to date by {@link NotificationService}, whose changes are applied once their transaction commits. Entries
+ * expire after {@code ttl} so any drift heals itself.
+ */
+@Slf4j
+@Component
+public class NotificationInboxCache {
+
+    private final NotificationRepository notificationRepository;
+    private final Map<Long, Inbox> inboxes = new ConcurrentHashMap<>();
+    private final int capacity;
+    private final long ttlMillis;
+
+    public NotificationInboxCache(NotificationRepository notificationRepository,
+            @Value("${finance.notifications.inbox.capacity:10}") int capacity,
+            @Value("${finance.notifications.inbox.ttl:10m}") Duration ttl) {
+        this.notificationRepository = notificationRepository;
+        this.capacity = capacity;
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    public long unreadCount(Long userId) {
+        Inbox inbox = inbox(userId);
+        synchronized (inbox) {
+            return inbox.unreadCount;
+        }
+    }
+
+    /**
+     * Latest unread notifications, newest first. Reads the database only when the buffer had to be dropped (for
+     * example after reading its last entries while older unread ones remain) or {@code limit} exceeds the buffer.
+     */
+    public List<RecentNotification> recentUnread(Long userId, int limit) {
+        if (limit > capacity) {
+            return load(userId, limit);
+        }
+        Inbox inbox = inbox(userId);
+        synchronized (inbox) {
+            if (!inbox.bufferComplete) {
+                inbox.recent.clear();
+                inbox.recent.addAll(load(userId, capacity));
+                inbox.bufferComplete = true;
+            }
+            return inbox.recent.stream().limit(limit).toList();
+        }
+    }
+
+    public void recordCreated(Notification notification) {
+        if (notification.isRead()) {
+            return;
+        }
+        recordCreated(notification.getUser().getId(), RecentNotification.of(notification));
+    }
+
+    public void recordCreated(Long userId, RecentNotification recent) {
+        update(userId, inbox -> {
+            inbox.unreadCount++;
+            inbox.recent.addFirst(recent);
+            if (inbox.recent.size() > capacity) {
+                inbox.recent.removeLast();
+            }
+        });
+    }
+
+    // A repeat was merged into an unread notification: the unread count stays, its occurrences go up
+    public void recordMerged(Long userId, Long notificationId) {
+        update(userId, inbox -> {
+            List<RecentNotification> refreshed = inbox.recent.stream()
+                    .map(recent -> recent.id().equals(notificationId) ? recent.withRepeat() : recent)
+                    .toList();
+            inbox.recent.clear();
+            inbox.recent.addAll(refreshed);
+        });
+    }
+
+    // An unread notification was read or deleted
+    public void recordUnreadRemoved(Long userId, Long notificationId) {
+        recordUnreadRemoved(userId, Set.of(notificationId), 1);
+    }
+
+    // removedCount of the given notifications were unread before being read or deleted
+    public void recordUnreadRemoved(Long userId, Collection<Long> notificationIds, int removedCount) {
+        Set<Long> ids = Set.copyOf(notificationIds);
+        update(userId, inbox -> {
+            inbox.unreadCount = Math.max(0, inbox.unreadCount - removedCount);
+            inbox.recent.removeIf(recent -> ids.contains(recent.id()));
+            if (inbox.recent.size() < Math.min(inbox.unreadCount, capacity)) {
+                inbox.bufferComplete = false;
+            }
+        });
+    }
+
+    public void recordMarkedUnread(Long userId) {
+        recordMarkedUnread(userId, 1);
+    }
+
+    public void recordMarkedUnread(Long userId, int markedCount) {
+        update(userId, inbox -> {
+            inbox.unreadCount += markedCount;
+            // Where the notification belongs in the buffer is unknown, so refill it on the next read
+            inbox.bufferComplete = false;
+        });
+    }
+
+    public void recordAllRead(Long userId) {
+        update(userId, inbox -> {
+            inbox.unreadCount = 0;
+            inbox.recent.clear();
+            inbox.bufferComplete = true;
+        });
+    }
+
+    public void invalidate(Long userId) {
+        inboxes.remove(userId);
+        TransactionCallbacks.afterCommit(() -> inboxes.remove(userId));
+    }
+
+    public void invalidateAll() {
+        inboxes.clear();
+    }
+
+    @Scheduled(fixedDelayString = "${finance.notifications.inbox.ttl:10m}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        inboxes.values().removeIf(inbox -> now - inbox.loadedAt > ttlMillis);
+    }
+
+    private Inbox inbox(Long userId) {
+        Inbox inbox = inboxes.get(userId);
+        if (inbox != null && System.currentTimeMillis() - inbox.loadedAt <= ttlMillis) {
+            return inbox;
+        }
+        Inbox loaded = new Inbox(notificationRepository.countUnreadByUserId(userId), load(userId, capacity));
+        inboxes.put(userId, loaded);
+        return loaded;
+    }
+
+    private List<RecentNotification> load(Long userId, int limit) {
+        return notificationRepository.findRecentUnreadByUserId(userId, Limit.of(limit));
+    }
+
+    // Users without a loaded inbox are skipped: their first access will read the committed state
+    private void update(Long userId, java.util.function.Consumer<Inbox> change) {
+        TransactionCallbacks.afterCommit(() -> {
+            Inbox inbox = inboxes.get(userId);
+            if (inbox != null) {
+                synchronized (inbox) {
+                    change.accept(inbox);
+                }
+            }
+        });
+    }
+
+    private static final class Inbox {
+        final long loadedAt = System.currentTimeMillis();
+        final Deque<RecentNotification> recent;
+        long unreadCount;
+        boolean bufferComplete = true;
+
+        Inbox(long unreadCount, List<RecentNotification> recent) {
+            this.unreadCount = unreadCount;
+            this.recent = new ArrayDeque<>(recent);
+        }
+    }
+}
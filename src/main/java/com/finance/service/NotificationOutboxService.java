@@ -0,0 +1,279 @@
+package com.finance.service;
+
+import com.finance.domain.Notification;
+import com.finance.domain.NotificationOutbox;
+import com.finance.domain.User;
+import com.finance.dto.RecentNotification;
+import com.finance.repository.NotificationOutboxRepository;
+import com.finance.utils.TransactionCallbacks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Transactional outbox for notifications. {@link #enqueue} only records the intent in {@code notification_outbox},
+ * inside the caller's transaction; once that commits the row id is handed to a background writer, which turns
+ * queued rows into notifications with one JDBC batch insert and one delete per batch. Repeats of a pending entry
+ * are folded into it by {@link NotificationCoalescer}.
+ *
+ * <p>The in-memory queue is bounded. When it is full the id is simply not queued: the row stays in the table and
+ * the periodic replay picks it up, so bursts such as a month-end budget sweep spill to the database instead of
+ * blocking callers or growing the heap. The same replay recovers rows left behind by a crash or a failed flush,
+ * and runs once for everything pending at start-up.</p>
+ */
+@Slf4j
+@Service
+public class NotificationOutboxService {
+
+    private static final String INSERT_NOTIFICATION = "INSERT INTO notifications " +
+            "(user_id, message, is_read, created_at, type, title, action_url, occurrences) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationInboxCache notificationInboxCache;
+    private final NotificationStreamService notificationStreamService;
+    private final NotificationCoalescer notificationCoalescer;
+    private final UserDataVersionService userDataVersionService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Long> queue;
+    private final int batchSize;
+    private final Duration replayAfter;
+
+    private final Timer flushTimer;
+    private final Counter written;
+    private final Counter spilled;
+    private final Counter replayed;
+    private final Counter dropped;
+
+    private volatile boolean running = true;
+    private Thread writer;
+
+    public NotificationOutboxService(NotificationOutboxRepository outboxRepository,
+            NotificationInboxCache notificationInboxCache, NotificationStreamService notificationStreamService,
+            NotificationCoalescer notificationCoalescer, UserDataVersionService userDataVersionService, JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${finance.notifications.outbox.queue-capacity:10000}") int queueCapacity,
+            @Value("${finance.notifications.outbox.batch-size:200}") int batchSize,
+            @Value("${finance.notifications.outbox.replay-after:30s}") Duration replayAfter) {
+        this.outboxRepository = outboxRepository;
+        this.notificationInboxCache = notificationInboxCache;
+        this.notificationStreamService = notificationStreamService;
+        this.notificationCoalescer = notificationCoalescer;
+        this.userDataVersionService = userDataVersionService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.replayAfter = replayAfter;
+
+        this.flushTimer = Timer.builder("finance.notifications.outbox.flush").register(meterRegistry);
+        this.written = Counter.builder("finance.notifications.outbox.written").register(meterRegistry);
+        this.spilled = Counter.builder("finance.notifications.outbox.spilled").register(meterRegistry);
+        this.replayed = Counter.builder("finance.notifications.outbox.replayed").register(meterRegistry);
+        this.dropped = Counter.builder("finance.notifications.outbox.dropped").register(meterRegistry);
+        meterRegistry.gauge("finance.notifications.outbox.queue.depth", queue, BlockingQueue::size);
+    }
+
+    @PostConstruct
+    public void start() {
+        writer = Thread.ofPlatform().daemon().name("notification-outbox-writer").start(this::drain);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Whatever is still queued stays in the table and is replayed on the next start
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    // Returns the id of the outbox entry
+    public Long enqueue(User user, String message, Notification.NotificationType type, String title,
+            String actionUrl) {
+        Long id = outboxRepository.save(new NotificationOutbox(user, message, type, title, actionUrl)).getId();
+        TransactionCallbacks.afterCommit(() -> {
+            if (!queue.offer(id)) {
+                spilled.increment();
+            }
+        });
+        return id;
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    @Scheduled(fixedDelayString = "${finance.notifications.outbox.replay-interval:30s}")
+    public void replayPending() {
+        replay(LocalDateTime.now().minus(replayAfter));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void replayOnStartup() {
+        int count = replay(LocalDateTime.now());
+        if (count > 0) {
+            log.info("Replayed {} pending notifications from the outbox", count);
+        }
+    }
+
+    // Writes every outbox row created before the cutoff and returns how many notifications were written
+    int replay(LocalDateTime cutoff) {
+        int total = 0;
+        while (true) {
+            List<Long> ids = outboxRepository.findIdsCreatedBefore(cutoff, Limit.of(batchSize));
+            int flushed = ids.isEmpty() ? 0 : flush(ids);
+            total += flushed;
+            // Stop on rows that could not be written rather than retrying them in a loop
+            if (flushed == 0) {
+                break;
+            }
+        }
+        replayed.increment(total);
+        return total;
+    }
+
+    private void drain() {
+        List<Long> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Long first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // The rows are still in the outbox and will be replayed
+                log.warn("Could not flush {} queued notifications: {}", batch.size(), e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes the given outbox rows as notifications and deletes them, all in one transaction. Rows already taken
+     * by another flush are skipped. If the batch is rejected the rows are retried one by one, and rows that violate
+     * a constraint (for example their user was deleted) are discarded.
+     */
+    int flush(Collection<Long> ids) {
+        long start = System.nanoTime();
+        List<Written> entries;
+        try {
+            entries = transactionTemplate.execute(status -> write(ids));
+        } catch (DataAccessException e) {
+            log.warn("Notification batch of {} failed, retrying individually: {}", ids.size(), e.getMessage());
+            entries = new ArrayList<>();
+            for (Long id : ids) {
+                entries.addAll(flushOne(id));
+            }
+        }
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        written.increment(entries.size());
+        publish(entries);
+        return entries.size();
+    }
+
+    private List<Written> flushOne(Long id) {
+        try {
+            return transactionTemplate.execute(status -> write(List.of(id)));
+        } catch (DataIntegrityViolationException e) {
+            log.error("Dropping outbox entry {} that cannot be written: {}", id, e.getMessage());
+            transactionTemplate.executeWithoutResult(status -> outboxRepository.deleteById(id));
+            dropped.increment();
+            return List.of();
+        }
+    }
+
+    private List<Written> write(Collection<Long> ids) {
+        List<NotificationOutbox> entries = outboxRepository.lockByIds(ids);
+        if (entries.isEmpty()) {
+            return List.of();
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_NOTIFICATION, new String[] { "id" }),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        NotificationOutbox entry = entries.get(i);
+                        ps.setLong(1, entry.getUser().getId());
+                        ps.setString(2, entry.getMessage());
+                        ps.setBoolean(3, false);
+                        ps.setTimestamp(4, Timestamp.valueOf(entry.getCreatedAt()));
+                        ps.setString(5, entry.getType().name());
+                        ps.setString(6, entry.getTitle());
+                        ps.setString(7, entry.getActionUrl());
+                        ps.setInt(8, entry.getOccurrences());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return entries.size();
+                    }
+                }, keyHolder);
+        outboxRepository.deleteAllInBatch(entries);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        List<Written> written = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            written.add(new Written(entries.get(i), ((Number) keys.get(i).values().iterator().next()).longValue()));
+        }
+        return written;
+    }
+
+    private void publish(List<Written> notifications) {
+        Map<Long, List<Written>> byUser = notifications.stream()
+                .collect(Collectors.groupingBy(written -> written.entry().getUser().getId()));
+        byUser.forEach((userId, userNotifications) -> {
+            for (Written written : userNotifications) {
+                NotificationOutbox entry = written.entry();
+                RecentNotification recent = new RecentNotification(
+                        written.notificationId(), entry.getTitle(), entry.getMessage(), entry.getType(),
+                        entry.getCreatedAt(), entry.getActionUrl(), entry.getOccurrences());
+                notificationInboxCache.recordCreated(userId, recent);
+                notificationStreamService.publishCreated(userId, recent);
+                notificationCoalescer.recordWritten(entry, written.notificationId());
+            }
+            userDataVersionService.bump(UserDataVersionService.Scope.NOTIFICATIONS, userId);
+        });
+    }
+
+    private record Written(NotificationOutbox entry, Long notificationId) {
+    }
+}
@@ -0,0 +1,179 @@
+package com.finance.service;
+
+import com.finance.config.NotificationRetentionProperties;
+import com.finance.domain.Notification;
+import com.finance.domain.NotificationDigest;
+import com.finance.repository.NotificationDigestRepository;
+import com.finance.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Nightly purge of expired notifications. How long a notification is kept depends on its type and read state, see
+ * {@link NotificationRetentionProperties}.
+ *
+ * <p>The table is walked in primary-key ranges of {@code chunk-size} ids, one short transaction per range, with a
+ * pause after every range that deleted something. Each statement therefore only locks a small slice of the
+ * primary key and produces a small undo log, however much has to go. With {@code digest} enabled the purged read
+ * rows are first counted into {@link NotificationDigest} rows in the same transaction; unread ones expire without a
+ * trace, as the user never saw them.</p>
+ */
+@Slf4j
+@Service
+public class NotificationRetentionService {
+
+    private final NotificationRetentionProperties properties;
+    private final NotificationDigestRepository digestRepository;
+    private final UserRepository userRepository;
+    private final NotificationInboxCache notificationInboxCache;
+    private final UserDataVersionService userDataVersionService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public NotificationRetentionService(NotificationRetentionProperties properties,
+            NotificationDigestRepository digestRepository, UserRepository userRepository,
+            NotificationInboxCache notificationInboxCache, UserDataVersionService userDataVersionService,
+            JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.digestRepository = digestRepository;
+        this.userRepository = userRepository;
+        this.notificationInboxCache = notificationInboxCache;
+        this.userDataVersionService = userDataVersionService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${finance.notifications.retention.cron:0 0 4 * * *}")
+    public void purgeNightly() {
+        if (properties.isEnabled()) {
+            purge(LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Deletes every notification that has outlived its retention period at {@code now}. Returns without doing
+     * anything if a purge is already running.
+     */
+    public RetentionReport purge(LocalDateTime now) {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Notification purge already running, skipping");
+            return new RetentionReport(0, 0, 0, 0);
+        }
+        try {
+            return purgeRanges(now);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private RetentionReport purgeRanges(LocalDateTime now) {
+        long startTime = System.currentTimeMillis();
+        List<Object> cutoffs = new ArrayList<>();
+        String condition = expiredCondition(now, cutoffs);
+
+        long purged = 0;
+        long digested = 0;
+        int chunks = 0;
+        Long[] bounds = jdbcTemplate.queryForObject("SELECT MIN(id), MAX(id) FROM notifications",
+                (rs, rowNum) -> new Long[] { (Long) rs.getObject(1, Long.class), (Long) rs.getObject(2, Long.class) });
+
+        if (bounds != null && bounds[0] != null) {
+            for (long from = bounds[0]; from <= bounds[1]; from += properties.getChunkSize()) {
+                Object[] args = rangeArgs(from, from + properties.getChunkSize(), cutoffs);
+                long[] result = transactionTemplate.execute(status -> purgeRange(condition, args));
+                digested += result[0];
+                purged += result[1];
+                chunks++;
+                if (result[1] > 0 && !pause()) {
+                    break;
+                }
+            }
+        }
+
+        if (purged > 0) {
+            // Unread notifications may be among them, so cached counts and ETags are no longer valid
+            notificationInboxCache.invalidateAll();
+            userDataVersionService.bumpAll();
+        }
+
+        RetentionReport report = new RetentionReport(purged, digested, chunks, System.currentTimeMillis() - startTime);
+        log.info("Notification purge: {}", report);
+        return report;
+    }
+
+    // Returns {read rows counted into digests, rows deleted}
+    private long[] purgeRange(String condition, Object[] args) {
+        long digested = 0;
+        if (properties.isDigest()) {
+            List<Object[]> groups = jdbcTemplate.query("SELECT user_id, type, " +
+                            "YEAR(created_at) * 100 + MONTH(created_at), COUNT(*) FROM notifications " +
+                            "WHERE " + condition + " AND is_read = TRUE GROUP BY user_id, type, YEAR(created_at) * 100 + MONTH(created_at)",
+                    (rs, rowNum) -> new Object[] { rs.getLong(1), rs.getString(2), rs.getInt(3), rs.getLong(4) },
+                    args);
+            for (Object[] group : groups) {
+                addToDigest((Long) group[0], Notification.NotificationType.valueOf((String) group[1]),
+                        (Integer) group[2], (Long) group[3]);
+                digested += (Long) group[3];
+            }
+        }
+        long deleted = jdbcTemplate.update("DELETE FROM notifications WHERE " + condition, args);
+        return new long[] { digested, deleted };
+    }
+
+    private void addToDigest(Long userId, Notification.NotificationType type, int period, long count) {
+        if (digestRepository.addToCount(userId, type, period, count) == 0) {
+            digestRepository.save(new NotificationDigest(userRepository.getReferenceById(userId), type, period, count));
+        }
+    }
+
+    // One (type, read state, cutoff) term per combination, the cutoffs collected as bind parameters
+    private String expiredCondition(LocalDateTime now, List<Object> cutoffs) {
+        StringBuilder condition = new StringBuilder("id >= ? AND id < ? AND (");
+        for (Notification.NotificationType type : Notification.NotificationType.values()) {
+            for (boolean read : new boolean[] { true, false }) {
+                if (!cutoffs.isEmpty()) {
+                    condition.append(" OR ");
+                }
+                condition.append("(type = ? AND is_read = ? AND created_at < ?)");
+                cutoffs.add(type.name());
+                cutoffs.add(read);
+                cutoffs.add(Timestamp.valueOf(now.minus(properties.ttlFor(type, read))));
+            }
+        }
+        return condition.append(')').toString();
+    }
+
+    private static Object[] rangeArgs(long from, long to, List<Object> cutoffs) {
+        Object[] args = new Object[cutoffs.size() + 2];
+        args[0] = from;
+        args[1] = to;
+        for (int i = 0; i < cutoffs.size(); i++) {
+            args[i + 2] = cutoffs.get(i);
+        }
+        return args;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(properties.getPause().toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public record RetentionReport(long rowsPurged, long rowsDigested, int chunks, long durationMillis) {
+    }
+}
@@ -2,45 +2,79 @@ package com.finance.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.finance.repository.NotificationRepository;
 import com.finance.domain.Notification;
 import com.finance.domain.User;
+import com.finance.dto.NotificationRow;
+import com.finance.dto.RecentNotification;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @FieldDefaults(level = lombok.AccessLevel.PRIVATE, makeFinal = true)
 public class NotificationService {
 
+    // Most rows one set-based statement touches; larger requests run as several statements, which also keeps the
+    // IN list within driver limits
+    public static final int MAX_BATCH_SIZE = 500;
+
     private final NotificationRepository notificationRepository;
 
+    private final UserDataVersionService userDataVersionService;
+
+    private final NotificationInboxCache notificationInboxCache;
+
+    private final NotificationStreamService notificationStreamService;
+
+    private final NotificationOutboxService notificationOutboxService;
+
+    private final NotificationCoalescer notificationCoalescer;
+
+    private final PlatformTransactionManager transactionManager;
+
     // Basic CRUD operations
     public List<Notification> findByUser(User user) {
         return notificationRepository.findByUserOrderByCreatedAtDesc(user);
     }
 
-    public Page<Notification> findByUser(User user, Pageable pageable) {
-        return notificationRepository.findByUserOrderByCreatedAtDesc(user, pageable);
+    public Page<NotificationRow> findByUser(User user, Pageable pageable) {
+        return notificationRepository.findRowsByUser(user, pageable);
     }
 
     public List<Notification> findUnreadByUser(User user) {
         return notificationRepository.findByUserAndIsReadFalseOrderByCreatedAtDesc(user);
     }
 
-    public Page<Notification> findUnreadByUser(User user, Pageable pageable) {
-        return notificationRepository.findByUserAndIsReadFalseOrderByCreatedAtDesc(user, pageable);
+    public Page<NotificationRow> findUnreadByUser(User user, Pageable pageable) {
+        return notificationRepository.findUnreadRowsByUser(user, pageable);
     }
 
-    public Page<Notification> findReadByUser(User user, Pageable pageable) {
-        return notificationRepository.findByUserAndIsReadTrueOrderByCreatedAtDesc(user, pageable);
+    public List<Notification> findRecentUnreadByUser(User user, int limit) {
+        return notificationRepository.findByUserAndIsReadFalseOrderByCreatedAtDescIdDesc(user, Limit.of(limit));
+    }
+
+    // Served from the inbox cache; loads from the database only on first access
+    public List<RecentNotification> findRecentUnreadByUserId(Long userId, int limit) {
+        return notificationInboxCache.recentUnread(userId, limit);
+    }
+
+    public Page<NotificationRow> findReadByUser(User user, Pageable pageable) {
+        return notificationRepository.findReadRowsByUser(user, pageable);
     }
 
     public Optional<Notification> findById(Long id) {
@@ -62,7 +96,26 @@ public class NotificationService {
 
     public Notification createNotification(User user, String message, Notification.NotificationType type, String title, String actionUrl) {
         Notification notification = new Notification(user, message, type, title, actionUrl);
-        return notificationRepository.save(notification);
+        Notification savedNotification = notificationRepository.save(notification);
+        notificationInboxCache.recordCreated(savedNotification);
+        notificationStreamService.publishCreated(savedNotification);
+        userDataVersionService.bump(UserDataVersionService.Scope.NOTIFICATIONS, user.getId());
+        return savedNotification;
+    }
+
+    // Asynchronous variants: the notification is recorded in the outbox with the caller's transaction and written
+    // shortly after it commits. Use these where the caller does not need the created entity. Exact repeats (same
+    // type, actionUrl and message) shortly after are merged into one notification with an occurrence count.
+    public void enqueueNotification(User user, String message) {
+        enqueueNotification(user, message, Notification.NotificationType.GENERAL, null, null);
+    }
+
+    public void enqueueNotification(User user, String message, Notification.NotificationType type, String title, String actionUrl) {
+        if (notificationCoalescer.merge(user.getId(), type, actionUrl, message)) {
+            return;
+        }
+        Long outboxId = notificationOutboxService.enqueue(user, message, type, title, actionUrl);
+        notificationCoalescer.open(user.getId(), type, actionUrl, message, outboxId);
     }
 
     // Bulk operations
@@ -70,51 +123,136 @@ public class NotificationService {
     public void markAsRead(Long notificationId) {
         Notification notification = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new RuntimeException("Notification not found with id: " + notificationId));
+        if (!notification.isRead()) {
+            notificationInboxCache.recordUnreadRemoved(notification.getUser().getId(), notification.getId());
+        }
         notification.markAsRead();
         notificationRepository.save(notification);
+        notifyChanged(notification.getUser().getId());
     }
 
     @Transactional
-    public void markAsRead(List<Long> notificationIds) {
-        List<Notification> notifications = notificationRepository.findAllById(notificationIds);
-        notifications.forEach(Notification::markAsRead);
-        notificationRepository.saveAll(notifications);
-    }
-
-    @Transactional
-    public void markAllAsReadForUser(User user) {
-        List<Notification> unreadNotifications = notificationRepository.findByUserAndIsReadFalseOrderByCreatedAtDesc(user);
-        unreadNotifications.forEach(Notification::markAsRead);
-        notificationRepository.saveAll(unreadNotifications);
+    public int markAllAsReadForUser(User user) {
+        int updated = notificationRepository.markAllAsReadForUser(user, LocalDateTime.now());
+        if (updated > 0) {
+            notificationInboxCache.recordAllRead(user.getId());
+            notifyChanged(user.getId());
+        }
+        return updated;
     }
 
     @Transactional
     public void markAsUnread(Long notificationId) {
         Notification notification = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new RuntimeException("Notification not found with id: " + notificationId));
+        if (notification.isRead()) {
+            notificationInboxCache.recordMarkedUnread(notification.getUser().getId());
+        }
         notification.markAsUnread();
         notificationRepository.save(notification);
+        notifyChanged(notification.getUser().getId());
+    }
+
+    // Set-based operations: one statement per MAX_BATCH_SIZE ids, restricted to the user's own notifications,
+    // returning the number of notifications changed. Ids the user does not own are silently skipped.
+    @Transactional
+    public int markAsRead(Long userId, Collection<Long> notificationIds) {
+        Set<Long> ids = distinctIds(notificationIds);
+        LocalDateTime readAt = LocalDateTime.now();
+        int updated = 0;
+        for (List<Long> chunk : chunks(ids)) {
+            updated += notificationRepository.markAsReadByIdsAndUserId(chunk, userId, readAt);
+        }
+        if (updated > 0) {
+            notificationInboxCache.recordUnreadRemoved(userId, ids, updated);
+            notifyChanged(userId);
+        }
+        return updated;
+    }
+
+    @Transactional
+    public int markAsUnread(Long userId, Collection<Long> notificationIds) {
+        int updated = 0;
+        for (List<Long> chunk : chunks(distinctIds(notificationIds))) {
+            updated += notificationRepository.markAsUnreadByIdsAndUserId(chunk, userId);
+        }
+        if (updated > 0) {
+            notificationInboxCache.recordMarkedUnread(userId, updated);
+            notifyChanged(userId);
+        }
+        return updated;
+    }
+
+    @Transactional
+    public int deleteNotifications(Long userId, Collection<Long> notificationIds) {
+        int deleted = 0;
+        for (List<Long> chunk : chunks(distinctIds(notificationIds))) {
+            deleted += notificationRepository.deleteByIdsAndUserId(chunk, userId);
+        }
+        if (deleted > 0) {
+            // Which of them were unread is unknown, so let the inbox reload
+            notificationInboxCache.invalidate(userId);
+            notifyChanged(userId);
+        }
+        return deleted;
+    }
+
+    /**
+     * Deletes the user's notifications of a type in primary-key order, at most {@link #MAX_BATCH_SIZE} per
+     * transaction, so a large inbox is never locked as a whole. Returns the number deleted.
+     */
+    public int deleteNotificationsByType(Long userId, Notification.NotificationType type) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int deleted = 0;
+        long afterId = 0;
+        while (true) {
+            List<Long> ids = notificationRepository.findIdsByUserIdAndType(userId, type, afterId,
+                    Limit.of(MAX_BATCH_SIZE));
+            if (ids.isEmpty()) {
+                break;
+            }
+            deleted += transactionTemplate.execute(status -> notificationRepository.deleteByIdsAndUserId(ids, userId));
+            afterId = ids.get(ids.size() - 1);
+        }
+        if (deleted > 0) {
+            notificationInboxCache.invalidate(userId);
+            notifyChanged(userId);
+        }
+        return deleted;
     }
 
     // Delete operations
     @Transactional
     public void deleteNotification(Long notificationId) {
-        notificationRepository.deleteById(notificationId);
+        notificationRepository.findById(notificationId).ifPresent(notification -> {
+            notificationRepository.delete(notification);
+            if (!notification.isRead()) {
+                notificationInboxCache.recordUnreadRemoved(notification.getUser().getId(), notification.getId());
+            }
+            notifyChanged(notification.getUser().getId());
+        });
     }
 
     @Transactional
     public void deleteReadNotifications(User user) {
         notificationRepository.deleteByUserAndIsReadTrue(user);
+        notifyChanged(user.getId());
     }
 
     @Transactional
     public void deleteOldNotifications(User user, LocalDateTime beforeDate) {
         notificationRepository.deleteByUserAndCreatedAtBefore(user, beforeDate);
+        notificationInboxCache.invalidate(user.getId());
+        notifyChanged(user.getId());
     }
 
     // Statistics
     public long countUnreadByUser(User user) {
-        return notificationRepository.countByUserAndIsReadFalse(user);
+        return countUnreadByUserId(user.getId());
+    }
+
+    public long countUnreadByUserId(Long userId) {
+        return notificationInboxCache.unreadCount(userId);
     }
 
     public long countByUser(User user) {
@@ -122,33 +260,57 @@ public class NotificationService {
     }
 
     // Business logic methods
-    public void createGoalNotification(User user, String goalName, String message) {
-        createNotification(user, message, Notification.NotificationType.GOAL, "Mục tiêu: " + goalName, "/goals");
+    // Linked to the goal or budget itself, so events of different goals or budgets are never merged
+    public void createGoalNotification(User user, Long goalId, String goalName, String message) {
+        enqueueNotification(user, message, Notification.NotificationType.GOAL, "Mục tiêu: " + goalName,
+                "/goals/view/" + goalId);
     }
 
-    public void createBudgetNotification(User user, String message) {
-        createNotification(user, message, Notification.NotificationType.BUDGET, "Thông báo Ngân sách", "/budgets");
+    public void createBudgetNotification(User user, Long budgetId, String message) {
+        enqueueNotification(user, message, Notification.NotificationType.BUDGET, "Thông báo Ngân sách",
+                "/budgets/view/" + budgetId);
     }
 
     public void createTransactionNotification(User user, String message, String transactionType) {
         Notification.NotificationType type = "expense".equalsIgnoreCase(transactionType) ?
             Notification.NotificationType.WARNING : Notification.NotificationType.SUCCESS;
-        createNotification(user, message, type, "Giao dịch", "/transactions");
+        enqueueNotification(user, message, type, "Giao dịch", "/transactions");
     }
 
     public void createSystemNotification(User user, String message) {
-        createNotification(user, message, Notification.NotificationType.SYSTEM, "Hệ thống", null);
+        enqueueNotification(user, message, Notification.NotificationType.SYSTEM, "Hệ thống", null);
     }
 
     public void createSuccessNotification(User user, String message) {
-        createNotification(user, message, Notification.NotificationType.SUCCESS, "Thành công", null);
+        enqueueNotification(user, message, Notification.NotificationType.SUCCESS, "Thành công", null);
     }
 
     public void createErrorNotification(User user, String message) {
-        createNotification(user, message, Notification.NotificationType.ERROR, "Lỗi", null);
+        enqueueNotification(user, message, Notification.NotificationType.ERROR, "Lỗi", null);
     }
 
     public void createWarningNotification(User user, String message) {
-        createNotification(user, message, Notification.NotificationType.WARNING, "Cảnh báo", null);
+        enqueueNotification(user, message, Notification.NotificationType.WARNING, "Cảnh báo", null);
+    }
+
+    private static Set<Long> distinctIds(Collection<Long> notificationIds) {
+        Set<Long> ids = new LinkedHashSet<>(notificationIds);
+        ids.remove(null);
+        return ids;
+    }
+
+    private static List<List<Long>> chunks(Set<Long> ids) {
+        List<Long> all = new ArrayList<>(ids);
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += MAX_BATCH_SIZE) {
+            chunks.add(all.subList(from, Math.min(from + MAX_BATCH_SIZE, all.size())));
+        }
+        return chunks;
+    }
+
+    // Read state or membership of the user's notifications changed
+    private void notifyChanged(Long userId) {
+        userDataVersionService.bump(UserDataVersionService.Scope.NOTIFICATIONS, userId);
+        notificationStreamService.publishUnreadCountChanged(userId);
     }
 }
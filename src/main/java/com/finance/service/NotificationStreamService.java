@@ -0,0 +1,205 @@
+package com.finance.service;
+
+import com.finance.domain.Notification;
+import com.finance.dto.RecentNotification;
+import com.finance.utils.TransactionCallbacks;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Pushes notification changes to open browser tabs over Server-Sent Events, replacing the dropdown's polling.
+ *
+ * <p>Each connection has its own bounded event buffer drained by a virtual thread, so a slow client never blocks
+ * the publisher and thousands of idle tabs only cost parked virtual threads. When a buffer is full the oldest event
+ * is dropped; unread-count events are coalesced and always resolved from {@link NotificationInboxCache} at send
+ * time, so a client that misses events still converges on the right badge. A comment is sent after
+ * {@code heartbeat} of silence to keep proxies from closing the connection.</p>
+ */
+@Slf4j
+@Service
+public class NotificationStreamService {
+
+    public static final String EVENT_UNREAD_COUNT = "unread-count";
+    public static final String EVENT_NOTIFICATION = "notification";
+
+    private final NotificationInboxCache notificationInboxCache;
+    private final Map<Long, Set<Connection>> connections = new ConcurrentHashMap<>();
+    private final Duration timeout;
+    private final Duration heartbeat;
+    private final int bufferSize;
+    private final int maxConnectionsPerUser;
+
+    public NotificationStreamService(NotificationInboxCache notificationInboxCache,
+            @Value("${finance.notifications.stream.timeout:30m}") Duration timeout,
+            @Value("${finance.notifications.stream.heartbeat:25s}") Duration heartbeat,
+            @Value("${finance.notifications.stream.buffer-size:32}") int bufferSize,
+            @Value("${finance.notifications.stream.max-connections-per-user:5}") int maxConnectionsPerUser) {
+        this.notificationInboxCache = notificationInboxCache;
+        this.timeout = timeout;
+        this.heartbeat = heartbeat;
+        this.bufferSize = bufferSize;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+    }
+
+    /**
+     * Opens a stream for the user, starting with the current unread count. Beyond
+     * {@code max-connections-per-user} the user's oldest connection is closed; the browser reconnects it if the
+     * tab is still open.
+     */
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = newEmitter();
+        Connection connection = new Connection(userId, emitter);
+        Set<Connection> userConnections = connections.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet());
+        userConnections.add(connection);
+
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> remove(connection));
+        emitter.onError(error -> remove(connection));
+
+        if (userConnections.size() > maxConnectionsPerUser) {
+            userConnections.stream()
+                    .filter(other -> other != connection)
+                    .min((a, b) -> Long.compare(a.openedAt, b.openedAt))
+                    .ifPresent(Connection::close);
+        }
+
+        connection.enqueueUnreadCount();
+        Thread.ofVirtual().name("notification-stream-" + userId).start(connection::run);
+        return emitter;
+    }
+
+    public void publishCreated(Notification notification) {
+        publishCreated(notification.getUser().getId(), RecentNotification.of(notification));
+    }
+
+    public void publishCreated(Long userId, RecentNotification recent) {
+        TransactionCallbacks.afterCommit(() -> forEachConnection(userId, connection -> {
+            connection.enqueue(EVENT_NOTIFICATION, () -> recent);
+            connection.enqueueUnreadCount();
+        }));
+    }
+
+    public void publishUnreadCountChanged(Long userId) {
+        TransactionCallbacks.afterCommit(() -> forEachConnection(userId, Connection::enqueueUnreadCount));
+    }
+
+    public int connectionCount(Long userId) {
+        Set<Connection> userConnections = connections.get(userId);
+        return userConnections != null ? userConnections.size() : 0;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        connections.values().forEach(userConnections -> List.copyOf(userConnections).forEach(Connection::close));
+    }
+
+    // Separate so tests can record what a connection sends
+    SseEmitter newEmitter() {
+        return new SseEmitter(timeout.toMillis());
+    }
+
+    private void forEachConnection(Long userId, Consumer<Connection> action) {
+        Set<Connection> userConnections = connections.get(userId);
+        if (userConnections != null) {
+            userConnections.forEach(action);
+        }
+    }
+
+    private void remove(Connection connection) {
+        connection.open = false;
+        connections.computeIfPresent(connection.userId, (id, userConnections) -> {
+            userConnections.remove(connection);
+            return userConnections.isEmpty() ? null : userConnections;
+        });
+    }
+
+    private record PendingEvent(String name, Supplier<Object> data) {
+    }
+
+    private final class Connection {
+
+        final Long userId;
+        final SseEmitter emitter;
+        final long openedAt = System.nanoTime();
+        final LinkedBlockingDeque<PendingEvent> buffer = new LinkedBlockingDeque<>();
+        volatile boolean open = true;
+        final AtomicBoolean unreadCountPending = new AtomicBoolean();
+
+        Connection(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void enqueueUnreadCount() {
+            // One pending count is enough: the value is looked up when it is sent
+            if (unreadCountPending.compareAndSet(false, true)) {
+                enqueue(EVENT_UNREAD_COUNT, () -> {
+                    unreadCountPending.set(false);
+                    return Map.of("count", notificationInboxCache.unreadCount(userId));
+                });
+            }
+        }
+
+        synchronized void enqueue(String name, Supplier<Object> data) {
+            if (buffer.size() >= bufferSize) {
+                PendingEvent dropped = buffer.pollFirst();
+                if (dropped != null && EVENT_UNREAD_COUNT.equals(dropped.name())) {
+                    unreadCountPending.set(false);
+                }
+            }
+            buffer.offerLast(new PendingEvent(name, data));
+        }
+
+        void run() {
+            try {
+                while (open) {
+                    PendingEvent event = buffer.pollFirst(heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+                    if (!open) {
+                        break;
+                    }
+                    if (event == null) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        emitter.send(SseEmitter.event().name(event.name()).data(event.data().get(),
+                                MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+            } catch (IOException | IllegalStateException e) {
+                // The client went away; completing the emitter releases the async request
+                log.debug("Notification stream for user {} closed: {}", userId, e.getMessage());
+                close();
+            } catch (RuntimeException e) {
+                log.warn("Notification stream for user {} failed: {}", userId, e.getMessage());
+                close();
+            }
+        }
+
+        void close() {
+            remove(this);
+            try {
+                emitter.complete();
+            } catch (IllegalStateException e) {
+                // Already completed
+            }
+        }
+    }
+}
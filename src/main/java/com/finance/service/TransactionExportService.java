@@ -0,0 +1,189 @@
+package com.finance.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.finance.domain.Transaction;
+import com.finance.domain.User;
+import com.finance.dto.TransactionFilter;
+import com.finance.dto.TransactionSort;
+import com.finance.repository.TransactionRepository;
+import com.finance.repository.TransactionSpecifications;
+import com.finance.utils.CsvWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Streams a user's transactions to an output stream as CSV or JSON Lines. Rows are read through a forward-only
+ * query and written as they arrive; the persistence context is cleared every {@code clear-interval} rows, so memory
+ * stays flat whatever the size of the history.
+ *
+ * <p>The CSV uses the column names {@link TransactionImportService} reads, so an export can be imported again. Text
+ * that a spreadsheet would evaluate as a formula is prefixed with an apostrophe.</p>
+ */
+@Slf4j
+@Service
+public class TransactionExportService {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    // First characters that make a spreadsheet cell a formula; the import strips the apostrophe put before them
+    static final String FORMULA_TRIGGERS = "=+-@\t\r";
+
+    private final TransactionRepository transactionRepository;
+    private final EntityManager entityManager;
+    private final ObjectWriter jsonWriter;
+    private final int clearInterval;
+
+    private final Counter exportedRows;
+
+    public TransactionExportService(TransactionRepository transactionRepository, EntityManager entityManager,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${finance.transactions.export.clear-interval:1000}") int clearInterval) {
+        this.transactionRepository = transactionRepository;
+        this.entityManager = entityManager;
+        this.jsonWriter = objectMapper.writer();
+        this.clearInterval = clearInterval;
+
+        this.exportedRows = Counter.builder("finance.transactions.export.rows").register(meterRegistry);
+    }
+
+    /**
+     * Writes the user's transactions matching the filter, newest first, and returns how many were written. The
+     * stream is flushed but not closed.
+     */
+    @Transactional(readOnly = true)
+    public long export(User user, TransactionFilter filter, Format format, OutputStream output) throws IOException {
+        long startTime = System.currentTimeMillis();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        RowWriter rows = format == Format.CSV ? new CsvRows(writer) : new JsonLines(writer);
+
+        long count = 0;
+        try (Stream<Transaction> transactions = transactionRepository.streamAll(
+                TransactionSpecifications.matching(user.getId(), filter), TransactionSort.NEWEST.getSort())) {
+            Iterator<Transaction> iterator = transactions.iterator();
+            while (iterator.hasNext()) {
+                rows.write(iterator.next());
+                if (++count % clearInterval == 0) {
+                    // Written rows are not needed again; drop them so the session does not grow with the export
+                    entityManager.clear();
+                    exportedRows.increment(clearInterval);
+                }
+            }
+        }
+        writer.flush();
+        exportedRows.increment(count % clearInterval);
+
+        log.info("Exported {} transactions for user {} as {} in {} ms", count, user.getId(), format,
+                System.currentTimeMillis() - startTime);
+        return count;
+    }
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        JSONL("application/x-ndjson", "jsonl");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        // Accepts the request parameter in any case, e.g. "csv" or "JSONL"
+        public static Format fromParameter(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + value);
+            }
+        }
+    }
+
+    private interface RowWriter {
+        void write(Transaction transaction) throws IOException;
+    }
+
+    private static final class CsvRows implements RowWriter {
+
+        private final CsvWriter csv;
+
+        CsvRows(Writer writer) throws IOException {
+            // Byte order mark so spreadsheet programs read the Vietnamese text as UTF-8
+            writer.write('\uFEFF');
+            this.csv = new CsvWriter(writer, ',');
+            csv.writeRow("date", "description", "amount", "type", "category", "notes");
+        }
+
+        @Override
+        public void write(Transaction transaction) throws IOException {
+            csv.writeRow(
+                    DATE_FORMAT.format(transaction.getTransactionDate()),
+                    text(transaction.getDescription()),
+                    transaction.getAmount().toPlainString(),
+                    transaction.getType().name(),
+                    text(transaction.getCategory().getName()),
+                    text(transaction.getNotes()));
+        }
+
+        // Spreadsheet programs evaluate a cell starting with one of FORMULA_TRIGGERS as a formula, which a crafted
+        // description could use to run commands or leak data; a leading apostrophe makes them show it as text
+        private static String text(String value) {
+            if (value != null && !value.isEmpty() && FORMULA_TRIGGERS.indexOf(value.charAt(0)) >= 0) {
+                return "'" + value;
+            }
+            return value;
+        }
+    }
+
+    private final class JsonLines implements RowWriter {
+
+        private final Writer writer;
+
+        JsonLines(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(Transaction transaction) throws IOException {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("id", transaction.getId());
+            map.put("description", transaction.getDescription());
+            map.put("amount", transaction.getAmount());
+            map.put("type", transaction.getType().name());
+            map.put("transactionDate", transaction.getTransactionDate());
+            map.put("notes", transaction.getNotes());
+            map.put("categoryName", transaction.getCategory().getName());
+            map.put("categoryColor", transaction.getCategory().getColor());
+            writer.write(jsonWriter.writeValueAsString(map));
+            writer.write('\n');
+        }
+    }
+}
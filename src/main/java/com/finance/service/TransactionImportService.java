@@ -0,0 +1,478 @@
+package com.finance.service;
+
+import com.finance.domain.Category;
+import com.finance.domain.Transaction;
+import com.finance.domain.User;
+import com.finance.utils.CsvReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk CSV import for transactions. The file is parsed one record at a time and written in chunks of
+ * {@code chunk-size} rows, each chunk in its own transaction as JDBC batches of {@code batch-size} inserts, so memory
+ * stays flat however large the file is and a bad row never costs more than its own chunk.
+ *
+ * <p>{@link Transaction} keeps IDENTITY ids, which Hibernate cannot batch, so the rows go through {@link JdbcTemplate}
+ * the same way {@link NotificationOutboxService} writes notifications. The rollup, the budget counters, the search
+ * index and the user's data version are updated once per chunk instead of once per row.</p>
+ *
+ * <p>The header row names the columns, in any order and case: {@code date}, {@code description} and {@code amount}
+ * are required, {@code type}, {@code category} and {@code notes} are optional. Without a type, negative amounts are
+ * expenses and the rest take the type of their category; amounts are stored unsigned.</p>
+ *
+ * <p>Amounts are read in the {@link AmountFormat} chosen for the upload. Grouping separators must group by three
+ * and at most two decimals are accepted, so a value written in the other format, such as {@code 50.000} read as
+ * {@code 1,234.56}, is reported instead of being imported as 50.</p>
+ */
+@Slf4j
+@Service
+public class TransactionImportService {
+
+    private static final String INSERT_TRANSACTION = "INSERT INTO transactions " +
+            "(description, amount, type, transaction_date, created_at, notes, user_id, category_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Same limits as the columns and the validation on Transaction
+    private static final int MAX_DESCRIPTION_LENGTH = 200;
+    private static final int MAX_NOTES_LENGTH = 500;
+    private static final int MAX_INTEGER_DIGITS = 17;
+
+    private static final List<DateTimeFormatter> DATE_TIME_FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME,
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm[:ss]"),
+            DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm[:ss]"));
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("dd/MM/yyyy"));
+
+    private final CategoryService categoryService;
+    private final TransactionRollupService transactionRollupService;
+    private final BudgetSpentService budgetSpentService;
+    private final BudgetService budgetService;
+    private final TransactionSearchService transactionSearchService;
+    private final UserDataVersionService userDataVersionService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int chunkSize;
+    private final int maxErrors;
+
+    private final Counter importedRows;
+    private final Counter failedRows;
+
+    public TransactionImportService(CategoryService categoryService,
+            TransactionRollupService transactionRollupService, BudgetSpentService budgetSpentService,
+            BudgetService budgetService, TransactionSearchService transactionSearchService,
+            UserDataVersionService userDataVersionService, JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${finance.transactions.import.batch-size:500}") int batchSize,
+            @Value("${finance.transactions.import.chunk-size:5000}") int chunkSize,
+            @Value("${finance.transactions.import.max-errors:100}") int maxErrors) {
+        this.categoryService = categoryService;
+        this.transactionRollupService = transactionRollupService;
+        this.budgetSpentService = budgetSpentService;
+        this.budgetService = budgetService;
+        this.transactionSearchService = transactionSearchService;
+        this.userDataVersionService = userDataVersionService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+
+        this.importedRows = Counter.builder("finance.transactions.import.rows").tag("result", "imported")
+                .register(meterRegistry);
+        this.failedRows = Counter.builder("finance.transactions.import.rows").tag("result", "failed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Imports every valid row of the CSV for the user. Rows that cannot be parsed or written are reported and
+     * skipped; rows already committed stay committed if a later chunk fails or the input breaks off.
+     *
+     * @param defaultCategoryId category for rows with an empty category column, or {@code null} to reject them
+     * @throws IllegalArgumentException if the file has no header or a required column is missing
+     */
+    public ImportReport importCsv(User user, Reader input, Long defaultCategoryId) {
+        return importCsv(user, input, defaultCategoryId, AmountFormat.DOT_DECIMAL);
+    }
+
+    public ImportReport importCsv(User user, Reader input, Long defaultCategoryId, AmountFormat amountFormat) {
+        long startTime = System.currentTimeMillis();
+        Category defaultCategory = defaultCategoryId != null
+                ? categoryService.findById(defaultCategoryId)
+                        .orElseThrow(() -> new IllegalArgumentException("Không tìm thấy danh mục mặc định"))
+                : null;
+        Progress progress = new Progress();
+        Set<Long> touchedBudgets = new HashSet<>();
+
+        try (CsvReader csv = new CsvReader(input, ',')) {
+            Columns columns = Columns.of(csv.next());
+            RowParser parser = new RowParser(user, columns, defaultCategory, amountFormat);
+            List<ParsedRow> chunk = new ArrayList<>(chunkSize);
+            while (true) {
+                List<String> fields;
+                try {
+                    fields = csv.next();
+                } catch (IOException e) {
+                    // A broken record leaves the reader out of step, so nothing after it can be trusted
+                    progress.fail(csv.getLineNumber(), "Không đọc được tệp: " + e.getMessage());
+                    break;
+                }
+                if (fields == null) {
+                    break;
+                }
+                if (fields.size() == 1 && fields.get(0).isBlank()) {
+                    continue;
+                }
+                try {
+                    chunk.add(new ParsedRow(csv.getLineNumber(), parser.parse(fields)));
+                } catch (IllegalArgumentException e) {
+                    progress.fail(csv.getLineNumber(), e.getMessage());
+                }
+                if (chunk.size() == chunkSize) {
+                    writeChunk(user, chunk, progress, touchedBudgets);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(user, chunk, progress, touchedBudgets);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Không đọc được tệp: " + e.getMessage(), e);
+        }
+
+        try {
+            budgetService.evaluateBudgetAlertsById(touchedBudgets);
+        } catch (RuntimeException e) {
+            // The rows are committed; a failed alert must not fail the import
+            log.warn("Could not evaluate budget alerts after import for user {}", user.getId(), e);
+        }
+
+        ImportReport report = progress.toReport(System.currentTimeMillis() - startTime);
+        log.info("Imported {} transactions for user {} ({} rows failed) in {} ms",
+                report.imported(), user.getId(), report.failed(), report.elapsedMillis());
+        return report;
+    }
+
+    /**
+     * Writes one chunk in a single transaction. If the database rejects it, the rows are retried one by one so only
+     * the offending rows are lost.
+     */
+    private void writeChunk(User user, List<ParsedRow> chunk, Progress progress, Set<Long> touchedBudgets) {
+        try {
+            touchedBudgets.addAll(transactionTemplate.execute(status -> write(user, chunk)));
+            progress.imported += chunk.size();
+            importedRows.increment(chunk.size());
+        } catch (DataAccessException e) {
+            log.warn("Import chunk of {} rows failed, retrying individually: {}", chunk.size(), e.getMessage());
+            for (ParsedRow row : chunk) {
+                try {
+                    touchedBudgets.addAll(transactionTemplate.execute(status -> write(user, List.of(row))));
+                    progress.imported++;
+                    importedRows.increment();
+                } catch (DataAccessException rowFailure) {
+                    progress.fail(row.line(), "Không thể lưu giao dịch: " + rowFailure.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private Set<Long> write(User user, List<ParsedRow> rows) {
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Transaction> transactions = rows.stream().map(ParsedRow::transaction).toList();
+        for (int from = 0; from < transactions.size(); from += batchSize) {
+            insertBatch(user, transactions.subList(from, Math.min(from + batchSize, transactions.size())), createdAt);
+        }
+
+        transactionRollupService.recordCreated(transactions);
+        Set<Long> budgetIds = budgetSpentService.recordCreated(transactions);
+        transactionSearchService.recordCreated(transactions);
+        userDataVersionService.bump(user.getId());
+        return budgetIds;
+    }
+
+    // One JDBC batch; the generated ids are copied back for the search index
+    private void insertBatch(User user, List<Transaction> batch, Timestamp createdAt) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_TRANSACTION, new String[] { "id" }),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Transaction transaction = batch.get(i);
+                        ps.setString(1, transaction.getDescription());
+                        ps.setBigDecimal(2, transaction.getAmount());
+                        ps.setString(3, transaction.getType().name());
+                        ps.setTimestamp(4, Timestamp.valueOf(transaction.getTransactionDate()));
+                        ps.setTimestamp(5, createdAt);
+                        if (transaction.getNotes() != null) {
+                            ps.setString(6, transaction.getNotes());
+                        } else {
+                            ps.setNull(6, Types.VARCHAR);
+                        }
+                        ps.setLong(7, user.getId());
+                        ps.setLong(8, transaction.getCategory().getId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return batch.size();
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+    }
+
+    private record ParsedRow(long line, Transaction transaction) {
+    }
+
+    // Positions of the known columns in the header; -1 for an optional column that is absent
+    private record Columns(int date, int description, int amount, int type, int category, int notes) {
+
+        static Columns of(List<String> header) {
+            if (header == null) {
+                throw new IllegalArgumentException("Tệp trống");
+            }
+            Map<String, Integer> positions = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                positions.putIfAbsent(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            for (String required : List.of("date", "description", "amount")) {
+                if (!positions.containsKey(required)) {
+                    throw new IllegalArgumentException("Thiếu cột bắt buộc: " + required);
+                }
+            }
+            return new Columns(positions.get("date"), positions.get("description"), positions.get("amount"),
+                    positions.getOrDefault("type", -1), positions.getOrDefault("category", -1),
+                    positions.getOrDefault("notes", -1));
+        }
+    }
+
+    /**
+     * Turns records into unsaved transactions. Category names are looked up once per import; repeats, including
+     * names that do not exist, are answered from the map.
+     */
+    private final class RowParser {
+
+        private final User user;
+        private final Columns columns;
+        private final Category defaultCategory;
+        private final AmountFormat amountFormat;
+        private final Map<String, Optional<Category>> categories = new HashMap<>();
+
+        RowParser(User user, Columns columns, Category defaultCategory, AmountFormat amountFormat) {
+            this.user = user;
+            this.columns = columns;
+            this.defaultCategory = defaultCategory;
+            this.amountFormat = amountFormat;
+        }
+
+        Transaction parse(List<String> fields) {
+            String description = text(fields, columns.description());
+            if (description.isEmpty()) {
+                throw new IllegalArgumentException("Thiếu mô tả");
+            }
+            if (description.length() > MAX_DESCRIPTION_LENGTH) {
+                throw new IllegalArgumentException("Mô tả dài quá " + MAX_DESCRIPTION_LENGTH + " ký tự");
+            }
+            String notes = text(fields, columns.notes());
+            if (notes.length() > MAX_NOTES_LENGTH) {
+                throw new IllegalArgumentException("Ghi chú dài quá " + MAX_NOTES_LENGTH + " ký tự");
+            }
+
+            BigDecimal amount = amountFormat.parse(field(fields, columns.amount()));
+            Category category = resolveCategory(text(fields, columns.category()));
+            Transaction.TransactionType type = parseType(field(fields, columns.type()), amount, category);
+
+            Transaction transaction = new Transaction();
+            transaction.setDescription(description);
+            transaction.setAmount(amount.abs());
+            transaction.setType(type);
+            transaction.setTransactionDate(parseDate(field(fields, columns.date())));
+            transaction.setNotes(notes.isEmpty() ? null : notes);
+            transaction.setUser(user);
+            transaction.setCategory(category);
+            return transaction;
+        }
+
+        private Category resolveCategory(String name) {
+            if (name.isEmpty()) {
+                if (defaultCategory == null) {
+                    throw new IllegalArgumentException("Thiếu danh mục");
+                }
+                return defaultCategory;
+            }
+            return categories.computeIfAbsent(name.toLowerCase(Locale.ROOT), key -> categoryService.findByNameIgnoreCase(name))
+                    .orElseThrow(() -> new IllegalArgumentException("Không tìm thấy danh mục: " + name));
+        }
+
+        private static String field(List<String> fields, int index) {
+            return index >= 0 && index < fields.size() ? fields.get(index).trim() : "";
+        }
+
+        // Drops the apostrophe the export puts before text a spreadsheet would evaluate as a formula
+        private static String text(List<String> fields, int index) {
+            String value = field(fields, index);
+            return value.length() > 1 && value.charAt(0) == '\''
+                    && TransactionExportService.FORMULA_TRIGGERS.indexOf(value.charAt(1)) >= 0
+                    ? value.substring(1) : value;
+        }
+
+        private static Transaction.TransactionType parseType(String value, BigDecimal amount, Category category) {
+            if (value.isEmpty()) {
+                if (amount.signum() < 0) {
+                    return Transaction.TransactionType.EXPENSE;
+                }
+                return category.getType() == Category.CategoryType.INCOME
+                        ? Transaction.TransactionType.INCOME
+                        : Transaction.TransactionType.EXPENSE;
+            }
+            return switch (value.toLowerCase(Locale.ROOT)) {
+                case "income", "thu", "thu nhập" -> Transaction.TransactionType.INCOME;
+                case "expense", "chi", "chi tiêu" -> Transaction.TransactionType.EXPENSE;
+                default -> throw new IllegalArgumentException("Loại giao dịch không hợp lệ: " + value);
+            };
+        }
+
+        private static LocalDateTime parseDate(String value) {
+            for (DateTimeFormatter format : DATE_TIME_FORMATS) {
+                try {
+                    return LocalDateTime.parse(value, format);
+                } catch (DateTimeParseException ignored) {
+                    // Try the next format
+                }
+            }
+            for (DateTimeFormatter format : DATE_FORMATS) {
+                try {
+                    return LocalDate.parse(value, format).atStartOfDay();
+                } catch (DateTimeParseException ignored) {
+                    // Try the next format
+                }
+            }
+            throw new IllegalArgumentException("Ngày không hợp lệ: " + value);
+        }
+    }
+
+    /**
+     * How the amount column writes numbers. Spaces are ignored in both; the grouping separator is optional but, when
+     * present, must group the integer part by three.
+     */
+    public enum AmountFormat {
+        // 1,234.56
+        DOT_DECIMAL('.', ','),
+        // 1.234,56, as in Vietnamese bank statements
+        COMMA_DECIMAL(',', '.');
+
+        private final char decimalSeparator;
+        private final char groupingSeparator;
+        private final Pattern pattern;
+
+        AmountFormat(char decimalSeparator, char groupingSeparator) {
+            this.decimalSeparator = decimalSeparator;
+            this.groupingSeparator = groupingSeparator;
+            String grouping = Pattern.quote(String.valueOf(groupingSeparator));
+            this.pattern = Pattern.compile("[+-]?(\\d{1,3}(" + grouping + "\\d{3})+|\\d+)("
+                    + Pattern.quote(String.valueOf(decimalSeparator)) + "(\\d+))?");
+        }
+
+        BigDecimal parse(String value) {
+            String compact = value.replace(" ", "").replace("\u00A0", "");
+            Matcher matcher = pattern.matcher(compact);
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("Số tiền không hợp lệ: " + value);
+            }
+            // Three decimals are far more likely a grouping separator read in the wrong format than a price
+            String fraction = matcher.group(4);
+            if (fraction != null && fraction.length() > 2) {
+                throw new IllegalArgumentException("Số tiền có quá 2 chữ số thập phân: " + value
+                        + " (kiểm tra định dạng số đã chọn)");
+            }
+            BigDecimal amount = new BigDecimal(compact.replace(String.valueOf(groupingSeparator), "")
+                    .replace(decimalSeparator, '.'));
+            if (amount.signum() == 0) {
+                throw new IllegalArgumentException("Số tiền phải khác 0");
+            }
+            if (amount.precision() - amount.scale() > MAX_INTEGER_DIGITS) {
+                throw new IllegalArgumentException("Số tiền không hợp lệ: " + value);
+            }
+            return amount;
+        }
+
+        // Accepts the request parameter in any case and falls back to 1,234.56
+        public static AmountFormat fromParameter(String value) {
+            if (value == null || value.isBlank()) {
+                return DOT_DECIMAL;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return DOT_DECIMAL;
+            }
+        }
+    }
+
+    private final class Progress {
+
+        int imported;
+        int failed;
+        final List<RowError> errors = new ArrayList<>();
+
+        void fail(long line, String message) {
+            failed++;
+            failedRows.increment();
+            if (errors.size() < maxErrors) {
+                errors.add(new RowError(line, message));
+            }
+        }
+
+        ImportReport toReport(long elapsedMillis) {
+            return new ImportReport(imported, failed, List.copyOf(errors), failed > errors.size(), elapsedMillis);
+        }
+    }
+
+    /**
+     * Outcome of an import. {@code errors} holds the first {@code max-errors} failures; {@code truncated} is set when
+     * there were more.
+     */
+    public record ImportReport(int imported, int failed, List<RowError> errors, boolean truncated,
+            long elapsedMillis) {
+    }
+
+    public record RowError(long line, String message) {
+    }
+}
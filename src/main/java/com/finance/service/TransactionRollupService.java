@@ -0,0 +1,383 @@
+package com.finance.service;
+
+import com.finance.domain.Category;
+import com.finance.domain.Transaction;
+import com.finance.domain.TransactionMonthlySummary;
+import com.finance.domain.User;
+import com.finance.repository.TransactionMonthlySummaryRepository;
+import com.finance.repository.TransactionRepository;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the per-user x category x type x month rollup in sync with transaction writes and answers
+ * aggregate queries from it. Whole calendar months inside a range are read from the rollup; only the
+ * partial months at either edge of the range touch the raw transactions table.
+ */
+@Service
+@Transactional
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class TransactionRollupService {
+
+    // Same end-of-day convention the controllers use when turning a date into a range bound
+    private static final LocalTime END_OF_DAY = LocalTime.of(23, 59, 59);
+    private static final String INSERT_BUCKET = "INSERT INTO transaction_monthly_summaries " +
+            "(user_id, category_id, type, period, total_amount, transaction_count) VALUES (?, ?, ?, ?, ?, ?)";
+
+    TransactionMonthlySummaryRepository summaryRepository;
+    TransactionRepository transactionRepository;
+    JdbcTemplate jdbcTemplate;
+
+    // Write side
+
+    public void recordCreated(Transaction transaction) {
+        apply(transaction.getUser(), transaction.getCategory(), transaction.getType(),
+                transaction.getTransactionDate(), transaction.getAmount(), 1);
+    }
+
+    /**
+     * Applies a batch of new transactions, e.g. one import chunk, with one delta per category x type x month
+     * bucket instead of one per row.
+     */
+    public void recordCreated(Collection<Transaction> transactions) {
+        Map<BucketKey, Bucket> buckets = new HashMap<>();
+        for (Transaction transaction : transactions) {
+            int period = TransactionMonthlySummary.periodOf(YearMonth.from(transaction.getTransactionDate()));
+            BucketKey key = new BucketKey(transaction.getUser().getId(), transaction.getCategory().getId(),
+                    transaction.getType(), period);
+            buckets.computeIfAbsent(key, k -> new Bucket(transaction.getUser(), transaction.getCategory()))
+                    .add(transaction.getAmount());
+        }
+        buckets.forEach((key, bucket) -> apply(bucket.user, bucket.category, key.type(), key.period(),
+                bucket.amount, bucket.count));
+    }
+
+    public void recordDeleted(Transaction transaction) {
+        apply(transaction.getUser(), transaction.getCategory(), transaction.getType(),
+                transaction.getTransactionDate(), transaction.getAmount().negate(), -1);
+    }
+
+    private void apply(User user, Category category, Transaction.TransactionType type,
+            LocalDateTime transactionDate, BigDecimal amount, long count) {
+        apply(user, category, type, TransactionMonthlySummary.periodOf(YearMonth.from(transactionDate)), amount, count);
+    }
+
+    /**
+     * Adds the delta to its bucket, creating the bucket on the first write. Two first writes to the same bucket can
+     * both miss the update; the loser's insert then hits {@code uk_transaction_summary_bucket} once the winner
+     * commits and it retries the update against that row. The insert goes through JDBC rather than the session, so
+     * the duplicate key fails only that statement and leaves the caller's transaction usable.
+     */
+    private void apply(User user, Category category, Transaction.TransactionType type,
+            int period, BigDecimal amount, long count) {
+        if (summaryRepository.applyDelta(user, category, type, period, amount, count) > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(INSERT_BUCKET, user.getId(), category.getId(), type.name(), period, amount, count);
+        } catch (DuplicateKeyException e) {
+            summaryRepository.applyDelta(user, category, type, period, amount, count);
+        }
+    }
+
+    private record BucketKey(Long userId, Long categoryId, Transaction.TransactionType type, int period) {
+    }
+
+    private static final class Bucket {
+        final User user;
+        final Category category;
+        BigDecimal amount = BigDecimal.ZERO;
+        long count;
+
+        Bucket(User user, Category category) {
+            this.user = user;
+            this.category = category;
+        }
+
+        void add(BigDecimal value) {
+            amount = amount.add(value);
+            count++;
+        }
+    }
+
+    public void deleteAllByUser(User user) {
+        summaryRepository.deleteByUser(user);
+    }
+
+    public void deleteAllByUserId(Long userId) {
+        summaryRepository.deleteByUserId(userId);
+    }
+
+    public void deleteAllByCategoryId(Long categoryId) {
+        summaryRepository.deleteByCategoryId(categoryId);
+    }
+
+    public int rebuildForUser(User user) {
+        summaryRepository.deleteByUser(user);
+        return summaryRepository.rebuildForUser(user);
+    }
+
+    public int rebuildAll() {
+        summaryRepository.deleteAllInBatch();
+        return summaryRepository.rebuildAll();
+    }
+
+    // Backfills the rollup the first time the application starts against existing data
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeRollup() {
+        if (summaryRepository.count() == 0 && transactionRepository.count() > 0) {
+            int buckets = rebuildAll();
+            log.info("Built transaction rollup with {} monthly buckets", buckets);
+        }
+    }
+
+    // Read side
+
+    public BigDecimal sumAmount(User user, Transaction.TransactionType type,
+            LocalDateTime startDate, LocalDateTime endDate) {
+        RangeSplit split = RangeSplit.of(startDate, endDate);
+        if (!split.hasFullMonths()) {
+            return nullToZero(transactionRepository.sumAmountByUserAndTypeAndDateRange(user, type, startDate, endDate));
+        }
+
+        BigDecimal total = nullToZero(summaryRepository.sumAmountByUserAndTypeAndPeriodRange(
+                user, type, split.fromPeriod(), split.toPeriod()));
+        if (split.hasHead()) {
+            total = total.add(nullToZero(transactionRepository.sumAmountByUserAndTypeAndDateRange(
+                    user, type, split.headStart(), split.headEnd())));
+        }
+        if (split.hasTail()) {
+            total = total.add(nullToZero(transactionRepository.sumAmountByUserAndTypeAndDateRange(
+                    user, type, split.tailStart(), split.tailEnd())));
+        }
+        return total;
+    }
+
+    public BigDecimal sumAmount(User user, Category category, Transaction.TransactionType type,
+            LocalDateTime startDate, LocalDateTime endDate) {
+        RangeSplit split = RangeSplit.of(startDate, endDate);
+        if (!split.hasFullMonths()) {
+            return nullToZero(transactionRepository.sumAmountByUserAndCategoryAndTypeAndDateRange(
+                    user, category, type, startDate, endDate));
+        }
+
+        BigDecimal total = nullToZero(summaryRepository.sumAmountByUserAndCategoryAndTypeAndPeriodRange(
+                user, category, type, split.fromPeriod(), split.toPeriod()));
+        if (split.hasHead()) {
+            total = total.add(nullToZero(transactionRepository.sumAmountByUserAndCategoryAndTypeAndDateRange(
+                    user, category, type, split.headStart(), split.headEnd())));
+        }
+        if (split.hasTail()) {
+            total = total.add(nullToZero(transactionRepository.sumAmountByUserAndCategoryAndTypeAndDateRange(
+                    user, category, type, split.tailStart(), split.tailEnd())));
+        }
+        return total;
+    }
+
+    public long countTransactions(User user, Transaction.TransactionType type,
+            LocalDateTime startDate, LocalDateTime endDate) {
+        RangeSplit split = RangeSplit.of(startDate, endDate);
+        if (!split.hasFullMonths()) {
+            return transactionRepository.countTransactionsByUserAndTypeAndDateRange(user, type, startDate, endDate);
+        }
+
+        Long rolledUp = summaryRepository.countTransactionsByUserAndTypeAndPeriodRange(
+                user, type, split.fromPeriod(), split.toPeriod());
+        long count = rolledUp != null ? rolledUp : 0L;
+        if (split.hasHead()) {
+            count += transactionRepository.countTransactionsByUserAndTypeAndDateRange(
+                    user, type, split.headStart(), split.headEnd());
+        }
+        if (split.hasTail()) {
+            count += transactionRepository.countTransactionsByUserAndTypeAndDateRange(
+                    user, type, split.tailStart(), split.tailEnd());
+        }
+        return count;
+    }
+
+    /**
+     * Category breakdown as {@code [categoryName, count, sum]} rows ordered by sum descending, the same
+     * shape the raw {@code TransactionRepository} summary queries return. A {@code null} type covers both.
+     */
+    public List<Object[]> getCategorySummary(User user, Transaction.TransactionType type,
+            LocalDateTime startDate, LocalDateTime endDate) {
+        RangeSplit split = RangeSplit.of(startDate, endDate);
+        if (!split.hasFullMonths()) {
+            return rawCategorySummary(user, type, startDate, endDate);
+        }
+
+        Map<String, Object[]> merged = new LinkedHashMap<>();
+        merge(merged, type == null
+                ? summaryRepository.getCategorySummaryForPeriodRange(user, split.fromPeriod(), split.toPeriod())
+                : summaryRepository.getCategorySummaryForTypeAndPeriodRange(
+                        user, type, split.fromPeriod(), split.toPeriod()));
+        if (split.hasHead()) {
+            merge(merged, rawCategorySummary(user, type, split.headStart(), split.headEnd()));
+        }
+        if (split.hasTail()) {
+            merge(merged, rawCategorySummary(user, type, split.tailStart(), split.tailEnd()));
+        }
+
+        List<Object[]> result = new ArrayList<>(merged.values());
+        result.removeIf(row -> ((Long) row[1]) == 0L);
+        result.sort((a, b) -> ((BigDecimal) b[2]).compareTo((BigDecimal) a[2]));
+        return result;
+    }
+
+    /**
+     * Per-category {@code [categoryName, incomeCount, incomeSum, expenseCount, expenseSum]} rows for all of a
+     * user's history, read entirely from the rollup.
+     */
+    public List<Object[]> getCategoryTotals(User user) {
+        Map<String, Object[]> merged = new LinkedHashMap<>();
+        mergeTotals(merged, summaryRepository.getCategoryTotals(user));
+        return new ArrayList<>(merged.values());
+    }
+
+    /**
+     * Per-category {@code [categoryName, incomeCount, incomeSum, expenseCount, expenseSum]} rows for a range.
+     * Whole-month ranges cost a single query; partial edge months add at most one raw query each.
+     */
+    public List<Object[]> getCategoryTotals(User user, LocalDateTime startDate, LocalDateTime endDate) {
+        RangeSplit split = RangeSplit.of(startDate, endDate);
+        Map<String, Object[]> merged = new LinkedHashMap<>();
+        if (!split.hasFullMonths()) {
+            mergeTotals(merged, transactionRepository.getCategoryTotalsForDateRange(user, startDate, endDate));
+            return new ArrayList<>(merged.values());
+        }
+
+        mergeTotals(merged, summaryRepository.getCategoryTotalsForPeriodRange(
+                user, split.fromPeriod(), split.toPeriod()));
+        if (split.hasHead()) {
+            mergeTotals(merged, transactionRepository.getCategoryTotalsForDateRange(
+                    user, split.headStart(), split.headEnd()));
+        }
+        if (split.hasTail()) {
+            mergeTotals(merged, transactionRepository.getCategoryTotalsForDateRange(
+                    user, split.tailStart(), split.tailEnd()));
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    private static void mergeTotals(Map<String, Object[]> merged, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            String name = (String) row[0];
+            Object[] totals = new Object[] {
+                    name,
+                    ((Number) row[1]).longValue(),
+                    nullToZero((BigDecimal) row[2]),
+                    ((Number) row[3]).longValue(),
+                    nullToZero((BigDecimal) row[4]) };
+            merged.merge(name, totals, (existing, added) -> new Object[] {
+                    name,
+                    (Long) existing[1] + (Long) added[1],
+                    ((BigDecimal) existing[2]).add((BigDecimal) added[2]),
+                    (Long) existing[3] + (Long) added[3],
+                    ((BigDecimal) existing[4]).add((BigDecimal) added[4]) });
+        }
+    }
+
+    private List<Object[]> rawCategorySummary(User user, Transaction.TransactionType type,
+            LocalDateTime startDate, LocalDateTime endDate) {
+        if (type == null) {
+            return transactionRepository.getCategoryTransactionSummaryForDateRange(user, startDate, endDate);
+        }
+        return type.isIncome()
+                ? transactionRepository.getIncomeCategorySummaryForDateRange(user, startDate, endDate)
+                : transactionRepository.getExpenseCategorySummaryForDateRange(user, startDate, endDate);
+    }
+
+    private static void merge(Map<String, Object[]> merged, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            String name = (String) row[0];
+            long count = ((Number) row[1]).longValue();
+            BigDecimal sum = nullToZero((BigDecimal) row[2]);
+            merged.merge(name, new Object[] { name, count, sum }, (existing, added) -> new Object[] {
+                    name,
+                    (Long) existing[1] + (Long) added[1],
+                    ((BigDecimal) existing[2]).add((BigDecimal) added[2]) });
+        }
+    }
+
+    private static BigDecimal nullToZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    /**
+     * Splits an inclusive [start, end] range into the whole calendar months it covers plus the partial
+     * head and tail segments around them.
+     */
+    record RangeSplit(YearMonth firstMonth, YearMonth lastMonth, LocalDateTime start, LocalDateTime end) {
+
+        static RangeSplit of(LocalDateTime start, LocalDateTime end) {
+            YearMonth first = YearMonth.from(start);
+            if (start.isAfter(first.atDay(1).atStartOfDay())) {
+                first = first.plusMonths(1);
+            }
+            YearMonth last = YearMonth.from(end);
+            if (end.isBefore(last.atEndOfMonth().atTime(END_OF_DAY))) {
+                last = last.minusMonths(1);
+            }
+            return new RangeSplit(first, last, start, end);
+        }
+
+        boolean hasFullMonths() {
+            return !firstMonth.isAfter(lastMonth);
+        }
+
+        int fromPeriod() {
+            return TransactionMonthlySummary.periodOf(firstMonth);
+        }
+
+        int toPeriod() {
+            return TransactionMonthlySummary.periodOf(lastMonth);
+        }
+
+        boolean hasHead() {
+            return start.isBefore(firstMonth.atDay(1).atStartOfDay());
+        }
+
+        LocalDateTime headStart() {
+            return start;
+        }
+
+        // One microsecond short of the first whole month, the finest precision the datetime columns keep
+        LocalDateTime headEnd() {
+            return firstMonth.atDay(1).atStartOfDay().minus(1, ChronoUnit.MICROS);
+        }
+
+        boolean hasTail() {
+            return !end.isBefore(tailStart());
+        }
+
+        LocalDateTime tailStart() {
+            return lastMonth.plusMonths(1).atDay(1).atStartOfDay();
+        }
+
+        LocalDateTime tailEnd() {
+            return end;
+        }
+    }
+}
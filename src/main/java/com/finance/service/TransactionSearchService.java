@@ -0,0 +1,263 @@
+package com.finance.service;
+
+import com.finance.domain.Transaction;
+import com.finance.domain.TransactionSearchToken;
+import com.finance.domain.User;
+import com.finance.dto.TransactionRow;
+import com.finance.repository.TransactionRepository;
+import com.finance.repository.TransactionSearchTokenRepository;
+import com.finance.utils.TextFolding;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Full-text search over transaction descriptions and notes. Every transaction write keeps an inverted index of
+ * folded tokens ({@link TransactionSearchToken}) in step, so a search is an index range scan per term instead of a
+ * {@code LIKE '%keyword%'} scan of all the user's rows, and unaccented input such as "an sang" finds "Ăn sáng".
+ *
+ * <p>All terms must match, the last one also as a prefix (see {@link TextFolding#queryTerms}). Hits are ranked by
+ * the summed weight of the matched tokens, description tokens weighing more than notes tokens. The index can be
+ * rebuilt from the transactions table at any time and is built on start-up when it is empty.</p>
+ */
+@Slf4j
+@Service
+@Transactional
+public class TransactionSearchService {
+
+    private static final String INSERT_TOKEN = "INSERT INTO transaction_search_tokens " +
+            "(user_id, transaction_id, token, weight) VALUES (?, ?, ?, ?)";
+
+    // One branch per search term, each an index range scan yielding (transaction_id, score). A transaction matching
+    // through several tokens of the prefix still counts once; LIKE keeps the prefix match exact whatever the column's
+    // collation makes of the range.
+    private static final String EXACT_TERM = "SELECT transaction_id, weight AS score FROM transaction_search_tokens " +
+            "WHERE user_id = ? AND token = ?";
+    private static final String PREFIX_TERM = "SELECT transaction_id, MAX(weight) AS score " +
+            "FROM transaction_search_tokens WHERE user_id = ? AND token >= ? AND token < ? AND token LIKE ? " +
+            "GROUP BY transaction_id";
+    private static final String PAGE = " ORDER BY score DESC, transaction_id DESC LIMIT ? OFFSET ?";
+
+    // Same cap as the transaction list pages
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final TransactionSearchTokenRepository tokenRepository;
+    private final TransactionRepository transactionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int rebuildBatchSize;
+
+    public TransactionSearchService(TransactionSearchTokenRepository tokenRepository,
+            TransactionRepository transactionRepository, JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${finance.transactions.search.rebuild-batch-size:1000}") int rebuildBatchSize) {
+        this.tokenRepository = tokenRepository;
+        this.transactionRepository = transactionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildBatchSize = rebuildBatchSize;
+    }
+
+    // Write side
+
+    public void recordCreated(Transaction transaction) {
+        insertTokens(List.of(IndexedText.of(transaction)));
+    }
+
+    // For batch writers such as the CSV import; the transactions must already carry their ids
+    public void recordCreated(Collection<Transaction> transactions) {
+        insertTokens(transactions.stream().map(IndexedText::of).toList());
+    }
+
+    public void recordUpdated(Transaction transaction) {
+        tokenRepository.deleteByTransactionId(transaction.getId());
+        recordCreated(transaction);
+    }
+
+    public void recordDeleted(Transaction transaction) {
+        tokenRepository.deleteByTransactionId(transaction.getId());
+    }
+
+    public void deleteAllByUserId(Long userId) {
+        tokenRepository.deleteByUserId(userId);
+    }
+
+    // Must run before the category is deleted, while its transactions still exist
+    public void deleteAllByCategoryId(Long categoryId) {
+        tokenRepository.deleteByCategoryId(categoryId);
+    }
+
+    private void insertTokens(List<IndexedText> texts) {
+        List<Object[]> rows = new ArrayList<>();
+        for (IndexedText text : texts) {
+            text.weightedTokens().forEach((token, weight) ->
+                    rows.add(new Object[] { text.userId(), text.transactionId(), token, weight }));
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TOKEN, rows);
+        }
+    }
+
+    /**
+     * Drops the whole index and rebuilds it from the transactions table, one batch of transactions per database
+     * transaction. Meant for maintenance windows: searches see a partial index until it finishes.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long rebuildAll() {
+        transactionTemplate.executeWithoutResult(status -> tokenRepository.deleteAllInBatch());
+        return rebuild(afterId -> transactionRepository.findSearchTextAfter(afterId, Limit.of(rebuildBatchSize)));
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long rebuildForUser(Long userId) {
+        transactionTemplate.executeWithoutResult(status -> tokenRepository.deleteByUserId(userId));
+        return rebuild(afterId -> transactionRepository.findSearchTextByUserIdAfter(userId, afterId,
+                Limit.of(rebuildBatchSize)));
+    }
+
+    private long rebuild(Function<Long, List<Object[]>> nextBatch) {
+        long startTime = System.currentTimeMillis();
+        long indexed = 0;
+        Long afterId = 0L;
+        while (true) {
+            Long cursor = afterId;
+            List<IndexedText> batch = transactionTemplate.execute(status -> {
+                List<IndexedText> texts = nextBatch.apply(cursor).stream().map(IndexedText::of).toList();
+                insertTokens(texts);
+                return texts;
+            });
+            if (batch.isEmpty()) {
+                break;
+            }
+            indexed += batch.size();
+            afterId = batch.get(batch.size() - 1).transactionId();
+        }
+        log.info("Indexed {} transactions for search in {} ms", indexed, System.currentTimeMillis() - startTime);
+        return indexed;
+    }
+
+    // Backfills the index the first time the application starts against existing data
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void initializeIndex() {
+        if (tokenRepository.count() == 0 && transactionRepository.count() > 0) {
+            rebuildAll();
+        }
+    }
+
+    // Read side
+
+    /**
+     * One page of the user's transactions matching the keyword, best match first. A keyword without any letters or
+     * digits matches nothing.
+     */
+    @Transactional(readOnly = true)
+    public Slice<TransactionRow> search(User user, String keyword, Pageable pageable) {
+        // Ranking is the query's own order, so any sort on the request is dropped
+        Pageable page = PageRequest.of(pageable.getPageNumber(), Math.min(pageable.getPageSize(), MAX_PAGE_SIZE));
+        List<TextFolding.QueryTerm> terms = TextFolding.queryTerms(keyword);
+        if (terms.isEmpty()) {
+            return new SliceImpl<>(List.of(), page, false);
+        }
+
+        List<Long> ids = findRankedIds(user.getId(), terms, page);
+        boolean hasNext = ids.size() > page.getPageSize();
+        if (hasNext) {
+            ids = ids.subList(0, page.getPageSize());
+        }
+        if (ids.isEmpty()) {
+            return new SliceImpl<>(List.of(), page, false);
+        }
+
+        Map<Long, TransactionRow> rows = new HashMap<>();
+        for (TransactionRow row : transactionRepository.findRowsByIdIn(ids)) {
+            rows.put(row.id(), row);
+        }
+        List<TransactionRow> ranked = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            TransactionRow row = rows.get(id);
+            if (row != null) {
+                ranked.add(row);
+            }
+        }
+        return new SliceImpl<>(ranked, page, hasNext);
+    }
+
+    /**
+     * Ids of the transactions matching every term, best score first and newest first
+     * among equal scores. Reads one row past the page so the caller can tell whether another page follows.
+     */
+    private List<Long> findRankedIds(Long userId, List<TextFolding.QueryTerm> terms, Pageable page) {
+        List<String> branches = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        for (TextFolding.QueryTerm term : terms) {
+            if (term.isPrefix()) {
+                branches.add(PREFIX_TERM);
+                args.addAll(List.of(userId, term.token(), term.upperBound(), term.likePattern()));
+            } else {
+                branches.add(EXACT_TERM);
+                args.addAll(List.of(userId, term.token()));
+            }
+        }
+
+        String sql;
+        if (branches.size() == 1) {
+            sql = branches.get(0) + PAGE;
+        } else {
+            sql = "SELECT transaction_id, SUM(score) AS score FROM (" + String.join(" UNION ALL ", branches) +
+                    ") matches GROUP BY transaction_id HAVING COUNT(*) = ?" + PAGE;
+            args.add(branches.size());
+        }
+        args.add(page.getPageSize() + 1);
+        args.add(page.getOffset());
+        return jdbcTemplate.query(sql, (rs, rowNum) -> rs.getLong("transaction_id"), args.toArray());
+    }
+
+    /**
+     * The indexed text of one transaction. A token found in the description weighs
+     * {@link TransactionSearchToken#DESCRIPTION_WEIGHT}, one found in the notes adds
+     * {@link TransactionSearchToken#NOTES_WEIGHT}.
+     */
+    private record IndexedText(Long transactionId, Long userId, String description, String notes) {
+
+        static IndexedText of(Transaction transaction) {
+            return new IndexedText(transaction.getId(), transaction.getUser().getId(), transaction.getDescription(),
+                    transaction.getNotes());
+        }
+
+        static IndexedText of(Object[] row) {
+            return new IndexedText((Long) row[0], (Long) row[1], (String) row[2], (String) row[3]);
+        }
+
+        Map<String, Integer> weightedTokens() {
+            Map<String, Integer> weights = new LinkedHashMap<>();
+            for (String token : TextFolding.tokens(description)) {
+                weights.merge(token, TransactionSearchToken.DESCRIPTION_WEIGHT, Integer::sum);
+            }
+            for (String token : TextFolding.tokens(notes)) {
+                weights.merge(token, TransactionSearchToken.NOTES_WEIGHT, Integer::sum);
+            }
+            return weights;
+        }
+    }
+}
@@ -3,20 +3,34 @@ package com.finance.service;
 import com.finance.domain.Transaction;
 import com.finance.domain.User;
 import com.finance.domain.Category;
+import com.finance.dto.TransactionFilter;
+import com.finance.dto.TransactionRow;
+import com.finance.dto.TransactionSort;
+import com.finance.event.TransactionChangedEvent;
+import com.finance.event.TransactionChangedEvent.ChangeType;
 import com.finance.repository.TransactionRepository;
+import com.finance.repository.TransactionSpecifications;
 import com.finance.exception.TransactionNotFoundException;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import jakarta.transaction.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 @Service
 @Transactional
@@ -26,12 +40,24 @@ public class TransactionService {
 
     TransactionRepository transactionRepository;
 
+    TransactionRollupService transactionRollupService;
+
+    TransactionSearchService transactionSearchService;
+
+    BudgetSpentService budgetSpentService;
+
+    UserDataVersionService userDataVersionService;
+
+    ApplicationEventPublisher eventPublisher;
+
+    private static final int MAX_SLICE_SIZE = 100;
+
     public List<Transaction> findAll() {
         return transactionRepository.findAll();
     }
 
     public Transaction findById(Long id) {
-        return transactionRepository.findById(id)
+        return transactionRepository.findWithCategoryById(id)
                 .orElseThrow(() -> new TransactionNotFoundException(id));
     }
 
@@ -47,9 +73,38 @@ public class TransactionService {
         return transactionRepository.findByUserOrderByTransactionDateDesc(user, pageable);
     }
 
+    /**
+     * Keyset page of a user's transactions, newest first. {@code cursor} is an opaque token taken from a previous
+     * slice's next/previous cursor, or {@code null} for the first page.
+     */
+    public TransactionSlice findSliceByUser(User user, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_SLICE_SIZE));
+        Limit limit = Limit.of(pageSize + 1);
+
+        if (cursor == null || cursor.isBlank()) {
+            List<TransactionRow> rows = transactionRepository.findFirstKeysetPage(user, limit);
+            return TransactionSlice.forward(rows, pageSize, false);
+        }
+
+        TransactionCursor position = TransactionCursor.decode(cursor);
+        if (position.backward()) {
+            List<TransactionRow> rows = new ArrayList<>(transactionRepository.findKeysetPageBefore(
+                    user, position.transactionDate(), position.id(), limit));
+            return TransactionSlice.backward(rows, pageSize);
+        }
+        List<TransactionRow> rows = transactionRepository.findKeysetPageAfter(
+                user, position.transactionDate(), position.id(), limit);
+        return TransactionSlice.forward(rows, pageSize, true);
+    }
+
     public List<Transaction> findRecentTransactionsByUser(User user, int limit) {
-        List<Transaction> transactions = transactionRepository.findRecentTransactionsByUser(user);
-        return transactions.size() > limit ? transactions.subList(0, limit) : transactions;
+        return transactionRepository.findRecentTransactionsByUser(user, Limit.of(limit));
+    }
+
+    public List<TransactionRow> findRecentTransactionsByUserAndDateRange(User user, LocalDateTime startDate,
+            LocalDateTime endDate, int limit) {
+        return transactionRepository.findRecentTransactionsByUserAndDateRange(user, startDate, endDate,
+                Limit.of(limit));
     }
 
     public List<Transaction> findByUserAndCategory(User user, Category category) {
@@ -74,12 +129,32 @@ public class TransactionService {
         return transactionRepository.findByUserAndCategoryAndTransactionDateBetween(user, category, startDate, endDate);
     }
 
-    public List<Transaction> searchTransactions(User user, String keyword) {
-        return transactionRepository.findByUserAndDescriptionContaining(user, keyword);
+    /**
+     * One page of the user's transactions matching every set field of the filter, in the chosen order, as a single
+     * query built from {@link TransactionSpecifications}.
+     */
+    public Slice<TransactionRow> filterTransactions(User user, TransactionFilter filter, TransactionSort sort,
+            int page, int size) {
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, MAX_SLICE_SIZE)),
+                sort.getSort());
+        return transactionRepository.findRows(TransactionSpecifications.matching(user.getId(), filter), pageRequest);
+    }
+
+    public Slice<TransactionRow> searchTransactions(User user, String keyword, Pageable pageable) {
+        return transactionSearchService.search(user, keyword, pageable);
     }
 
     public Transaction save(Transaction transaction) {
-        return transactionRepository.save(transaction);
+        if (transaction.getId() != null) {
+            return updateTransaction(transaction.getId(), transaction);
+        }
+        Transaction savedTransaction = transactionRepository.save(transaction);
+        transactionRollupService.recordCreated(savedTransaction);
+        budgetSpentService.recordCreated(savedTransaction);
+        transactionSearchService.recordCreated(savedTransaction);
+        userDataVersionService.bump(savedTransaction.getUser().getId());
+        eventPublisher.publishEvent(TransactionChangedEvent.of(ChangeType.CREATED, savedTransaction));
+        return savedTransaction;
     }
 
     public Transaction createTransaction(String description, BigDecimal amount, Transaction.TransactionType type,
@@ -93,12 +168,21 @@ public class TransactionService {
         transaction.setTransactionDate(transactionDate != null ? transactionDate : LocalDateTime.now());
         transaction.setNotes(notes);
 
-        return transactionRepository.save(transaction);
+        Transaction savedTransaction = transactionRepository.save(transaction);
+        transactionRollupService.recordCreated(savedTransaction);
+        budgetSpentService.recordCreated(savedTransaction);
+        transactionSearchService.recordCreated(savedTransaction);
+        userDataVersionService.bump(savedTransaction.getUser().getId());
+        eventPublisher.publishEvent(TransactionChangedEvent.of(ChangeType.CREATED, savedTransaction));
+        return savedTransaction;
     }
 
     public Transaction updateTransaction(Long id, Transaction transactionDetails) {
         return transactionRepository.findById(id)
                 .map(transaction -> {
+                    transactionRollupService.recordDeleted(transaction);
+                    budgetSpentService.recordDeleted(transaction);
+
                     transaction.setDescription(transactionDetails.getDescription());
                     transaction.setAmount(transactionDetails.getAmount());
                     transaction.setType(transactionDetails.getType());
@@ -106,16 +190,26 @@ public class TransactionService {
                     transaction.setTransactionDate(transactionDetails.getTransactionDate());
                     transaction.setNotes(transactionDetails.getNotes());
 
-                    return transactionRepository.save(transaction);
+                    Transaction savedTransaction = transactionRepository.save(transaction);
+                    transactionRollupService.recordCreated(savedTransaction);
+                    budgetSpentService.recordCreated(savedTransaction);
+                    transactionSearchService.recordUpdated(savedTransaction);
+                    userDataVersionService.bump(savedTransaction.getUser().getId());
+                    eventPublisher.publishEvent(TransactionChangedEvent.of(ChangeType.UPDATED, savedTransaction));
+                    return savedTransaction;
                 })
                 .orElseThrow(() -> new TransactionNotFoundException(id));
     }
 
     public void deleteById(Long id) {
-        if (!transactionRepository.existsById(id)) {
-            throw new TransactionNotFoundException(id);
-        }
-        transactionRepository.deleteById(id);
+        Transaction transaction = transactionRepository.findById(id)
+                .orElseThrow(() -> new TransactionNotFoundException(id));
+        transactionRollupService.recordDeleted(transaction);
+        budgetSpentService.recordDeleted(transaction);
+        transactionSearchService.recordDeleted(transaction);
+        transactionRepository.delete(transaction);
+        userDataVersionService.bump(transaction.getUser().getId());
+        eventPublisher.publishEvent(TransactionChangedEvent.of(ChangeType.DELETED, transaction));
     }
 
     public BigDecimal getTotalIncomeByUser(User user) {
@@ -129,26 +223,21 @@ public class TransactionService {
     }
 
     public BigDecimal getBalanceByUser(User user) {
-        return getTotalIncomeByUser(user).subtract(getTotalExpensesByUser(user));
+        return getTransactionStatistics(user).getBalance();
     }
 
     public BigDecimal getTotalIncomeByUserAndDateRange(User user, LocalDateTime startDate, LocalDateTime endDate) {
-        BigDecimal total = transactionRepository.sumAmountByUserAndTypeAndDateRange(
-                user, Transaction.TransactionType.INCOME, startDate, endDate);
-        return total != null ? total : BigDecimal.ZERO;
+        return transactionRollupService.sumAmount(user, Transaction.TransactionType.INCOME, startDate, endDate);
     }
 
     public BigDecimal getTotalExpensesByUserAndDateRange(User user, LocalDateTime startDate, LocalDateTime endDate) {
-        BigDecimal total = transactionRepository.sumAmountByUserAndTypeAndDateRange(
-                user, Transaction.TransactionType.EXPENSE, startDate, endDate);
-        return total != null ? total : BigDecimal.ZERO;
+        return transactionRollupService.sumAmount(user, Transaction.TransactionType.EXPENSE, startDate, endDate);
     }
 
     public BigDecimal getTotalExpensesByUserAndCategoryAndDateRange(User user, Category category,
             LocalDateTime startDate, LocalDateTime endDate) {
-        BigDecimal total = transactionRepository.sumAmountByUserAndCategoryAndTypeAndDateRange(
+        return transactionRollupService.sumAmount(
                 user, category, Transaction.TransactionType.EXPENSE, startDate, endDate);
-        return total != null ? total : BigDecimal.ZERO;
     }
 
     public long getTransactionCountByUserAndType(User user, Transaction.TransactionType type) {
@@ -157,17 +246,19 @@ public class TransactionService {
 
     public List<Object[]> getCategoryTransactionSummaryForDateRange(User user, LocalDateTime startDate,
             LocalDateTime endDate) {
-        return transactionRepository.getCategoryTransactionSummaryForDateRange(user, startDate, endDate);
+        return transactionRollupService.getCategorySummary(user, null, startDate, endDate);
     }
 
     public List<Object[]> getExpenseCategorySummaryForDateRange(User user, LocalDateTime startDate,
             LocalDateTime endDate) {
-        return transactionRepository.getExpenseCategorySummaryForDateRange(user, startDate, endDate);
+        return transactionRollupService.getCategorySummary(
+                user, Transaction.TransactionType.EXPENSE, startDate, endDate);
     }
 
     public List<Object[]> getIncomeCategorySummaryForDateRange(User user, LocalDateTime startDate,
             LocalDateTime endDate) {
-        return transactionRepository.getIncomeCategorySummaryForDateRange(user, startDate, endDate);
+        return transactionRollupService.getCategorySummary(
+                user, Transaction.TransactionType.INCOME, startDate, endDate);
     }
 
     public List<Object[]> getTransactionTrendByDate(User user, LocalDateTime startDate, LocalDateTime endDate) {
@@ -181,33 +272,90 @@ public class TransactionService {
     public void deleteAllByUser(User user) {
         List<Transaction> transactions = findByUser(user);
         transactions.forEach(transaction -> transactionRepository.delete(transaction));
+        transactionRollupService.deleteAllByUser(user);
+        transactionSearchService.deleteAllByUserId(user.getId());
+        budgetSpentService.resetForUser(user);
+        userDataVersionService.bump(user.getId());
     }
 
     // Statistics methods
     public TransactionStatistics getTransactionStatistics(User user) {
-        return new TransactionStatistics(
-                getTotalIncomeByUser(user),
-                getTotalExpensesByUser(user),
-                getBalanceByUser(user),
-                getTransactionCountByUserAndType(user, Transaction.TransactionType.INCOME),
-                getTransactionCountByUserAndType(user, Transaction.TransactionType.EXPENSE));
+        return TransactionStatistics.fromCategoryTotals(transactionRollupService.getCategoryTotals(user));
     }
 
     public TransactionStatistics getTransactionStatisticsForDateRange(User user, LocalDateTime startDate,
             LocalDateTime endDate) {
-        BigDecimal income = getTotalIncomeByUserAndDateRange(user, startDate, endDate);
-        BigDecimal expenses = getTotalExpensesByUserAndDateRange(user, startDate, endDate);
-        long incomeCount = transactionRepository.countTransactionsByUserAndTypeAndDateRange(
-                user, Transaction.TransactionType.INCOME, startDate, endDate);
-        long expenseCount = transactionRepository.countTransactionsByUserAndTypeAndDateRange(
-                user, Transaction.TransactionType.EXPENSE, startDate, endDate);
+        return TransactionStatistics.fromCategoryTotals(
+                transactionRollupService.getCategoryTotals(user, startDate, endDate));
+    }
 
-        return new TransactionStatistics(
-                income,
-                expenses,
-                income.subtract(expenses),
-                incomeCount,
-                expenseCount);
+    @Getter
+    public static class TransactionSlice {
+        final List<TransactionRow> content;
+        final String nextCursor;
+        final String previousCursor;
+
+        TransactionSlice(List<TransactionRow> content, String nextCursor, String previousCursor) {
+            this.content = content;
+            this.nextCursor = nextCursor;
+            this.previousCursor = previousCursor;
+        }
+
+        static TransactionSlice forward(List<TransactionRow> rows, int size, boolean hasPrevious) {
+            boolean hasNext = rows.size() > size;
+            List<TransactionRow> content = hasNext ? rows.subList(0, size) : rows;
+            return of(content, hasNext, hasPrevious);
+        }
+
+        static TransactionSlice backward(List<TransactionRow> ascendingRows, int size) {
+            boolean hasPrevious = ascendingRows.size() > size;
+            List<TransactionRow> content = new ArrayList<>(hasPrevious ? ascendingRows.subList(0, size) : ascendingRows);
+            Collections.reverse(content);
+            return of(content, true, hasPrevious);
+        }
+
+        private static TransactionSlice of(List<TransactionRow> content, boolean hasNext, boolean hasPrevious) {
+            if (content.isEmpty()) {
+                return new TransactionSlice(content, null, null);
+            }
+            TransactionRow first = content.get(0);
+            TransactionRow last = content.get(content.size() - 1);
+            return new TransactionSlice(content,
+                    hasNext ? new TransactionCursor(last.transactionDate(), last.id(), false).encode() : null,
+                    hasPrevious ? new TransactionCursor(first.transactionDate(), first.id(), true).encode() : null);
+        }
+
+        public boolean hasNext() {
+            return nextCursor != null;
+        }
+
+        public boolean hasPrevious() {
+            return previousCursor != null;
+        }
+    }
+
+    /**
+     * Position in the (transactionDate, id) ordering, serialized as an opaque URL-safe token.
+     */
+    record TransactionCursor(LocalDateTime transactionDate, Long id, boolean backward) {
+
+        String encode() {
+            String raw = (backward ? "b" : "f") + "|" + transactionDate + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static TransactionCursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|");
+                if (parts.length != 3 || !("f".equals(parts[0]) || "b".equals(parts[0]))) {
+                    throw new IllegalArgumentException("Invalid transaction cursor");
+                }
+                return new TransactionCursor(LocalDateTime.parse(parts[1]), Long.valueOf(parts[2]), "b".equals(parts[0]));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid transaction cursor", e);
+            }
+        }
     }
 
     @Getter
@@ -218,16 +366,68 @@ public class TransactionService {
         final long incomeCount;
         final long expenseCount;
         final long totalCount;
+        // [categoryName, incomeCount, incomeSum, expenseCount, expenseSum]
+        final List<Object[]> categoryTotals;
 
         public TransactionStatistics(BigDecimal totalIncome, BigDecimal totalExpenses, BigDecimal balance,
                 long incomeCount, long expenseCount) {
+            this(totalIncome, totalExpenses, balance, incomeCount, expenseCount, List.of());
+        }
+
+        public TransactionStatistics(BigDecimal totalIncome, BigDecimal totalExpenses, BigDecimal balance,
+                long incomeCount, long expenseCount, List<Object[]> categoryTotals) {
             this.totalIncome = totalIncome;
             this.totalExpenses = totalExpenses;
             this.balance = balance;
             this.incomeCount = incomeCount;
             this.expenseCount = expenseCount;
             this.totalCount = incomeCount + expenseCount;
+            this.categoryTotals = categoryTotals;
+        }
+
+        public static TransactionStatistics fromCategoryTotals(List<Object[]> categoryTotals) {
+            BigDecimal income = BigDecimal.ZERO;
+            BigDecimal expenses = BigDecimal.ZERO;
+            long incomeCount = 0;
+            long expenseCount = 0;
+            for (Object[] row : categoryTotals) {
+                incomeCount += (Long) row[1];
+                income = income.add((BigDecimal) row[2]);
+                expenseCount += (Long) row[3];
+                expenses = expenses.add((BigDecimal) row[4]);
+            }
+            return new TransactionStatistics(income, expenses, income.subtract(expenses),
+                    incomeCount, expenseCount, categoryTotals);
         }
 
+        // [categoryName, count, sum] rows across both types, largest first
+        public List<Object[]> getCategorySummary() {
+            return summarize(1, 2, 3, 4);
+        }
+
+        public List<Object[]> getIncomeCategorySummary() {
+            return summarize(1, 2);
+        }
+
+        public List<Object[]> getExpenseCategorySummary() {
+            return summarize(3, 4);
+        }
+
+        private List<Object[]> summarize(int... countSumColumns) {
+            List<Object[]> summary = new ArrayList<>();
+            for (Object[] row : categoryTotals) {
+                long count = 0;
+                BigDecimal sum = BigDecimal.ZERO;
+                for (int i = 0; i < countSumColumns.length; i += 2) {
+                    count += (Long) row[countSumColumns[i]];
+                    sum = sum.add((BigDecimal) row[countSumColumns[i + 1]]);
+                }
+                if (count > 0) {
+                    summary.add(new Object[] { row[0], count, sum });
+                }
+            }
+            summary.sort((a, b) -> ((BigDecimal) b[2]).compareTo((BigDecimal) a[2]));
+            return summary;
+        }
     }
 }
\ No newline at end of file
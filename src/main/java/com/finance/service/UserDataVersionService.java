@@ -0,0 +1,90 @@
+package com.finance.service;
+
+import com.finance.utils.TransactionCallbacks;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic per-user data versions, bumped by every service write that changes what the user sees.
+ * Caches and ETags keyed on a version never need explicit eviction: a write simply makes the old entries unreachable.
+ *
+ * <p>Versions are kept per {@link Scope} so that, for example, a new notification does not invalidate a cached
+ * dashboard. Each version is the sum of a global counter, seeded from the start-up time so versions keep increasing
+ * across restarts, and a per-user counter. Changes to shared data such as categories bump the global counter.</p>
+ */
+@Component
+public class UserDataVersionService {
+
+    public enum Scope {
+        // Transactions, budgets, goals and anything derived from them
+        FINANCE,
+        NOTIFICATIONS
+    }
+
+    private final long startedAt = System.currentTimeMillis();
+
+    private final AtomicLong globalVersion = new AtomicLong(startedAt);
+
+    private volatile long globalModifiedAt = startedAt;
+
+    private final Map<Scope, Map<Long, UserVersion>> userVersions = new EnumMap<>(Scope.class);
+
+    public UserDataVersionService() {
+        for (Scope scope : Scope.values()) {
+            userVersions.put(scope, new ConcurrentHashMap<>());
+        }
+    }
+
+    public long current(Long userId) {
+        return current(Scope.FINANCE, userId);
+    }
+
+    public long current(Scope scope, Long userId) {
+        UserVersion userVersion = userVersions.get(scope).get(userId);
+        return globalVersion.get() + (userVersion != null ? userVersion.version.get() : 0);
+    }
+
+    // Epoch millis of the last change in the scope, never earlier than the application start
+    public long lastModified(Scope scope, Long userId) {
+        UserVersion userVersion = userVersions.get(scope).get(userId);
+        return Math.max(globalModifiedAt, userVersion != null ? userVersion.modifiedAt : startedAt);
+    }
+
+    public void bump(Long userId) {
+        bump(Scope.FINANCE, userId);
+    }
+
+    /**
+     * Bumps the user's version now and, inside a transaction, again once it completes, so a reader that loaded
+     * pre-commit data in between cannot cache it under the final version.
+     */
+    public void bump(Scope scope, Long userId) {
+        increment(scope, userId);
+        TransactionCallbacks.afterCompletion(() -> increment(scope, userId));
+    }
+
+    public void bumpAll() {
+        incrementGlobal();
+        TransactionCallbacks.afterCompletion(this::incrementGlobal);
+    }
+
+    private void increment(Scope scope, Long userId) {
+        UserVersion userVersion = userVersions.get(scope).computeIfAbsent(userId, id -> new UserVersion());
+        userVersion.version.incrementAndGet();
+        userVersion.modifiedAt = System.currentTimeMillis();
+    }
+
+    private void incrementGlobal() {
+        globalVersion.incrementAndGet();
+        globalModifiedAt = System.currentTimeMillis();
+    }
+
+    private static final class UserVersion {
+        final AtomicLong version = new AtomicLong();
+        volatile long modifiedAt;
+    }
+}
@@ -5,6 +5,8 @@ import com.finance.domain.User;
 import com.finance.exception.DuplicateUserException;
 import com.finance.exception.InvalidPasswordException;
 import com.finance.exception.UserNotFoundException;
+import com.finance.repository.NotificationDigestRepository;
+import com.finance.repository.NotificationOutboxRepository;
 import com.finance.repository.RoleRepository;
 import com.finance.repository.UserRepository;
 import lombok.AllArgsConstructor;
@@ -29,6 +31,18 @@ public class UserService {
 
     private PasswordEncoder passwordEncoder;
 
+    private TransactionRollupService transactionRollupService;
+
+    private TransactionSearchService transactionSearchService;
+
+    private BudgetIntervalIndex budgetIntervalIndex;
+
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    private NotificationDigestRepository notificationDigestRepository;
+
+    private CurrentUserCache currentUserCache;
+
     public List<User> findAll() {
         return userRepository.findAll();
     }
@@ -62,6 +76,9 @@ public class UserService {
         if (StringUtils.hasText(user.getPassword())) {
             user.setPassword(passwordEncoder.encode(user.getPassword()));
         }
+        if (user.getId() != null) {
+            currentUserCache.invalidate(user.getId());
+        }
         return userRepository.save(user);
     }
 
@@ -122,6 +139,8 @@ public class UserService {
                     if (StringUtils.hasText(userDetails.getPassword())) {
                         user.setPassword(passwordEncoder.encode(userDetails.getPassword()));
                     }
+                    // Covers admin role and profile edits
+                    currentUserCache.invalidate(user.getId());
                     return userRepository.save(user);
                 }).orElseThrow(() -> new UserNotFoundException(userDetails.getId()));
     }
@@ -133,7 +152,13 @@ public class UserService {
         if (!userRepository.existsById(id)) {
             throw new UserNotFoundException(id);
         }
+        transactionRollupService.deleteAllByUserId(id);
+        transactionSearchService.deleteAllByUserId(id);
+        notificationOutboxRepository.deleteByUserId(id);
+        notificationDigestRepository.deleteByUserId(id);
         userRepository.deleteById(id);
+        budgetIntervalIndex.invalidate(id);
+        currentUserCache.invalidate(id);
     }
 
     // VALIDATION
@@ -188,6 +213,7 @@ public class UserService {
         if (!StringUtils.hasText(user.getEmail())) {
             user.setEmail(userDetails.getEmail().trim().toLowerCase());
         }
+        currentUserCache.invalidate(userID);
         userRepository.save(user);
     }
 
@@ -209,6 +235,7 @@ public class UserService {
             throw InvalidPasswordException.incorrectCurrentPassword();
         }
         user.setPassword(newPassword);
+        currentUserCache.invalidate(userID);
         userRepository.save(user);
     }
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.finance.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Folds text to the form the search index stores: lower case, diacritics removed ("Ăn sáng" becomes "an sang",
+ * "đ" becomes "d") and split into runs of letters and digits.
+ */
+public final class TextFolding {
+
+    // Longer tokens are cut; the column holds this many characters
+    public static final int MAX_TOKEN_LENGTH = 40;
+
+    // A shorter last word would expand to a good part of the vocabulary, so it has to match a whole token
+    private static final int MIN_PREFIX_LENGTH = 2;
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private TextFolding() {
+    }
+
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("")
+                .replace('đ', 'd')
+                .replace('Đ', 'D')
+                .toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The distinct folded tokens of the text, in order of first appearance.
+     */
+    public static List<String> tokens(String text) {
+        String folded = fold(text);
+        Set<String> tokens = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean tokenChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                tokens.add(folded.substring(start, Math.min(i, start + MAX_TOKEN_LENGTH)));
+                start = -1;
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    /**
+     * The terms of a search query: every token must match whole, except the last one, which from
+     * {@value #MIN_PREFIX_LENGTH} characters on matches every token it starts, so results follow the user's typing.
+     */
+    public static List<QueryTerm> queryTerms(String query) {
+        List<String> tokens = tokens(query);
+        List<QueryTerm> terms = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            boolean last = i == tokens.size() - 1;
+            terms.add(new QueryTerm(token,
+                    last && token.length() >= MIN_PREFIX_LENGTH ? prefixUpperBound(token) : null));
+        }
+        return terms;
+    }
+
+    /**
+     * Smallest string above every token starting with {@code prefix}, or null when there is none to be had (the
+     * prefix then matches as a whole token): bumps the last character that stays a letter or digit when incremented,
+     * since within one script those sort in code point order under any collation.
+     */
+    private static String prefixUpperBound(String prefix) {
+        for (int i = prefix.length() - 1; i >= 0; i--) {
+            char next = (char) (prefix.charAt(i) + 1);
+            if (Character.isLetterOrDigit(next)) {
+                return prefix.substring(0, i) + next;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * One term of a search query. A prefix term matches the tokens in {@code [token, upperBound)} that start with
+     * {@code token}; the explicit range lets a database use its index even when the prefix is a bind parameter.
+     */
+    public record QueryTerm(String token, String upperBound) {
+
+        public boolean isPrefix() {
+            return upperBound != null;
+        }
+
+        public String likePattern() {
+            return token + "%";
+        }
+    }
+}
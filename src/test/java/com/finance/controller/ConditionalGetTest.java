@@ -0,0 +1,101 @@
+package com.finance.controller;
+
+import com.finance.domain.User;
+import com.finance.service.AuthenticatedUser;
+import com.finance.service.NotificationInboxCache;
+import com.finance.service.UserDataVersionService;
+import com.finance.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * A conditional GET whose ETag still matches is answered with a 304 before any statement reaches the database, and
+ * stops matching once the scope the endpoint depends on changes.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:conditionalget;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+
+    private static final String UNREAD_COUNT = "/notifications/api/unread-count";
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    UserDataVersionService userDataVersionService;
+
+    @Autowired
+    NotificationInboxCache notificationInboxCache;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    AuthenticatedUser principal;
+
+    @BeforeEach
+    void setUp() {
+        String username = "etag" + System.nanoTime() % 1_000_000;
+        User user = userService.createUser(username, username + "@finance.com", "secret1");
+        principal = new AuthenticatedUser(user.getId(), username, "secret1",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    @Test
+    void matchingEtagIsAnsweredWithoutTouchingTheDatabase() throws Exception {
+        MvcResult first = mockMvc.perform(get(UNREAD_COUNT).with(user(principal))).andReturn();
+        assertThat(first.getResponse().getStatus()).isEqualTo(200);
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+
+        // Cold cache, so reaching the controller would have to read the count from the database
+        notificationInboxCache.invalidateAll();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        MvcResult revalidated = mockMvc.perform(get(UNREAD_COUNT).with(user(principal))
+                .header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn();
+        assertThat(revalidated.getResponse().getStatus()).isEqualTo(304);
+        assertThat(revalidated.getResponse().getContentAsString()).isEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        // A change the endpoint does not depend on keeps the ETag
+        userDataVersionService.bump(UserDataVersionService.Scope.FINANCE, principal.getId());
+        assertThat(mockMvc.perform(get(UNREAD_COUNT).with(user(principal))
+                .header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn().getResponse().getStatus()).isEqualTo(304);
+
+        userDataVersionService.bump(UserDataVersionService.Scope.NOTIFICATIONS, principal.getId());
+        MvcResult changed = mockMvc.perform(get(UNREAD_COUNT).with(user(principal))
+                .header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn();
+        assertThat(changed.getResponse().getStatus()).isEqualTo(200);
+        assertThat(changed.getResponse().getHeader(HttpHeaders.ETAG)).isNotBlank().isNotEqualTo(etag);
+        assertThat(changed.getResponse().getContentAsString()).contains("\"count\":0");
+        // The same count sees the statements once the controller is reached
+        assertThat(statistics.getPrepareStatementCount()).isPositive();
+    }
+}
@@ -0,0 +1,191 @@
+package com.finance.controller;
+
+import com.finance.domain.Budget;
+import com.finance.domain.Category;
+import com.finance.domain.Goal;
+import com.finance.domain.Notification;
+import com.finance.domain.Transaction;
+import com.finance.domain.User;
+import com.finance.repository.GoalRepository;
+import com.finance.repository.UserRepository;
+import com.finance.service.AuthenticatedUser;
+import com.finance.service.BudgetService;
+import com.finance.service.CategoryService;
+import com.finance.service.GoalService;
+import com.finance.service.NotificationService;
+import com.finance.service.TransactionService;
+import com.finance.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Renders every list and detail page with open-session-in-view disabled. Any association a page or controller walks
+ * without fetching it in the query phase throws a LazyInitializationException, which fails the request here.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:fetchplan;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureMockMvc
+class FetchPlanTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ApplicationContext applicationContext;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    CategoryService categoryService;
+
+    @Autowired
+    TransactionService transactionService;
+
+    @Autowired
+    BudgetService budgetService;
+
+    @Autowired
+    GoalService goalService;
+
+    @Autowired
+    GoalRepository goalRepository;
+
+    @Autowired
+    NotificationService notificationService;
+
+    AuthenticatedUser principal;
+
+    AuthenticatedUser admin;
+
+    Transaction transaction;
+
+    Budget budget;
+
+    Goal goal;
+
+    Notification notification;
+
+    @BeforeEach
+    void setUp() {
+        String username = "fetch" + System.nanoTime() % 1_000_000;
+        User user = userService.createUser(username, username + "@finance.com", "secret1");
+        principal = new AuthenticatedUser(user.getId(), username, "secret1",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        User adminUser = userRepository.findByUsername("admin").orElseThrow();
+        admin = new AuthenticatedUser(adminUser.getId(), "admin", "admin123",
+                List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+
+        Category food = categoryService.save(new Category("Food " + username, Category.CategoryType.EXPENSE));
+        Category salary = categoryService.save(new Category("Salary " + username, Category.CategoryType.INCOME));
+        transaction = transactionService.createTransaction("Lunch", new BigDecimal("12.50"),
+                Transaction.TransactionType.EXPENSE, user, food, LocalDateTime.now(), null);
+        transactionService.createTransaction("Pay", new BigDecimal("1000.00"),
+                Transaction.TransactionType.INCOME, user, salary, LocalDateTime.now(), null);
+        budget = budgetService.createBudget("Groceries", new BigDecimal("100.00"),
+                LocalDate.now().withDayOfMonth(1), LocalDate.now().plusMonths(1), user, food, null);
+        budgetService.createBudget("Everything", new BigDecimal("500.00"),
+                LocalDate.now().withDayOfMonth(1), LocalDate.now().plusMonths(1), user, null, null);
+        goal = goalService.createGoal("Laptop", new BigDecimal("1500.00"), LocalDate.now().plusMonths(6), user, null);
+        // The service refuses past target dates, so the overdue goal is stored directly
+        goalRepository.save(new Goal("Vacation", new BigDecimal("800.00"), LocalDate.now().minusDays(10), user));
+        notification = notificationService.createNotification(user, "Hello", Notification.NotificationType.GENERAL,
+                "Welcome", "/dashboard");
+    }
+
+    @Test
+    void openSessionInViewIsDisabled() {
+        assertThat(applicationContext.getBeansOfType(OpenEntityManagerInViewInterceptor.class)).isEmpty();
+    }
+
+    @Test
+    void listAndDetailPagesRenderWithoutLazyLoading() throws Exception {
+        assertRendered(get("/dashboard"), "Lunch");
+        assertRendered(get("/dashboard").param("filter", "year"), "Lunch");
+        assertRendered(get("/transactions"), "Food");
+        assertRendered(get("/transactions/edit/" + transaction.getId()), "Lunch");
+        assertRendered(get("/transactions/search").param("keyword", "Lun"), "Food");
+        assertRendered(get("/transactions/search").param("keyword", "lunch").param("page", "1"), null);
+        assertRendered(get("/transactions/filter").param("type", "EXPENSE"), "Food");
+        assertRendered(get("/transactions/filter").param("categoryId",
+                String.valueOf(transaction.getCategory().getId())), "Lunch");
+        assertRendered(get("/transactions/filter").param("type", "EXPENSE")
+                .param("categoryIds", String.valueOf(transaction.getCategory().getId()))
+                .param("startDate", LocalDate.now().minusDays(30).toString())
+                .param("endDate", LocalDate.now().toString())
+                .param("minAmount", "1").param("maxAmount", "1000000")
+                .param("keyword", "lunch").param("sort", "LARGEST"), "Lunch");
+        assertRendered(get("/api/transactions"), "Food");
+        assertRendered(get("/api/financial-summary"), null);
+        assertRendered(get("/budgets"), "Food");
+        assertRendered(get("/budgets/view/" + budget.getId()), "Food");
+        assertRendered(get("/budgets/edit/" + budget.getId()), "Groceries");
+        assertRendered(get("/goals"), "Laptop");
+        assertRendered(get("/goals"), "Vacation");
+        assertRendered(get("/goals/view/" + goal.getId()), "Laptop");
+        assertRendered(get("/goals/edit/" + goal.getId()), "Laptop");
+        assertRendered(get("/goals/contribute/" + goal.getId()), "Laptop");
+        assertRendered(get("/notifications"), "Welcome");
+        assertRendered(get("/notifications").param("filter", "unread"), "Welcome");
+        assertRendered(get("/notifications").param("filter", "read"), null);
+        assertRendered(get("/notifications/api/recent"), "Welcome");
+        assertRendered(get("/notifications/" + notification.getId()), "Hello");
+        assertRendered(get("/reports"), null);
+        assertRendered(post("/reports/generate").with(csrf())
+                .param("startDate", LocalDate.now().withDayOfMonth(1).toString())
+                .param("endDate", LocalDate.now().toString()), null);
+        assertRendered(get("/user/profile"), principal.getUsername());
+    }
+
+    @Test
+    void adminPagesRenderWithoutLazyLoading() throws Exception {
+        MvcResult result = mockMvc.perform(get("/admin/users").with(user(admin))).andReturn();
+        assertThat(result.getResolvedException()).isNull();
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(result.getResponse().getContentAsString()).contains(principal.getUsername());
+
+        result = mockMvc.perform(get("/admin/users/edit/" + principal.getId()).with(user(admin))).andReturn();
+        assertThat(result.getResolvedException()).isNull();
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+    }
+
+    private void assertRendered(MockHttpServletRequestBuilder request, String expectedContent) throws Exception {
+        MvcResult result = mockMvc.perform(request.with(user(principal))).andReturn();
+        String description = result.getRequest().getMethod() + " " + result.getRequest().getRequestURI();
+
+        assertThat(result.getResolvedException()).as(description).isNull();
+        assertThat(result.getResponse().getStatus()).as(description).isEqualTo(200);
+        if (expectedContent != null) {
+            assertThat(result.getResponse().getContentAsString()).as(description).contains(expectedContent);
+        }
+    }
+}
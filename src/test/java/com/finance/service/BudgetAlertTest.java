@@ -0,0 +1,189 @@
+package com.finance.service;
+
+import com.finance.domain.Budget;
+import com.finance.domain.Category;
+import com.finance.domain.Notification;
+import com.finance.domain.NotificationOutbox;
+import com.finance.domain.Role;
+import com.finance.domain.Transaction;
+import com.finance.domain.User;
+import com.finance.repository.BudgetRepository;
+import com.finance.repository.CategoryRepository;
+import com.finance.repository.NotificationOutboxRepository;
+import com.finance.repository.NotificationRepository;
+import com.finance.repository.RoleRepository;
+import com.finance.repository.TransactionMonthlySummaryRepository;
+import com.finance.repository.TransactionRepository;
+import com.finance.repository.TransactionSearchTokenRepository;
+import com.finance.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Budget threshold alerts are raised by {@link BudgetService#onTransactionChanged} once the expense has committed,
+ * never for a rolled-back one, and never by reading progress. The outbox writer is stopped so that every alert
+ * stays visible as an outbox row.
+ */
+@DataJpaTest(showSql = false,
+        properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({ BudgetService.class, BudgetIntervalIndex.class, BudgetSpentService.class, NotificationService.class,
+        NotificationInboxCache.class, NotificationStreamService.class, NotificationOutboxService.class,
+        NotificationCoalescer.class, SimpleMeterRegistry.class, TransactionService.class,
+        TransactionRollupService.class, TransactionSearchService.class, UserDataVersionService.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BudgetAlertTest {
+
+    @Autowired
+    BudgetService budgetService;
+
+    @Autowired
+    TransactionService transactionService;
+
+    @Autowired
+    NotificationOutboxService notificationOutboxService;
+
+    @Autowired
+    BudgetRepository budgetRepository;
+
+    @Autowired
+    TransactionRepository transactionRepository;
+
+    @Autowired
+    TransactionMonthlySummaryRepository summaryRepository;
+
+    @Autowired
+    TransactionSearchTokenRepository tokenRepository;
+
+    @Autowired
+    NotificationOutboxRepository outboxRepository;
+
+    @Autowired
+    NotificationRepository notificationRepository;
+
+    @Autowired
+    CategoryRepository categoryRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    LocalDate today = LocalDate.now();
+
+    User user;
+
+    Category food;
+
+    Budget budget;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        notificationOutboxService.shutdown();
+        Role role = roleRepository.save(new Role("USER"));
+        user = new User();
+        user.setUsername("alerts");
+        user.setEmail("alerts@finance.com");
+        user.setPassword("secret");
+        user.setUserRole(role);
+        user = userRepository.save(user);
+        food = categoryRepository.save(new Category("Food", Category.CategoryType.EXPENSE));
+        budget = budgetService.createBudget("Ăn uống", new BigDecimal("100.00"), today.minusDays(7),
+                today.plusDays(7), user, food, null);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        outboxRepository.deleteAllInBatch();
+        notificationRepository.deleteAllInBatch();
+        budgetRepository.deleteAllInBatch();
+        tokenRepository.deleteAllInBatch();
+        summaryRepository.deleteAllInBatch();
+        transactionRepository.deleteAllInBatch();
+        categoryRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+        roleRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void committedExpenseCrossingAThresholdRaisesOneAlert() {
+        expense("50.00");
+        assertThat(alerts()).isEmpty();
+
+        expense("35.00");
+
+        assertThat(alerts()).singleElement().satisfies(alert -> {
+            assertThat(alert.getMessage()).contains("80%");
+            assertThat(alert.getActionUrl()).isEqualTo("/budgets/view/" + budget.getId());
+        });
+        assertThat(lastNotificationPercentage()).isEqualTo(80);
+
+        // Still within the same threshold
+        expense("2.00");
+        assertThat(alerts()).hasSize(1);
+    }
+
+    @Test
+    void rolledBackExpenseRaisesNoAlert() {
+        expense("50.00");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            expense("45.00");
+            status.setRollbackOnly();
+        });
+
+        assertThat(alerts()).isEmpty();
+        assertThat(lastNotificationPercentage()).isNull();
+        assertThat(budgetRepository.findSpentById(budget.getId())).isEqualByComparingTo("50.00");
+    }
+
+    @Test
+    void readingProgressWritesNothing() {
+        // Over the limit without an event, e.g. spent repaired by reconciliation
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                budgetRepository.addToSpent(List.of(budget.getId()), new BigDecimal("120.00")));
+
+        // As a request with an open session would, so the budget's lazy associations can load
+        BudgetService.BudgetProgress progress = new TransactionTemplate(transactionManager).execute(status ->
+                budgetService.getBudgetProgress(budgetRepository.findById(budget.getId()).orElseThrow()));
+        assertThat(progress.isOverBudget()).isTrue();
+        assertThat(budgetService.getAllBudgetProgress(user)).hasSize(1);
+        assertThat(budgetService.getActiveBudgetProgress(user)).hasSize(1);
+
+        assertThat(alerts()).isEmpty();
+        assertThat(lastNotificationPercentage()).isNull();
+    }
+
+    private void expense(String amount) {
+        transactionService.createTransaction("Ăn trưa", new BigDecimal(amount), Transaction.TransactionType.EXPENSE,
+                user, food, today.atTime(12, 0), null);
+    }
+
+    private List<NotificationOutbox> alerts() {
+        return outboxRepository.findAll().stream()
+                .filter(entry -> entry.getType() == Notification.NotificationType.BUDGET)
+                .toList();
+    }
+
+    private Integer lastNotificationPercentage() {
+        return budgetRepository.findById(budget.getId()).orElseThrow().getLastNotificationPercentage();
+    }
+}
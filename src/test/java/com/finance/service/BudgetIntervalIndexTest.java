@@ -0,0 +1,204 @@
+package com.finance.service;
+
+import com.finance.repository.BudgetRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BudgetIntervalIndexTest {
+
+    private static final LocalDate MAY_1 = LocalDate.of(2024, 5, 1);
+
+    private static final long USER = 1L;
+    private static final long FOOD = 10L;
+    private static final long TRAVEL = 20L;
+
+    @Mock
+    BudgetRepository budgetRepository;
+
+    @Test
+    void overlappingAndNestedWindowsAreAllFound() {
+        givenBudgets(USER,
+                budget(1, FOOD, 1, 31),
+                budget(2, FOOD, 10, 15),
+                budget(3, FOOD, 12, 40),
+                budget(4, FOOD, 20, 25),
+                budget(5, FOOD, 50, 60));
+        BudgetIntervalIndex index = index(Duration.ofMinutes(10), 100);
+
+        assertThat(index.findBudgetIds(USER, FOOD, day(5))).containsExactlyInAnyOrder(1L);
+        assertThat(index.findBudgetIds(USER, FOOD, day(13))).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(index.findBudgetIds(USER, FOOD, day(22))).containsExactlyInAnyOrder(1L, 3L, 4L);
+        assertThat(index.findBudgetIds(USER, FOOD, day(35))).containsExactlyInAnyOrder(3L);
+        assertThat(index.findBudgetIds(USER, FOOD, day(45))).isEmpty();
+    }
+
+    @Test
+    void categoryBudgetsApplyToTheirCategoryAndGlobalOnesToAll() {
+        givenBudgets(USER,
+                budget(1, FOOD, 1, 31),
+                budget(2, TRAVEL, 1, 31),
+                budget(3, null, 1, 31),
+                budget(4, null, 40, 50));
+        BudgetIntervalIndex index = index(Duration.ofMinutes(10), 100);
+
+        assertThat(index.findBudgetIds(USER, FOOD, day(10))).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(index.findBudgetIds(USER, TRAVEL, day(10))).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(index.findBudgetIds(USER, 99L, day(10))).containsExactly(3L);
+        assertThat(index.findBudgetIds(USER, null, day(45))).containsExactly(4L);
+    }
+
+    @Test
+    void windowEdgesAreInclusive() {
+        givenBudgets(USER,
+                budget(1, FOOD, 10, 10),
+                budget(2, FOOD, 10, 20),
+                budget(3, FOOD, 20, 30));
+        BudgetIntervalIndex index = index(Duration.ofMinutes(10), 100);
+
+        assertThat(index.findBudgetIds(USER, FOOD, day(9))).isEmpty();
+        assertThat(index.findBudgetIds(USER, FOOD, day(10))).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.findBudgetIds(USER, FOOD, day(11))).containsExactly(2L);
+        assertThat(index.findBudgetIds(USER, FOOD, day(20))).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(index.findBudgetIds(USER, FOOD, day(30))).containsExactly(3L);
+        assertThat(index.findBudgetIds(USER, FOOD, day(31))).isEmpty();
+    }
+
+    @Test
+    void userWithoutBudgetsFindsNothing() {
+        givenBudgets(USER);
+        BudgetIntervalIndex index = index(Duration.ofMinutes(10), 100);
+
+        assertThat(index.findBudgetIds(USER, FOOD, day(1))).isEmpty();
+    }
+
+    @Test
+    void treeMatchesALinearScan() {
+        Random random = new Random(42);
+        List<BudgetIntervalIndex.Interval> intervals = new ArrayList<>();
+        for (long id = 0; id < 500; id++) {
+            long start = random.nextInt(1000);
+            intervals.add(new BudgetIntervalIndex.Interval(id, start, start + random.nextInt(90)));
+        }
+        BudgetIntervalIndex.IntervalTree tree = BudgetIntervalIndex.IntervalTree.of(intervals);
+
+        for (long day = -5; day < 1100; day++) {
+            List<Long> found = new ArrayList<>();
+            tree.collect(day, found);
+            long d = day;
+            assertThat(found).as("day %d", day).containsExactlyInAnyOrderElementsOf(intervals.stream()
+                    .filter(interval -> interval.start() <= d && d <= interval.end())
+                    .map(BudgetIntervalIndex.Interval::budgetId)
+                    .toList());
+        }
+    }
+
+    @Test
+    void indexIsBuiltOncePerUserUntilInvalidated() {
+        givenBudgets(USER, budget(1, FOOD, 1, 31));
+        givenBudgets(2L, budget(2, FOOD, 1, 31));
+        BudgetIntervalIndex index = index(Duration.ofMinutes(10), 100);
+
+        index.findBudgetIds(USER, FOOD, day(1));
+        index.findBudgetIds(USER, TRAVEL, day(2));
+        index.findBudgetIds(2L, FOOD, day(1));
+        verify(budgetRepository, times(1)).findBudgetWindowsByUserId(USER);
+
+        index.invalidate(USER);
+        index.findBudgetIds(USER, FOOD, day(1));
+        index.findBudgetIds(2L, FOOD, day(1));
+        verify(budgetRepository, times(2)).findBudgetWindowsByUserId(USER);
+        verify(budgetRepository, times(1)).findBudgetWindowsByUserId(2L);
+
+        index.invalidateAll();
+        index.findBudgetIds(USER, FOOD, day(1));
+        index.findBudgetIds(2L, FOOD, day(1));
+        verify(budgetRepository, times(3)).findBudgetWindowsByUserId(USER);
+        verify(budgetRepository, times(2)).findBudgetWindowsByUserId(2L);
+    }
+
+    @Test
+    void invalidationInsideATransactionAlsoDropsARebuildMadeBeforeItCompletes() {
+        givenBudgets(USER, budget(1, FOOD, 1, 31));
+        BudgetIntervalIndex index = index(Duration.ofMinutes(10), 100);
+        index.findBudgetIds(USER, FOOD, day(1));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.invalidate(USER);
+            // Another request rebuilds from what it can see before the change commits
+            index.findBudgetIds(USER, FOOD, day(1));
+            verify(budgetRepository, times(2)).findBudgetWindowsByUserId(USER);
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations,
+                    TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        index.findBudgetIds(USER, FOOD, day(1));
+        verify(budgetRepository, times(3)).findBudgetWindowsByUserId(USER);
+    }
+
+    @Test
+    void expiredIndexIsRebuilt() {
+        givenBudgets(USER, budget(1, FOOD, 1, 31));
+        BudgetIntervalIndex index = index(Duration.ZERO, 100);
+
+        assertThat(index.findBudgetIds(USER, FOOD, day(1))).containsExactly(1L);
+        assertThat(index.findBudgetIds(USER, FOOD, day(1))).containsExactly(1L);
+        verify(budgetRepository, times(2)).findBudgetWindowsByUserId(USER);
+    }
+
+    @Test
+    void leastRecentlyUsedUserIsDroppedBeyondTheLimit() {
+        givenBudgets(USER, budget(1, FOOD, 1, 31));
+        givenBudgets(2L, budget(2, FOOD, 1, 31));
+        givenBudgets(3L, budget(3, FOOD, 1, 31));
+        BudgetIntervalIndex index = index(Duration.ofMinutes(10), 2);
+
+        index.findBudgetIds(USER, FOOD, day(1));
+        index.findBudgetIds(2L, FOOD, day(1));
+        index.findBudgetIds(USER, FOOD, day(1));
+        index.findBudgetIds(3L, FOOD, day(1));
+
+        index.findBudgetIds(USER, FOOD, day(1));
+        verify(budgetRepository, times(1)).findBudgetWindowsByUserId(USER);
+        assertThat(index.findBudgetIds(2L, FOOD, day(1))).containsExactly(2L);
+        verify(budgetRepository, times(2)).findBudgetWindowsByUserId(2L);
+    }
+
+    private BudgetIntervalIndex index(Duration ttl, int maxUsers) {
+        return new BudgetIntervalIndex(budgetRepository, ttl, maxUsers);
+    }
+
+    private void givenBudgets(Long userId, Object[]... rows) {
+        when(budgetRepository.findBudgetWindowsByUserId(userId)).thenReturn(List.of(rows));
+    }
+
+    // Days counted from May 1st, so day(1) is May 1st
+    private static Object[] budget(long id, Long categoryId, int startDay, int endDay) {
+        return new Object[] { id, categoryId, day(startDay), day(endDay) };
+    }
+
+    private static LocalDate day(int day) {
+        return MAY_1.plusDays(day - 1);
+    }
+}
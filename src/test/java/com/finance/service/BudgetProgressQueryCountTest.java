@@ -0,0 +1,206 @@
+package com.finance.service;
+
+import com.finance.domain.Budget;
+import com.finance.domain.Category;
+import com.finance.domain.Role;
+import com.finance.domain.Transaction;
+import com.finance.domain.User;
+import com.finance.repository.BudgetRepository;
+import com.finance.repository.CategoryRepository;
+import com.finance.repository.RoleRepository;
+import com.finance.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({ BudgetService.class, BudgetIntervalIndex.class, BudgetSpentService.class, NotificationService.class,
+        NotificationInboxCache.class, NotificationStreamService.class, NotificationOutboxService.class,
+        NotificationCoalescer.class, SimpleMeterRegistry.class, TransactionService.class,
+        TransactionRollupService.class, TransactionSearchService.class, UserDataVersionService.class })
+class BudgetProgressQueryCountTest {
+
+    @Autowired
+    BudgetService budgetService;
+
+    @Autowired
+    TransactionService transactionService;
+
+    @Autowired
+    BudgetSpentService budgetSpentService;
+
+    @Autowired
+    BudgetRepository budgetRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    CategoryRepository categoryRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    User user;
+
+    Category food;
+
+    Category rent;
+
+    LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        Role role = roleRepository.save(new Role("USER"));
+        user = new User();
+        user.setUsername("budgets");
+        user.setEmail("budgets@finance.com");
+        user.setPassword("secret");
+        user.setUserRole(role);
+        userRepository.save(user);
+
+        food = categoryRepository.save(new Category("Food", Category.CategoryType.EXPENSE));
+        rent = categoryRepository.save(new Category("Rent", Category.CategoryType.EXPENSE));
+
+        transactionService.createTransaction("Lunch", new BigDecimal("20.00"),
+                Transaction.TransactionType.EXPENSE, user, food, today.atTime(12, 0), null);
+        transactionService.createTransaction("Rent", new BigDecimal("300.00"),
+                Transaction.TransactionType.EXPENSE, user, rent, today.minusDays(1).atTime(9, 0), null);
+        transactionService.createTransaction("Old lunch", new BigDecimal("50.00"),
+                Transaction.TransactionType.EXPENSE, user, food, today.minusDays(40).atTime(12, 0), null);
+    }
+
+    @Test
+    void progressQueryCountDoesNotGrowWithBudgets() {
+        createBudgets(3);
+        long fewBudgets = countStatements();
+
+        createBudgets(30);
+        long manyBudgets = countStatements();
+
+        assertThat(budgetRepository.findByUser(user)).hasSize(33);
+        // Only the budget list itself: spent comes from the stored counters
+        assertThat(manyBudgets).isEqualTo(fewBudgets).isEqualTo(1);
+    }
+
+    @Test
+    void spentIsScopedToCategoryAndDateWindow() {
+        Budget overall = newBudget("Overall", null, today.minusDays(7), today.plusDays(7));
+        Budget foodOnly = newBudget("Food", food, today.minusDays(7), today.plusDays(7));
+        Budget longFood = newBudget("Food quarter", food, today.minusDays(60), today.plusDays(7));
+        Budget future = newBudget("Next month", null, today.plusDays(1), today.plusDays(30));
+
+        List<BudgetService.BudgetProgress> progress = budgetService.getBudgetProgress(
+                List.of(overall, foodOnly, longFood, future));
+
+        assertThat(progress).extracting(BudgetService.BudgetProgress::getSpent)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("320.00"), new BigDecimal("20.00"),
+                        new BigDecimal("70.00"), BigDecimal.ZERO);
+    }
+
+    @Test
+    void spentFollowsTransactionMovesAcrossCategoryDateAndType() {
+        Budget foodOnly = newBudget("Food", food, today.minusDays(7), today.plusDays(7));
+        Budget overall = newBudget("Overall", null, today.minusDays(7), today.plusDays(7));
+
+        Transaction snack = transactionService.createTransaction("Snack", new BigDecimal("5.00"),
+                Transaction.TransactionType.EXPENSE, user, food, today.atTime(15, 0), null);
+        assertSpent(foodOnly, "25.00");
+        assertSpent(overall, "325.00");
+
+        Transaction moved = copyOf(snack);
+        moved.setCategory(rent);
+        moved.setAmount(new BigDecimal("8.00"));
+        transactionService.updateTransaction(snack.getId(), moved);
+        assertSpent(foodOnly, "20.00");
+        assertSpent(overall, "328.00");
+
+        moved = copyOf(snack);
+        moved.setTransactionDate(today.minusDays(30).atStartOfDay());
+        transactionService.updateTransaction(snack.getId(), moved);
+        assertSpent(overall, "320.00");
+
+        moved = copyOf(snack);
+        moved.setTransactionDate(today.atStartOfDay());
+        moved.setType(Transaction.TransactionType.INCOME);
+        transactionService.updateTransaction(snack.getId(), moved);
+        assertSpent(overall, "320.00");
+
+        transactionService.deleteById(transactionService.findByUserAndCategory(user, food).get(0).getId());
+        assertSpent(foodOnly, "0.00");
+        assertSpent(overall, "300.00");
+
+        assertThat(budgetSpentService.reconcile(false).budgetsDrifted()).isZero();
+    }
+
+    @Test
+    void reconciliationReportsAndRepairsDrift() {
+        Budget foodOnly = newBudget("Food", food, today.minusDays(7), today.plusDays(7));
+        budgetRepository.addToSpent(List.of(foodOnly.getId()), new BigDecimal("7.50"));
+
+        BudgetSpentService.ReconciliationReport report = budgetSpentService.reconcile(true);
+
+        assertThat(report.budgetsDrifted()).isEqualTo(1);
+        assertThat(report.totalDrift()).isEqualByComparingTo("7.50");
+        assertSpent(foodOnly, "20.00");
+        assertThat(budgetSpentService.reconcile(false).budgetsDrifted()).isZero();
+    }
+
+    private void assertSpent(Budget budget, String expected) {
+        assertThat(budgetRepository.findSpentById(budget.getId())).isEqualByComparingTo(expected);
+    }
+
+    private Transaction copyOf(Transaction transaction) {
+        Transaction copy = new Transaction();
+        copy.setDescription(transaction.getDescription());
+        copy.setAmount(transaction.getAmount());
+        copy.setType(transaction.getType());
+        copy.setCategory(transaction.getCategory());
+        copy.setTransactionDate(transaction.getTransactionDate());
+        return copy;
+    }
+
+    private long countStatements() {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        budgetService.getActiveBudgetProgress(user);
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void createBudgets(int count) {
+        for (int i = 0; i < count; i++) {
+            newBudget("Budget " + i, i % 2 == 0 ? food : null, today.minusDays(10), today.plusDays(10));
+        }
+    }
+
+    private Budget newBudget(String name, Category category, LocalDate startDate, LocalDate endDate) {
+        return budgetService.createBudget(name, new BigDecimal("100000.00"), startDate, endDate, user, category, null);
+    }
+}
@@ -0,0 +1,108 @@
+package com.finance.service;
+
+import com.finance.domain.Category;
+import com.finance.repository.CategoryRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Category lookups are answered from the second-level and query caches, and writes through
+ * {@link CategoryService} drop the cached results. Each call runs in its own session, as requests do.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({ CategoryService.class, TransactionRollupService.class, TransactionSearchService.class,
+        UserDataVersionService.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CategoryCacheTest {
+
+    @Autowired
+    CategoryService categoryService;
+
+    @Autowired
+    CategoryRepository categoryRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+
+    Category food;
+
+    @BeforeEach
+    void setUp() {
+        // The cache regions outlive the application context, so start from empty ones
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+
+        food = categoryRepository.save(new Category("Ăn uống", Category.CategoryType.EXPENSE));
+        categoryRepository.save(new Category("Lương", Category.CategoryType.INCOME));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        categoryRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void repeatedLookupsSendNoSql() {
+        assertThat(categoryService.getExpenseCategories()).extracting(Category::getName).containsExactly("Ăn uống");
+        assertThat(categoryService.findByNameIgnoreCase("LƯƠNG")).isPresent();
+
+        statistics.clear();
+        assertThat(categoryService.getExpenseCategories()).extracting(Category::getName).containsExactly("Ăn uống");
+        assertThat(categoryService.findByNameIgnoreCase("LƯƠNG")).map(Category::getName).contains("Lương");
+        assertThat(categoryService.findById(food.getId())).isPresent();
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    void saveDropsTheCachedResults() {
+        categoryService.getExpenseCategories();
+        categoryService.findByNameIgnoreCase("Đi lại");
+
+        categoryService.save(new Category("Đi lại", Category.CategoryType.EXPENSE));
+
+        statistics.clear();
+        assertThat(categoryService.getExpenseCategories()).extracting(Category::getName)
+                .containsExactlyInAnyOrder("Ăn uống", "Đi lại");
+        assertThat(categoryService.findByNameIgnoreCase("Đi lại")).isPresent();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+        Category renamed = categoryService.findById(food.getId()).orElseThrow();
+        renamed.setName("Ăn ngoài");
+        categoryService.save(renamed);
+
+        assertThat(categoryService.findByNameIgnoreCase("Ăn uống")).isEmpty();
+        assertThat(categoryService.getExpenseCategories()).extracting(Category::getName)
+                .containsExactlyInAnyOrder("Ăn ngoài", "Đi lại");
+    }
+
+    @Test
+    void deleteDropsTheCachedResults() {
+        assertThat(categoryService.getExpenseCategories()).hasSize(1);
+        assertThat(categoryService.findByNameIgnoreCase("Ăn uống")).isPresent();
+
+        categoryService.deleteById(food.getId());
+
+        assertThat(categoryService.getExpenseCategories()).isEmpty();
+        assertThat(categoryService.findByNameIgnoreCase("Ăn uống")).isEmpty();
+        assertThat(categoryService.findById(food.getId())).isEmpty();
+    }
+}
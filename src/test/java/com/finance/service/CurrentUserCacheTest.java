@@ -0,0 +1,150 @@
+package com.finance.service;
+
+import com.finance.domain.Role;
+import com.finance.domain.User;
+import com.finance.repository.RoleRepository;
+import com.finance.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every {@link UserService} write to a user evicts their cached snapshot, and snapshots never carry the password
+ * hash. Runs against committed data so that the eviction after the transaction completes takes part.
+ */
+@DataJpaTest(showSql = false,
+        properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({ UserService.class, CurrentUserCache.class, BCryptPasswordEncoder.class, SimpleMeterRegistry.class,
+        TransactionRollupService.class, TransactionSearchService.class, BudgetIntervalIndex.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CurrentUserCacheTest {
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    CurrentUserCache currentUserCache;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    Role admin;
+
+    User alice;
+
+    User bob;
+
+    @BeforeEach
+    void setUp() {
+        roleRepository.save(new Role("USER"));
+        admin = roleRepository.save(new Role("ADMIN"));
+        alice = userService.createUser("alice", "alice@finance.com", "secret1");
+        bob = userService.createUser("bob", "bob@finance.com", "secret1");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        // Rows are removed behind the cache's back, so drop what it still holds
+        currentUserCache.invalidate(alice.getId());
+        currentUserCache.invalidate(bob.getId());
+        userRepository.deleteAllInBatch();
+        roleRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void snapshotsNeverCarryThePassword() {
+        assertThat(userRepository.findById(alice.getId()).orElseThrow().getPassword()).isNotBlank();
+
+        // Miss, then hit, by id and by username
+        for (int i = 0; i < 2; i++) {
+            assertThat(currentUserCache.get(alice.getId()).orElseThrow().getPassword()).isNull();
+            assertThat(currentUserCache.getByUsername("alice").orElseThrow().getPassword()).isNull();
+        }
+        assertThat(count("hit")).isPositive();
+    }
+
+    @Test
+    void profileEditEvictsTheUserAndTheirOldUsername() {
+        warm(alice);
+        warm(bob);
+
+        User details = new User();
+        details.setId(alice.getId());
+        details.setUsername("alice2");
+        details.setEmail("Alice2@finance.com");
+        userService.updateUser(details);
+
+        assertThat(currentUserCache.getByUsername("alice")).isEmpty();
+        User renamed = currentUserCache.get(alice.getId()).orElseThrow();
+        assertThat(renamed.getUsername()).isEqualTo("alice2");
+        assertThat(renamed.getEmail()).isEqualTo("alice2@finance.com");
+        assertThat(currentUserCache.getByUsername("alice2")).map(User::getId).contains(alice.getId());
+
+        // Only Alice's keys were touched
+        double misses = count("miss");
+        assertThat(currentUserCache.getByUsername("bob")).map(User::getId).contains(bob.getId());
+        assertThat(count("miss")).isEqualTo(misses);
+    }
+
+    @Test
+    void adminRoleEditEvictsTheUser() {
+        warm(alice);
+        assertThat(currentUserCache.get(alice.getId()).orElseThrow().getUserRole().getName()).isEqualTo("USER");
+
+        User details = new User();
+        details.setId(alice.getId());
+        details.setUserRole(admin);
+        userService.updateUser(details);
+
+        assertThat(currentUserCache.get(alice.getId()).orElseThrow().getUserRole().getName()).isEqualTo("ADMIN");
+    }
+
+    @Test
+    void passwordChangeEvictsTheUser() {
+        warm(alice);
+
+        userService.changePassword(alice.getId(), "secret1", "secret2");
+
+        double misses = count("miss");
+        assertThat(currentUserCache.get(alice.getId()).orElseThrow().getPassword()).isNull();
+        assertThat(count("miss")).isEqualTo(misses + 1);
+    }
+
+    @Test
+    void deletedUserIsNoLongerResolved() {
+        warm(alice);
+
+        userService.deleteById(alice.getId());
+
+        assertThat(currentUserCache.get(alice.getId())).isEmpty();
+        assertThat(currentUserCache.getByUsername("alice")).isEmpty();
+        assertThat(currentUserCache.getByUsername("bob")).isPresent();
+    }
+
+    private void warm(User user) {
+        currentUserCache.getByUsername(user.getUsername());
+        double hits = count("hit");
+        currentUserCache.get(user.getId());
+        assertThat(count("hit")).isEqualTo(hits + 1);
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("finance.users.current-cache").tag("result", result).counter().count();
+    }
+}
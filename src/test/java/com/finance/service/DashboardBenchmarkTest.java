@@ -0,0 +1,191 @@
+package com.finance.service;
+
+import com.finance.domain.Budget;
+import com.finance.domain.Category;
+import com.finance.domain.Goal;
+import com.finance.domain.Role;
+import com.finance.domain.Transaction;
+import com.finance.domain.User;
+import com.finance.repository.BudgetRepository;
+import com.finance.repository.CategoryRepository;
+import com.finance.repository.GoalRepository;
+import com.finance.repository.RoleRepository;
+import com.finance.repository.TransactionRepository;
+import com.finance.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares dashboard assembly latency when the widget queries run one after another in a single read-only
+ * transaction against the concurrent fan-out of {@link DashboardService}. Data is committed so the widget threads
+ * can see it. Run with {@code mvn test -Dtest=DashboardBenchmarkTest -Dbenchmark=true}.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({ DashboardService.class, TransactionService.class, TransactionRollupService.class,
+        TransactionSearchService.class, BudgetService.class, BudgetSpentService.class, BudgetIntervalIndex.class,
+        GoalService.class, NotificationService.class, NotificationInboxCache.class, NotificationStreamService.class,
+        NotificationOutboxService.class, NotificationCoalescer.class, SimpleMeterRegistry.class,
+        UserDataVersionService.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class DashboardBenchmarkTest {
+
+    private static final int ROWS = 40_000;
+    private static final int BUDGETS = 30;
+    private static final int GOALS = 15;
+    private static final int ITERATIONS = 200;
+
+    @Autowired
+    DashboardService dashboardService;
+
+    @Autowired
+    TransactionService transactionService;
+
+    @Autowired
+    TransactionRollupService transactionRollupService;
+
+    @Autowired
+    BudgetService budgetService;
+
+    @Autowired
+    BudgetSpentService budgetSpentService;
+
+    @Autowired
+    GoalService goalService;
+
+    @Autowired
+    TransactionRepository transactionRepository;
+
+    @Autowired
+    BudgetRepository budgetRepository;
+
+    @Autowired
+    GoalRepository goalRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    CategoryRepository categoryRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    void dashboardLatency() {
+        User user = seed();
+        // A range with partial months on both ends, so statistics read raw rows as well as the rollup
+        LocalDateTime start = LocalDate.now().minusDays(75).atStartOfDay();
+        LocalDateTime end = LocalDate.now().atTime(23, 59, 59);
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Runnable sequential = () -> readOnly.executeWithoutResult(status -> {
+            transactionService.getTransactionStatisticsForDateRange(user, start, end);
+            transactionService.findRecentTransactionsByUserAndDateRange(user, start, end, 5);
+            budgetService.getActiveBudgetProgress(user);
+            budgetService.getActiveBudgetCount(user);
+            goalService.getGoalSummary(user);
+            goalService.findActiveGoalsByUser(user, 5);
+        });
+
+        DashboardService.DashboardData data = dashboardService.assemble(user, start, end);
+        assertThat(data.getUnavailableWidgets()).isEmpty();
+        assertThat(data.getActiveBudgets()).hasSize(BUDGETS);
+
+        long[] sequentialNanos = measure(sequential);
+        long[] parallelNanos = measure(() -> dashboardService.assemble(user, start, end));
+
+        System.out.printf("Dashboard over %d transactions, %d budgets, %d goals%n", ROWS, BUDGETS, GOALS);
+        System.out.printf("  sequential: p50 %.2f ms, p99 %.2f ms%n", percentile(sequentialNanos, 50),
+                percentile(sequentialNanos, 99));
+        System.out.printf("  fan-out:    p50 %.2f ms, p99 %.2f ms%n", percentile(parallelNanos, 50),
+                percentile(parallelNanos, 99));
+    }
+
+    private User seed() {
+        Role role = roleRepository.save(new Role("USER"));
+        User user = new User();
+        user.setUsername("dashboard");
+        user.setEmail("dashboard@finance.com");
+        user.setPassword("secret");
+        user.setUserRole(role);
+        userRepository.save(user);
+
+        List<Category> categories = new ArrayList<>();
+        for (String name : List.of("Food", "Rent", "Transport", "Shopping", "Salary")) {
+            categories.add(categoryRepository.save(new Category(name, name.equals("Salary")
+                    ? Category.CategoryType.INCOME : Category.CategoryType.EXPENSE)));
+        }
+
+        LocalDateTime first = LocalDate.now().minusYears(2).atTime(8, 0);
+        List<Transaction> batch = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            Category category = categories.get(i % categories.size());
+            Transaction.TransactionType type = category.getName().equals("Salary")
+                    ? Transaction.TransactionType.INCOME : Transaction.TransactionType.EXPENSE;
+            Transaction transaction = new Transaction("Row " + i, new BigDecimal("12.50"), type, user, category);
+            transaction.setTransactionDate(first.plusMinutes(i * 26L));
+            batch.add(transaction);
+            if (batch.size() == 1_000) {
+                transactionRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        transactionRepository.saveAll(batch);
+        transactionRollupService.rebuildAll();
+
+        for (int i = 0; i < BUDGETS; i++) {
+            Budget budget = new Budget("Budget " + i, new BigDecimal("5000.00"), LocalDate.now().minusDays(i),
+                    LocalDate.now().plusDays(30), user);
+            budget.setCategory(i % 3 == 0 ? null : categories.get(i % 4));
+            budgetRepository.save(budget);
+        }
+        budgetSpentService.reconcile(true);
+
+        for (int i = 0; i < GOALS; i++) {
+            goalRepository.save(new Goal("Goal " + i, new BigDecimal("1000.00"), LocalDate.now().plusMonths(i + 1),
+                    user));
+        }
+        return user;
+    }
+
+    private static long[] measure(Runnable action) {
+        for (int i = 0; i < 20; i++) {
+            action.run();
+        }
+        long[] samples = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long started = System.nanoTime();
+            action.run();
+            samples[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    private static double percentile(long[] sortedNanos, int percentile) {
+        int index = Math.min(sortedNanos.length - 1, (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1);
+        return sortedNanos[index] / 1_000_000.0;
+    }
+}
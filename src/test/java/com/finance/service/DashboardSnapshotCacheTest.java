@@ -0,0 +1,141 @@
+package com.finance.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DashboardSnapshotCacheTest {
+
+    private static final Long USER = 1L;
+
+    private final UserDataVersionService versions = new UserDataVersionService();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DashboardSnapshotCache cache = new DashboardSnapshotCache(versions, meterRegistry, 100,
+            Duration.ofMillis(100));
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void missLoadsAndHitServesTheSnapshot() throws InterruptedException {
+        assertThat(get(() -> "first")).isEqualTo("first");
+        assertThat(count("miss")).isEqualTo(1);
+        assertThat(meterRegistry.get("finance.dashboard.cache.refreshes").counter().count()).isEqualTo(1);
+        awaitServed("first");
+
+        double hits = count("hit");
+        assertThat(get(() -> "second")).isEqualTo("first");
+        assertThat(count("hit") - hits).isEqualTo(1);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void writeMakesTheSnapshotOutdated() throws InterruptedException {
+        get(() -> "before");
+        awaitServed("before");
+
+        versions.bump(USER);
+
+        assertThat(get(() -> "after")).isEqualTo("after");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void requestAfterAWriteDoesNotJoinARefreshStartedBeforeIt() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> early = CompletableFuture.supplyAsync(() -> get(() -> {
+            loading.countDown();
+            await(release);
+            return "pre-write";
+        }));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // E.g. the redirect after adding a transaction, while the cold key is still loading
+        versions.bump(USER);
+        assertThat(get(() -> "post-write")).isEqualTo("post-write");
+
+        release.countDown();
+        assertThat(early.get(5, TimeUnit.SECONDS)).isEqualTo("pre-write");
+        // The refresh that finished last loaded older data and must not replace the newer snapshot
+        awaitServed("post-write");
+        Thread.sleep(50);
+        assertThat(get(() -> "reloaded")).isEqualTo("post-write");
+    }
+
+    @Test
+    void slowRefreshServesTheOutdatedSnapshot() throws InterruptedException {
+        get(() -> "old");
+        awaitServed("old");
+        versions.bump(USER);
+
+        CountDownLatch release = new CountDownLatch(1);
+        assertThat(get(() -> {
+            await(release);
+            return "new";
+        })).isEqualTo("old");
+        assertThat(count("stale")).isEqualTo(1);
+
+        release.countDown();
+        awaitServed("new");
+    }
+
+    @Test
+    void uncacheableResultLosesToTheSnapshot() throws InterruptedException {
+        get(() -> "complete");
+        awaitServed("complete");
+        versions.bump(USER);
+
+        assertThat(cache.get(USER, "view", null, null, () -> "partial", value -> !value.equals("partial")))
+                .isEqualTo("complete");
+        versions.bump(USER);
+        assertThat(cache.get(USER, "view", null, null, () -> "full", value -> !value.equals("partial")))
+                .isEqualTo("full");
+    }
+
+    private String get(Supplier<String> loader) {
+        return cache.get(USER, "view", null, null, () -> {
+            loads.incrementAndGet();
+            return loader.get();
+        }, value -> true);
+    }
+
+    // Snapshots are stored asynchronously once their refresh completes; waits until one is served as a hit
+    private void awaitServed(String expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            double hits = count("hit");
+            String value = cache.get(USER, "view", null, null, () -> "unexpected load", loaded -> false);
+            if (count("hit") > hits && value.equals(expected)) {
+                return;
+            }
+            assertThat(System.nanoTime()).as("snapshot %s stored", expected).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("finance.dashboard.cache").tag("result", result).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.finance.service;
+
+import com.finance.domain.Goal;
+import com.finance.domain.Notification;
+import com.finance.domain.NotificationOutbox;
+import com.finance.domain.Role;
+import com.finance.domain.User;
+import com.finance.repository.NotificationOutboxRepository;
+import com.finance.repository.NotificationRepository;
+import com.finance.repository.RoleRepository;
+import com.finance.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Only exact repeats are merged; distinct goal and budget events each keep their own notification and message.
+ * The test transaction never commits, so enqueued entries stay in the outbox until the test flushes them.
+ */
+@DataJpaTest(showSql = false,
+        properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({ GoalService.class, NotificationService.class, NotificationInboxCache.class,
+        NotificationStreamService.class, NotificationOutboxService.class, NotificationCoalescer.class,
+        SimpleMeterRegistry.class, UserDataVersionService.class })
+class NotificationCoalescerTest {
+
+    @Autowired
+    GoalService goalService;
+
+    @Autowired
+    NotificationService notificationService;
+
+    @Autowired
+    NotificationOutboxService notificationOutboxService;
+
+    @Autowired
+    NotificationOutboxRepository outboxRepository;
+
+    @Autowired
+    NotificationRepository notificationRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    User user;
+
+    @BeforeEach
+    void setUp() {
+        Role role = roleRepository.save(new Role("USER"));
+        user = new User();
+        user.setUsername("notified");
+        user.setEmail("notified@finance.com");
+        user.setPassword("secret");
+        user.setUserRole(role);
+        user = userRepository.save(user);
+    }
+
+    @Test
+    void distinctGoalAndBudgetEventsAreNotMerged() {
+        Goal laptop = goalService.createGoal("Laptop", new BigDecimal("1000"), LocalDate.now().plusMonths(6), user,
+                null);
+        goalService.createGoal("Vacation", new BigDecimal("1000"), LocalDate.now().plusMonths(6), user, null);
+        goalService.contributeToGoal(laptop.getId(), new BigDecimal("500"));
+        goalService.contributeToGoal(laptop.getId(), new BigDecimal("250"));
+        notificationService.createBudgetNotification(user, 1L, "Bạn đã tiêu tới 80% của ngân sách 'Food'.");
+        notificationService.createBudgetNotification(user, 1L, "Bạn đã tiêu tới 90% của ngân sách 'Food'.");
+        notificationService.createBudgetNotification(user, 2L, "Bạn đã tiêu tới 80% của ngân sách 'Food'.");
+
+        List<NotificationOutbox> pending = pending();
+        assertThat(pending).extracting(NotificationOutbox::getMessage).containsExactly(
+                "Mục tiêu mới 'Laptop' đã được tạo thành công!",
+                "Mục tiêu mới 'Vacation' đã được tạo thành công!",
+                "Cố lên! Bạn đã đạt 50% mục tiêu 'Laptop'.",
+                "Cố lên! Bạn đã đạt 75% mục tiêu 'Laptop'.",
+                "Bạn đã tiêu tới 80% của ngân sách 'Food'.",
+                "Bạn đã tiêu tới 90% của ngân sách 'Food'.",
+                "Bạn đã tiêu tới 80% của ngân sách 'Food'.");
+        assertThat(pending).extracting(NotificationOutbox::getOccurrences).containsOnly(1);
+        assertThat(pending.get(0).getType()).isEqualTo(Notification.NotificationType.GOAL);
+        assertThat(pending.get(0).getActionUrl()).isEqualTo("/goals/view/" + laptop.getId());
+        assertThat(pending.get(4).getType()).isEqualTo(Notification.NotificationType.BUDGET);
+    }
+
+    @Test
+    void exactRepeatsAreMergedWhilePendingAndAfterWritten() {
+        String message = "Bạn đã vượt quá '50000' của ngân sách Food!";
+        for (int i = 0; i < 3; i++) {
+            notificationService.createBudgetNotification(user, 1L, message);
+        }
+
+        List<NotificationOutbox> pending = pending();
+        assertThat(pending).hasSize(1);
+        assertThat(pending.get(0).getOccurrences()).isEqualTo(3);
+        assertThat(pending.get(0).getMessage()).isEqualTo(message);
+
+        notificationOutboxService.flush(List.of(pending.get(0).getId()));
+        notificationService.createBudgetNotification(user, 1L, message);
+
+        entityManager.clear();
+        assertThat(outboxRepository.count()).isZero();
+        List<Notification> written = notificationRepository.findByUserOrderByCreatedAtDesc(user);
+        assertThat(written).hasSize(1);
+        assertThat(written.get(0).getOccurrences()).isEqualTo(4);
+        assertThat(written.get(0).getMessage()).isEqualTo(message);
+
+        // Once read, a repeat is news again
+        notificationService.markAsRead(written.get(0).getId());
+        notificationService.createBudgetNotification(user, 1L, message);
+        assertThat(pending()).hasSize(1);
+    }
+
+    private List<NotificationOutbox> pending() {
+        entityManager.flush();
+        entityManager.clear();
+        return outboxRepository.findAll().stream()
+                .sorted((a, b) -> a.getId().compareTo(b.getId()))
+                .toList();
+    }
+}
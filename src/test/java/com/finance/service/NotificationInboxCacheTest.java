@@ -0,0 +1,211 @@
+package com.finance.service;
+
+import com.finance.domain.Notification;
+import com.finance.domain.Role;
+import com.finance.domain.User;
+import com.finance.dto.RecentNotification;
+import com.finance.repository.NotificationRepository;
+import com.finance.repository.RoleRepository;
+import com.finance.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * After every committed {@link NotificationService} mutation the inbox cache agrees with the notifications table,
+ * and a rolled-back mutation leaves the loaded inbox exactly as it was. Runs against committed data so that the
+ * cache updates go through the after-commit path they use in production.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({ NotificationService.class, NotificationInboxCache.class, NotificationStreamService.class,
+        NotificationOutboxService.class, NotificationCoalescer.class, SimpleMeterRegistry.class,
+        UserDataVersionService.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NotificationInboxCacheTest {
+
+    private static final int CAPACITY = 10;
+
+    @Autowired
+    NotificationService notificationService;
+
+    @Autowired
+    NotificationInboxCache notificationInboxCache;
+
+    @Autowired
+    NotificationRepository notificationRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    User user;
+
+    @BeforeEach
+    void setUp() {
+        Role role = roleRepository.save(new Role("USER"));
+        user = new User();
+        user.setUsername("inbox");
+        user.setEmail("inbox@finance.com");
+        user.setPassword("secret");
+        user.setUserRole(role);
+        user = userRepository.save(user);
+        notificationInboxCache.invalidateAll();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        notificationInboxCache.invalidateAll();
+        notificationRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+        roleRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void everyCommittedMutationKeepsTheInboxInStepWithTheTable() {
+        assertConsistent();
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < CAPACITY + 4; i++) {
+            Notification.NotificationType type = i % 3 == 0
+                    ? Notification.NotificationType.BUDGET : Notification.NotificationType.GENERAL;
+            ids.add(inTransaction(() -> notificationService.createNotification(user, "Thông báo " + ids.size(), type,
+                    null, null).getId()));
+            assertConsistent();
+        }
+        Long newest = ids.get(ids.size() - 1);
+        Long oldest = ids.get(0);
+
+        inTransaction(() -> notificationService.markAsRead(newest));
+        assertConsistent();
+        inTransaction(() -> notificationService.markAsRead(newest));
+        assertConsistent();
+
+        inTransaction(() -> notificationService.markAsUnread(newest));
+        assertConsistent();
+
+        // Includes ids that are already read or belong to nobody
+        inTransaction(() -> notificationService.markAsRead(user.getId(), List.of(ids.get(1), ids.get(2), newest,
+                Long.MAX_VALUE)));
+        assertConsistent();
+        inTransaction(() -> notificationService.markAsRead(user.getId(), ids.subList(5, ids.size())));
+        assertConsistent();
+
+        inTransaction(() -> notificationService.markAsUnread(user.getId(), List.of(ids.get(2), newest, oldest)));
+        assertConsistent();
+
+        inTransaction(() -> notificationService.deleteNotification(oldest));
+        assertConsistent();
+        inTransaction(() -> notificationService.deleteNotification(newest));
+        assertConsistent();
+
+        inTransaction(() -> notificationService.deleteNotifications(user.getId(), List.of(ids.get(1), ids.get(4))));
+        assertConsistent();
+
+        notificationService.deleteNotificationsByType(user.getId(), Notification.NotificationType.BUDGET);
+        assertConsistent();
+
+        inTransaction(() -> notificationService.deleteReadNotifications(user));
+        assertConsistent();
+
+        inTransaction(() -> notificationService.markAllAsReadForUser(user));
+        assertConsistent();
+
+        inTransaction(() -> notificationService.markAsUnread(user.getId(), List.of(ids.get(2), ids.get(5))));
+        assertConsistent();
+
+        inTransaction(() -> notificationService.deleteOldNotifications(user, LocalDateTime.now().plusMinutes(1)));
+        assertConsistent();
+        assertThat(notificationInboxCache.unreadCount(user.getId())).isZero();
+    }
+
+    @Test
+    void rolledBackMutationLeavesTheLoadedInboxUnchanged() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ids.add(inTransaction(() -> notificationService.createNotification(user, "Thông báo " + ids.size())
+                    .getId()));
+        }
+        Long readId = ids.get(0);
+        inTransaction(() -> notificationService.markAsRead(readId));
+        assertConsistent();
+        long unread = notificationInboxCache.unreadCount(user.getId());
+        List<RecentNotification> recent = notificationInboxCache.recentUnread(user.getId(), CAPACITY);
+
+        rolledBack(status -> notificationService.createNotification(user, "Không bao giờ lưu"));
+        rolledBack(status -> notificationService.markAsRead(ids.get(1)));
+        rolledBack(status -> notificationService.markAsUnread(readId));
+        rolledBack(status -> notificationService.markAsRead(user.getId(), ids));
+        rolledBack(status -> notificationService.markAsUnread(user.getId(), ids));
+        rolledBack(status -> notificationService.markAllAsReadForUser(user));
+        rolledBack(status -> notificationService.deleteNotification(ids.get(2)));
+
+        // Served from the inbox that was loaded before, not reloaded from the table
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertThat(notificationInboxCache.unreadCount(user.getId())).isEqualTo(unread);
+        assertThat(notificationInboxCache.recentUnread(user.getId(), CAPACITY)).isEqualTo(recent);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertConsistent();
+    }
+
+    private void assertConsistent() {
+        long unread = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM notifications WHERE user_id = ? AND is_read = FALSE", Long.class, user.getId());
+        List<Long> latest = jdbcTemplate.queryForList("SELECT id FROM notifications WHERE user_id = ? " +
+                "AND is_read = FALSE ORDER BY created_at DESC, id DESC LIMIT " + CAPACITY, Long.class, user.getId());
+
+        assertThat(notificationInboxCache.unreadCount(user.getId())).as("unread count").isEqualTo(unread);
+        assertThat(notificationInboxCache.recentUnread(user.getId(), CAPACITY)).extracting(RecentNotification::id)
+                .as("recent unread").containsExactlyElementsOf(latest);
+    }
+
+    private <T> T inTransaction(Supplier<T> action) {
+        return new TransactionTemplate(transactionManager).execute(status -> action.get());
+    }
+
+    private void inTransaction(Runnable action) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> action.run());
+    }
+
+    private void rolledBack(Consumer<TransactionStatus> action) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            action.accept(status);
+            status.setRollbackOnly();
+        });
+    }
+}
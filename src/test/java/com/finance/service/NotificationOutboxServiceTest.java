@@ -0,0 +1,160 @@
+package com.finance.service;
+
+import com.finance.domain.Notification;
+import com.finance.domain.NotificationOutbox;
+import com.finance.domain.Role;
+import com.finance.domain.User;
+import com.finance.repository.NotificationOutboxRepository;
+import com.finance.repository.NotificationRepository;
+import com.finance.repository.RoleRepository;
+import com.finance.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Delivery paths of the notification outbox against committed data: replay of rows left behind by a crash, spilling
+ * to the table when the queue is full, and the row-by-row retry after a rejected batch. The background writer is
+ * stopped so that rows are only written when a test asks for it.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "finance.notifications.outbox.queue-capacity=2"
+})
+@Import({ NotificationOutboxService.class, NotificationInboxCache.class, NotificationStreamService.class,
+        NotificationCoalescer.class, SimpleMeterRegistry.class, UserDataVersionService.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NotificationOutboxServiceTest {
+
+    @Autowired
+    NotificationOutboxService notificationOutboxService;
+
+    @Autowired
+    NotificationOutboxRepository outboxRepository;
+
+    @Autowired
+    NotificationRepository notificationRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    User user;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        notificationOutboxService.shutdown();
+        Role role = roleRepository.save(new Role("USER"));
+        user = new User();
+        user.setUsername("outbox");
+        user.setEmail("outbox@finance.com");
+        user.setPassword("secret");
+        user.setUserRole(role);
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("ALTER TABLE notifications DROP CONSTRAINT IF EXISTS reject_poison");
+        outboxRepository.deleteAllInBatch();
+        notificationRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+        roleRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void startupReplaysRowsLeftInTheOutbox() {
+        // Saved without being queued, as when the process died before the writer got to them
+        outboxRepository.save(new NotificationOutbox(user, "Ngân sách 'Food' sắp hết", Notification.NotificationType.BUDGET,
+                "Cảnh báo ngân sách", "/budgets/view/1"));
+        NotificationOutbox repeated = new NotificationOutbox(user, "Mục tiêu 'Laptop' đã hoàn thành",
+                Notification.NotificationType.GOAL, "Mục tiêu", "/goals/view/1");
+        repeated.setOccurrences(3);
+        outboxRepository.save(repeated);
+        double replayedBefore = counter("finance.notifications.outbox.replayed");
+
+        notificationOutboxService.replayOnStartup();
+
+        assertThat(outboxRepository.count()).isZero();
+        List<Notification> written = notificationRepository.findByUserOrderByCreatedAtDesc(user);
+        assertThat(written).extracting(Notification::getMessage).containsExactlyInAnyOrder(
+                "Ngân sách 'Food' sắp hết", "Mục tiêu 'Laptop' đã hoàn thành");
+        assertThat(written).filteredOn(n -> n.getType() == Notification.NotificationType.GOAL).singleElement()
+                .satisfies(n -> {
+                    assertThat(n.getOccurrences()).isEqualTo(3);
+                    assertThat(n.getActionUrl()).isEqualTo("/goals/view/1");
+                    assertThat(n.isRead()).isFalse();
+                });
+        assertThat(counter("finance.notifications.outbox.replayed") - replayedBefore).isEqualTo(2);
+    }
+
+    @Test
+    void entriesBeyondTheQueueCapacitySpillToTheTableAndAreReplayed() {
+        double spilledBefore = counter("finance.notifications.outbox.spilled");
+
+        for (int i = 0; i < 5; i++) {
+            notificationOutboxService.enqueue(user, "Thông báo " + i, Notification.NotificationType.GENERAL, null,
+                    null);
+        }
+
+        assertThat(notificationOutboxService.queueDepth()).isEqualTo(2);
+        assertThat(counter("finance.notifications.outbox.spilled") - spilledBefore).isEqualTo(3);
+        assertThat(outboxRepository.count()).isEqualTo(5);
+        assertThat(notificationRepository.countByUser(user)).isZero();
+
+        // Nothing is written before the entries are old enough, so a live writer is not raced
+        assertThat(notificationOutboxService.replay(LocalDateTime.now().minusMinutes(1))).isZero();
+        assertThat(notificationOutboxService.replay(LocalDateTime.now())).isEqualTo(5);
+        assertThat(outboxRepository.count()).isZero();
+        assertThat(notificationRepository.countByUser(user)).isEqualTo(5);
+    }
+
+    @Test
+    void rejectedBatchIsRetriedRowByRowAndTheBadRowDropped() {
+        jdbcTemplate.execute("ALTER TABLE notifications ADD CONSTRAINT reject_poison CHECK (message <> 'poison')");
+        Long good = save("Giao dịch lớn");
+        Long poison = save("poison");
+        Long alsoGood = save("Vượt ngân sách");
+        double droppedBefore = counter("finance.notifications.outbox.dropped");
+
+        assertThat(notificationOutboxService.flush(List.of(good, poison, alsoGood))).isEqualTo(2);
+
+        assertThat(outboxRepository.count()).isZero();
+        assertThat(notificationRepository.findByUserOrderByCreatedAtDesc(user)).extracting(Notification::getMessage)
+                .containsExactlyInAnyOrder("Giao dịch lớn", "Vượt ngân sách");
+        assertThat(counter("finance.notifications.outbox.dropped") - droppedBefore).isEqualTo(1);
+
+        // Flushing the same ids again finds nothing left to write
+        assertThat(notificationOutboxService.flush(List.of(good, poison, alsoGood))).isZero();
+    }
+
+    private Long save(String message) {
+        return outboxRepository.save(new NotificationOutbox(user, message, Notification.NotificationType.GENERAL,
+                null, null)).getId();
+    }
+
+    private double counter(String name) {
+        return meterRegistry.counter(name).count();
+    }
+}
@@ -0,0 +1,128 @@
+package com.finance.service;
+
+import com.finance.domain.Notification;
+import com.finance.domain.Role;
+import com.finance.domain.User;
+import com.finance.repository.RoleRepository;
+import com.finance.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Which notifications the purge removes by type and read state, that the primary-key chunks cover every row
+ * including the first and last id, and that only read notifications are counted into digests.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "finance.notifications.retention.default-ttl=90d",
+        "finance.notifications.retention.unread-ttl=365d",
+        "finance.notifications.retention.ttl.SYSTEM=30d",
+        "finance.notifications.retention.ttl.GOAL=500d",
+        "finance.notifications.retention.chunk-size=3",
+        "finance.notifications.retention.pause=0ms",
+        "finance.notifications.retention.digest=true"
+})
+@Import({ NotificationRetentionService.class, NotificationInboxCache.class, UserDataVersionService.class })
+class NotificationRetentionServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    @Autowired
+    NotificationRetentionService notificationRetentionService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    User user;
+
+    @BeforeEach
+    void setUp() {
+        Role role = roleRepository.save(new Role("USER"));
+        user = new User();
+        user.setUsername("retained");
+        user.setEmail("retained@finance.com");
+        user.setPassword("secret");
+        user.setUserRole(role);
+        user = userRepository.save(user);
+    }
+
+    @Test
+    void purgesByTypeAndReadStateAcrossChunks() {
+        insert("system read old", Notification.NotificationType.SYSTEM, true, 40);
+        insert("system read recent", Notification.NotificationType.SYSTEM, true, 20);
+        insert("system unread old", Notification.NotificationType.SYSTEM, false, 40);
+        insert("general read expired", Notification.NotificationType.GENERAL, true, 100);
+        insert("general read kept", Notification.NotificationType.GENERAL, true, 80);
+        insert("general unread expired", Notification.NotificationType.GENERAL, false, 400);
+        // A type kept longer than unread-ttl keeps its own period when unread too
+        insert("goal unread kept", Notification.NotificationType.GOAL, false, 400);
+        insert("system read older", Notification.NotificationType.SYSTEM, true, 45);
+
+        NotificationRetentionService.RetentionReport report = notificationRetentionService.purge(NOW);
+
+        assertThat(report.rowsPurged()).isEqualTo(4);
+        assertThat(report.chunks()).isEqualTo(3);
+        assertThat(remaining()).containsExactly("system read recent", "system unread old", "general read kept",
+                "goal unread kept");
+
+        // The expired unread notification is not counted
+        assertThat(report.rowsDigested()).isEqualTo(3);
+        assertThat(digests()).containsExactly("GENERAL 202402 1", "SYSTEM 202404 2");
+    }
+
+    @Test
+    void laterPurgesAddToTheExistingDigest() {
+        insert("first", Notification.NotificationType.SYSTEM, true, 40);
+        notificationRetentionService.purge(NOW);
+
+        insert("second", Notification.NotificationType.SYSTEM, true, 40);
+        insert("still unread", Notification.NotificationType.SYSTEM, false, 400);
+        NotificationRetentionService.RetentionReport report = notificationRetentionService.purge(NOW);
+
+        assertThat(report.rowsPurged()).isEqualTo(2);
+        assertThat(report.rowsDigested()).isEqualTo(1);
+        assertThat(remaining()).isEmpty();
+        assertThat(digests()).containsExactly("SYSTEM 202404 2");
+    }
+
+    @Test
+    void emptyTableIsNotWalked() {
+        NotificationRetentionService.RetentionReport report = notificationRetentionService.purge(NOW);
+
+        assertThat(report.rowsPurged()).isZero();
+        assertThat(report.chunks()).isZero();
+    }
+
+    private void insert(String message, Notification.NotificationType type, boolean read, int daysOld) {
+        jdbcTemplate.update("INSERT INTO notifications " +
+                        "(user_id, message, is_read, created_at, type, title, action_url, occurrences) " +
+                        "VALUES (?, ?, ?, ?, ?, NULL, NULL, 1)",
+                user.getId(), message, read, Timestamp.valueOf(NOW.minusDays(daysOld)), type.name());
+    }
+
+    private List<String> remaining() {
+        return jdbcTemplate.queryForList("SELECT message FROM notifications ORDER BY id", String.class);
+    }
+
+    // Read with JDBC, as the bulk update behind later purges bypasses the persistence context
+    private List<String> digests() {
+        return jdbcTemplate.queryForList("SELECT CONCAT(type, ' ', period, ' ', notification_count) " +
+                "FROM notification_digests ORDER BY type, period", String.class);
+    }
+}
@@ -0,0 +1,155 @@
+package com.finance.service;
+
+import com.finance.domain.Notification;
+import com.finance.domain.Role;
+import com.finance.domain.User;
+import com.finance.repository.RoleRepository;
+import com.finance.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The set-based notification mutations only touch the caller's own rows, report the rows they changed, and split
+ * work larger than {@link NotificationService#MAX_BATCH_SIZE} into several statements.
+ */
+@DataJpaTest(showSql = false,
+        properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({ NotificationService.class, NotificationInboxCache.class, NotificationStreamService.class,
+        NotificationOutboxService.class, NotificationCoalescer.class, SimpleMeterRegistry.class,
+        UserDataVersionService.class })
+class NotificationServiceTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @Autowired
+    NotificationService notificationService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    User alice;
+    User bob;
+
+    @BeforeEach
+    void setUp() {
+        Role role = roleRepository.save(new Role("USER"));
+        alice = newUser("alice", role);
+        bob = newUser("bob", role);
+    }
+
+    @Test
+    void mutationsSkipOtherUsersIdsAndCountChangedRows() {
+        List<Long> aliceIds = insert(alice, Notification.NotificationType.GENERAL, false, false, true);
+        List<Long> bobIds = insert(bob, Notification.NotificationType.GENERAL, false, true);
+        Long a1 = aliceIds.get(0);
+        Long a2 = aliceIds.get(1);
+        Long a3 = aliceIds.get(2);
+        Long b1 = bobIds.get(0);
+        Long b2 = bobIds.get(1);
+
+        // a3 is already read and b1 is Bob's
+        assertThat(notificationService.markAsRead(alice.getId(), Arrays.asList(a1, a3, b1, null, a1))).isEqualTo(1);
+        assertThat(isRead(a1)).isTrue();
+        assertThat(isRead(b1)).isFalse();
+
+        // a2 is still unread and b2 is Bob's
+        assertThat(notificationService.markAsUnread(alice.getId(), List.of(a3, a2, b2))).isEqualTo(1);
+        assertThat(isRead(a3)).isFalse();
+        assertThat(isRead(b2)).isTrue();
+
+        assertThat(notificationService.deleteNotifications(alice.getId(), List.of(a2, b1, b2, Long.MAX_VALUE)))
+                .isEqualTo(1);
+        assertThat(ids(alice)).containsExactly(a1, a3);
+        assertThat(ids(bob)).containsExactly(b1, b2);
+    }
+
+    @Test
+    void idSetsLargerThanOneBatchAreSplit() {
+        int count = NotificationService.MAX_BATCH_SIZE * 2 + 1;
+        List<Long> requested = new ArrayList<>(insert(alice, Notification.NotificationType.GENERAL, unread(count)));
+        requested.addAll(insert(bob, Notification.NotificationType.GENERAL, unread(3)));
+
+        assertThat(notificationService.markAsRead(alice.getId(), requested)).isEqualTo(count);
+        assertThat(unreadCount(alice)).isZero();
+        assertThat(unreadCount(bob)).isEqualTo(3);
+
+        assertThat(notificationService.markAsUnread(alice.getId(), requested)).isEqualTo(count);
+        assertThat(notificationService.deleteNotifications(alice.getId(), requested)).isEqualTo(count);
+        assertThat(ids(alice)).isEmpty();
+        assertThat(ids(bob)).hasSize(3);
+    }
+
+    @Test
+    void deleteByTypeWalksTheUsersRowsInChunks() {
+        int count = NotificationService.MAX_BATCH_SIZE * 2 + 7;
+        insert(alice, Notification.NotificationType.SYSTEM, unread(count));
+        List<Long> kept = insert(alice, Notification.NotificationType.GOAL, false, true);
+        List<Long> bobs = insert(bob, Notification.NotificationType.SYSTEM, false, true);
+
+        assertThat(notificationService.deleteNotificationsByType(alice.getId(), Notification.NotificationType.SYSTEM))
+                .isEqualTo(count);
+        assertThat(ids(alice)).containsExactlyElementsOf(kept);
+        assertThat(ids(bob)).containsExactlyElementsOf(bobs);
+
+        assertThat(notificationService.deleteNotificationsByType(alice.getId(), Notification.NotificationType.SYSTEM))
+                .isZero();
+    }
+
+    private List<Long> insert(User user, Notification.NotificationType type, boolean... read) {
+        List<Object[]> rows = new ArrayList<>();
+        for (boolean isRead : read) {
+            rows.add(new Object[] { user.getId(), "Thông báo", isRead, Timestamp.valueOf(CREATED), type.name() });
+        }
+        long before = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM notifications", Long.class);
+        jdbcTemplate.batchUpdate("INSERT INTO notifications " +
+                "(user_id, message, is_read, created_at, type, occurrences) VALUES (?, ?, ?, ?, ?, 1)", rows);
+        return jdbcTemplate.queryForList("SELECT id FROM notifications WHERE user_id = ? AND id > ? ORDER BY id",
+                Long.class, user.getId(), before);
+    }
+
+    private static boolean[] unread(int count) {
+        return new boolean[count];
+    }
+
+    private boolean isRead(Long id) {
+        return jdbcTemplate.queryForObject("SELECT is_read FROM notifications WHERE id = ?", Boolean.class, id);
+    }
+
+    private long unreadCount(User user) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notifications WHERE user_id = ? AND is_read = FALSE",
+                Long.class, user.getId());
+    }
+
+    private List<Long> ids(User user) {
+        return jdbcTemplate.queryForList("SELECT id FROM notifications WHERE user_id = ? ORDER BY id", Long.class,
+                user.getId());
+    }
+
+    private User newUser(String username, Role role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@finance.com");
+        user.setPassword("secret");
+        user.setUserRole(role);
+        return userRepository.save(user);
+    }
+}
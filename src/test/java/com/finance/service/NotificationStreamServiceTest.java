@@ -0,0 +1,229 @@
+package com.finance.service;
+
+import com.finance.domain.Notification;
+import com.finance.dto.RecentNotification;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.lenient;
+
+/**
+ * Connections of the notification stream, observed through emitters that record what would be written to the
+ * response instead of writing it.
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationStreamServiceTest {
+
+    private static final Long USER = 1L;
+    private static final Duration QUIET = Duration.ofSeconds(5);
+
+    @Mock
+    NotificationInboxCache notificationInboxCache;
+
+    NotificationStreamService service;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(notificationInboxCache.unreadCount(USER)).thenReturn(7L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void oldestConnectionIsClosedBeyondThePerUserLimit() throws InterruptedException {
+        service = new RecordingStreamService(QUIET, 32, 2);
+        RecordingEmitter first = subscribe();
+        RecordingEmitter second = subscribe();
+        assertThat(service.connectionCount(USER)).isEqualTo(2);
+        assertThat(first.next().name()).isEqualTo(NotificationStreamService.EVENT_UNREAD_COUNT);
+        assertThat(second.next().name()).isEqualTo(NotificationStreamService.EVENT_UNREAD_COUNT);
+
+        RecordingEmitter third = subscribe();
+
+        assertThat(first.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(second.completed.getCount()).isOne();
+        assertThat(third.completed.getCount()).isOne();
+        assertThat(service.connectionCount(USER)).isEqualTo(2);
+
+        assertThat(third.next().name()).isEqualTo(NotificationStreamService.EVENT_UNREAD_COUNT);
+        service.publishUnreadCountChanged(USER);
+        assertThat(second.next().name()).isEqualTo(NotificationStreamService.EVENT_UNREAD_COUNT);
+        assertThat(third.next().name()).isEqualTo(NotificationStreamService.EVENT_UNREAD_COUNT);
+        assertThat(first.sent.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void fullBufferDropsTheOldestEventsAndKeepsOneUnreadCount() throws InterruptedException {
+        service = new RecordingStreamService(QUIET, 3, 5);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter emitter = new RecordingEmitter(release);
+        ((RecordingStreamService) service).next = emitter;
+        service.subscribe(USER);
+        // The writer is now stuck sending the initial count, as with a client that stopped reading
+        assertThat(emitter.sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+        for (long id = 1; id <= 4; id++) {
+            service.publishCreated(USER, recent(id));
+        }
+        release.countDown();
+
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            events.add(emitter.next());
+        }
+        assertThat(events).extracting(Event::name).containsExactly(NotificationStreamService.EVENT_UNREAD_COUNT,
+                NotificationStreamService.EVENT_NOTIFICATION, NotificationStreamService.EVENT_NOTIFICATION,
+                NotificationStreamService.EVENT_UNREAD_COUNT);
+        assertThat(((RecentNotification) events.get(1).data()).id()).isEqualTo(3L);
+        assertThat(((RecentNotification) events.get(2).data()).id()).isEqualTo(4L);
+        assertThat(events.get(3).data()).isEqualTo(Map.of("count", 7L));
+        assertThat(emitter.sent.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void silentConnectionSendsHeartbeats() throws InterruptedException {
+        service = new RecordingStreamService(Duration.ofMillis(50), 32, 5);
+        RecordingEmitter emitter = subscribe();
+
+        assertThat(emitter.next().name()).isEqualTo(NotificationStreamService.EVENT_UNREAD_COUNT);
+        assertThat(emitter.next().comment()).isEqualTo("heartbeat");
+        assertThat(emitter.next().comment()).isEqualTo("heartbeat");
+    }
+
+    @Test
+    void changesArePublishedOnlyOnceTheirTransactionCommits() throws InterruptedException {
+        service = new RecordingStreamService(QUIET, 32, 5);
+        RecordingEmitter emitter = subscribe();
+        assertThat(emitter.next().name()).isEqualTo(NotificationStreamService.EVENT_UNREAD_COUNT);
+
+        List<TransactionSynchronization> rolledBack = publishInTransaction(1L);
+        TransactionSynchronizationUtils.invokeAfterCompletion(rolledBack,
+                TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertThat(emitter.sent.poll(200, TimeUnit.MILLISECONDS)).isNull();
+
+        List<TransactionSynchronization> committed = publishInTransaction(2L);
+        assertThat(emitter.sent.poll(200, TimeUnit.MILLISECONDS)).isNull();
+        TransactionSynchronizationUtils.invokeAfterCommit(committed);
+
+        Event created = emitter.next();
+        assertThat(created.name()).isEqualTo(NotificationStreamService.EVENT_NOTIFICATION);
+        assertThat(((RecentNotification) created.data()).id()).isEqualTo(2L);
+        // The second count is coalesced into the first unless the writer already sent it
+        assertThat(emitter.next().name()).isEqualTo(NotificationStreamService.EVENT_UNREAD_COUNT);
+    }
+
+    private List<TransactionSynchronization> publishInTransaction(Long notificationId) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.publishCreated(USER, recent(notificationId));
+            service.publishUnreadCountChanged(USER);
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private RecordingEmitter subscribe() {
+        return (RecordingEmitter) service.subscribe(USER);
+    }
+
+    private static RecentNotification recent(Long id) {
+        return new RecentNotification(id, "Thông báo", "Thông báo " + id, Notification.NotificationType.GENERAL,
+                LocalDateTime.of(2024, 5, 1, 12, 0), null, 1);
+    }
+
+    private final class RecordingStreamService extends NotificationStreamService {
+
+        RecordingEmitter next;
+
+        RecordingStreamService(Duration heartbeat, int bufferSize, int maxConnectionsPerUser) {
+            super(notificationInboxCache, Duration.ofMinutes(1), heartbeat, bufferSize, maxConnectionsPerUser);
+        }
+
+        @Override
+        SseEmitter newEmitter() {
+            RecordingEmitter emitter = next != null ? next : new RecordingEmitter(null);
+            next = null;
+            return emitter;
+        }
+    }
+
+    // A named event with its data, or a comment
+    private record Event(String name, Object data, String comment) {
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+
+        final BlockingQueue<Event> sent = new LinkedBlockingQueue<>();
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+        final CountDownLatch release;
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sending.countDown();
+            if (release != null) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            StringBuilder text = new StringBuilder();
+            Object data = null;
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                if (part.getData() instanceof String string) {
+                    text.append(string);
+                } else {
+                    data = part.getData();
+                }
+            }
+            if (text.charAt(0) == ':') {
+                sent.add(new Event(null, null, text.substring(1).strip()));
+            } else {
+                sent.add(new Event(text.toString().lines().filter(line -> line.startsWith("event:"))
+                        .map(line -> line.substring("event:".length())).findFirst().orElse(null), data, null));
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        Event next() throws InterruptedException {
+            Event event = sent.poll(5, TimeUnit.SECONDS);
+            assertThat(event).as("event sent").isNotNull();
+            return event;
+        }
+    }
+}
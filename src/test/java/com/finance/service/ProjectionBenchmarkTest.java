@@ -0,0 +1,323 @@
+package com.finance.service;
+
+import com.finance.domain.Budget;
+import com.finance.domain.Category;
+import com.finance.domain.Goal;
+import com.finance.domain.Notification;
+import com.finance.domain.Role;
+import com.finance.domain.Transaction;
+import com.finance.domain.User;
+import com.finance.dto.RecentNotification;
+import com.finance.repository.BudgetRepository;
+import com.finance.repository.CategoryRepository;
+import com.finance.repository.GoalRepository;
+import com.finance.repository.NotificationRepository;
+import com.finance.repository.RoleRepository;
+import com.finance.repository.TransactionRepository;
+import com.finance.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares each list view's former entity query with its record projection: bytes read from JDBC result sets,
+ * heap allocated by the calling thread and latency, per request. Every request runs in its own read-only
+ * transaction, as it would behind a controller. Run with
+ * {@code mvn test -Dtest=ProjectionBenchmarkTest -Dbenchmark=true}.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({ TransactionService.class, TransactionRollupService.class, TransactionSearchService.class,
+        BudgetSpentService.class, BudgetIntervalIndex.class, UserDataVersionService.class,
+        ProjectionBenchmarkTest.CountingDataSourceConfig.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ProjectionBenchmarkTest {
+
+    private static final int TRANSACTIONS = 5_000;
+    private static final int BUDGETS = 40;
+    private static final int GOALS = 25;
+    private static final int NOTIFICATIONS = 200;
+    private static final int PAGE_SIZE = 50;
+    private static final int ITERATIONS = 300;
+
+    // Estimated bytes handed out by ResultSet getters, see CountingDataSourceConfig
+    private static final AtomicLong BYTES_READ = new AtomicLong();
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    TransactionService transactionService;
+
+    @Autowired
+    TransactionRepository transactionRepository;
+
+    @Autowired
+    BudgetRepository budgetRepository;
+
+    @Autowired
+    GoalRepository goalRepository;
+
+    @Autowired
+    NotificationRepository notificationRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    CategoryRepository categoryRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    void projectionsReadAndAllocateLess() {
+        User user = seed();
+        LocalDate today = LocalDate.now();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        System.out.printf("List views over %d transactions, %d budgets, %d goals, %d notifications%n",
+                TRANSACTIONS, BUDGETS, GOALS, NOTIFICATIONS);
+
+        compare("transactions page", readOnly,
+                () -> entityManager.createQuery("SELECT t FROM Transaction t JOIN FETCH t.category " +
+                                "WHERE t.user = :user ORDER BY t.transactionDate DESC, t.id DESC", Transaction.class)
+                        .setParameter("user", user).setMaxResults(PAGE_SIZE).getResultList(),
+                () -> transactionService.findSliceByUser(user, null, PAGE_SIZE).getContent());
+
+        compare("active budgets", readOnly,
+                () -> entityManager.createQuery("SELECT b FROM Budget b LEFT JOIN FETCH b.category WHERE b.user = :user " +
+                                "AND b.startDate <= :currentDate AND b.endDate >= :currentDate", Budget.class)
+                        .setParameter("user", user).setParameter("currentDate", today).getResultList(),
+                () -> budgetRepository.findActiveBudgetsByUser(user, today));
+
+        compare("active goals", readOnly,
+                () -> entityManager.createQuery("SELECT g FROM Goal g WHERE g.user = :user AND g.status = 'ACTIVE' " +
+                                "AND g.targetDate >= :date", Goal.class)
+                        .setParameter("user", user).setParameter("date", today).getResultList(),
+                () -> goalRepository.findActiveGoalsByUser(user, today));
+
+        // Both sides count the rows as well, as the paged list does
+        compare("notifications page", readOnly,
+                () -> {
+                    entityManager.createQuery("SELECT COUNT(n) FROM Notification n WHERE n.user = :user", Long.class)
+                            .setParameter("user", user).getSingleResult();
+                    return entityManager.createQuery("SELECT n FROM Notification n WHERE n.user = :user " +
+                                    "ORDER BY n.createdAt DESC", Notification.class)
+                            .setParameter("user", user).setMaxResults(PAGE_SIZE).getResultList();
+                },
+                () -> notificationRepository.findRowsByUser(user, PageRequest.of(0, PAGE_SIZE)).getContent());
+
+        compare("recent unread", readOnly,
+                () -> entityManager.createQuery("SELECT n FROM Notification n WHERE n.user.id = :userId " +
+                                "AND n.isRead = false ORDER BY n.createdAt DESC, n.id DESC", Notification.class)
+                        .setParameter("userId", user.getId()).setMaxResults(20).getResultList().stream()
+                        .map(RecentNotification::of).toList(),
+                () -> notificationRepository.findRecentUnreadByUserId(user.getId(), Limit.of(20)));
+    }
+
+    private void compare(String view, TransactionTemplate readOnly, Supplier<List<?>> entities,
+            Supplier<List<?>> projection) {
+        int entityRows = readOnly.execute(status -> entities.get().size());
+        int projectedRows = readOnly.execute(status -> projection.get().size());
+        assertThat(projectedRows).as(view).isEqualTo(entityRows);
+
+        Result entity = measure(() -> readOnly.execute(status -> entities.get()));
+        Result projected = measure(() -> readOnly.execute(status -> projection.get()));
+
+        System.out.printf("  %-18s entities:   %7d B read, %8.1f KB allocated, p50 %.3f ms%n", view,
+                entity.bytesRead, entity.allocated / 1024.0, entity.p50Millis);
+        System.out.printf("  %-18s projection: %7d B read, %8.1f KB allocated, p50 %.3f ms%n", "",
+                projected.bytesRead, projected.allocated / 1024.0, projected.p50Millis);
+
+        assertThat(projected.bytesRead).as(view + " bytes read").isLessThan(entity.bytesRead);
+        assertThat(projected.allocated).as(view + " allocation").isLessThan(entity.allocated);
+    }
+
+    private User seed() {
+        Role role = roleRepository.save(new Role("USER"));
+        User user = new User();
+        user.setUsername("projection");
+        user.setEmail("projection@finance.com");
+        user.setPassword("secret");
+        user.setUserRole(role);
+        userRepository.save(user);
+
+        List<Category> categories = new ArrayList<>();
+        for (String name : List.of("Food", "Rent", "Transport", "Shopping", "Salary")) {
+            Category category = new Category(name, name.equals("Salary")
+                    ? Category.CategoryType.INCOME : Category.CategoryType.EXPENSE);
+            category.setDescription("Everything spent or earned under " + name.toLowerCase());
+            categories.add(categoryRepository.save(category));
+        }
+
+        LocalDateTime first = LocalDate.now().minusYears(1).atTime(8, 0);
+        List<Transaction> batch = new ArrayList<>();
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            Category category = categories.get(i % categories.size());
+            Transaction.TransactionType type = category.getName().equals("Salary")
+                    ? Transaction.TransactionType.INCOME : Transaction.TransactionType.EXPENSE;
+            Transaction transaction = new Transaction("Row " + i, new BigDecimal("12.50"), type, user, category);
+            transaction.setTransactionDate(first.plusMinutes(i * 90L));
+            transaction.setNotes(i % 4 == 0 ? "Paid by card, receipt kept" : null);
+            batch.add(transaction);
+            if (batch.size() == 1_000) {
+                transactionRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        transactionRepository.saveAll(batch);
+
+        for (int i = 0; i < BUDGETS; i++) {
+            Budget budget = new Budget("Budget " + i, new BigDecimal("5000.00"), LocalDate.now().minusDays(i),
+                    LocalDate.now().plusDays(30), user);
+            budget.setCategory(i % 3 == 0 ? null : categories.get(i % 4));
+            budget.setDescription("Monthly allowance number " + i);
+            budgetRepository.save(budget);
+        }
+
+        for (int i = 0; i < GOALS; i++) {
+            Goal goal = new Goal("Goal " + i, new BigDecimal("1000.00"), LocalDate.now().plusMonths(i + 1), user);
+            goal.setDescription("Saving up for item " + i);
+            goalRepository.save(goal);
+        }
+
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < NOTIFICATIONS; i++) {
+            notifications.add(new Notification(user, "Bạn đã tiêu tới 80% của ngân sách 'Budget " + i + "'.",
+                    Notification.NotificationType.BUDGET, "Budget alert", "/budgets"));
+        }
+        notificationRepository.saveAll(notifications);
+        return user;
+    }
+
+    private static Result measure(Runnable request) {
+        for (int i = 0; i < 30; i++) {
+            request.run();
+        }
+        long[] samples = new long[ITERATIONS];
+        long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+        long readBefore = BYTES_READ.get();
+        for (int i = 0; i < ITERATIONS; i++) {
+            long started = System.nanoTime();
+            request.run();
+            samples[i] = System.nanoTime() - started;
+        }
+        long allocated = (THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore) / ITERATIONS;
+        long bytesRead = (BYTES_READ.get() - readBefore) / ITERATIONS;
+        Arrays.sort(samples);
+        return new Result(bytesRead, allocated, samples[ITERATIONS / 2] / 1_000_000.0);
+    }
+
+    private record Result(long bytesRead, long allocated, double p50Millis) {
+    }
+
+    /**
+     * Wraps the data source so every value read through a {@link ResultSet} getter is counted, approximating the
+     * bytes the driver had to transfer and decode for the query.
+     */
+    @TestConfiguration
+    static class CountingDataSourceConfig {
+
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? wrap(dataSource, DataSource.class) : bean;
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T wrap(T target, Class<T> type) {
+            InvocationHandler handler = (proxy, method, args) -> {
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+                if (type == ResultSet.class && method.getName().startsWith("get") && args != null
+                        && (args[0] instanceof Integer || args[0] instanceof String)) {
+                    BYTES_READ.addAndGet(sizeOf(result));
+                }
+                Class<?> jdbcType = jdbcTypeOf(result);
+                return jdbcType != null ? wrap(result, (Class<Object>) jdbcType) : result;
+            };
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler);
+        }
+
+        // Most specific JDBC interface, since callers cast e.g. a returned Statement to PreparedStatement
+        private static Class<?> jdbcTypeOf(Object value) {
+            for (Class<?> type : List.of(Connection.class, CallableStatement.class, PreparedStatement.class,
+                    Statement.class, ResultSet.class)) {
+                if (type.isInstance(value) && !Proxy.isProxyClass(value.getClass())) {
+                    return type;
+                }
+            }
+            return null;
+        }
+
+        private static long sizeOf(Object value) {
+            if (value == null) {
+                return 0;
+            }
+            if (value instanceof String string) {
+                return string.getBytes(StandardCharsets.UTF_8).length;
+            }
+            if (value instanceof BigDecimal decimal) {
+                return decimal.unscaledValue().bitLength() / 8 + 1;
+            }
+            if (value instanceof Boolean) {
+                return 1;
+            }
+            if (value instanceof Integer) {
+                return 4;
+            }
+            // Longs, dates and timestamps
+            return 8;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.finance.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finance.domain.Category;
+import com.finance.domain.Role;
+import com.finance.domain.Transaction;
+import com.finance.domain.User;
+import com.finance.dto.TransactionFilter;
+import com.finance.repository.CategoryRepository;
+import com.finance.repository.RoleRepository;
+import com.finance.repository.TransactionRepository;
+import com.finance.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * The CSV export neutralises text a spreadsheet would evaluate as a formula, and the import reads it back unchanged.
+ */
+@DataJpaTest(showSql = false,
+        properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({ TransactionExportService.class, ObjectMapper.class, TransactionImportService.class,
+        TransactionService.class, CategoryService.class, BudgetService.class, BudgetIntervalIndex.class,
+        BudgetSpentService.class, NotificationService.class, NotificationInboxCache.class,
+        NotificationStreamService.class, NotificationOutboxService.class, NotificationCoalescer.class,
+        SimpleMeterRegistry.class, TransactionRollupService.class, TransactionSearchService.class,
+        UserDataVersionService.class })
+class TransactionExportServiceTest {
+
+    @Autowired
+    TransactionExportService transactionExportService;
+
+    @Autowired
+    TransactionImportService transactionImportService;
+
+    @Autowired
+    TransactionService transactionService;
+
+    @Autowired
+    TransactionRepository transactionRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    CategoryRepository categoryRepository;
+
+    User user;
+
+    Category category;
+
+    @BeforeEach
+    void setUp() {
+        Role role = roleRepository.save(new Role("USER"));
+        user = new User();
+        user.setUsername("exporter");
+        user.setEmail("exporter@finance.com");
+        user.setPassword("secret");
+        user.setUserRole(role);
+        user = userRepository.save(user);
+        category = categoryRepository.save(new Category("@Nhà", Category.CategoryType.EXPENSE));
+    }
+
+    @Test
+    void formulaLikeTextIsPrefixedAndSurvivesReimport() throws IOException {
+        transactionService.createTransaction("=HYPERLINK(\"http://evil\",\"x\")", new BigDecimal("1000.00"),
+                Transaction.TransactionType.EXPENSE, user, category, LocalDateTime.of(2024, 1, 2, 8, 0), "-5 đồng");
+        transactionService.createTransaction("Tiền điện", new BigDecimal("250000.00"),
+                Transaction.TransactionType.EXPENSE, user, category, LocalDateTime.of(2024, 1, 1, 8, 0), "+ phí");
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        transactionExportService.export(user, TransactionFilter.none(), TransactionExportService.Format.CSV, output);
+        String csv = output.toString(StandardCharsets.UTF_8);
+
+        assertThat(csv.lines().skip(1)).containsExactly(
+                "2024-01-02 08:00:00,\"'=HYPERLINK(\"\"http://evil\"\",\"\"x\"\")\",1000.00,EXPENSE,'@Nhà,'-5 đồng",
+                "2024-01-01 08:00:00,Tiền điện,250000.00,EXPENSE,'@Nhà,'+ phí");
+
+        transactionRepository.deleteAll();
+        TransactionImportService.ImportReport report = transactionImportService.importCsv(user,
+                new StringReader(csv), null);
+
+        assertThat(report.imported()).isEqualTo(2);
+        assertThat(transactionRepository.findAll()).extracting(Transaction::getDescription, Transaction::getNotes,
+                transaction -> transaction.getCategory().getName()).containsExactlyInAnyOrder(
+                tuple("=HYPERLINK(\"http://evil\",\"x\")", "-5 đồng", "@Nhà"),
+                tuple("Tiền điện", "+ phí", "@Nhà"));
+    }
+}
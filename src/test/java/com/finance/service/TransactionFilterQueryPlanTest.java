@@ -0,0 +1,246 @@
+package com.finance.service;
+
+import com.finance.domain.Category;
+import com.finance.domain.Role;
+import com.finance.domain.Transaction;
+import com.finance.domain.User;
+import com.finance.dto.TransactionFilter;
+import com.finance.dto.TransactionRow;
+import com.finance.dto.TransactionSort;
+import com.finance.repository.CategoryRepository;
+import com.finance.repository.RoleRepository;
+import com.finance.repository.UserRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every combination of the transaction list filters must come back as one query whose H2 plan reaches the
+ * transactions through an index that leads with the user, never a table scan, and whose rows match the same filter
+ * applied in memory. Plans are read with {@code EXPLAIN} on the statement Hibernate actually sent.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.finance.service.TransactionFilterQueryPlanTest$RecordingInspector"
+})
+@Import({ TransactionService.class, TransactionRollupService.class, TransactionSearchService.class,
+        BudgetSpentService.class, BudgetIntervalIndex.class, UserDataVersionService.class })
+class TransactionFilterQueryPlanTest {
+
+    private static final int ROWS = 40;
+    private static final int PAGE_SIZE = 7;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 9, 0);
+    private static final String[] DESCRIPTIONS = { "Cà phê sáng", "Ăn trưa cơm tấm", "Đổ xăng xe máy", "Lương tháng" };
+    // The predicates are numbered by bit in the combination index
+    private static final int TYPE = 1;
+    private static final int CATEGORIES = 2;
+    private static final int DATES = 4;
+    private static final int AMOUNTS = 8;
+    private static final int KEYWORD = 16;
+
+    @Autowired
+    TransactionService transactionService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    CategoryRepository categoryRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    User user;
+    Category food;
+    Category transport;
+    List<Transaction> seeded;
+
+    @BeforeEach
+    void seed() {
+        Role role = roleRepository.save(new Role("USER"));
+        user = newUser("filterer", role);
+        User other = newUser("other", role);
+        food = categoryRepository.save(new Category("Food", Category.CategoryType.EXPENSE));
+        transport = categoryRepository.save(new Category("Transport", Category.CategoryType.EXPENSE));
+        Category shopping = categoryRepository.save(new Category("Shopping", Category.CategoryType.EXPENSE));
+        Category salary = categoryRepository.save(new Category("Salary", Category.CategoryType.INCOME));
+
+        Category[] expenseCategories = { food, transport, shopping };
+        seeded = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            boolean income = i % 4 == 3;
+            // Two rows per day, so the date order needs the id to break ties
+            seeded.add(transactionService.createTransaction(DESCRIPTIONS[i % DESCRIPTIONS.length] + " " + i,
+                    new BigDecimal(50 + (i * 37) % 600), income ? Transaction.TransactionType.INCOME
+                            : Transaction.TransactionType.EXPENSE, user,
+                    income ? salary : expenseCategories[i % expenseCategories.length], START.plusDays(i / 2), null));
+            if (i % 4 == 0) {
+                transactionService.createTransaction("Cà phê của người khác " + i, new BigDecimal("120"),
+                        Transaction.TransactionType.EXPENSE, other, food, START.plusDays(i / 2), null);
+            }
+        }
+    }
+
+    static IntStream combinations() {
+        return IntStream.range(0, 32);
+    }
+
+    @ParameterizedTest
+    @MethodSource("combinations")
+    void everyCombinationIsOneIndexedQuery(int combination) {
+        TransactionFilter filter = filterFor(combination);
+        List<Long> expected = seeded.stream()
+                .filter(matcherFor(combination))
+                .sorted(Comparator.comparing(Transaction::getTransactionDate)
+                        .thenComparing(Transaction::getId).reversed())
+                .map(Transaction::getId)
+                .toList();
+
+        RecordingInspector.STATEMENTS.clear();
+        Slice<TransactionRow> first = transactionService.filterTransactions(user, filter, TransactionSort.NEWEST, 0,
+                PAGE_SIZE);
+        assertThat(RecordingInspector.STATEMENTS).hasSize(1);
+        String plan = explain(RecordingInspector.STATEMENTS.get(0));
+
+        assertThat(plan).doesNotContainIgnoringCase("tableScan");
+        if ((combination & KEYWORD) != 0) {
+            // Either side may drive: the user's rows probing the token index, or the matching tokens by primary key
+            assertThat(plan).contains("PUBLIC.IDX_SEARCH_TOKEN_USER_TOKEN");
+            assertThat(transactionsAccess(plan)).matches("PUBLIC\\.(IDX_TRANSACTION_USER|PRIMARY_KEY).*");
+        } else {
+            assertThat(transactionsAccess(plan)).startsWith("PUBLIC.IDX_TRANSACTION_USER");
+        }
+
+        assertThat(readAll(filter, TransactionSort.NEWEST, first)).extracting(TransactionRow::id)
+                .containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void sortOrdersAreTotal() {
+        TransactionFilter expenses = new TransactionFilter(Transaction.TransactionType.EXPENSE, null, null, null,
+                null, null, null);
+        Predicate<Transaction> isExpense = t -> t.getType() == Transaction.TransactionType.EXPENSE;
+        Comparator<Transaction> byDate = Comparator.comparing(Transaction::getTransactionDate)
+                .thenComparing(Transaction::getId);
+        Comparator<Transaction> byAmount = Comparator.comparing(Transaction::getAmount)
+                .thenComparing(Transaction::getId);
+
+        assertOrder(expenses, TransactionSort.NEWEST, isExpense, byDate.reversed());
+        assertOrder(expenses, TransactionSort.OLDEST, isExpense, byDate);
+        assertOrder(expenses, TransactionSort.LARGEST, isExpense, byAmount.reversed());
+        assertOrder(expenses, TransactionSort.SMALLEST, isExpense, byAmount);
+    }
+
+    @Test
+    void unsearchableKeywordMatchesNothing() {
+        TransactionFilter punctuation = new TransactionFilter(null, null, null, null, null, null, "!!!");
+        assertThat(transactionService.filterTransactions(user, punctuation, TransactionSort.NEWEST, 0, PAGE_SIZE))
+                .isEmpty();
+    }
+
+    private void assertOrder(TransactionFilter filter, TransactionSort sort, Predicate<Transaction> matcher,
+                             Comparator<Transaction> order) {
+        List<Long> expected = seeded.stream().filter(matcher).sorted(order).map(Transaction::getId).toList();
+        Slice<TransactionRow> first = transactionService.filterTransactions(user, filter, sort, 0, PAGE_SIZE);
+        assertThat(readAll(filter, sort, first)).extracting(TransactionRow::id).containsExactlyElementsOf(expected);
+    }
+
+    private List<TransactionRow> readAll(TransactionFilter filter, TransactionSort sort, Slice<TransactionRow> first) {
+        List<TransactionRow> rows = new ArrayList<>(first.getContent());
+        Slice<TransactionRow> slice = first;
+        while (slice.hasNext()) {
+            slice = transactionService.filterTransactions(user, filter, sort, slice.getNumber() + 1, PAGE_SIZE);
+            rows.addAll(slice.getContent());
+        }
+        return rows;
+    }
+
+    private TransactionFilter filterFor(int combination) {
+        return new TransactionFilter(
+                (combination & TYPE) != 0 ? Transaction.TransactionType.EXPENSE : null,
+                (combination & CATEGORIES) != 0 ? List.of(food.getId(), transport.getId()) : null,
+                (combination & DATES) != 0 ? START.plusDays(5) : null,
+                (combination & DATES) != 0 ? START.plusDays(20) : null,
+                (combination & AMOUNTS) != 0 ? new BigDecimal("100") : null,
+                (combination & AMOUNTS) != 0 ? new BigDecimal("500") : null,
+                (combination & KEYWORD) != 0 ? "ca ph" : null);
+    }
+
+    private Predicate<Transaction> matcherFor(int combination) {
+        Predicate<Transaction> matcher = t -> true;
+        if ((combination & TYPE) != 0) {
+            matcher = matcher.and(t -> t.getType() == Transaction.TransactionType.EXPENSE);
+        }
+        if ((combination & CATEGORIES) != 0) {
+            matcher = matcher.and(t -> t.getCategory().getId().equals(food.getId())
+                    || t.getCategory().getId().equals(transport.getId()));
+        }
+        if ((combination & DATES) != 0) {
+            matcher = matcher.and(t -> !t.getTransactionDate().isBefore(START.plusDays(5))
+                    && !t.getTransactionDate().isAfter(START.plusDays(20)));
+        }
+        if ((combination & AMOUNTS) != 0) {
+            matcher = matcher.and(t -> t.getAmount().compareTo(new BigDecimal("100")) >= 0
+                    && t.getAmount().compareTo(new BigDecimal("500")) <= 0);
+        }
+        if ((combination & KEYWORD) != 0) {
+            matcher = matcher.and(t -> t.getDescription().startsWith("Cà phê"));
+        }
+        return matcher;
+    }
+
+    private String explain(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+    }
+
+    // H2 notes the index it reads a table through in a comment right after the table
+    private static String transactionsAccess(String plan) {
+        int table = plan.indexOf("\"PUBLIC\".\"TRANSACTIONS\"");
+        assertThat(table).isNotNegative();
+        int comment = plan.indexOf("/* ", table);
+        return plan.substring(comment + 3, plan.indexOf(':', comment));
+    }
+
+    private User newUser(String username, Role role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@finance.com");
+        user.setPassword("secret");
+        user.setUserRole(role);
+        return userRepository.save(user);
+    }
+
+    /** Keeps the SQL of the statements Hibernate prepares, in order. */
+    public static class RecordingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.finance.service;
+
+import com.finance.domain.Budget;
+import com.finance.domain.Category;
+import com.finance.domain.Role;
+import com.finance.domain.Transaction;
+import com.finance.domain.User;
+import com.finance.repository.BudgetRepository;
+import com.finance.repository.CategoryRepository;
+import com.finance.repository.RoleRepository;
+import com.finance.repository.TransactionRepository;
+import com.finance.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput of the CSV import on H2 against saving the same rows one by one through {@link TransactionService}.
+ * The CSV is generated while it is read, so the file itself never sits in memory.
+ * Run with {@code mvn test -Dtest=TransactionImportBenchmarkTest -Dbenchmark=true}; {@code -Dbenchmark.rows=N}
+ * changes the size of the import.
+ */
+// SQL logging off so the row-by-row baseline is not measuring the console
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import({ TransactionImportService.class, TransactionService.class, CategoryService.class, BudgetService.class,
+        BudgetIntervalIndex.class, BudgetSpentService.class, NotificationService.class, NotificationInboxCache.class,
+        NotificationStreamService.class, NotificationOutboxService.class, NotificationCoalescer.class,
+        SimpleMeterRegistry.class, TransactionRollupService.class, TransactionSearchService.class,
+        UserDataVersionService.class })
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransactionImportBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+    private static final int BASELINE_ROWS = 10_000;
+    // Every n-th generated row has an unparseable amount
+    private static final int BAD_ROW_EVERY = 100_000;
+    private static final LocalDateTime START = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    @Autowired
+    TransactionImportService transactionImportService;
+
+    @Autowired
+    TransactionService transactionService;
+
+    @Autowired
+    TransactionRollupService transactionRollupService;
+
+    @Autowired
+    BudgetSpentService budgetSpentService;
+
+    @Autowired
+    TransactionRepository transactionRepository;
+
+    @Autowired
+    BudgetRepository budgetRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    CategoryRepository categoryRepository;
+
+    @Test
+    void importThroughput() {
+        Role role = roleRepository.save(new Role("USER"));
+        User importer = newUser("importer", role);
+        User baseline = newUser("baseline", role);
+        Category food = categoryRepository.save(new Category("Food", Category.CategoryType.EXPENSE));
+        categoryRepository.save(new Category("Salary", Category.CategoryType.INCOME));
+        Budget foodBudget = new Budget("Food 2020", new BigDecimal("1000000000.00"),
+                LocalDate.of(2020, 1, 1), LocalDate.of(2020, 12, 31), importer);
+        foodBudget.setCategory(food);
+        budgetRepository.save(foodBudget);
+
+        long baselineStart = System.nanoTime();
+        for (int i = 0; i < BASELINE_ROWS; i++) {
+            transactionService.createTransaction("Row " + i, new BigDecimal("10.25"),
+                    Transaction.TransactionType.EXPENSE, baseline, food, START.plusMinutes(i), null);
+        }
+        double baselineRate = BASELINE_ROWS / ((System.nanoTime() - baselineStart) / 1e9);
+
+        TransactionImportService.ImportReport report = transactionImportService.importCsv(importer,
+                new GeneratedCsv(ROWS), null);
+        double importRate = report.imported() / (report.elapsedMillis() / 1e3);
+
+        int badRows = (ROWS + BAD_ROW_EVERY - 1) / BAD_ROW_EVERY;
+        System.out.printf("Import of %d CSV rows: %d imported, %d rejected in %d ms%n",
+                ROWS, report.imported(), report.failed(), report.elapsedMillis());
+        System.out.printf("  bulk import:      %,.0f rows/s%n", importRate);
+        System.out.printf("  one by one (%dk): %,.0f rows/s%n", BASELINE_ROWS / 1_000, baselineRate);
+
+        assertThat(report.failed()).isEqualTo(badRows);
+        assertThat(report.errors()).allSatisfy(error -> assertThat(error.message()).contains("Số tiền"));
+        assertThat(report.imported()).isEqualTo(ROWS - badRows);
+        assertThat(transactionRepository.count()).isEqualTo(BASELINE_ROWS + ROWS - badRows);
+
+        // The chunked rollup and budget updates must agree with the raw rows
+        LocalDateTime end = START.plusMinutes(ROWS);
+        for (Transaction.TransactionType type : Transaction.TransactionType.values()) {
+            assertThat(transactionRollupService.sumAmount(importer, type, START, end))
+                    .isEqualByComparingTo(transactionRepository.sumAmountByUserAndTypeAndDateRange(
+                            importer, type, START, end));
+        }
+        assertThat(budgetSpentService.reconcile(false).budgetsDrifted()).isZero();
+        assertThat(budgetRepository.findSpentById(foodBudget.getId())).isPositive();
+    }
+
+    private User newUser(String username, Role role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@finance.com");
+        user.setPassword("secret");
+        user.setUserRole(role);
+        return userRepository.save(user);
+    }
+
+    /**
+     * Produces the CSV on demand: a quoted description with an embedded comma, one transaction per minute, three
+     * expenses to every income, no type column.
+     */
+    private static final class GeneratedCsv extends Reader {
+
+        private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+        private final int rows;
+        private final StringBuilder pending = new StringBuilder("date,description,amount,category,notes\n");
+        private int position;
+        private int next;
+
+        GeneratedCsv(int rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            pending.delete(0, position);
+            while (pending.length() < length && next < rows) {
+                appendRow(next++);
+            }
+            position = Math.min(length, pending.length());
+            if (position == 0) {
+                return -1;
+            }
+            pending.getChars(0, position, buffer, offset);
+            return position;
+        }
+
+        private void appendRow(int i) {
+            String amount = i % BAD_ROW_EVERY == 0 ? "n/a" : (i % 500 + 1) + ".25";
+            pending.append(DATE_FORMAT.format(START.plusMinutes(i))).append(',')
+                    .append("\"Row ").append(i).append(", imported\",")
+                    .append(amount).append(',')
+                    .append(i % 4 == 0 ? "Salary" : "Food").append(',')
+                    .append('\n');
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.finance.service;
+
+import com.finance.domain.Category;
+import com.finance.domain.Role;
+import com.finance.domain.Transaction;
+import com.finance.domain.User;
+import com.finance.repository.CategoryRepository;
+import com.finance.repository.RoleRepository;
+import com.finance.repository.TransactionRepository;
+import com.finance.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Parsing and per-row error reporting of the CSV import, with a chunk size small enough that the rows span several
+ * chunks.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "finance.transactions.import.chunk-size=2",
+        "finance.transactions.import.max-errors=3"
+})
+@Import({ TransactionImportService.class, TransactionService.class, CategoryService.class, BudgetService.class,
+        BudgetIntervalIndex.class, BudgetSpentService.class, NotificationService.class, NotificationInboxCache.class,
+        NotificationStreamService.class, NotificationOutboxService.class, NotificationCoalescer.class,
+        SimpleMeterRegistry.class, TransactionRollupService.class, TransactionSearchService.class,
+        UserDataVersionService.class })
+class TransactionImportServiceTest {
+
+    @Autowired
+    TransactionImportService transactionImportService;
+
+    @Autowired
+    TransactionRepository transactionRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    CategoryRepository categoryRepository;
+
+    User user;
+
+    Category food;
+
+    @BeforeEach
+    void setUp() {
+        Role role = roleRepository.save(new Role("USER"));
+        user = new User();
+        user.setUsername("importer");
+        user.setEmail("importer@finance.com");
+        user.setPassword("secret");
+        user.setUserRole(role);
+        user = userRepository.save(user);
+        food = categoryRepository.save(new Category("Food", Category.CategoryType.EXPENSE));
+        categoryRepository.save(new Category("Salary", Category.CategoryType.INCOME));
+    }
+
+    @Test
+    void importsValidRowsAndReportsEachBadRowByLine() {
+        String csv = """
+                Date,Description,Amount,Category,Notes
+                2024-01-05,"Lunch, with friends",-45000,Food,
+                05/01/2024 19:30,Salary,"15,000,000.50",salary,January
+                2024-01-06,Missing amount,,Food,
+                not a date,Bad date,100,Food,
+                2024-01-07,Unknown category,100,Travel,
+                ,,,,
+                2024-01-08,Zero,0,Food,
+                2024-01-09,"Multi
+                line",12.5,Food,"quoted ""note\"""
+                """;
+
+        TransactionImportService.ImportReport report = transactionImportService.importCsv(user,
+                new StringReader(csv), null);
+
+        assertThat(report.imported()).isEqualTo(3);
+        assertThat(report.failed()).isEqualTo(5);
+        // Only max-errors messages are kept
+        assertThat(report.truncated()).isTrue();
+        assertThat(report.errors()).extracting(TransactionImportService.RowError::line).containsExactly(4L, 5L, 6L);
+        assertThat(report.errors()).extracting(TransactionImportService.RowError::message).containsExactly(
+                "Số tiền không hợp lệ: ", "Ngày không hợp lệ: not a date", "Không tìm thấy danh mục: Travel");
+
+        List<Transaction> imported = transactionRepository.findAll().stream()
+                .sorted(Comparator.comparing(Transaction::getTransactionDate))
+                .toList();
+        assertThat(imported).extracting(Transaction::getDescription)
+                .containsExactly("Lunch, with friends", "Salary", "Multi\nline");
+        assertThat(imported.get(0).getAmount()).isEqualByComparingTo("45000");
+        assertThat(imported.get(0).getType()).isEqualTo(Transaction.TransactionType.EXPENSE);
+        assertThat(imported.get(1).getAmount()).isEqualByComparingTo("15000000.50");
+        assertThat(imported.get(1).getType()).isEqualTo(Transaction.TransactionType.INCOME);
+        assertThat(imported.get(1).getTransactionDate()).isEqualTo(LocalDateTime.of(2024, 1, 5, 19, 30));
+        assertThat(imported.get(2).getNotes()).isEqualTo("quoted \"note\"");
+    }
+
+    @Test
+    void dotGroupedAmountsAreRejectedUnlessThatFormatIsChosen() {
+        String csv = """
+                date,description,amount,category
+                2024-02-01,Coffee,50.000,Food
+                2024-02-02,Groceries,1.500,Food
+                2024-02-03,Dinner,"1.250.000,5",Food
+                2024-02-04,Snack,"1,5",Food
+                """;
+
+        TransactionImportService.ImportReport asDotDecimal = transactionImportService.importCsv(user,
+                new StringReader(csv), null, TransactionImportService.AmountFormat.DOT_DECIMAL);
+        assertThat(asDotDecimal.imported()).isZero();
+        assertThat(asDotDecimal.errors()).extracting(TransactionImportService.RowError::message)
+                .allSatisfy(message -> assertThat(message).startsWith("Số tiền"));
+
+        TransactionImportService.ImportReport asCommaDecimal = transactionImportService.importCsv(user,
+                new StringReader(csv), null, TransactionImportService.AmountFormat.COMMA_DECIMAL);
+        assertThat(asCommaDecimal.imported()).isEqualTo(4);
+        assertThat(transactionRepository.findAll().stream()
+                .sorted(Comparator.comparing(Transaction::getTransactionDate))
+                .map(Transaction::getAmount))
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("50000"), new BigDecimal("1500"), new BigDecimal("1250000.5"),
+                        new BigDecimal("1.5"));
+    }
+
+    @Test
+    void groupingMustBeByThousands() {
+        String csv = """
+                date,description,amount,category
+                2024-03-01,Ok,"1,234.56",Food
+                2024-03-02,Bad group,"12,34",Food
+                2024-03-03,Too precise,10.125,Food
+                """;
+
+        TransactionImportService.ImportReport report = transactionImportService.importCsv(user,
+                new StringReader(csv), food.getId());
+
+        assertThat(report.imported()).isEqualTo(1);
+        assertThat(report.errors()).extracting(TransactionImportService.RowError::line).containsExactly(3L, 4L);
+    }
+
+    @Test
+    void unterminatedQuoteStopsTheImportAfterEarlierRows() {
+        String csv = "date,description,amount,category\n2024-04-01,Fine,10,Food\n2024-04-02,\"Broken,10,Food\n";
+
+        TransactionImportService.ImportReport report = transactionImportService.importCsv(user,
+                new StringReader(csv), null);
+
+        assertThat(report.imported()).isEqualTo(1);
+        assertThat(report.errors()).singleElement()
+                .satisfies(error -> assertThat(error.message()).startsWith("Không đọc được tệp"));
+    }
+
+    @Test
+    void missingRequiredColumnRejectsTheFile() {
+        assertThatThrownBy(() -> transactionImportService.importCsv(user,
+                new StringReader("date,description\n2024-01-01,Lunch\n"), null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Thiếu cột bắt buộc: amount");
+    }
+}
@@ -0,0 +1,136 @@
+package com.finance.service;
+
+import com.finance.domain.Category;
+import com.finance.domain.Role;
+import com.finance.domain.Transaction;
+import com.finance.domain.User;
+import com.finance.dto.TransactionRow;
+import com.finance.repository.CategoryRepository;
+import com.finance.repository.RoleRepository;
+import com.finance.repository.TransactionRepository;
+import com.finance.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares deep-page latency of OFFSET pagination against keyset pagination on H2.
+ * Run with {@code mvn test -Dtest=TransactionPaginationBenchmarkTest -Dbenchmark=true}.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({ TransactionService.class, TransactionRollupService.class, TransactionSearchService.class,
+        BudgetSpentService.class, BudgetIntervalIndex.class, UserDataVersionService.class })
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TransactionPaginationBenchmarkTest {
+
+    private static final int ROWS = 50_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int DEEP_PAGE = 2_000;
+    private static final int ITERATIONS = 30;
+    private static final Sort BY_ID_DESC = Sort.by(Sort.Direction.DESC, "id");
+
+    @Autowired
+    TransactionService transactionService;
+
+    @Autowired
+    TransactionRepository transactionRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    CategoryRepository categoryRepository;
+
+    @Test
+    void deepPageLatency() {
+        User user = seed();
+
+        // Position of the row just before the deep page, as a client would have reached it by paging
+        Transaction boundary = transactionRepository
+                .findByUserOrderByTransactionDateDesc(user, PageRequest.of(DEEP_PAGE * PAGE_SIZE - 1, 1, BY_ID_DESC))
+                .getContent().get(0);
+        String cursor = new TransactionService.TransactionCursor(
+                boundary.getTransactionDate(), boundary.getId(), false).encode();
+
+        // The offset query has no tie-breaker of its own, so add the id to get a comparable ordering
+        List<Long> offsetIds = transactionService
+                .findPaginatedByUser(user, PageRequest.of(DEEP_PAGE, PAGE_SIZE, BY_ID_DESC)).getContent()
+                .stream().map(Transaction::getId).toList();
+        List<Long> keysetIds = transactionService.findSliceByUser(user, cursor, PAGE_SIZE).getContent()
+                .stream().map(TransactionRow::id).toList();
+        assertThat(keysetIds).isEqualTo(offsetIds);
+
+        long[] offsetNanos = measure(() -> transactionService.findPaginatedByUser(user,
+                PageRequest.of(DEEP_PAGE, PAGE_SIZE)));
+        long[] keysetNanos = measure(() -> transactionService.findSliceByUser(user, cursor, PAGE_SIZE));
+
+        System.out.printf("Deep page %d x %d over %d rows%n", DEEP_PAGE, PAGE_SIZE, ROWS);
+        System.out.printf("  offset + count: p50 %.2f ms, p99 %.2f ms%n", percentile(offsetNanos, 50),
+                percentile(offsetNanos, 99));
+        System.out.printf("  keyset:         p50 %.2f ms, p99 %.2f ms%n", percentile(keysetNanos, 50),
+                percentile(keysetNanos, 99));
+    }
+
+    private User seed() {
+        Role role = roleRepository.save(new Role("USER"));
+        User user = new User();
+        user.setUsername("benchmark");
+        user.setEmail("benchmark@finance.com");
+        user.setPassword("secret");
+        user.setUserRole(role);
+        userRepository.save(user);
+        Category category = categoryRepository.save(new Category("Food", Category.CategoryType.EXPENSE));
+
+        LocalDateTime start = LocalDateTime.of(2015, 1, 1, 8, 0);
+        List<Transaction> batch = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            Transaction transaction = new Transaction("Row " + i, new BigDecimal("10.00"),
+                    Transaction.TransactionType.EXPENSE, user, category);
+            // Two rows per timestamp so the id tie-breaker is exercised
+            transaction.setTransactionDate(start.plusMinutes(i / 2 * 90L));
+            batch.add(transaction);
+            if (batch.size() == 1_000) {
+                transactionRepository.saveAll(batch);
+                transactionRepository.flush();
+                batch.clear();
+            }
+        }
+        transactionRepository.saveAll(batch);
+        transactionRepository.flush();
+        return user;
+    }
+
+    private static long[] measure(Runnable action) {
+        for (int i = 0; i < 5; i++) {
+            action.run();
+        }
+        long[] samples = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long started = System.nanoTime();
+            action.run();
+            samples[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    private static double percentile(long[] sortedNanos, int percentile) {
+        int index = Math.min(sortedNanos.length - 1, (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1);
+        return sortedNanos[index] / 1_000_000.0;
+    }
+}
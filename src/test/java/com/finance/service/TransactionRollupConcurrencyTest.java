@@ -0,0 +1,134 @@
+package com.finance.service;
+
+import com.finance.domain.Category;
+import com.finance.domain.Role;
+import com.finance.domain.Transaction;
+import com.finance.domain.User;
+import com.finance.repository.CategoryRepository;
+import com.finance.repository.RoleRepository;
+import com.finance.repository.TransactionMonthlySummaryRepository;
+import com.finance.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two first writes to the same rollup bucket from concurrent transactions: both miss the update, one insert wins
+ * and the other must fold its delta into the winner's row instead of failing on the unique key.
+ */
+@DataJpaTest(showSql = false,
+        properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(TransactionRollupService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransactionRollupConcurrencyTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2024, 3, 15, 12, 0);
+
+    @Autowired
+    TransactionRollupService transactionRollupService;
+
+    @Autowired
+    TransactionMonthlySummaryRepository summaryRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    CategoryRepository categoryRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanUp() {
+        summaryRepository.deleteAllInBatch();
+        categoryRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+        roleRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void concurrentFirstWritesToOneBucketBothCount() throws Exception {
+        Role role = roleRepository.save(new Role("USER"));
+        User user = new User();
+        user.setUsername("racer");
+        user.setEmail("racer@finance.com");
+        user.setPassword("secret");
+        user.setUserRole(role);
+        User savedUser = userRepository.save(user);
+        Category food = categoryRepository.save(new Category("Food", Category.CategoryType.EXPENSE));
+
+        TransactionTemplate transactions = new TransactionTemplate(transactionManager);
+        CountDownLatch firstInserted = new CountDownLatch(1);
+        CountDownLatch secondStarted = new CountDownLatch(1);
+
+        // The first writer creates the bucket but holds its transaction open until the second one is racing it
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> transactions.executeWithoutResult(status -> {
+            transactionRollupService.recordCreated(expense(savedUser, food, "10.00"));
+            firstInserted.countDown();
+            await(secondStarted);
+            sleep();
+        }));
+        await(firstInserted);
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> transactions.executeWithoutResult(status -> {
+            secondStarted.countDown();
+            transactionRollupService.recordCreated(expense(savedUser, food, "5.00"));
+        }));
+
+        first.get(30, TimeUnit.SECONDS);
+        second.get(30, TimeUnit.SECONDS);
+
+        assertThat(summaryRepository.count()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT total_amount FROM transaction_monthly_summaries",
+                BigDecimal.class)).isEqualByComparingTo("15.00");
+        assertThat(jdbcTemplate.queryForObject("SELECT transaction_count FROM transaction_monthly_summaries",
+                Long.class)).isEqualTo(2);
+    }
+
+    private static Transaction expense(User user, Category category, String amount) {
+        Transaction transaction = new Transaction("Lunch", new BigDecimal(amount), Transaction.TransactionType.EXPENSE,
+                user, category);
+        transaction.setTransactionDate(DATE);
+        return transaction;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Long enough for the second writer's update to miss and its insert to block on the uncommitted row
+    private static void sleep() {
+        try {
+            Thread.sleep(500);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
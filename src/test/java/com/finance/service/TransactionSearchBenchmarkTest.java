@@ -0,0 +1,193 @@
+package com.finance.service;
+
+import com.finance.domain.Category;
+import com.finance.domain.Role;
+import com.finance.domain.Transaction;
+import com.finance.domain.User;
+import com.finance.dto.TransactionRow;
+import com.finance.repository.CategoryRepository;
+import com.finance.repository.RoleRepository;
+import com.finance.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that a full rebuild of the search index over a large history reproduces the incrementally maintained one,
+ * and compares its latency with the former {@code LIKE '%keyword%'} query on H2. Matching, ranking and isolation
+ * are covered by {@link TransactionSearchServiceTest}. Run with
+ * {@code mvn test -Dtest=TransactionSearchBenchmarkTest -Dbenchmark=true}.
+ */
+@DataJpaTest(showSql = false,
+        properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({ TransactionService.class, TransactionRollupService.class, TransactionSearchService.class,
+        BudgetSpentService.class, BudgetIntervalIndex.class, UserDataVersionService.class })
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransactionSearchBenchmarkTest {
+
+    private static final int ROWS = 100_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int ITERATIONS = 200;
+    private static final String[] DESCRIPTIONS = {
+            "Ăn sáng phở bò", "Cà phê sữa đá", "Đổ xăng xe máy", "Tiền điện tháng", "Mua sắm siêu thị",
+            "Lương tháng", "Tiền nhà", "Ăn trưa cơm tấm", "Vé xem phim", "Quà sinh nhật"
+    };
+    private static final String INSERT_TRANSACTION = "INSERT INTO transactions " +
+            "(description, amount, type, transaction_date, created_at, notes, user_id, category_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String[] NOTES = { null, "Thanh toán bằng thẻ", "Chia tiền với bạn", "Đi cùng đồng nghiệp" };
+
+    @Autowired
+    TransactionService transactionService;
+
+    @Autowired
+    TransactionSearchService transactionSearchService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    CategoryRepository categoryRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    void searchMatchesRanksAndBeatsLikeScan() {
+        Role role = roleRepository.save(new Role("USER"));
+        User user = newUser("searcher", role);
+        User other = newUser("other", role);
+        Category food = categoryRepository.save(new Category("Food", Category.CategoryType.EXPENSE));
+        seed(user, food);
+        transactionSearchService.rebuildForUser(user.getId());
+
+        // One more hit written through the service, so the full rebuild below must also reproduce incremental writes
+        transactionService.createTransaction("Bữa phụ", new BigDecimal("30000"), Transaction.TransactionType.EXPENSE,
+                user, food, LocalDateTime.now(), "ăn sáng muộn");
+        transactionService.createTransaction("Ăn sáng của người khác", new BigDecimal("40000"),
+                Transaction.TransactionType.EXPENSE, other, food, LocalDateTime.now(), null);
+
+        List<TransactionRow> all = searchAll(user, "an sang");
+        assertThat(all).hasSize(ROWS / DESCRIPTIONS.length + 1);
+
+        Slice<TransactionRow> first = transactionService.searchTransactions(user, "ca phe", PageRequest.of(0,
+                PAGE_SIZE));
+        assertThat(first.getContent()).hasSize(PAGE_SIZE);
+        assertThat(first.hasNext()).isTrue();
+
+        // A full rebuild reproduces what the incremental updates built
+        transactionSearchService.rebuildAll();
+        assertThat(searchAll(user, "an sang")).extracting(TransactionRow::id)
+                .containsExactlyInAnyOrderElementsOf(all.stream().map(TransactionRow::id).toList());
+
+        System.out.printf("Keyword search over %d transactions, page of %d%n", ROWS, PAGE_SIZE);
+        // "ca phe" matches a tenth of the rows, "12345" a single one
+        for (String keyword : new String[] { "ca phe", "12345" }) {
+            String pattern = "%" + (keyword.equals("ca phe") ? "cà phê" : keyword) + "%";
+            long[] likeNanos = measure(() -> likeScan(user, pattern));
+            long[] indexNanos = measure(() -> transactionService.searchTransactions(user, keyword,
+                    PageRequest.of(0, PAGE_SIZE)));
+            System.out.printf("  \"%s\" LIKE scan:   p50 %.2f ms, p99 %.2f ms%n", keyword, percentile(likeNanos, 50),
+                    percentile(likeNanos, 99));
+            System.out.printf("  \"%s\" token index: p50 %.2f ms, p99 %.2f ms%n", keyword, percentile(indexNanos, 50),
+                    percentile(indexNanos, 99));
+        }
+    }
+
+    // The former repository query, newest first as the list showed it
+    private void likeScan(User user, String pattern) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> entityManager.createQuery(
+                        "SELECT t FROM Transaction t WHERE t.user = :user AND " +
+                        "(LOWER(t.description) LIKE :keyword OR LOWER(t.notes) LIKE :keyword) " +
+                        "ORDER BY t.transactionDate DESC", Transaction.class)
+                .setParameter("user", user)
+                .setParameter("keyword", pattern)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList());
+    }
+
+    // Straight through JDBC: the index is built afterwards by a rebuild, as for data that predates it
+    private void seed(User user, Category food) {
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 8, 0);
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            batch.add(new Object[] { DESCRIPTIONS[i % DESCRIPTIONS.length] + " " + i, new BigDecimal("25000"),
+                    Transaction.TransactionType.EXPENSE.name(), start.plusMinutes(i), start, NOTES[i % NOTES.length],
+                    user.getId(), food.getId() });
+            if (batch.size() == 1_000) {
+                jdbcTemplate.batchUpdate(INSERT_TRANSACTION, batch);
+                batch.clear();
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION, batch);
+    }
+
+    private List<TransactionRow> searchAll(User user, String keyword) {
+        List<TransactionRow> rows = new ArrayList<>();
+        Slice<TransactionRow> slice = transactionService.searchTransactions(user, keyword, PageRequest.of(0, 100));
+        rows.addAll(slice.getContent());
+        while (slice.hasNext()) {
+            slice = transactionService.searchTransactions(user, keyword, slice.nextPageable());
+            rows.addAll(slice.getContent());
+        }
+        return rows;
+    }
+
+    private User newUser(String username, Role role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@finance.com");
+        user.setPassword("secret");
+        user.setUserRole(role);
+        return userRepository.save(user);
+    }
+
+    private static long[] measure(Runnable action) {
+        for (int i = 0; i < 20; i++) {
+            action.run();
+        }
+        long[] samples = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long started = System.nanoTime();
+            action.run();
+            samples[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    private static double percentile(long[] sortedNanos, int percentile) {
+        int index = Math.min(sortedNanos.length - 1, (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1);
+        return sortedNanos[index] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,181 @@
+package com.finance.service;
+
+import com.finance.domain.Category;
+import com.finance.domain.Role;
+import com.finance.domain.Transaction;
+import com.finance.domain.User;
+import com.finance.dto.TransactionRow;
+import com.finance.repository.CategoryRepository;
+import com.finance.repository.RoleRepository;
+import com.finance.repository.TransactionSearchTokenRepository;
+import com.finance.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Matching, ranking and paging of the keyword search, with the index maintained by the transaction writes.
+ */
+@DataJpaTest(showSql = false,
+        properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({ TransactionService.class, TransactionRollupService.class, TransactionSearchService.class,
+        BudgetSpentService.class, BudgetIntervalIndex.class, UserDataVersionService.class, CategoryService.class })
+class TransactionSearchServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @Autowired
+    TransactionService transactionService;
+
+    @Autowired
+    CategoryService categoryService;
+
+    @Autowired
+    TransactionSearchTokenRepository tokenRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    CategoryRepository categoryRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    Role role;
+    User user;
+    Category food;
+
+    @BeforeEach
+    void setUp() {
+        role = roleRepository.save(new Role("USER"));
+        user = newUser("searcher");
+        food = categoryRepository.save(new Category("Food", Category.CategoryType.EXPENSE));
+    }
+
+    @Test
+    void foldsCaseAndAccentsAndMatchesTheLastTermAsPrefix() {
+        Transaction breakfast = create(user, food, "Ăn sáng phở bò", null);
+        Transaction coffee = create(user, food, "Cà phê sữa đá", null);
+        create(user, food, "Đổ xăng", null);
+
+        assertThat(ids("an sang")).containsExactly(breakfast.getId());
+        assertThat(ids("ĂN SÁNG")).containsExactly(breakfast.getId());
+        assertThat(ids("pho")).containsExactly(breakfast.getId());
+        assertThat(ids("ca ph")).containsExactly(coffee.getId());
+        assertThat(ids("do xang")).hasSize(1);
+        // Every term must match, and only the last one as a prefix
+        assertThat(ids("ca sang")).isEmpty();
+        assertThat(ids("ph sua")).isEmpty();
+        assertThat(ids("!!!")).isEmpty();
+    }
+
+    @Test
+    void descriptionHitsOutrankNotesHits() {
+        Transaction inNotes = create(user, food, "Bữa phụ", "ăn sáng muộn");
+        Transaction inDescription = create(user, food, "Ăn sáng", null);
+        Transaction inBoth = create(user, food, "Ăn sáng bánh mì", "ăn sáng ở quán");
+
+        assertThat(ids("an sang")).containsExactly(inBoth.getId(), inDescription.getId(), inNotes.getId());
+    }
+
+    @Test
+    void otherUsersTransactionsAreNeverFound() {
+        User other = newUser("other");
+        Transaction mine = create(user, food, "Cà phê", null);
+        Transaction theirs = create(other, food, "Cà phê", null);
+
+        assertThat(ids("ca phe")).containsExactly(mine.getId());
+        assertThat(transactionService.searchTransactions(other, "ca phe", PageRequest.of(0, 10)))
+                .extracting(TransactionRow::id).containsExactly(theirs.getId());
+    }
+
+    @Test
+    void followsUpdatesAndDeletes() {
+        Transaction renamed = create(user, food, "Tạp hoá", null);
+        Transaction removed = create(user, food, "Bánh mì", null);
+
+        Transaction details = new Transaction("Cà phê tạp hoá", renamed.getAmount(), renamed.getType(), user, food);
+        details.setTransactionDate(renamed.getTransactionDate());
+        transactionService.updateTransaction(renamed.getId(), details);
+        transactionService.deleteById(removed.getId());
+
+        assertThat(ids("ca phe")).containsExactly(renamed.getId());
+        assertThat(ids("tap hoa")).containsExactly(renamed.getId());
+        assertThat(ids("banh mi")).isEmpty();
+    }
+
+    @Test
+    void pagesAreFullAndReportWhetherMoreFollow() {
+        for (int i = 0; i < 25; i++) {
+            create(user, food, "Cà phê " + i, null);
+        }
+
+        List<Long> seen = new ArrayList<>();
+        Slice<TransactionRow> slice = transactionService.searchTransactions(user, "ca phe", PageRequest.of(0, 10));
+        seen.addAll(slice.map(TransactionRow::id).getContent());
+        while (slice.hasNext()) {
+            assertThat(slice.getContent()).hasSize(10);
+            slice = transactionService.searchTransactions(user, "ca phe", slice.nextPageable());
+            seen.addAll(slice.map(TransactionRow::id).getContent());
+        }
+        assertThat(slice.getContent()).hasSize(5);
+        assertThat(seen).hasSize(25).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void deletingACategoryDropsTheTokensOfItsTransactions() {
+        Category drinks = categoryRepository.save(new Category("Drinks", Category.CategoryType.EXPENSE));
+        for (int i = 0; i < 3; i++) {
+            create(user, drinks, "Cà phê " + i, null);
+        }
+        Transaction kept = create(user, food, "Cà phê sáng", null);
+        long tokensBefore = tokenRepository.count();
+
+        // As in a request of its own, the category's transactions are loaded fresh for the cascade
+        entityManager.flush();
+        entityManager.clear();
+        categoryService.deleteById(drinks.getId());
+        entityManager.flush();
+
+        assertThat(tokenRepository.count()).isLessThan(tokensBefore);
+        Slice<TransactionRow> page = transactionService.searchTransactions(user, "ca phe", PageRequest.of(0, 1));
+        assertThat(page.getContent()).extracting(TransactionRow::id).containsExactly(kept.getId());
+        assertThat(page.hasNext()).isFalse();
+    }
+
+    private List<Long> ids(String keyword) {
+        return transactionService.searchTransactions(user, keyword, PageRequest.of(0, 50)).getContent().stream()
+                .map(TransactionRow::id)
+                .toList();
+    }
+
+    private Transaction create(User owner, Category category, String description, String notes) {
+        return transactionService.createTransaction(description, new BigDecimal("25000"),
+                Transaction.TransactionType.EXPENSE, owner, category, NOW, notes);
+    }
+
+    private User newUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@finance.com");
+        user.setPassword("secret");
+        user.setUserRole(role);
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,123 @@
+package com.finance.service;
+
+import com.finance.domain.Category;
+import com.finance.domain.Role;
+import com.finance.domain.Transaction;
+import com.finance.domain.User;
+import com.finance.repository.CategoryRepository;
+import com.finance.repository.RoleRepository;
+import com.finance.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({ TransactionService.class, TransactionRollupService.class, TransactionSearchService.class,
+        BudgetSpentService.class, BudgetIntervalIndex.class, UserDataVersionService.class })
+class TransactionStatisticsQueryCountTest {
+
+    @Autowired
+    TransactionService transactionService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    CategoryRepository categoryRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    User user;
+
+    @BeforeEach
+    void setUp() {
+        Role role = roleRepository.save(new Role("USER"));
+        user = new User();
+        user.setUsername("statistics");
+        user.setEmail("statistics@finance.com");
+        user.setPassword("secret");
+        user.setUserRole(role);
+        userRepository.save(user);
+
+        Category salary = categoryRepository.save(new Category("Salary", Category.CategoryType.INCOME));
+        Category food = categoryRepository.save(new Category("Food", Category.CategoryType.EXPENSE));
+        Category rent = categoryRepository.save(new Category("Rent", Category.CategoryType.EXPENSE));
+
+        for (int month = 1; month <= 6; month++) {
+            LocalDateTime date = LocalDate.of(2024, month, 10).atTime(9, 0);
+            transactionService.createTransaction("Salary", new BigDecimal("1000.00"),
+                    Transaction.TransactionType.INCOME, user, salary, date, null);
+            transactionService.createTransaction("Lunch", new BigDecimal("20.00"),
+                    Transaction.TransactionType.EXPENSE, user, food, date, null);
+            transactionService.createTransaction("Rent", new BigDecimal("300.00"),
+                    Transaction.TransactionType.EXPENSE, user, rent, date, null);
+        }
+    }
+
+    @Test
+    void allTimeStatisticsUseOneQuery() {
+        Statistics statistics = resetStatistics();
+
+        TransactionService.TransactionStatistics stats = transactionService.getTransactionStatistics(user);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(stats.getTotalIncome()).isEqualByComparingTo("6000.00");
+        assertThat(stats.getTotalExpenses()).isEqualByComparingTo("1920.00");
+        assertThat(stats.getBalance()).isEqualByComparingTo("4080.00");
+        assertThat(stats.getIncomeCount()).isEqualTo(6);
+        assertThat(stats.getExpenseCount()).isEqualTo(12);
+    }
+
+    @Test
+    void wholeMonthRangeStatisticsAndBreakdownUseOneQuery() {
+        Statistics statistics = resetStatistics();
+
+        TransactionService.TransactionStatistics stats = transactionService.getTransactionStatisticsForDateRange(user,
+                LocalDate.of(2024, 2, 1).atStartOfDay(), LocalDate.of(2024, 4, 30).atTime(23, 59, 59));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(stats.getTotalIncome()).isEqualByComparingTo("3000.00");
+        assertThat(stats.getTotalExpenses()).isEqualByComparingTo("960.00");
+        assertThat(stats.getTotalCount()).isEqualTo(9);
+        assertThat(stats.getExpenseCategorySummary())
+                .extracting(row -> row[0])
+                .containsExactly("Rent", "Food");
+    }
+
+    @Test
+    void partialMonthRangeMatchesRawTotals() {
+        LocalDateTime start = LocalDate.of(2024, 1, 15).atStartOfDay();
+        LocalDateTime end = LocalDate.of(2024, 5, 5).atTime(23, 59, 59);
+
+        TransactionService.TransactionStatistics stats = transactionService.getTransactionStatisticsForDateRange(user,
+                start, end);
+
+        // January and May fall outside the range (their transactions are on the 10th)
+        assertThat(stats.getTotalIncome()).isEqualByComparingTo("3000.00");
+        assertThat(stats.getExpenseCount()).isEqualTo(6);
+    }
+
+    private Statistics resetStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
@@ -0,0 +1,90 @@
+package com.finance.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvReaderTest {
+
+    @Test
+    void readsPlainRecordsWithAnyLineEnding() throws IOException {
+        assertThat(readAll("a,b,c\r\n1,2,3\n4,,6\r7,8,9")).containsExactly(
+                List.of("a", "b", "c"), List.of("1", "2", "3"), List.of("4", "", "6"), List.of("7", "8", "9"));
+    }
+
+    @Test
+    void quotedFieldsKeepDelimitersQuotesAndLineBreaks() throws IOException {
+        try (CsvReader csv = reader("date,description\n2024-01-01,\"Lunch, with \"\"Nam\"\"\"\n"
+                + "2024-01-02,\"two\r\nlines\"\n2024-01-03,after\n")) {
+            assertThat(csv.next()).containsExactly("date", "description");
+            assertThat(csv.getLineNumber()).isEqualTo(1);
+
+            assertThat(csv.next()).containsExactly("2024-01-01", "Lunch, with \"Nam\"");
+            assertThat(csv.getLineNumber()).isEqualTo(2);
+
+            assertThat(csv.next()).containsExactly("2024-01-02", "two\r\nlines");
+            assertThat(csv.getLineNumber()).isEqualTo(3);
+
+            // The embedded line break still counts, so errors point at the right line
+            assertThat(csv.next()).containsExactly("2024-01-03", "after");
+            assertThat(csv.getLineNumber()).isEqualTo(5);
+
+            assertThat(csv.next()).isNull();
+        }
+    }
+
+    @Test
+    void skipsLeadingByteOrderMarkOnly() throws IOException {
+        assertThat(readAll("\uFEFFdate,amount\n\uFEFFx,1\n")).containsExactly(
+                List.of("date", "amount"), List.of("\uFEFFx", "1"));
+    }
+
+    @Test
+    void blankLinesComeBackAsOneEmptyField() throws IOException {
+        assertThat(readAll("a\n\nb\n")).containsExactly(List.of("a"), List.of(""), List.of("b"));
+    }
+
+    @Test
+    void unterminatedQuoteFailsWithItsStartingLine() throws IOException {
+        try (CsvReader csv = reader("a,b\n1,\"never closed\n2,3\n")) {
+            csv.next();
+            assertThatThrownBy(csv::next)
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("line 2");
+        }
+    }
+
+    @Test
+    void overlongFieldFails() throws IOException {
+        try (CsvReader csv = reader("\"" + "x".repeat(10_001) + "\"\n")) {
+            assertThatThrownBy(csv::next).isInstanceOf(IOException.class).hasMessageContaining("10000");
+        }
+    }
+
+    @Test
+    void recordsSpanningTheReadBufferStayIntact() throws IOException {
+        String description = "y".repeat(9_000);
+        assertThat(readAll("\"" + description + "\",1\nz,2\n")).containsExactly(
+                List.of(description, "1"), List.of("z", "2"));
+    }
+
+    private static CsvReader reader(String content) {
+        return new CsvReader(new StringReader(content), ',');
+    }
+
+    private static List<List<String>> readAll(String content) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        try (CsvReader csv = reader(content)) {
+            for (List<String> record = csv.next(); record != null; record = csv.next()) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+}